@@ -0,0 +1,64 @@
+package com.clearview.backend.analytics;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.analytics.dto.YearOverYearDto;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs/revenue")
+public class RevenueAnalyticsController {
+
+    private final RevenueAnalyticsService analyticsService;
+    private final UserRepository userRepository;
+
+    public RevenueAnalyticsController(RevenueAnalyticsService analyticsService, UserRepository userRepository) {
+        this.analyticsService = analyticsService;
+        this.userRepository = userRepository;
+    }
+
+    // === Revenue grouped by week, month, year, service or customer ===
+    @GetMapping("/breakdown")
+    public List<RevenueBucketDto> getBreakdown(
+            @RequestParam(defaultValue = "month") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Boolean paid,
+            @RequestParam(required = false) String service,
+            Principal principal) {
+        User user = currentUser(principal);
+        return analyticsService.getBreakdown(
+                user.getId(),
+                RevenueGroupBy.valueOf(groupBy.toUpperCase()),
+                new RevenueFilter(from, to, paid, service));
+    }
+
+    // === Top-N customers by total revenue ===
+    @GetMapping("/top-customers")
+    public List<RevenueBucketDto> getTopCustomers(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Principal principal) {
+        User user = currentUser(principal);
+        return analyticsService.getTopCustomers(user.getId(), new RevenueFilter(from, to, null, null), limit);
+    }
+
+    // === Month-by-month comparison against the previous year ===
+    @GetMapping("/yoy")
+    public List<YearOverYearDto> getYearOverYear(@RequestParam(required = false) Integer year, Principal principal) {
+        User user = currentUser(principal);
+        return analyticsService.getYearOverYear(user.getId(), year != null ? year : LocalDate.now().getYear());
+    }
+
+    private User currentUser(Principal principal) {
+        return userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.clearview.backend.analytics;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.analytics.dto.YearOverYearDto;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.dto.JobFact;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class RevenueAnalyticsService {
+
+    private final JobRepository jobRepository;
+    private final JobArchive jobArchive;
+    private final Duration idleTtl;
+    private final Map<Long, RevenueSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public RevenueAnalyticsService(JobRepository jobRepository, JobArchive jobArchive,
+            @Value("${clearview.analytics.idle-ttl:PT30M}") Duration idleTtl) {
+        this.jobRepository = jobRepository;
+        this.jobArchive = jobArchive;
+        this.idleTtl = idleTtl;
+    }
+
+    public List<RevenueBucketDto> getBreakdown(Long userId, RevenueGroupBy groupBy, RevenueFilter filter) {
+        return snapshotFor(userId).aggregate(groupBy, filter);
+    }
+
+    public List<RevenueBucketDto> getTopCustomers(Long userId, RevenueFilter filter, int limit) {
+        List<RevenueBucketDto> customers = snapshotFor(userId).aggregate(RevenueGroupBy.CUSTOMER, filter);
+        return customers.subList(0, Math.min(Math.max(limit, 0), customers.size()));
+    }
+
+    public List<YearOverYearDto> getYearOverYear(Long userId, int year) {
+        RevenueFilter filter = new RevenueFilter(
+                LocalDate.of(year - 1, 1, 1), LocalDate.of(year, 12, 31), null, null);
+
+        Map<String, Double> totals = new HashMap<>();
+        for (RevenueBucketDto bucket : snapshotFor(userId).aggregate(RevenueGroupBy.MONTH, filter)) {
+            totals.put(bucket.key(), bucket.total());
+        }
+
+        List<YearOverYearDto> result = new ArrayList<>(12);
+        for (int month = 1; month <= 12; month++) {
+            String key = String.format("%04d-%02d", year, month);
+            double current = totals.getOrDefault(key, 0.0);
+            double previous = totals.getOrDefault(String.format("%04d-%02d", year - 1, month), 0.0);
+            Double change = previous != 0.0 ? (current - previous) * 100.0 / previous : null;
+            result.add(new YearOverYearDto(key, current, previous, change));
+        }
+        return result;
+    }
+
+    // === Write hooks: keep already-built snapshots current without a rebuild ===
+
+    public void onJobSaved(Job job) {
+        if (job == null || job.getId() == null || job.getCreatedBy() == null) {
+            return;
+        }
+        JobFact fact = new JobFact(
+                job.getId(),
+                job.getJobDate(),
+                job.getPrice(),
+                job.getService(),
+                job.getCustomer() != null ? job.getCustomer().getId() : null,
+                job.getCustomer() != null ? job.getCustomer().getName() : job.getCustomerName(),
+                job.isPaid());
+        snapshots.computeIfPresent(job.getCreatedBy().getId(), (userId, snapshot) -> {
+            snapshot.upsert(fact);
+            return snapshot;
+        });
+    }
+
+    public void onJobDeleted(Long userId, Long jobId) {
+        if (userId == null || jobId == null) {
+            return;
+        }
+        snapshots.computeIfPresent(userId, (key, snapshot) -> {
+            snapshot.remove(jobId);
+            return snapshot;
+        });
+    }
+
+    // Inside a transaction a concurrent read can rebuild the snapshot from rows that are not committed yet,
+    // so drop it again once the commit is visible
+    public void invalidate(Long userId) {
+        snapshots.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.remove(userId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.analytics.evict-interval-ms:60000}")
+    public void evictIdleSnapshots() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        snapshots.entrySet().removeIf(entry -> entry.getValue().getLastAccessMillis() <= cutoff);
+    }
+
+    int cachedSnapshotCount() {
+        return snapshots.size();
+    }
+
+    private RevenueSnapshot snapshotFor(Long userId) {
+        // Built under the map's per-key lock so writes for this user wait for the build
+        RevenueSnapshot snapshot = snapshots.computeIfAbsent(userId,
+                key -> RevenueSnapshot.build(jobRepository.findRevenueFactsByUserId(key),
+                        jobArchive.getRevenueRollups(key)));
+        snapshot.touch();
+        return snapshot;
+    }
+}
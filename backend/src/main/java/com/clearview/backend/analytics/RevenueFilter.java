@@ -0,0 +1,14 @@
+package com.clearview.backend.analytics;
+
+import java.time.LocalDate;
+
+public record RevenueFilter(
+    LocalDate from,
+    LocalDate to,
+    Boolean paid,
+    String service
+) {
+    public static RevenueFilter none() {
+        return new RevenueFilter(null, null, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.clearview.backend.analytics;
+
+public enum RevenueGroupBy {
+    WEEK,
+    MONTH,
+    YEAR,
+    SERVICE,
+    CUSTOMER
+}
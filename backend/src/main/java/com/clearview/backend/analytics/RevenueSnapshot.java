@@ -0,0 +1,420 @@
+package com.clearview.backend.analytics;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.job.dto.JobFact;
+import com.clearview.backend.job.dto.RevenueRollup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar, per-user copy of the job facts that revenue reports need.
+ * Each job is one row across a set of primitive arrays; strings (service,
+ * customer) are dictionary-encoded so scans only touch ints and longs.
+ * Archived jobs arrive as rollup rows that stand for several paid jobs
+ * and are never updated.
+ */
+class RevenueSnapshot {
+
+    static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int CHUNK_SIZE = 16_384;
+    private static final int INITIAL_CAPACITY = 64;
+    // Wider date spans (stray dates far in the past or future) index only the groups that occur
+    static final int MAX_DENSE_GROUPS = 4_096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] months = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private int[] serviceIds = new int[INITIAL_CAPACITY];
+    private int[] customerIds = new int[INITIAL_CAPACITY];
+    private int[] jobCounts = new int[INITIAL_CAPACITY];
+    private final BitSet paid = new BitSet();
+    private final BitSet live = new BitSet();
+    private int size;
+
+    private int minEpochDay = Integer.MAX_VALUE;
+    private int maxEpochDay = Integer.MIN_VALUE;
+
+    private final Map<Long, Integer> rowByJobId = new HashMap<>();
+    private final Map<String, Integer> serviceIndex = new HashMap<>();
+    private final List<String> services = new ArrayList<>();
+    private final Map<String, Integer> customerIndex = new HashMap<>();
+    private final List<String> customerLabels = new ArrayList<>();
+
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    static RevenueSnapshot build(List<JobFact> facts) {
+        return build(facts, List.of());
+    }
+
+    static RevenueSnapshot build(List<JobFact> facts, List<RevenueRollup> rollups) {
+        RevenueSnapshot snapshot = new RevenueSnapshot();
+        for (RevenueRollup rollup : rollups) {
+            snapshot.appendRollup(rollup);
+        }
+        for (JobFact fact : facts) {
+            snapshot.upsertLocked(fact);
+        }
+        return snapshot;
+    }
+
+    void upsert(JobFact fact) {
+        lock.writeLock().lock();
+        try {
+            upsertLocked(fact);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long jobId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowByJobId.remove(jobId);
+            if (row != null) {
+                live.clear(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    int liveRows() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<RevenueBucketDto> aggregate(RevenueGroupBy groupBy, RevenueFilter filter) {
+        lock.readLock().lock();
+        try {
+            return aggregateLocked(groupBy, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // === Writes (caller holds the write lock, or owns the snapshot) ===
+
+    private void upsertLocked(JobFact fact) {
+        if (fact.id() == null) {
+            return;
+        }
+        int epochDay = parseEpochDay(fact.jobDate());
+        Integer existing = rowByJobId.get(fact.id());
+
+        if (epochDay == Integer.MIN_VALUE) {
+            // Undated jobs can't be bucketed; drop any previous version of the row
+            if (existing != null) {
+                rowByJobId.remove(fact.id());
+                live.clear(existing);
+            }
+            return;
+        }
+
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowByJobId.put(fact.id(), row);
+        }
+
+        setRow(row, epochDay, fact.price() != null ? Math.round(fact.price() * 100) : 0L, 1,
+                serviceId(fact.service()), customerId(fact.customerId(), fact.customerName()), fact.paid());
+    }
+
+    private void appendRollup(RevenueRollup rollup) {
+        int epochDay = parseEpochDay(rollup.jobDate());
+        if (epochDay == Integer.MIN_VALUE || rollup.jobs() == null || rollup.jobs() <= 0) {
+            return;
+        }
+        ensureCapacity(size + 1);
+        int row = size++;
+        setRow(row, epochDay, rollup.priceCents() != null ? rollup.priceCents() : 0L,
+                (int) Math.min(rollup.jobs(), Integer.MAX_VALUE),
+                serviceId(rollup.service()), customerId(rollup.customerId(), rollup.customerName()), true);
+    }
+
+    private void setRow(int row, int epochDay, long cents, int jobs, int serviceId, int customerId, boolean isPaid) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        epochDays[row] = epochDay;
+        months[row] = date.getYear() * 12 + date.getMonthValue() - 1;
+        priceCents[row] = cents;
+        jobCounts[row] = jobs;
+        serviceIds[row] = serviceId;
+        customerIds[row] = customerId;
+        paid.set(row, isPaid);
+        live.set(row);
+
+        minEpochDay = Math.min(minEpochDay, epochDay);
+        maxEpochDay = Math.max(maxEpochDay, epochDay);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= epochDays.length) {
+            return;
+        }
+        int capacity = Math.max(required, epochDays.length * 2);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        months = Arrays.copyOf(months, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        serviceIds = Arrays.copyOf(serviceIds, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        jobCounts = Arrays.copyOf(jobCounts, capacity);
+    }
+
+    private int serviceId(String service) {
+        String name = service != null ? service : "";
+        return serviceIndex.computeIfAbsent(name, key -> {
+            services.add(key);
+            return services.size() - 1;
+        });
+    }
+
+    private int customerId(Long customerId, String customerName) {
+        String key;
+        String label;
+        if (customerId != null) {
+            key = "c:" + customerId;
+            label = customerName != null ? customerName : "Customer #" + customerId;
+        } else {
+            String name = customerName != null ? customerName.trim() : "";
+            key = "n:" + name.toLowerCase();
+            label = name;
+        }
+
+        Integer id = customerIndex.get(key);
+        if (id == null) {
+            customerLabels.add(label);
+            id = customerLabels.size() - 1;
+            customerIndex.put(key, id);
+        } else if (customerId != null && customerName != null) {
+            // Linked customers may have been renamed since the row was first seen
+            customerLabels.set(id, label);
+        }
+        return id;
+    }
+
+    private static int parseEpochDay(String jobDate) {
+        if (jobDate == null || jobDate.length() < 10) {
+            return Integer.MIN_VALUE;
+        }
+        try {
+            return (int) LocalDate.parse(jobDate.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    // === Scans (caller holds the read lock) ===
+
+    private List<RevenueBucketDto> aggregateLocked(RevenueGroupBy groupBy, RevenueFilter filter) {
+        if (live.isEmpty()) {
+            return List.of();
+        }
+
+        int fromDay = filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE;
+        int toDay = filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE;
+        int paidMode = filter.paid() == null ? -1 : (filter.paid() ? 1 : 0);
+        int serviceFilter = -1;
+        if (filter.service() != null) {
+            Integer id = serviceIndex.get(filter.service());
+            if (id == null) {
+                return List.of();
+            }
+            serviceFilter = id;
+        }
+
+        int base = 0;
+        int width;
+        int[] keys = null;
+        if (groupBy == RevenueGroupBy.SERVICE) {
+            width = services.size();
+        } else if (groupBy == RevenueGroupBy.CUSTOMER) {
+            width = customerLabels.size();
+        } else {
+            int firstDay = Math.max(minEpochDay, fromDay);
+            int lastDay = Math.min(maxEpochDay, toDay);
+            if (firstDay > lastDay) {
+                return List.of();
+            }
+            base = groupKey(groupBy, firstDay, monthOf(firstDay));
+            width = groupKey(groupBy, lastDay, monthOf(lastDay)) - base + 1;
+            if (width > MAX_DENSE_GROUPS) {
+                keys = presentKeys(groupBy, fromDay, toDay);
+                width = keys.length;
+            }
+        }
+
+        Scan scan = new Scan(groupBy, base, keys, width, fromDay, toDay, paidMode, serviceFilter);
+        Partial result;
+        if (size >= PARALLEL_THRESHOLD) {
+            int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            result = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> scan.run(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)))
+                    .reduce(Partial::merge)
+                    .orElseGet(() -> new Partial(scan.width));
+        } else {
+            result = scan.run(0, size);
+        }
+
+        List<RevenueBucketDto> buckets = new ArrayList<>();
+        for (int group = 0; group < width; group++) {
+            if (result.jobs[group] == 0) {
+                continue;
+            }
+            double paidTotal = result.paidCents[group] / 100.0;
+            double unpaidTotal = result.unpaidCents[group] / 100.0;
+            buckets.add(new RevenueBucketDto(
+                    label(groupBy, keys != null ? keys[group] : base + group),
+                    paidTotal,
+                    unpaidTotal,
+                    (result.paidCents[group] + result.unpaidCents[group]) / 100.0,
+                    result.jobs[group]));
+        }
+
+        if (groupBy == RevenueGroupBy.SERVICE || groupBy == RevenueGroupBy.CUSTOMER) {
+            buckets.sort(Comparator.comparingDouble(RevenueBucketDto::total).reversed());
+        }
+        return buckets;
+    }
+
+    // Sorted distinct time-group keys of the live rows in [fromDay, toDay]
+    private int[] presentKeys(RevenueGroupBy groupBy, int fromDay, int toDay) {
+        return live.stream()
+                .filter(row -> epochDays[row] >= fromDay && epochDays[row] <= toDay)
+                .map(row -> groupKey(groupBy, epochDays[row], months[row]))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static int groupKey(RevenueGroupBy groupBy, int epochDay, int month) {
+        return switch (groupBy) {
+            // 1970-01-01 was a Thursday, so shifting by 3 days makes weeks start on Monday
+            case WEEK -> Math.floorDiv(epochDay + 3, 7);
+            case MONTH -> month;
+            case YEAR -> Math.floorDiv(month, 12);
+            default -> 0;
+        };
+    }
+
+    private String label(RevenueGroupBy groupBy, int key) {
+        return switch (groupBy) {
+            case WEEK -> LocalDate.ofEpochDay(key * 7L - 3).toString();
+            case MONTH -> String.format("%04d-%02d", Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1);
+            case YEAR -> String.valueOf(key);
+            case SERVICE -> services.get(key);
+            case CUSTOMER -> customerLabels.get(key);
+        };
+    }
+
+    private final class Scan {
+        private final RevenueGroupBy groupBy;
+        private final int base;
+        private final int[] keys;
+        private final int width;
+        private final int fromDay;
+        private final int toDay;
+        private final int paidMode;
+        private final int serviceFilter;
+
+        // keys, when set, lists the time groups in use and replaces the dense base..base+width range
+        Scan(RevenueGroupBy groupBy, int base, int[] keys, int width, int fromDay, int toDay, int paidMode,
+                int serviceFilter) {
+            this.groupBy = groupBy;
+            this.base = base;
+            this.keys = keys;
+            this.width = width;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.paidMode = paidMode;
+            this.serviceFilter = serviceFilter;
+        }
+
+        Partial run(int fromRow, int toRow) {
+            Partial partial = new Partial(width);
+            for (int row = live.nextSetBit(fromRow); row >= 0 && row < toRow; row = live.nextSetBit(row + 1)) {
+                int day = epochDays[row];
+                if (day < fromDay || day > toDay) {
+                    continue;
+                }
+                boolean isPaid = paid.get(row);
+                if (paidMode >= 0 && isPaid != (paidMode == 1)) {
+                    continue;
+                }
+                if (serviceFilter >= 0 && serviceIds[row] != serviceFilter) {
+                    continue;
+                }
+
+                int group = switch (groupBy) {
+                    case SERVICE -> serviceIds[row];
+                    case CUSTOMER -> customerIds[row];
+                    default -> keys != null
+                            ? Arrays.binarySearch(keys, groupKey(groupBy, day, months[row]))
+                            : groupKey(groupBy, day, months[row]) - base;
+                };
+
+                if (isPaid) {
+                    partial.paidCents[group] += priceCents[row];
+                } else {
+                    partial.unpaidCents[group] += priceCents[row];
+                }
+                partial.jobs[group] += jobCounts[row];
+            }
+            return partial;
+        }
+    }
+
+    private static final class Partial {
+        private final long[] paidCents;
+        private final long[] unpaidCents;
+        private final long[] jobs;
+
+        Partial(int width) {
+            this.paidCents = new long[width];
+            this.unpaidCents = new long[width];
+            this.jobs = new long[width];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < jobs.length; i++) {
+                paidCents[i] += other.paidCents[i];
+                unpaidCents[i] += other.unpaidCents[i];
+                jobs[i] += other.jobs[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.clearview.backend.analytics.dto;
+
+public record RevenueBucketDto(
+    String key,
+    double paid,
+    double unpaid,
+    double total,
+    long jobs
+) {
+}
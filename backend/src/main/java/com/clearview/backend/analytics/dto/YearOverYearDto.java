@@ -0,0 +1,9 @@
+package com.clearview.backend.analytics.dto;
+
+public record YearOverYearDto(
+    String month,
+    double current,
+    double previous,
+    Double changePercent
+) {
+}
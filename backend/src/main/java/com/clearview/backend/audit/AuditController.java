@@ -0,0 +1,40 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.audit.dto.AuditPage;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+    private final UserRepository userRepository;
+
+    public AuditController(AuditService auditService, UserRepository userRepository) {
+        this.auditService = auditService;
+        this.userRepository = userRepository;
+    }
+
+    // === Audit trail, newest first (keyset paged); optionally one entity and/or a time window ===
+    @GetMapping
+    public ResponseEntity<AuditPage> getEntries(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(auditService.getEntries(user.getId(), entityType, entityId, from, to, cursor, limit));
+    }
+}
@@ -0,0 +1,11 @@
+package com.clearview.backend.audit;
+
+// How much an audit entry survives (clearview.audit.durability)
+public enum AuditDurability {
+    // Queued after commit; entries still queued are lost if the process dies
+    ASYNC,
+    // Also appended to a local segment file after commit and replayed on restart
+    WAL,
+    // Inserted by the transaction that made the change, just before it commits
+    OUTBOX
+}
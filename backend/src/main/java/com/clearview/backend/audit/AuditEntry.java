@@ -0,0 +1,84 @@
+package com.clearview.backend.audit;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+// Append-only record of who changed which job or customer, and when; rows are written by AuditWriter
+@Entity
+@Table(name = "audit_log",
+        uniqueConstraints = @UniqueConstraint(name = "uk_audit_log_entry", columnNames = "entry_id"),
+        indexes = {
+                @Index(name = "idx_audit_user_entity_time", columnList = "user_id, entity_type, entity_id, occurred_at"),
+                @Index(name = "idx_audit_user_time", columnList = "user_id, occurred_at")
+        })
+public class AuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Assigned when the change happens, so replaying a write-ahead segment can't insert it twice
+    @Column(name = "entry_id", nullable = false)
+    private UUID entryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String action;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Epoch millis
+    @Column(name = "occurred_at", nullable = false)
+    private long occurredAt;
+
+    public AuditEntry() {
+    }
+
+    public AuditEntry(UUID entryId, Long userId, String action, String entityType, Long entityId, long occurredAt) {
+        this.entryId = entryId;
+        this.userId = userId;
+        this.action = action;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getEntryId() {
+        return entryId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public long getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.clearview.backend.audit;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface AuditEntryRepository extends JpaRepository<AuditEntry, Long> {
+
+    // Keyset pages, newest first: (occurredAt, id) strictly before the cursor, within [from, to)
+    @Query("SELECT a FROM AuditEntry a " +
+            "WHERE a.userId = :userId AND a.entityType = :entityType AND a.entityId = :entityId " +
+            "AND a.occurredAt >= :from AND a.occurredAt < :to " +
+            "AND (a.occurredAt < :beforeTime OR (a.occurredAt = :beforeTime AND a.id < :beforeId)) " +
+            "ORDER BY a.occurredAt DESC, a.id DESC")
+    List<AuditEntry> findEntityPage(Long userId, String entityType, Long entityId, long from, long to,
+            long beforeTime, long beforeId, Pageable pageable);
+
+    @Query("SELECT a FROM AuditEntry a " +
+            "WHERE a.userId = :userId " +
+            "AND a.occurredAt >= :from AND a.occurredAt < :to " +
+            "AND (a.occurredAt < :beforeTime OR (a.occurredAt = :beforeTime AND a.id < :beforeId)) " +
+            "ORDER BY a.occurredAt DESC, a.id DESC")
+    List<AuditEntry> findPage(Long userId, long from, long to, long beforeTime, long beforeId, Pageable pageable);
+}
@@ -0,0 +1,207 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.events.ChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every ChangeEvent without adding a database write to the request.
+ * Entries are collected per transaction and handed over only if it commits:
+ * to the lock-free queue (async, wal) or inserted just before the commit
+ * (outbox). A scheduled writer drains the queue in JDBC batches.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private final AuditWriter writer;
+    private final AuditDurability durability;
+    private final AuditQueue queue;
+    private final AuditWriteAheadLog wal;
+    private final int batchSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Guarded by wal
+    private boolean walOverflowed;
+    // Only touched by flush(); segments left by a previous run start out unreplayed
+    private boolean replayWal = true;
+
+    public AuditLog(AuditWriter writer,
+            @Value("${clearview.audit.durability:async}") String durability,
+            @Value("${clearview.audit.queue-capacity:100000}") int queueCapacity,
+            @Value("${clearview.audit.batch-size:500}") int batchSize,
+            @Value("${clearview.audit.wal-dir:${clearview.storage.dir:./data}/audit-wal}") String walDir,
+            @Value("${clearview.audit.wal-fsync:false}") boolean walFsync) throws IOException {
+        this.writer = writer;
+        this.durability = AuditDurability.valueOf(durability.trim().toUpperCase());
+        this.queue = new AuditQueue(queueCapacity);
+        this.batchSize = batchSize;
+        this.wal = this.durability == AuditDurability.WAL ? new AuditWriteAheadLog(Path.of(walDir), walFsync) : null;
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        AuditRecord record = AuditRecord.of(event, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionBuffer().add(record);
+        } else if (durability == AuditDurability.OUTBOX) {
+            // The change was auto-committed; write its entry straight away
+            writer.insert(List.of(record));
+        } else {
+            accept(List.of(record));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.audit.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Path> sealed = List.of();
+        boolean replay = false;
+        try {
+            if (wal != null) {
+                synchronized (wal) {
+                    sealed = wal.rotate();
+                    replay = replayWal || walOverflowed;
+                    walOverflowed = false;
+                }
+                // Entries that never made it into the queue are only in the segments
+                if (replay) {
+                    for (Path segment : sealed) {
+                        insertInBatches(wal.read(segment));
+                    }
+                }
+            }
+
+            drainQueue();
+
+            if (wal != null) {
+                for (Path segment : sealed) {
+                    wal.delete(segment);
+                }
+                replayWal = false;
+            }
+        } catch (IOException | RuntimeException e) {
+            replayWal = true;
+            log.warn("Audit flush failed, {} entries still queued", queue.size(), e);
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("Audit queue full, dropped {} entries", lost);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        if (wal != null) {
+            synchronized (wal) {
+                wal.close();
+            }
+        }
+    }
+
+    int queuedEntries() {
+        return queue.size();
+    }
+
+    private List<AuditRecord> transactionBuffer() {
+        @SuppressWarnings("unchecked")
+        List<AuditRecord> buffer = (List<AuditRecord>) TransactionSynchronizationManager.getResource(this);
+        if (buffer != null) {
+            return buffer;
+        }
+
+        List<AuditRecord> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (durability == AuditDurability.OUTBOX) {
+                    writer.insert(created);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (durability != AuditDurability.OUTBOX) {
+                    accept(created);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditLog.this);
+            }
+        });
+        return created;
+    }
+
+    private void accept(List<AuditRecord> records) {
+        if (wal == null) {
+            for (AuditRecord record : records) {
+                if (!queue.offer(record)) {
+                    dropped.incrementAndGet();
+                }
+            }
+            return;
+        }
+
+        synchronized (wal) {
+            try {
+                wal.append(records);
+            } catch (IOException e) {
+                // The transaction has already committed; keep the entries in memory at least
+                log.warn("Could not append {} entries to the audit write-ahead log", records.size(), e);
+            }
+            for (AuditRecord record : records) {
+                if (!queue.offer(record)) {
+                    // Still on disk: the next flush replays the segment instead
+                    walOverflowed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void drainQueue() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        int remaining = queue.size();
+        while (remaining > 0 && queue.drainTo(batch, batchSize) > 0) {
+            try {
+                writer.insert(batch);
+            } catch (RuntimeException e) {
+                if (wal == null) {
+                    // Put the batch back for the next attempt; what doesn't fit is dropped
+                    batch.forEach(record -> {
+                        if (!queue.offer(record)) {
+                            dropped.incrementAndGet();
+                        }
+                    });
+                }
+                throw e;
+            }
+            remaining -= batch.size();
+            batch.clear();
+        }
+    }
+
+    private void insertInBatches(List<AuditRecord> records) {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            writer.insert(records.subList(from, Math.min(records.size(), from + batchSize)));
+        }
+    }
+}
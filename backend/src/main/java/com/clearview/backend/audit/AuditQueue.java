@@ -0,0 +1,49 @@
+package com.clearview.backend.audit;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded multi-producer queue without locks: a ConcurrentLinkedQueue plus
+ * a CAS-maintained size, so a full queue rejects instead of blocking the
+ * request thread.
+ */
+final class AuditQueue {
+
+    private final Queue<AuditRecord> items = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    AuditQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean offer(AuditRecord record) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        items.offer(record);
+        return true;
+    }
+
+    int drainTo(List<AuditRecord> target, int max) {
+        int drained = 0;
+        AuditRecord record;
+        while (drained < max && (record = items.poll()) != null) {
+            target.add(record);
+            drained++;
+        }
+        size.addAndGet(-drained);
+        return drained;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
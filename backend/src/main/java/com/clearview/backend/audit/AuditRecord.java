@@ -0,0 +1,35 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.events.ChangeEvent;
+
+import java.util.UUID;
+
+// In-memory (and write-ahead file) form of an audit row
+record AuditRecord(
+    UUID entryId,
+    Long userId,
+    String action,
+    String entityType,
+    Long entityId,
+    long occurredAt
+) {
+
+    static AuditRecord of(ChangeEvent event, long occurredAt) {
+        String action = event.type().getWireName();
+        return new AuditRecord(UUID.randomUUID(), event.userId(), action,
+                action.substring(0, action.indexOf('.')), event.id(), occurredAt);
+    }
+
+    String toLine() {
+        return entryId + "\t" + userId + "\t" + action + "\t" + entityType + "\t" + entityId + "\t" + occurredAt;
+    }
+
+    static AuditRecord parse(String line) {
+        String[] parts = line.split("\t");
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Malformed audit line");
+        }
+        return new AuditRecord(UUID.fromString(parts[0]), Long.parseLong(parts[1]), parts[2], parts[3],
+                Long.parseLong(parts[4]), Long.parseLong(parts[5]));
+    }
+}
@@ -0,0 +1,66 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.audit.dto.AuditEntryDto;
+import com.clearview.backend.audit.dto.AuditPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+public class AuditService {
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final AuditEntryRepository auditEntryRepository;
+
+    public AuditService(AuditEntryRepository auditEntryRepository) {
+        this.auditEntryRepository = auditEntryRepository;
+    }
+
+    // Newest first; pass entityType and entityId together to see one job's or customer's history
+    public AuditPage getEntries(Long userId, String entityType, Long entityId, Instant from, Instant to,
+            String cursor, int limit) {
+        if ((entityType == null) != (entityId == null)) {
+            throw new RuntimeException("entityType and entityId must be given together");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long fromMillis = from != null ? from.toEpochMilli() : 0L;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        long[] before = decodeCursor(cursor);
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<AuditEntry> rows = entityType != null
+                ? auditEntryRepository.findEntityPage(userId, entityType, entityId, fromMillis, toMillis,
+                        before[0], before[1], page)
+                : auditEntryRepository.findPage(userId, fromMillis, toMillis, before[0], before[1], page);
+
+        List<AuditEntryDto> entries = rows.stream().limit(size).map(AuditEntryDto::from).toList();
+        if (rows.size() <= size) {
+            return new AuditPage(entries, null);
+        }
+        AuditEntry last = rows.get(size - 1);
+        return new AuditPage(entries, encodeCursor(last.getOccurredAt(), last.getId()));
+    }
+
+    // Opaque "occurredAt|id" of the last entry on the previous page
+    static String encodeCursor(long occurredAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((occurredAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new long[] { Long.MAX_VALUE, Long.MAX_VALUE };
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = decoded.indexOf('|');
+            return new long[] { Long.parseLong(decoded.substring(0, split)), Long.parseLong(decoded.substring(split + 1)) };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.clearview.backend.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local segment files holding audit entries until they reach the database.
+ * Appends go to the open segment; each flush seals it and starts a new one,
+ * and sealed segments are deleted once their entries are stored. Segments
+ * still on disk at startup are replayed. Not thread-safe; AuditLog
+ * serializes access.
+ */
+final class AuditWriteAheadLog implements AutoCloseable {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path dir;
+    private final boolean fsync;
+    private long sequence;
+    private Path currentPath;
+    private FileChannel current;
+    private boolean dirty;
+
+    AuditWriteAheadLog(Path dir, boolean fsync) throws IOException {
+        this.dir = dir;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        this.sequence = segments().stream().mapToLong(AuditWriteAheadLog::sequenceOf).max().orElse(0);
+        open();
+    }
+
+    void append(List<AuditRecord> records) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (AuditRecord record : records) {
+            lines.append(record.toLine()).append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        if (fsync) {
+            current.force(false);
+        }
+        dirty = true;
+    }
+
+    // Seals the open segment (if anything was written to it) and returns every sealed segment, oldest first
+    List<Path> rotate() throws IOException {
+        if (dirty) {
+            current.close();
+            open();
+        }
+        return segments().stream().filter(path -> !path.equals(currentPath)).toList();
+    }
+
+    List<AuditRecord> read(Path segment) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+            try {
+                records.add(AuditRecord.parse(line));
+            } catch (IllegalArgumentException e) {
+                // A torn last line from a crash mid-append
+            }
+        }
+        return records;
+    }
+
+    void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        current.close();
+    }
+
+    private void open() throws IOException {
+        sequence++;
+        currentPath = dir.resolve(String.format("%s%019d%s", PREFIX, sequence, SUFFIX));
+        current = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        dirty = false;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.clearview.backend.audit;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// JDBC batch insert into audit_log; joins the caller's transaction when there is one (outbox mode)
+@Component
+public class AuditWriter {
+
+    static final String INSERT =
+            "INSERT INTO audit_log (entry_id, user_id, action, entity_type, entity_id, occurred_at) " +
+            "VALUES (:entryId, :userId, :action, :entityType, :entityId, :occurredAt) " +
+            "ON CONFLICT (entry_id) DO NOTHING";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AuditWriter(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Transactional
+    public void insert(List<AuditRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = new SqlParameterSource[records.size()];
+        for (int i = 0; i < batch.length; i++) {
+            AuditRecord record = records.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("entryId", record.entryId())
+                    .addValue("userId", record.userId())
+                    .addValue("action", record.action())
+                    .addValue("entityType", record.entityType())
+                    .addValue("entityId", record.entityId())
+                    .addValue("occurredAt", record.occurredAt());
+        }
+        jdbc.batchUpdate(INSERT, batch);
+    }
+}
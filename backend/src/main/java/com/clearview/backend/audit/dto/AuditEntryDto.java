@@ -0,0 +1,22 @@
+package com.clearview.backend.audit.dto;
+
+import com.clearview.backend.audit.AuditEntry;
+
+import java.time.Instant;
+
+public record AuditEntryDto(
+    Long id,
+    String action,
+    String entityType,
+    Long entityId,
+    Instant occurredAt
+) {
+    public static AuditEntryDto from(AuditEntry entry) {
+        return new AuditEntryDto(
+                entry.getId(),
+                entry.getAction(),
+                entry.getEntityType(),
+                entry.getEntityId(),
+                Instant.ofEpochMilli(entry.getOccurredAt()));
+    }
+}
@@ -0,0 +1,9 @@
+package com.clearview.backend.audit.dto;
+
+import java.util.List;
+
+public record AuditPage(
+    List<AuditEntryDto> entries,
+    String nextCursor
+) {
+}
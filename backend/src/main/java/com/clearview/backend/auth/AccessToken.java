@@ -0,0 +1,9 @@
+package com.clearview.backend.auth;
+
+// The claims JwtAuthenticationFilter needs from a verified access token
+public record AccessToken(
+    String username,
+    String jti,
+    long expiresAt
+) {
+}
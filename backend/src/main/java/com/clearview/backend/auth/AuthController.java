@@ -3,6 +3,8 @@ package com.clearview.backend.auth;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,15 +23,21 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenDenylist tokenDenylist;
 
     public AuthController(UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtUtil jwtUtil,
-            AuthenticationManager authenticationManager) {
+            AuthenticationManager authenticationManager,
+            RefreshTokenService refreshTokenService,
+            TokenDenylist tokenDenylist) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenDenylist = tokenDenylist;
     }
 
     @PostMapping("/register")
@@ -44,18 +52,56 @@ public class AuthController {
         return ResponseEntity.ok(Map.of("message", "User registered successfully"));
     }
 
+    // Returns an access token valid for clearview.auth.access-ttl; the refresh token goes in an HttpOnly cookie
     @PostMapping("/login")
-    public String login(@RequestParam String username, @RequestParam String password) {
+    public String login(@RequestParam String username, @RequestParam String password, HttpServletResponse response) {
         Authentication auth = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password));
 
         if (auth.isAuthenticated()) {
+            String refreshToken = refreshTokenService.issue(username);
+            response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenService.cookie(refreshToken).toString());
             return jwtUtil.generateToken(username);
         } else {
             return "Invalid credentials";
         }
     }
 
+    // === New access token for a valid refresh cookie; the refresh token is rotated ===
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refresh(
+            @CookieValue(name = RefreshTokenService.COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+        return refreshTokenService.rotate(refreshToken)
+                .map(rotation -> ResponseEntity.ok()
+                        .header(HttpHeaders.SET_COOKIE, refreshTokenService.cookie(rotation.refreshToken()).toString())
+                        .body(jwtUtil.generateToken(rotation.username())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .header(HttpHeaders.SET_COOKIE, refreshTokenService.clearedCookie().toString())
+                        .body("Invalid refresh token"));
+    }
+
+    // === Revoke the presented access token and refresh cookie ===
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @CookieValue(name = RefreshTokenService.COOKIE, required = false) String refreshToken) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            AccessToken accessToken = jwtUtil.parse(authHeader.substring(7));
+            if (accessToken != null) {
+                tokenDenylist.revoke(accessToken.jti(), accessToken.expiresAt());
+            }
+        }
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, refreshTokenService.clearedCookie().toString())
+                .build();
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> me(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
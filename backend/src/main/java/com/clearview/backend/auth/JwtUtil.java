@@ -1,36 +1,53 @@
 package com.clearview.backend.auth;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final long expirationMs = 86400000; // 1 day
+    private final SigningKeyRing keyRing;
+    // Thread-safe; looks the verification key up by the token's kid
+    private final JwtParser parser;
+    // One day, as before refresh tokens existed: the web app has no refresh flow yet, so a shorter TTL
+    // would sign its users out. Logout still revokes the token through the denylist.
+    private final long expirationMs;
+
+    public JwtUtil(SigningKeyRing keyRing, @Value("${clearview.auth.access-ttl:P1D}") Duration accessTtl) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build();
+        this.expirationMs = accessTtl.toMillis();
+    }
 
     public String generateToken(String username) {
+        long now = System.currentTimeMillis();
+        SigningKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(key)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMs))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String validateAndExtractUsername(String token) {
+    // null if the token is malformed, forged or expired
+    public AccessToken parse(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new AccessToken(claims.getSubject(), claims.getId(), claims.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
+
+    public String validateAndExtractUsername(String token) {
+        AccessToken parsed = parse(token);
+        return parsed != null ? parsed.username() : null;
+    }
 }
@@ -0,0 +1,68 @@
+package com.clearview.backend.auth;
+
+import jakarta.persistence.*;
+
+// Only the SHA-256 of the token is stored; the token itself lives in the client's HttpOnly cookie
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Epoch millis
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    // Every token rotated from the same login shares one family
+    @Column(name = "family_id", nullable = false, length = 64)
+    private String familyId;
+
+    // Epoch millis when this token was exchanged; the row is kept until expiry so a replay can be recognised
+    @Column(name = "used_at")
+    private Long usedAt;
+
+    public RefreshToken() {
+    }
+
+    public RefreshToken(Long userId, String tokenHash, String familyId, long expiresAt) {
+        this.userId = userId;
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public Long getUsedAt() {
+        return usedAt;
+    }
+}
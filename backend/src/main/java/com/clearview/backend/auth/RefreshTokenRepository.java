@@ -0,0 +1,32 @@
+package com.clearview.backend.auth;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // 0 if the token was already exchanged, including by a concurrent refresh that got there first
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now WHERE r.tokenHash = :tokenHash AND r.usedAt IS NULL")
+    int markUsed(String tokenHash, long now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = :familyId")
+    int deleteFamily(String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = " +
+            "(SELECT t.familyId FROM RefreshToken t WHERE t.tokenHash = :tokenHash)")
+    int deleteFamilyOf(String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(long now);
+}
@@ -0,0 +1,115 @@
+package com.clearview.backend.auth;
+
+import com.clearview.backend.storage.ContentStore;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+// Long-lived, single-use refresh tokens: each refresh spends the presented token and issues the next one in
+// its family. Presenting a spent token means it was copied, so the whole family is revoked.
+@Service
+public class RefreshTokenService {
+
+    public static final String COOKIE = "refresh_token";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final boolean secureCookie;
+    private final String sameSite;
+    private final SecureRandom random = new SecureRandom();
+
+    public record Rotation(String username, String refreshToken) {
+    }
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            @Value("${clearview.auth.refresh-ttl:P30D}") Duration ttl,
+            @Value("${clearview.auth.refresh-cookie-secure:true}") boolean secureCookie,
+            @Value("${clearview.auth.refresh-cookie-same-site:Strict}") String sameSite) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.secureCookie = secureCookie;
+        this.sameSite = sameSite;
+    }
+
+    public String issue(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return issue(user.getId(), UUID.randomUUID().toString());
+    }
+
+    @Transactional
+    public Optional<Rotation> rotate(String refreshToken) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken token = stored.get();
+        long now = System.currentTimeMillis();
+        // Already spent (or spent by a concurrent request just now): the legitimate client and whoever
+        // copied the token can't be told apart, so neither keeps a session from this login
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getTokenHash(), now) == 0) {
+            refreshTokenRepository.deleteFamily(token.getFamilyId());
+            return Optional.empty();
+        }
+        if (token.getExpiresAt() <= now) {
+            return Optional.empty();
+        }
+        Long userId = token.getUserId();
+        return userRepository.findById(userId)
+                .map(user -> new Rotation(user.getUsername(), issue(userId, token.getFamilyId())));
+    }
+
+    // Logout ends every token rotated from the same login, not just the presented one
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.deleteFamilyOf(hash(refreshToken));
+    }
+
+    public ResponseCookie cookie(String refreshToken) {
+        return cookieBuilder(refreshToken).maxAge(ttl).build();
+    }
+
+    public ResponseCookie clearedCookie() {
+        return cookieBuilder("").maxAge(0).build();
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.auth.refresh-cleanup-ms:3600000}")
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(System.currentTimeMillis());
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(userId, hash(token), familyId,
+                System.currentTimeMillis() + ttl.toMillis()));
+        return token;
+    }
+
+    private ResponseCookie.ResponseCookieBuilder cookieBuilder(String value) {
+        return ResponseCookie.from(COOKIE, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite(sameSite)
+                .path("/api/auth");
+    }
+
+    private static String hash(String token) {
+        return ContentStore.sha256(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,50 @@
+package com.clearview.backend.auth;
+
+import jakarta.persistence.*;
+
+// A logged-out access token, kept until it would have expired anyway; every instance polls this table
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String jti;
+
+    // Epoch millis
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private long revokedAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, long expiresAt, long revokedAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public long getRevokedAt() {
+        return revokedAt;
+    }
+}
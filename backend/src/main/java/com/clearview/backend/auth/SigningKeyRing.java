@@ -0,0 +1,154 @@
+package com.clearview.backend.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * HMAC keys shared by every instance, addressed by the JWT "kid" header.
+ * Keys come from clearview.auth.signing-keys ("kid:base64,...") and/or a
+ * PKCS12 keystore whose secret-key aliases are the kids. One key signs
+ * (signing-kid, which must be set once there is more than one key); all of
+ * them verify, which gives rotation its overlap window. The keystore is re-read when it
+ * changes, so keys can be rotated without a restart.
+ */
+@Component
+public class SigningKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    public record SigningKey(String kid, Key key) {
+    }
+
+    private record Snapshot(SigningKey active, Map<String, Key> keys) {
+    }
+
+    private final String inlineKeys;
+    private final String signingKid;
+    private final Path keystore;
+    private final char[] keystorePassword;
+    private volatile Snapshot snapshot;
+    private volatile FileTime keystoreModified;
+
+    public SigningKeyRing(@Value("${clearview.auth.signing-keys:}") String inlineKeys,
+            @Value("${clearview.auth.signing-kid:}") String signingKid,
+            @Value("${clearview.auth.keystore:}") String keystore,
+            @Value("${clearview.auth.keystore-password:}") String keystorePassword) {
+        this.inlineKeys = inlineKeys.trim();
+        this.signingKid = signingKid.trim();
+        this.keystore = keystore.isBlank() ? null : Path.of(keystore.trim());
+        this.keystorePassword = keystorePassword.toCharArray();
+        try {
+            this.snapshot = load();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load JWT signing keys", e);
+        }
+    }
+
+    // kid and key are read together so a concurrent reload can't mix them
+    public SigningKey signingKey() {
+        return snapshot.active();
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        Key key = kid != null ? snapshot.keys().get(kid) : null;
+        if (key == null) {
+            throw new JwtException("Unknown signing key");
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.auth.keystore-reload-ms:60000}")
+    public void reloadIfChanged() {
+        if (keystore == null) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(keystore).equals(keystoreModified)) {
+                snapshot = load();
+                log.info("Reloaded JWT signing keys, signing with '{}'", snapshot.active().kid());
+            }
+        } catch (IOException | GeneralSecurityException | IllegalStateException e) {
+            // Keep signing with the keys we have
+            log.warn("Could not reload JWT signing keys from {}", keystore, e);
+        }
+    }
+
+    private Snapshot load() throws IOException, GeneralSecurityException {
+        TreeMap<String, Key> keys = new TreeMap<>();
+        if (!inlineKeys.isEmpty()) {
+            for (String entry : inlineKeys.split(",")) {
+                int split = entry.indexOf(':');
+                if (split <= 0) {
+                    throw new IllegalStateException("clearview.auth.signing-keys entries must be kid:base64");
+                }
+                keys.put(entry.substring(0, split).trim(),
+                        Keys.hmacShaKeyFor(Base64.getDecoder().decode(entry.substring(split + 1).trim())));
+            }
+        }
+        if (keystore != null) {
+            keystoreModified = Files.getLastModifiedTime(keystore);
+            keys.putAll(readKeystore());
+        }
+
+        if (keys.isEmpty()) {
+            log.warn("No JWT signing keys configured; using a random key, so tokens won't survive a restart "
+                    + "or validate on other instances");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            keys.put("ephemeral-" + UUID.randomUUID(), Keys.hmacShaKeyFor(secret));
+        }
+
+        if (signingKid.isEmpty() && keys.size() > 1) {
+            throw new IllegalStateException("clearview.auth.signing-kid must be set when more than one signing key "
+                    + "is configured " + keys.keySet());
+        }
+        String active = signingKid.isEmpty() ? keys.firstKey() : signingKid;
+        Key activeKey = keys.get(active);
+        if (activeKey == null) {
+            throw new IllegalStateException("clearview.auth.signing-kid '" + active + "' is not a configured key");
+        }
+        return new Snapshot(new SigningKey(active, activeKey), Collections.unmodifiableMap(keys));
+    }
+
+    private Map<String, Key> readKeystore() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keystore)) {
+            store.load(in, keystorePassword);
+        }
+        Map<String, Key> keys = new TreeMap<>();
+        Enumeration<String> aliases = store.aliases();
+        while (aliases.hasMoreElements()) {
+            String alias = aliases.nextElement();
+            if (store.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                keys.put(alias, Keys.hmacShaKeyFor(store.getKey(alias, keystorePassword).getEncoded()));
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,94 @@
+package com.clearview.backend.auth;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access-token ids, checked on every request without touching the
+ * database. A Bloom filter answers the common "not revoked" case; hits are
+ * confirmed against the exact jti → expiry map. Revocations are stored in
+ * revoked_tokens and picked up by every instance on the next poll. Entries
+ * are pruned once the token would have expired, and the filter is rebuilt
+ * at that point.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Re-read recent rows each poll so a slow-committing revocation on another instance isn't skipped
+    private static final long POLL_OVERLAP_MS = 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private long lastPollMillis = 0;
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+            @Value("${clearview.auth.denylist-expected-entries:100000}") int expectedEntries) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt <= now) {
+            return;
+        }
+        add(jti, expiresAt);
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            try {
+                revokedTokenRepository.save(new RevokedToken(jti, expiresAt, now));
+            } catch (DataIntegrityViolationException e) {
+                // Revoked concurrently by another request
+            }
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${clearview.auth.denylist-poll-ms:2000}")
+    public void poll() {
+        long now = System.currentTimeMillis();
+        long since = lastPollMillis == 0 ? 0 : lastPollMillis - POLL_OVERLAP_MS;
+        for (RevokedToken token : revokedTokenRepository.findRevokedSince(since, now)) {
+            if (!revoked.containsKey(token.getJti())) {
+                add(token.getJti(), token.getExpiresAt());
+            }
+        }
+        lastPollMillis = now;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.auth.denylist-prune-ms:600000}")
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    // Serialized with prune() so a rebuild can't miss an entry added while it runs
+    private synchronized void add(String jti, long expiresAt) {
+        revoked.put(jti, expiresAt);
+        filter.add(jti);
+    }
+}
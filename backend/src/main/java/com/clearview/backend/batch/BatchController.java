@@ -0,0 +1,26 @@
+package com.clearview.backend.batch;
+
+import com.clearview.backend.batch.dto.BatchRequest;
+import com.clearview.backend.batch.dto.BatchResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    private final BatchExecutor batchExecutor;
+
+    public BatchController(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    // === Several API calls in one round trip; responses come back in request order ===
+    @PostMapping
+    public ResponseEntity<BatchResponse> execute(@RequestBody BatchRequest request,
+            HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        return ResponseEntity.ok(new BatchResponse(batchExecutor.execute(request.requests(), httpRequest, httpResponse)));
+    }
+}
@@ -0,0 +1,256 @@
+package com.clearview.backend.batch;
+
+import com.clearview.backend.batch.dto.SubRequest;
+import com.clearview.backend.batch.dto.SubResponse;
+import com.clearview.backend.ratelimit.RateLimitFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a batch's sub-requests through DispatcherServlet in-process, so
+ * they hit the same controllers as separate calls would, but the JWT is
+ * checked once (by the batch request) and there is one round trip. They
+ * skip the filter chain, so each one is charged to the rate limiter here,
+ * in its own route group, and answered 429 when over.
+ * Reads before the first write run in parallel. From the first write on,
+ * everything runs in order in one transaction, so later reads see earlier
+ * writes, and a failed write rolls the whole group back.
+ */
+@Component
+public class BatchExecutor {
+
+    static final int MAX_SUB_REQUESTS = 20;
+    private static final int FAILED_DEPENDENCY = 424;
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    private final DispatcherServlet dispatcherServlet;
+    private final RateLimitFilter rateLimitFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchExecutor(DispatcherServlet dispatcherServlet, RateLimitFilter rateLimitFilter,
+            PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.rateLimitFilter = rateLimitFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    public List<SubResponse> execute(List<SubRequest> requests, HttpServletRequest batch, HttpServletResponse batchResponse) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_SUB_REQUESTS) {
+            throw new RuntimeException("Between 1 and " + MAX_SUB_REQUESTS + " requests are required");
+        }
+        requests.forEach(BatchExecutor::validate);
+
+        // Built here, on the batch's thread: each wrapper copies what it needs from the container's request
+        List<Prepared> prepared = new ArrayList<>(requests.size());
+        for (SubRequest request : requests) {
+            prepared.add(prepare(request, batch));
+        }
+
+        SubResponse[] results = new SubResponse[requests.size()];
+        int firstWrite = 0;
+        while (firstWrite < requests.size() && isRead(requests.get(firstWrite))) {
+            firstWrite++;
+        }
+
+        runReadsInParallel(requests.subList(0, firstWrite), prepared, batchResponse, results);
+        if (firstWrite < requests.size()) {
+            runInTransaction(requests, firstWrite, prepared, batchResponse, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readers.shutdownNow();
+    }
+
+    private void runReadsInParallel(List<SubRequest> reads, List<Prepared> prepared,
+            HttpServletResponse batchResponse, SubResponse[] results) {
+        // Principal lookups go through the security context, which is per thread
+        SecurityContext context = SecurityContextHolder.getContext();
+        List<Future<SubResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < reads.size(); i++) {
+            Prepared read = prepared.get(i);
+            futures.add(readers.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                try {
+                    return dispatch(read, batchResponse);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results[i] = futures.get(i).get();
+            } catch (ExecutionException e) {
+                results[i] = error(reads.get(i).id(), 500, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results[i] = error(reads.get(i).id(), 503, "Interrupted");
+            }
+        }
+    }
+
+    private void runInTransaction(List<SubRequest> requests, int from, List<Prepared> prepared,
+            HttpServletResponse batchResponse, SubResponse[] results) {
+        int[] failedAt = { -1 };
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < requests.size(); i++) {
+                    SubRequest request = requests.get(i);
+                    results[i] = dispatch(prepared.get(i), batchResponse);
+                    int code = results[i].status();
+                    // A thrown exception may already have marked the transaction rollback-only
+                    if (code >= 500 || (code >= 400 && !isRead(request))) {
+                        failedAt[0] = i;
+                        status.setRollbackOnly();
+                        return;
+                    }
+                }
+            });
+        } catch (TransactionException e) {
+            // Rollback-only was set by a service that threw inside the shared transaction
+            if (failedAt[0] < 0) {
+                failedAt[0] = firstFailure(results, from);
+            }
+        }
+
+        int failed = failedAt[0];
+        if (failed < 0) {
+            return;
+        }
+        String cause = failed < requests.size()
+                ? "request " + label(requests.get(failed), failed) + " failed"
+                : "the transaction could not be committed";
+        for (int i = from; i < requests.size(); i++) {
+            if (i < failed && !isRead(requests.get(i))) {
+                results[i] = error(requests.get(i).id(), FAILED_DEPENDENCY, "Rolled back: " + cause);
+            } else if (i > failed) {
+                results[i] = error(requests.get(i).id(), FAILED_DEPENDENCY, "Not run: " + cause);
+            }
+        }
+    }
+
+    private static int firstFailure(SubResponse[] results, int from) {
+        for (int i = from; i < results.length; i++) {
+            if (results[i] != null && results[i].status() >= 400) {
+                return i;
+            }
+        }
+        return results.length;
+    }
+
+    // A sub-request ready to dispatch, or the response it gets without running
+    private record Prepared(SubRequest request, SubRequestWrapper wrapper, SubResponse rejected) {
+    }
+
+    private Prepared prepare(SubRequest request, HttpServletRequest batch) {
+        byte[] body;
+        try {
+            body = request.body() == null || request.body().isNull()
+                    ? new byte[0]
+                    : objectMapper.writeValueAsBytes(request.body());
+        } catch (JsonProcessingException e) {
+            return new Prepared(request, null, error(request.id(), 400, "Invalid body"));
+        }
+        return new Prepared(request, new SubRequestWrapper(batch, request.method().toUpperCase(), request.path(),
+                request.headers(), body), null);
+    }
+
+    private SubResponse dispatch(Prepared prepared, HttpServletResponse batchResponse) {
+        if (prepared.rejected() != null) {
+            return prepared.rejected();
+        }
+        SubRequest request = prepared.request();
+        SubRequestWrapper subRequest = prepared.wrapper();
+        long waitNanos = rateLimitFilter.acquire(subRequest);
+        if (waitNanos > 0) {
+            return new SubResponse(request.id(), 429,
+                    Map.of(HttpHeaders.RETRY_AFTER, Long.toString(RateLimitFilter.retryAfterSeconds(waitNanos))),
+                    objectMapper.valueToTree(Map.of("error", "Too many requests")));
+        }
+
+        BufferedResponse subResponse = new BufferedResponse(batchResponse);
+        try {
+            dispatcherServlet.service(subRequest, subResponse);
+        } catch (ServletException | IOException | RuntimeException e) {
+            Throwable cause = e instanceof ServletException && e.getCause() != null ? e.getCause() : e;
+            return error(request.id(), 500, cause.getMessage());
+        }
+        return new SubResponse(request.id(), subResponse.getStatus(), Map.copyOf(subResponse.headers()),
+                readBody(subResponse));
+    }
+
+    private JsonNode readBody(BufferedResponse response) {
+        byte[] bytes = response.body();
+        if (bytes.length == 0) {
+            return null;
+        }
+        String contentType = response.getContentType();
+        if (contentType != null && contentType.contains("json")) {
+            try {
+                return objectMapper.readTree(bytes);
+            } catch (IOException e) {
+                // Fall through and return it as text
+            }
+        }
+        return TextNode.valueOf(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private SubResponse error(String id, int status, String message) {
+        return new SubResponse(id, status, Map.of(),
+                objectMapper.valueToTree(Map.of("error", message != null ? message : "Request failed")));
+    }
+
+    private static void validate(SubRequest request) {
+        String method = request.method() != null ? request.method().toUpperCase() : "";
+        String path = request.path() != null ? request.path() : "";
+        if (!METHODS.contains(method)) {
+            throw new RuntimeException("Unsupported method '" + request.method() + "' in batch");
+        }
+        // No nested batches, no streams, and only GET /api/auth/me among the auth endpoints
+        if (!path.startsWith("/api/") || path.contains("..")
+                || path.startsWith("/api/batch") || path.startsWith("/api/events")
+                || (path.startsWith("/api/auth/") && !"GET".equals(method))) {
+            throw new RuntimeException("Path '" + path + "' can't be used in a batch");
+        }
+    }
+
+    private static boolean isRead(SubRequest request) {
+        return "GET".equalsIgnoreCase(request.method());
+    }
+
+    private static String label(SubRequest request, int index) {
+        return request.id() != null ? "'" + request.id() + "'" : "#" + index;
+    }
+}
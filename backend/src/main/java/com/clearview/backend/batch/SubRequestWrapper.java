@@ -0,0 +1,425 @@
+package com.clearview.backend.batch;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One sub-request of a batch, presented to DispatcherServlet as a request
+ * of its own. Method, path, query, headers, body and attributes are its
+ * own. Connection details (principal, remote address, server, locale,
+ * cookies) are copied from the batch request when the wrapper is built, on
+ * the batch's own thread, so parallel sub-requests never call into the
+ * container's request object. There is no session.
+ */
+class SubRequestWrapper extends HttpServletRequestWrapper {
+
+    private final String method;
+    private final String path;
+    private final String query;
+    private final Map<String, String[]> parameters;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    // Copied from the batch request
+    private final ServletContext servletContext;
+    private final HttpServletMapping servletMapping;
+    private final String scheme;
+    private final String protocol;
+    private final String serverName;
+    private final int serverPort;
+    private final boolean secure;
+    private final String contextPath;
+    private final String remoteAddr;
+    private final String remoteHost;
+    private final int remotePort;
+    private final String localAddr;
+    private final String localName;
+    private final int localPort;
+    private final Principal userPrincipal;
+    private final String authType;
+    private final Cookie[] cookies;
+    private final List<Locale> locales;
+
+    SubRequestWrapper(HttpServletRequest batch, String method, String uri, Map<String, String> headers, byte[] body) {
+        super(batch);
+        this.servletContext = batch.getServletContext();
+        this.servletMapping = batch.getHttpServletMapping();
+        this.scheme = batch.getScheme();
+        this.protocol = batch.getProtocol();
+        this.serverName = batch.getServerName();
+        this.serverPort = batch.getServerPort();
+        this.secure = batch.isSecure();
+        this.contextPath = batch.getContextPath();
+        this.remoteAddr = batch.getRemoteAddr();
+        this.remoteHost = batch.getRemoteHost();
+        this.remotePort = batch.getRemotePort();
+        this.localAddr = batch.getLocalAddr();
+        this.localName = batch.getLocalName();
+        this.localPort = batch.getLocalPort();
+        this.userPrincipal = batch.getUserPrincipal();
+        this.authType = batch.getAuthType();
+        this.cookies = batch.getCookies();
+        this.locales = Collections.list(batch.getLocales());
+
+        UriComponents components = UriComponentsBuilder.fromUriString(uri).build();
+        this.method = method;
+        this.path = components.getPath();
+        this.query = components.getQuery();
+        this.parameters = decode(components.getQueryParams());
+        this.body = body;
+
+        this.headers = new LinkedCaseInsensitiveMap<>();
+        copyHeader(batch, "Authorization");
+        copyHeader(batch, "Accept-Language");
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+        if (body.length > 0) {
+            this.headers.putIfAbsent("Content-Type", "application/json");
+        }
+        this.headers.putIfAbsent("Accept", "application/json");
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return contextPath + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort())
+                .append(getRequestURI());
+        return url;
+    }
+
+    @Override
+    public String getServletPath() {
+        return path;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return query;
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    // === Connection, copied from the batch request ===
+
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+
+    @Override
+    public HttpServletMapping getHttpServletMapping() {
+        return servletMapping;
+    }
+
+    @Override
+    public String getScheme() {
+        return scheme;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public String getServerName() {
+        return serverName;
+    }
+
+    @Override
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return secure;
+    }
+
+    @Override
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return remoteHost;
+    }
+
+    @Override
+    public int getRemotePort() {
+        return remotePort;
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return localAddr;
+    }
+
+    @Override
+    public String getLocalName() {
+        return localName;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return localPort;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return userPrincipal;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return userPrincipal != null ? userPrincipal.getName() : null;
+    }
+
+    @Override
+    public String getAuthType() {
+        return authType;
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return cookies != null ? cookies.clone() : null;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locales.isEmpty() ? Locale.getDefault() : locales.get(0);
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(locales);
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (create) {
+            throw new IllegalStateException("Batch sub-requests have no session");
+        }
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    // === Parameters (query string only) ===
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    // === Headers ===
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = headers.get(name);
+        return Collections.enumeration(value != null ? List.of(value) : List.of());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(new ArrayList<>(headers.keySet()));
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = headers.get(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String value = headers.get(name);
+        return value != null
+                ? ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                : -1;
+    }
+
+    // === Body ===
+
+    @Override
+    public String getContentType() {
+        return headers.get("Content-Type");
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return in.read(buffer, offset, length);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    // === Attributes: DispatcherServlet caches the parsed path and handler here, so they can't be shared ===
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    private void copyHeader(HttpServletRequest batch, String name) {
+        String value = batch.getHeader(name);
+        if (value != null) {
+            headers.put(name, value);
+        }
+    }
+
+    private static Map<String, String[]> decode(MultiValueMap<String, String> encoded) {
+        Map<String, String[]> decoded = new LinkedHashMap<>();
+        encoded.forEach((name, values) -> decoded.put(
+                UriUtils.decode(name, StandardCharsets.UTF_8),
+                values.stream()
+                        .map(value -> value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "")
+                        .toArray(String[]::new)));
+        return decoded;
+    }
+}
@@ -0,0 +1,8 @@
+package com.clearview.backend.batch.dto;
+
+import java.util.List;
+
+public record BatchRequest(
+    List<SubRequest> requests
+) {
+}
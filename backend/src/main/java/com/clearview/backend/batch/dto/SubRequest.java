@@ -0,0 +1,14 @@
+package com.clearview.backend.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+public record SubRequest(
+    String id,
+    String method,
+    String path,
+    Map<String, String> headers,
+    JsonNode body
+) {
+}
@@ -0,0 +1,13 @@
+package com.clearview.backend.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+public record SubResponse(
+    String id,
+    int status,
+    Map<String, String> headers,
+    JsonNode body
+) {
+}
@@ -0,0 +1,39 @@
+package com.clearview.backend.config;
+
+import com.clearview.backend.diagnostics.ProfilingDataSource;
+import com.clearview.backend.diagnostics.SqlProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Wraps the pool (Hikari) in the concurrency limit when clearview.jdbc.max-concurrency > 0, then in the SQL
+    // profiler when it is enabled. The limit sits inside so the profiler's background EXPLAINs also queue for a permit
+    @Bean
+    static BeanPostProcessor dataSourcePostProcessor(Environment environment, ObjectProvider<SqlProfiler> profiler) {
+        int maxConcurrency = environment.getProperty("clearview.jdbc.max-concurrency", Integer.class, 0);
+        long acquireTimeoutMs = environment.getProperty("clearview.jdbc.acquire-timeout-ms", Long.class, 30_000L);
+        boolean profilerEnabled = environment.getProperty("clearview.sql-profiler.enabled", Boolean.class, true)
+                && environment.getProperty("clearview.sql-profiler.sample-rate", Double.class, 0.05) > 0;
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource
+                        || bean instanceof ProfilingDataSource) {
+                    return bean;
+                }
+                DataSource limited = maxConcurrency > 0
+                        ? new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, Duration.ofMillis(acquireTimeoutMs))
+                        : dataSource;
+                return profilerEnabled ? new ProfilingDataSource(limited, profiler.getObject()) : limited;
+            }
+        };
+    }
+}
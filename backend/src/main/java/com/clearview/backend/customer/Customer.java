@@ -2,11 +2,16 @@ package com.clearview.backend.customer;
 
 import com.clearview.backend.user.User;
 import com.clearview.backend.job.Job;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import java.util.List;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_user_txid", columnList = "user_id, change_txid, change_version")
+})
 public class Customer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,9 +26,22 @@ public class Customer {
     @JoinColumn(name = "user_id")
     private User createdBy;
 
-    @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Query-only side of Job.customer: never cascaded or serialized, so nothing
+    // loads a customer's full job history by accident. Deletes are set-based
+    // in CustomerService.deleteCustomer.
+    @JsonIgnore
+    @OneToMany(mappedBy = "customer")
     private List<Job> jobs;
 
+    // Same sequence as Job.changeVersion, so one cursor covers both tables
+    @Generated(event = { EventType.INSERT, EventType.UPDATE }, sql = "nextval('change_version_seq')")
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    // Writing transaction, set by the set_change_txid trigger whenever change_version moves (schema.sql)
+    @Column(name = "change_txid", insertable = false, updatable = false)
+    private Long changeTxid;
+
     public Long getId() {
         return id;
     }
@@ -80,4 +98,19 @@ public class Customer {
         this.id = id;
     }
 
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public Long getChangeTxid() {
+        return changeTxid;
+    }
+
+    public void setChangeTxid(Long changeTxid) {
+        this.changeTxid = changeTxid;
+    }
 }
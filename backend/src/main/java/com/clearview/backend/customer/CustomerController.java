@@ -1,23 +1,36 @@
 package com.clearview.backend.customer;
 
 import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.CustomerStatsPage;
+import com.clearview.backend.customer.dto.DuplicateGroup;
+import com.clearview.backend.customer.dto.MergeRequest;
+import com.clearview.backend.job.dto.JobPage;
+import com.clearview.backend.sync.RowPatcher;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final DuplicateCustomerService duplicateCustomerService;
     private final UserRepository userRepository;
 
-    public CustomerController(CustomerService customerService, UserRepository userRepository) {
+    public CustomerController(CustomerService customerService, DuplicateCustomerService duplicateCustomerService,
+            UserRepository userRepository) {
         this.customerService = customerService;
+        this.duplicateCustomerService = duplicateCustomerService;
         this.userRepository = userRepository;
     }
 
@@ -43,4 +56,87 @@ public ResponseEntity<List<CustomerDto>> getCustomers(Principal principal) {
     return ResponseEntity.ok(customers);
 }
 
+    // === Customers with job count, last visit and outstanding balance (keyset paged) ===
+    @GetMapping(params = "stats=true")
+    public ResponseEntity<CustomerStatsPage> getCustomersWithStats(
+            @RequestParam(defaultValue = "balance") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(customerService.getCustomerStats(user.getId(), sort, cursor, limit));
+    }
+
+    // === A customer's job history, newest first (keyset paged); includeArchived=true reaches back past the archive horizon ===
+    @GetMapping("/{id}/jobs")
+    public ResponseEntity<JobPage> getCustomerJobs(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(customerService.getCustomerJobs(id, user.getId(), cursor, limit, includeArchived));
+    }
+
+    // === Likely duplicates, grouped; nothing is changed until a merge ===
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateGroup>> getDuplicates(
+            @RequestParam(defaultValue = "0.85") double minScore,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(duplicateCustomerService.findDuplicates(user.getId(), minScore));
+    }
+
+    // === Merge duplicates into this customer: their jobs and series move here, then they are deleted ===
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<CustomerDto> mergeCustomers(@PathVariable Long id, @RequestBody MergeRequest request,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(duplicateCustomerService.merge(id, request.duplicateIds(), user.getId()));
+    }
+
+    // === Partial update (JSON Merge Patch); If-Match: "<version>" makes it conditional ===
+    @PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<CustomerDto> patchCustomer(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Optional<Long> version = customerService.patchCustomer(id, user.getId(), patch, RowPatcher.parseIfMatch(ifMatch));
+        if (version.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (prefer == null || !prefer.contains("return=representation")) {
+            return ResponseEntity.noContent().eTag(version.get().toString()).build();
+        }
+
+        Customer customer = customerService.getCustomerByIdAndUser(id, user.getId())
+                .orElseThrow(() -> new RuntimeException("Customer not found or unauthorized"));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(customer.getChangeVersion()))
+                .header("Preference-Applied", "return=representation")
+                .body(CustomerDto.from(customer));
+    }
+
+    // === Delete customer and all of their jobs ===
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteCustomer(@PathVariable Long id, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        customerService.deleteCustomer(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
 }
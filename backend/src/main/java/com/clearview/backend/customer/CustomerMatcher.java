@@ -0,0 +1,346 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.DuplicateGroup;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Finds likely duplicate customers without comparing every pair. Each
+ * customer gets a few blocking keys: normalized phone, normalized email,
+ * Soundex of the surname plus first initial, and house number plus street
+ * name. Only customers sharing a key are scored. Blocks bigger than
+ * MAX_BLOCK_SIZE (a very common surname or street) are skipped, since a
+ * key shared by that many people says nothing. A pair needs a matching
+ * phone, email, or address to score above NAME_ONLY_CAP, and a conflicting
+ * phone or house number keeps it there. Pairs over the threshold are
+ * unioned into groups.
+ */
+final class CustomerMatcher {
+
+    static final int MAX_BLOCK_SIZE = 200;
+
+    // Below the default threshold: a name alone never makes a duplicate
+    static final double NAME_ONLY_CAP = 0.8;
+
+    // Addresses this close with the same house number count as the same place
+    private static final double SAME_ADDRESS = 0.9;
+
+    private static final double NAME_WEIGHT = 0.45;
+    private static final double PHONE_WEIGHT = 0.25;
+    private static final double EMAIL_WEIGHT = 0.15;
+    private static final double ADDRESS_WEIGHT = 0.15;
+
+    private static final Set<String> TITLES = Set.of("mr", "mrs", "ms", "miss", "dr");
+    private static final Map<String, String> STREET_SUFFIXES = Map.ofEntries(
+            Map.entry("st", "street"), Map.entry("rd", "road"), Map.entry("ave", "avenue"),
+            Map.entry("av", "avenue"), Map.entry("ln", "lane"), Map.entry("dr", "drive"),
+            Map.entry("ct", "court"), Map.entry("cl", "close"), Map.entry("cres", "crescent"),
+            Map.entry("pl", "place"), Map.entry("sq", "square"), Map.entry("gdns", "gardens"),
+            Map.entry("blvd", "boulevard"));
+    private static final Set<String> STREET_WORDS = Set.of("street", "road", "avenue", "lane", "drive", "court",
+            "close", "crescent", "place", "square", "gardens", "boulevard", "way", "flat", "apt", "unit", "the");
+
+    private CustomerMatcher() {
+    }
+
+    static List<DuplicateGroup> findDuplicates(List<CustomerDto> customers, double minScore) {
+        Candidate[] candidates = customers.stream().map(CustomerMatcher::candidate).toArray(Candidate[]::new);
+
+        Map<String, List<Integer>> blocks = new HashMap<>();
+        for (int i = 0; i < candidates.length; i++) {
+            for (String key : candidates[i].blockKeys()) {
+                blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int[] parent = new int[candidates.length];
+        Arrays.setAll(parent, i -> i);
+        Map<Integer, Double> weakestLink = new HashMap<>();
+        Set<Long> compared = new HashSet<>();
+        for (List<Integer> block : blocks.values()) {
+            if (block.size() < 2 || block.size() > MAX_BLOCK_SIZE) {
+                continue;
+            }
+            for (int x = 0; x < block.size(); x++) {
+                for (int y = x + 1; y < block.size(); y++) {
+                    int i = block.get(x);
+                    int j = block.get(y);
+                    // Two customers can share several blocks; score each pair once
+                    if (!compared.add(((long) Math.min(i, j) << 32) | Math.max(i, j))) {
+                        continue;
+                    }
+                    double score = score(candidates[i], candidates[j]);
+                    if (score >= minScore) {
+                        int root = union(parent, i, j);
+                        weakestLink.merge(root, score, Math::min);
+                    }
+                }
+            }
+        }
+
+        // union() keeps the smallest index as root, so each group lists its members in order
+        Map<Integer, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < candidates.length; i++) {
+            int root = find(parent, i);
+            if (root != i) {
+                groups.computeIfAbsent(root, r -> new ArrayList<>(List.of(r))).add(i);
+            }
+        }
+        Map<Integer, Double> groupScores = new HashMap<>();
+        weakestLink.forEach((root, score) -> groupScores.merge(find(parent, root), score, Math::min));
+
+        List<DuplicateGroup> result = new ArrayList<>();
+        groups.forEach((root, members) -> result.add(new DuplicateGroup(
+                members.stream().map(i -> candidates[i].customer()).toList(),
+                Math.round(groupScores.getOrDefault(root, minScore) * 1000) / 1000.0)));
+        result.sort(Comparator.comparingDouble(DuplicateGroup::score).reversed()
+                .thenComparing(group -> group.customers().get(0).id()));
+        return result;
+    }
+
+    static double score(Candidate a, Candidate b) {
+        double total = NAME_WEIGHT * jaroWinkler(a.name(), b.name());
+        double weight = NAME_WEIGHT;
+        boolean corroborated = false;
+        boolean conflicting = false;
+        if (a.phone() != null && b.phone() != null) {
+            boolean same = a.phone().equals(b.phone());
+            total += PHONE_WEIGHT * (same ? 1 : 0);
+            weight += PHONE_WEIGHT;
+            corroborated = same;
+            conflicting = !same;
+        }
+        if (a.email() != null && b.email() != null) {
+            boolean same = a.email().equals(b.email());
+            total += EMAIL_WEIGHT * (same ? 1 : 0);
+            weight += EMAIL_WEIGHT;
+            corroborated |= same;
+        }
+        if (a.address() != null && b.address() != null) {
+            double similarity = jaroWinkler(a.address(), b.address());
+            total += ADDRESS_WEIGHT * similarity;
+            weight += ADDRESS_WEIGHT;
+            boolean sameNumber = Objects.equals(a.houseNumber(), b.houseNumber());
+            corroborated |= sameNumber && similarity >= SAME_ADDRESS;
+            // 12 and 14 High Street are different households however alike the strings look
+            conflicting |= a.houseNumber() != null && b.houseNumber() != null && !sameNumber;
+        }
+        double score = total / weight;
+        return corroborated && !conflicting ? score : Math.min(score, NAME_ONLY_CAP);
+    }
+
+    record Candidate(CustomerDto customer, String name, String phone, String email, String address,
+            String houseNumber, List<String> blockKeys) {
+    }
+
+    static Candidate candidate(CustomerDto customer) {
+        String name = normalizeName(customer.name());
+        String phone = normalizePhone(customer.phone());
+        String email = normalizeEmail(customer.email());
+        String address = normalizeAddress(customer.address());
+
+        List<String> keys = new ArrayList<>(4);
+        if (phone != null) {
+            keys.add("p:" + phone);
+        }
+        if (email != null) {
+            keys.add("e:" + email);
+        }
+        String[] nameTokens = name.isEmpty() ? new String[0] : name.split(" ");
+        if (nameTokens.length > 0) {
+            String surname = nameTokens[nameTokens.length - 1];
+            // Soundex only codes a-z; other scripts block on the surname itself
+            keys.add("n:" + (surname.chars().allMatch(c -> c >= 'a' && c <= 'z') ? soundex(surname) : surname)
+                    + (nameTokens.length > 1 ? nameTokens[0].substring(0, nameTokens[0].offsetByCodePoints(0, 1)) : ""));
+        }
+        String street = streetKey(address);
+        if (street != null) {
+            keys.add("s:" + street);
+        }
+        return new Candidate(customer, name, phone, email, address, houseNumber(address), keys);
+    }
+
+    // === Normalization ===
+
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        // Fold accents (José -> jose) but keep letters from every script, so non-Latin names don't all become ""
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        String[] tokens = folded.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L} ]", " ").trim().split("\\s+");
+        StringBuilder normalized = new StringBuilder();
+        for (String token : tokens) {
+            if (!token.isEmpty() && !TITLES.contains(token)) {
+                normalized.append(normalized.isEmpty() ? "" : " ").append(token);
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Last nine digits, so +44 7700 900123, 0044..., and 07700 900123 agree
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() < 7) {
+            return null;
+        }
+        return digits.length() > 9 ? digits.substring(digits.length() - 9) : digits;
+    }
+
+    // Case and +tags don't change the mailbox
+    static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        int at = normalized.indexOf('@');
+        if (at <= 0 || at == normalized.length() - 1) {
+            return null;
+        }
+        String local = normalized.substring(0, at);
+        int plus = local.indexOf('+');
+        return (plus > 0 ? local.substring(0, plus) : local) + normalized.substring(at);
+    }
+
+    static String normalizeAddress(String address) {
+        if (address == null) {
+            return null;
+        }
+        String[] tokens = address.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").trim().split("\\s+");
+        StringBuilder normalized = new StringBuilder();
+        for (String token : tokens) {
+            if (!token.isEmpty()) {
+                normalized.append(normalized.isEmpty() ? "" : " ").append(STREET_SUFFIXES.getOrDefault(token, token));
+            }
+        }
+        return normalized.isEmpty() ? null : normalized.toString();
+    }
+
+    private static String houseNumber(String address) {
+        if (address == null) {
+            return null;
+        }
+        for (String token : address.split(" ")) {
+            if (Character.isDigit(token.charAt(0))) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    // House number plus first distinctive street word: "12a high st" -> "12a|high"
+    private static String streetKey(String address) {
+        if (address == null) {
+            return null;
+        }
+        String number = null;
+        for (String token : address.split(" ")) {
+            if (number == null && Character.isDigit(token.charAt(0))) {
+                number = token;
+            } else if (token.length() >= 3 && Character.isLetter(token.charAt(0)) && !STREET_WORDS.contains(token)) {
+                return (number != null ? number : "") + "|" + token;
+            }
+        }
+        return null;
+    }
+
+    // === Similarity ===
+
+    static String soundex(String word) {
+        String codes = "01230120022455012623010202";
+        StringBuilder key = new StringBuilder().append(Character.toUpperCase(word.charAt(0)));
+        char last = codes.charAt(word.charAt(0) - 'a');
+        for (int i = 1; i < word.length() && key.length() < 4; i++) {
+            char c = word.charAt(i);
+            char code = codes.charAt(c - 'a');
+            if (code != '0' && code != last) {
+                key.append(code);
+            }
+            // h and w don't separate equal codes; vowels do
+            if (c != 'h' && c != 'w') {
+                last = code;
+            }
+        }
+        while (key.length() < 4) {
+            key.append('0');
+        }
+        return key.toString();
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return a.isEmpty() ? 0 : 1;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < 4 && prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static int union(int[] parent, int i, int j) {
+        int rootI = find(parent, i);
+        int rootJ = find(parent, j);
+        int root = Math.min(rootI, rootJ);
+        parent[Math.max(rootI, rootJ)] = root;
+        return root;
+    }
+}
@@ -1,8 +1,69 @@
 package com.clearview.backend.customer;
 
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.CustomerStatsDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     List<Customer> findByCreatedById(Long userId);
+
+    Optional<Customer> findByIdAndCreatedById(Long id, Long userId);
+
+    boolean existsByIdAndCreatedById(Long id, Long userId);
+
+    String BALANCE = "COALESCE(SUM(CASE WHEN j.paid = false THEN j.price ELSE 0.0 END), 0.0)";
+
+    // Future-dated jobs are scheduled visits, not past ones
+    String LAST_VISIT = "COALESCE(MAX(CASE WHEN j.jobDate <= :today THEN j.jobDate ELSE NULL END), '')";
+
+    String STATS_SELECT = "SELECT new com.clearview.backend.customer.dto.CustomerStatsDto( " +
+            "c.id, c.name, c.phone, c.email, c.address, c.changeVersion, COUNT(j.id), " + LAST_VISIT + ", " + BALANCE + ") " +
+            "FROM Customer c LEFT JOIN c.jobs j " +
+            "WHERE c.createdBy.id = :userId " +
+            "GROUP BY c.id, c.name, c.phone, c.email, c.address, c.changeVersion ";
+
+    // Keyset pages: (sort value, id) strictly after the cursor; sort value descending, id ascending
+    @Query(STATS_SELECT +
+            "HAVING " + BALANCE + " < :afterBalance " +
+            "OR (" + BALANCE + " = :afterBalance AND c.id > :afterId) " +
+            "ORDER BY " + BALANCE + " DESC, c.id ASC")
+    List<CustomerStatsDto> findStatsByBalance(Long userId, String today, Double afterBalance, Long afterId,
+            Pageable pageable);
+
+    @Query(STATS_SELECT +
+            "HAVING " + LAST_VISIT + " < :afterVisit " +
+            "OR (" + LAST_VISIT + " = :afterVisit AND c.id > :afterId) " +
+            "ORDER BY " + LAST_VISIT + " DESC, c.id ASC")
+    List<CustomerStatsDto> findStatsByLastVisit(Long userId, String today, String afterVisit, Long afterId,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id AND c.createdBy.id = :userId")
+    int deleteByIdAndUserId(Long id, Long userId);
+
+    // Plain rows for duplicate matching; no entities, so 100k customers don't fill the persistence context
+    @Query("SELECT new com.clearview.backend.customer.dto.CustomerDto(" +
+            "c.id, c.name, c.phone, c.email, c.address, c.changeVersion) " +
+            "FROM Customer c WHERE c.createdBy.id = :userId ORDER BY c.id")
+    List<CustomerDto> findRowsByUserId(Long userId);
+
+    @Query("SELECT c FROM Customer c WHERE c.id IN :ids AND c.createdBy.id = :userId")
+    List<Customer> findAllOwned(Collection<Long> ids, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id IN :ids AND c.createdBy.id = :userId")
+    int deleteAllOwned(Collection<Long> ids, Long userId);
+
+    @Query("SELECT c FROM Customer c " +
+            "WHERE c.createdBy.id = :userId AND c.changeTxid < :horizon " +
+            "AND (c.changeTxid > :afterTxid OR (c.changeTxid = :afterTxid AND c.changeVersion > :afterVersion)) " +
+            "ORDER BY c.changeTxid, c.changeVersion")
+    List<Customer> findChangedSince(Long userId, Long afterTxid, Long afterVersion, Long horizon, Pageable pageable);
 }
@@ -1,21 +1,206 @@
 package com.clearview.backend.customer;
 
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.customer.dto.CustomerStatsDto;
+import com.clearview.backend.customer.dto.CustomerStatsPage;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.photo.JobPhotoRepository;
+import com.clearview.backend.job.dto.JobDto;
+import com.clearview.backend.job.dto.JobPage;
+import com.clearview.backend.series.RecurringSeriesRepository;
+import com.clearview.backend.sync.PatchTarget;
+import com.clearview.backend.sync.RowPatcher;
+import com.clearview.backend.sync.Tombstone;
+import com.clearview.backend.sync.TombstoneRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class CustomerService {
+    static final int MAX_PAGE_SIZE = 200;
+
+    // Sorts before every real value in a descending keyset scan
+    private static final String FIRST_DATE_CURSOR = "9999-12-31~";
+
+    // The customer-jobs keyset order: (jobDate, id) descending, undated jobs first like job_date DESC NULLS FIRST
+    private static final Comparator<JobDto> NEWEST_FIRST = Comparator
+            .comparing(JobDto::jobDate, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(JobDto::id)
+            .reversed();
+
     private final CustomerRepository customerRepository;
+    private final JobRepository jobRepository;
+    private final RecurringSeriesRepository seriesRepository;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TombstoneRepository tombstoneRepository;
+    private final RowPatcher rowPatcher;
+    private final JobArchive jobArchive;
+    private final JobPhotoRepository photoRepository;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, JobRepository jobRepository,
+            RecurringSeriesRepository seriesRepository, RevenueAnalyticsService revenueAnalyticsService,
+            ApplicationEventPublisher eventPublisher, TombstoneRepository tombstoneRepository,
+            RowPatcher rowPatcher, JobArchive jobArchive, JobPhotoRepository photoRepository) {
         this.customerRepository = customerRepository;
+        this.jobRepository = jobRepository;
+        this.seriesRepository = seriesRepository;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.eventPublisher = eventPublisher;
+        this.tombstoneRepository = tombstoneRepository;
+        this.rowPatcher = rowPatcher;
+        this.jobArchive = jobArchive;
+        this.photoRepository = photoRepository;
     }
 
     public Customer createCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        if (saved.getCreatedBy() != null) {
+            eventPublisher.publishEvent(
+                    new ChangeEvent(ChangeType.CUSTOMER_CREATED, saved.getCreatedBy().getId(), saved.getId()));
+        }
+        return saved;
+    }
+
+    // Same contract as JobService.patchJob
+    @Transactional
+    public Optional<Long> patchCustomer(Long id, Long userId, Map<String, Object> patch, Long expectedVersion) {
+        Optional<Long> version = rowPatcher.patch(PatchTarget.CUSTOMER, patch, id, userId, expectedVersion);
+        if (version.isEmpty()) {
+            rowPatcher.currentVersion(PatchTarget.CUSTOMER, id, userId)
+                    .orElseThrow(() -> new RuntimeException("Customer not found or unauthorized"));
+            return Optional.empty();
+        }
+
+        if (patch.containsKey("name")) {
+            // Revenue-by-customer labels come from the customer name
+            revenueAnalyticsService.invalidate(userId);
+        }
+        eventPublisher.publishEvent(new ChangeEvent(ChangeType.CUSTOMER_UPDATED, userId, id));
+        return version;
+    }
+
+    public Optional<Customer> getCustomerByIdAndUser(Long id, Long userId) {
+        return customerRepository.findByIdAndCreatedById(id, userId);
     }
 
     public List<Customer> getCustomersByUser(Long userId) {
         return customerRepository.findByCreatedById(userId);
     }
+
+    public CustomerStatsPage getCustomerStats(Long userId, String sort, String cursor, int limit) {
+        int size = pageSize(limit);
+        String today = LocalDate.now().toString();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        long afterId = after != null ? after.id() : 0L;
+
+        boolean byLastVisit = "lastVisit".equalsIgnoreCase(sort);
+        List<CustomerStatsDto> rows = byLastVisit
+                ? customerRepository.findStatsByLastVisit(userId, today,
+                        after != null ? after.value() : FIRST_DATE_CURSOR, afterId, PageRequest.of(0, size + 1))
+                : customerRepository.findStatsByBalance(userId, today,
+                        after != null ? Double.parseDouble(after.value()) : Double.MAX_VALUE, afterId,
+                        PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new CustomerStatsPage(rows, null);
+        }
+
+        CustomerStatsDto last = rows.get(size - 1);
+        String value = byLastVisit
+                ? (last.lastVisit() != null ? last.lastVisit() : "")
+                : Double.toString(last.outstandingBalance());
+        return new CustomerStatsPage(
+                List.copyOf(rows.subList(0, size)),
+                new KeysetCursor(value, last.customer().id()).encode());
+    }
+
+    // With includeArchived, the page is the newest size + 1 of live and archived jobs after the same cursor.
+    // A cursor with an empty value sits among the undated jobs, which come first.
+    public JobPage getCustomerJobs(Long customerId, Long userId, String cursor, int limit, boolean includeArchived) {
+        int size = pageSize(limit);
+        KeysetCursor before = KeysetCursor.decode(cursor);
+
+        List<JobDto> rows = page(before, size + 1,
+                (beforeId, max) -> jobRepository.findUndatedCustomerJobsPage(customerId, userId, beforeId,
+                        PageRequest.of(0, max)),
+                (beforeDate, beforeId, max) -> jobRepository.findCustomerJobsPage(customerId, userId, beforeDate,
+                        beforeId, PageRequest.of(0, max)))
+                .stream().map(JobDto::from).toList();
+        if (includeArchived) {
+            rows = Stream.concat(rows.stream(),
+                    page(before, size + 1,
+                            (beforeId, max) -> jobArchive.getUndatedCustomerJobsPage(customerId, userId, beforeId, max),
+                            (beforeDate, beforeId, max) -> jobArchive.getCustomerJobsPage(customerId, userId,
+                                    beforeDate, beforeId, max))
+                            .stream().map(JobDto::from))
+                    .sorted(NEWEST_FIRST)
+                    .limit(size + 1)
+                    .toList();
+        }
+
+        List<JobDto> jobs = rows.stream().limit(size).toList();
+        if (rows.size() <= size) {
+            return new JobPage(jobs, null);
+        }
+
+        JobDto last = jobs.get(size - 1);
+        return new JobPage(jobs, new KeysetCursor(last.jobDate() != null ? last.jobDate() : "", last.id()).encode());
+    }
+
+    private interface UndatedPage<T> {
+        List<T> fetch(long beforeId, int limit);
+    }
+
+    private interface DatedPage<T> {
+        List<T> fetch(String beforeDate, long beforeId, int limit);
+    }
+
+    // Up to limit rows after the cursor: the rest of the undated block, then dated rows from the top
+    private static <T> List<T> page(KeysetCursor before, int limit, UndatedPage<T> undated, DatedPage<T> dated) {
+        if (before != null && !before.value().isEmpty()) {
+            return dated.fetch(before.value(), before.id(), limit);
+        }
+        List<T> rows = undated.fetch(before != null ? before.id() : Long.MAX_VALUE, limit);
+        if (rows.size() >= limit) {
+            return rows;
+        }
+        return Stream.concat(rows.stream(),
+                dated.fetch(FIRST_DATE_CURSOR, Long.MAX_VALUE, limit - rows.size()).stream()).toList();
+    }
+
+    // Set-based delete in FK order: jobs, recurring series, then the customer; no entities are loaded.
+    // Job tombstones are written, and job photos removed, from the rows about to go, before they go.
+    @Transactional
+    public void deleteCustomer(Long customerId, Long userId) {
+        tombstoneRepository.recordCustomerJobs(customerId, userId);
+        photoRepository.deleteByCustomer(customerId, userId);
+        jobRepository.deleteByCustomer(customerId, userId);
+        jobArchive.deleteCustomerJobs(customerId, userId);
+        seriesRepository.deleteByCustomer(customerId, userId);
+        if (customerRepository.deleteByIdAndUserId(customerId, userId) == 0) {
+            throw new RuntimeException("Customer not found or unauthorized");
+        }
+        tombstoneRepository.save(new Tombstone(userId, Tombstone.CUSTOMER, customerId));
+        revenueAnalyticsService.invalidate(userId);
+        // Delivered after commit; subscribers refetch jobs since the customer's jobs went with it
+        eventPublisher.publishEvent(new ChangeEvent(ChangeType.CUSTOMER_DELETED, userId, customerId));
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 }
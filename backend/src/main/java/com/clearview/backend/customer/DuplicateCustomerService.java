@@ -0,0 +1,115 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.DuplicateGroup;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.series.RecurringSeriesRepository;
+import com.clearview.backend.sync.Tombstone;
+import com.clearview.backend.sync.TombstoneRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class DuplicateCustomerService {
+
+    static final int MAX_GROUPS = 500;
+    static final int MAX_MERGE_IDS = 100;
+
+    private final CustomerRepository customerRepository;
+    private final JobRepository jobRepository;
+    private final RecurringSeriesRepository seriesRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobArchive jobArchive;
+
+    public DuplicateCustomerService(CustomerRepository customerRepository, JobRepository jobRepository,
+            RecurringSeriesRepository seriesRepository, TombstoneRepository tombstoneRepository,
+            RevenueAnalyticsService revenueAnalyticsService, ApplicationEventPublisher eventPublisher,
+            JobArchive jobArchive) {
+        this.customerRepository = customerRepository;
+        this.jobRepository = jobRepository;
+        this.seriesRepository = seriesRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.eventPublisher = eventPublisher;
+        this.jobArchive = jobArchive;
+    }
+
+    // Read-only: suggestions for the user to confirm; nothing is merged automatically
+    public List<DuplicateGroup> findDuplicates(Long userId, double minScore) {
+        double threshold = Math.max(0.5, Math.min(1.0, minScore));
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(customerRepository.findRowsByUserId(userId), threshold);
+        return groups.size() > MAX_GROUPS ? List.copyOf(groups.subList(0, MAX_GROUPS)) : groups;
+    }
+
+    // Jobs (live and archived) and recurring series move to the target, then the duplicates are deleted.
+    // Contact fields the target lacks are taken from the duplicates, in the order given.
+    @Transactional
+    public CustomerDto merge(Long targetId, List<Long> duplicateIds, Long userId) {
+        if (duplicateIds == null || duplicateIds.isEmpty() || duplicateIds.size() > MAX_MERGE_IDS) {
+            throw new RuntimeException("Between 1 and " + MAX_MERGE_IDS + " duplicate ids are required");
+        }
+        Set<Long> duplicates = new LinkedHashSet<>(duplicateIds);
+        if (duplicates.contains(targetId)) {
+            throw new RuntimeException("A customer can't be merged into itself");
+        }
+
+        List<Long> ids = new ArrayList<>(duplicates);
+        ids.add(targetId);
+        Map<Long, Customer> owned = customerRepository.findAllOwned(ids, userId).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        if (owned.size() != ids.size()) {
+            throw new RuntimeException("Customer not found or unauthorized");
+        }
+
+        Customer target = owned.get(targetId);
+        for (Long id : duplicates) {
+            fillMissing(target, owned.get(id));
+        }
+
+        jobRepository.reassignCustomer(duplicates, targetId, userId);
+        seriesRepository.reassignCustomer(duplicates, targetId, userId);
+        jobArchive.reassignCustomer(duplicates, targetId, userId);
+        customerRepository.deleteAllOwned(duplicates, userId);
+        tombstoneRepository.saveAll(duplicates.stream()
+                .map(id -> new Tombstone(userId, Tombstone.CUSTOMER, id))
+                .toList());
+        Customer saved = customerRepository.save(target);
+
+        // Revenue-by-customer rows were split across the duplicates
+        revenueAnalyticsService.invalidate(userId);
+        eventPublisher.publishEvent(new ChangeEvent(ChangeType.CUSTOMER_UPDATED, userId, targetId));
+        duplicates.forEach(id -> eventPublisher.publishEvent(new ChangeEvent(ChangeType.CUSTOMER_DELETED, userId, id)));
+        return CustomerDto.from(saved);
+    }
+
+    private static void fillMissing(Customer target, Customer duplicate) {
+        if (isBlank(target.getPhone()) && !isBlank(duplicate.getPhone())) {
+            target.setPhone(duplicate.getPhone());
+        }
+        if (isBlank(target.getEmail()) && !isBlank(duplicate.getEmail())) {
+            target.setEmail(duplicate.getEmail());
+        }
+        if (isBlank(target.getAddress()) && !isBlank(duplicate.getAddress())) {
+            target.setAddress(duplicate.getAddress());
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,289 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Links manual-entry jobs (customer_id null, customerName set) to customer
+ * records. A job whose normalized name and address match one of the
+ * user's customers is linked to it. A job with no address may match on
+ * name alone, if exactly one customer has that name. Any other job gets a
+ * new customer, shared with the other jobs in its chunk that have the
+ * same key.
+ *
+ * It walks jobs in (change_txid, change_version) order from a stored
+ * watermark, one chunk per transaction, and like /api/sync only reads rows
+ * written by transactions older than the oldest one still in flight. A job
+ * that took its version early but committed late is therefore reached
+ * later rather than stepped over. Each chunk costs one INSERT for new
+ * customers and one UPDATE ... FROM (VALUES ...) for the links. A Postgres
+ * advisory lock keeps two instances from creating the same customer twice.
+ */
+@Component
+public class JobCustomerReconciler {
+
+    static final String WATERMARK = "job-customer";
+    // Arbitrary constant identifying this job's advisory lock
+    private static final long LOCK_KEY = 46_042_001L;
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(:key)";
+    // Oldest transaction still in flight; same horizon as TombstoneRepository.visibleTxidHorizon
+    private static final String HORIZON = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)";
+    private static final String READ_WATERMARK =
+            "SELECT last_txid, last_version FROM reconcile_watermarks WHERE name = :name";
+    private static final String WRITE_WATERMARK =
+            "INSERT INTO reconcile_watermarks (name, last_txid, last_version) VALUES (:name, :txid, :version) " +
+            "ON CONFLICT (name) DO UPDATE SET last_txid = EXCLUDED.last_txid, last_version = EXCLUDED.last_version " +
+            "WHERE (reconcile_watermarks.last_txid, reconcile_watermarks.last_version) < (EXCLUDED.last_txid, EXCLUDED.last_version)";
+    // Served by idx_jobs_unlinked_txid
+    private static final String SELECT_UNLINKED =
+            "SELECT id, user_id, customer_name, address, change_txid, change_version FROM jobs " +
+            "WHERE customer_id IS NULL AND change_txid < :horizon " +
+            "AND (change_txid, change_version) > (:afterTxid, :afterVersion) " +
+            "AND customer_name IS NOT NULL AND btrim(customer_name) <> '' " +
+            "ORDER BY change_txid, change_version LIMIT :limit";
+    private static final String SELECT_CUSTOMERS =
+            "SELECT id, user_id, name, address FROM customers WHERE user_id IN (:userIds)";
+
+    private static final Logger log = LoggerFactory.getLogger(JobCustomerReconciler.class);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public JobCustomerReconciler(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            RevenueAnalyticsService revenueAnalyticsService, ApplicationEventPublisher eventPublisher,
+            @Value("${clearview.reconcile.enabled:true}") boolean enabled,
+            @Value("${clearview.reconcile.chunk-size:500}") int chunkSize,
+            @Value("${clearview.reconcile.max-chunks-per-run:20}") int maxChunks) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    record UnlinkedJob(long id, long userId, String customerName, String address, long changeTxid,
+            long changeVersion) {
+    }
+
+    record Position(long txid, long version) {
+        static final Position START = new Position(0, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.reconcile.interval-ms:300000}",
+            initialDelayString = "${clearview.reconcile.initial-delay-ms:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, CustomerIndex> indexes = new HashMap<>();
+        Position cursor = null;
+        int linked = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Position after = cursor;
+            Chunk result = transactionTemplate.execute(status -> reconcileChunk(after, indexes));
+            if (result == null) {
+                break;
+            }
+            // Revenue-by-customer rows regroup under the linked customers
+            result.users().forEach(revenueAnalyticsService::invalidate);
+            linked += result.linked();
+            cursor = result.cursor();
+            if (result.scanned() < chunkSize) {
+                break;
+            }
+        }
+        if (linked > 0) {
+            log.info("Linked {} manual-entry jobs to customers", linked);
+        }
+    }
+
+    // Null when another instance holds the lock; users are those whose jobs were linked
+    record Chunk(int scanned, int linked, Position cursor, Set<Long> users) {
+    }
+
+    Chunk reconcileChunk(Position after, Map<Long, CustomerIndex> indexes) {
+        if (!Boolean.TRUE.equals(jdbc.queryForObject(TRY_LOCK, Map.of("key", LOCK_KEY), Boolean.class))) {
+            return null;
+        }
+        Position from = after != null ? after : jdbc.query(READ_WATERMARK, Map.of("name", WATERMARK),
+                (rs, i) -> new Position(rs.getLong("last_txid"), rs.getLong("last_version")))
+                .stream().findFirst().orElse(Position.START);
+        long horizon = jdbc.queryForObject(HORIZON, Map.of(), Long.class);
+
+        List<UnlinkedJob> jobs = jdbc.query(SELECT_UNLINKED,
+                new MapSqlParameterSource("horizon", horizon)
+                        .addValue("afterTxid", from.txid())
+                        .addValue("afterVersion", from.version())
+                        .addValue("limit", chunkSize),
+                (rs, i) -> new UnlinkedJob(rs.getLong("id"), rs.getLong("user_id"), rs.getString("customer_name"),
+                        rs.getString("address"), rs.getLong("change_txid"), rs.getLong("change_version")));
+        if (jobs.isEmpty()) {
+            return new Chunk(0, 0, from, Set.of());
+        }
+        loadIndexes(jobs, indexes);
+
+        Map<Long, Long> links = new LinkedHashMap<>();
+        Map<String, List<UnlinkedJob>> unmatched = new LinkedHashMap<>();
+        for (UnlinkedJob job : jobs) {
+            String name = CustomerMatcher.normalizeName(job.customerName());
+            if (name.isEmpty()) {
+                continue;
+            }
+            String address = CustomerMatcher.normalizeAddress(job.address());
+            Long customerId = indexes.get(job.userId()).match(name, address);
+            if (customerId != null) {
+                links.put(job.id(), customerId);
+            } else {
+                unmatched.computeIfAbsent(job.userId() + "|" + CustomerIndex.key(name, address), k -> new ArrayList<>())
+                        .add(job);
+            }
+        }
+
+        Map<Long, Long> created = createCustomers(unmatched, indexes, links);
+        int linked = links.isEmpty() ? 0 : linkJobs(links);
+
+        UnlinkedJob last = jobs.get(jobs.size() - 1);
+        Position cursor = new Position(last.changeTxid(), last.changeVersion());
+        jdbc.update(WRITE_WATERMARK, new MapSqlParameterSource("name", WATERMARK)
+                .addValue("txid", cursor.txid())
+                .addValue("version", cursor.version()));
+
+        Set<Long> users = new HashSet<>();
+        Map<Long, Long> owners = new HashMap<>();
+        jobs.forEach(job -> owners.put(job.id(), job.userId()));
+        links.keySet().forEach(jobId -> users.add(owners.get(jobId)));
+        created.forEach((customerId, userId) ->
+                eventPublisher.publishEvent(new ChangeEvent(ChangeType.CUSTOMER_CREATED, userId, customerId)));
+        links.keySet().forEach(jobId ->
+                eventPublisher.publishEvent(new ChangeEvent(ChangeType.JOB_UPDATED, owners.get(jobId), jobId)));
+        return new Chunk(jobs.size(), linked, cursor, users);
+    }
+
+    private void loadIndexes(List<UnlinkedJob> jobs, Map<Long, CustomerIndex> indexes) {
+        Set<Long> missing = new HashSet<>();
+        for (UnlinkedJob job : jobs) {
+            if (!indexes.containsKey(job.userId())) {
+                missing.add(job.userId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.forEach(userId -> indexes.put(userId, new CustomerIndex()));
+        jdbc.query(SELECT_CUSTOMERS, Map.of("userIds", missing), rs -> {
+            indexes.get(rs.getLong("user_id")).add(rs.getLong("id"), rs.getString("name"), rs.getString("address"));
+        });
+    }
+
+    // One multi-row INSERT ... RETURNING for the whole chunk; returns new customer id -> user id
+    private Map<Long, Long> createCustomers(Map<String, List<UnlinkedJob>> unmatched, Map<Long, CustomerIndex> indexes,
+            Map<Long, Long> links) {
+        if (unmatched.isEmpty()) {
+            return Map.of();
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO customers (user_id, name, address, change_version) VALUES ");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (List<UnlinkedJob> group : unmatched.values()) {
+            UnlinkedJob first = group.get(0);
+            sql.append(i > 0 ? ", " : "")
+                    .append("(:u").append(i).append(", :n").append(i).append(", :a").append(i)
+                    .append(", nextval('change_version_seq'))");
+            params.addValue("u" + i, first.userId())
+                    .addValue("n" + i, first.customerName().trim())
+                    .addValue("a" + i, first.address() != null && !first.address().isBlank() ? first.address().trim() : null);
+            i++;
+        }
+        sql.append(" RETURNING id, user_id, name, address");
+
+        Map<Long, Long> created = new LinkedHashMap<>();
+        jdbc.query(sql.toString(), params, rs -> {
+            long id = rs.getLong("id");
+            long userId = rs.getLong("user_id");
+            String name = rs.getString("name");
+            String address = rs.getString("address");
+            indexes.get(userId).add(id, name, address);
+            String key = userId + "|" + CustomerIndex.key(CustomerMatcher.normalizeName(name),
+                    CustomerMatcher.normalizeAddress(address));
+            for (UnlinkedJob job : unmatched.get(key)) {
+                links.put(job.id(), id);
+            }
+            created.put(id, userId);
+        });
+        return created;
+    }
+
+    // Jobs linked meanwhile (customer_id no longer null) are left alone
+    private int linkJobs(Map<Long, Long> links) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE jobs j SET customer_id = v.customer_id, change_version = nextval('change_version_seq') FROM (VALUES ");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (Map.Entry<Long, Long> link : links.entrySet()) {
+            sql.append(i > 0 ? ", " : "").append("(:j").append(i).append(", :c").append(i).append(')');
+            params.addValue("j" + i, link.getKey()).addValue("c" + i, link.getValue());
+            i++;
+        }
+        sql.append(") AS v(job_id, customer_id) WHERE j.id = v.job_id AND j.customer_id IS NULL");
+        return jdbc.update(sql.toString(), params);
+    }
+
+    // A user's customers keyed by normalized name and address, plus unique names for address-less jobs
+    static final class CustomerIndex {
+        private static final long AMBIGUOUS = -1L;
+
+        private final Map<String, Long> byNameAndAddress = new HashMap<>();
+        private final Map<String, Long> byName = new HashMap<>();
+
+        static String key(String name, String address) {
+            return name + "|" + (address != null ? address : "");
+        }
+
+        void add(long id, String name, String address) {
+            String nameKey = CustomerMatcher.normalizeName(name);
+            if (nameKey.isEmpty()) {
+                return;
+            }
+            byNameAndAddress.putIfAbsent(key(nameKey, CustomerMatcher.normalizeAddress(address)), id);
+            byName.merge(nameKey, id, (existing, added) -> AMBIGUOUS);
+        }
+
+        Long match(String name, String address) {
+            Long id = byNameAndAddress.get(key(name, address));
+            if (id == null && address == null) {
+                Long only = byName.get(name);
+                if (only != null && only != AMBIGUOUS) {
+                    id = only;
+                }
+            }
+            return id;
+        }
+    }
+}
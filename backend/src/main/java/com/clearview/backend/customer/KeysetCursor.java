@@ -0,0 +1,26 @@
+package com.clearview.backend.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque "value|id" position in a keyset-paged listing
+record KeysetCursor(String value, long id) {
+
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = decoded.lastIndexOf('|');
+            return new KeysetCursor(decoded.substring(0, split), Long.parseLong(decoded.substring(split + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((value + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
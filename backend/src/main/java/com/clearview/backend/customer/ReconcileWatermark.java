@@ -0,0 +1,30 @@
+package com.clearview.backend.customer;
+
+import jakarta.persistence.*;
+
+// Progress of a background reconciler through (change_txid, change_version); only touched through JobCustomerReconciler's SQL
+@Entity
+@Table(name = "reconcile_watermarks")
+public class ReconcileWatermark {
+
+    @Id
+    private String name;
+
+    @Column(name = "last_txid", nullable = false)
+    private long lastTxid;
+
+    @Column(name = "last_version", nullable = false)
+    private long lastVersion;
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLastTxid() {
+        return lastTxid;
+    }
+
+    public long getLastVersion() {
+        return lastVersion;
+    }
+}
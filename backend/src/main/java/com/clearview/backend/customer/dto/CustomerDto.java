@@ -7,7 +7,8 @@ public record CustomerDto(
     String name,
     String phone,
     String email,
-    String address
+    String address,
+    Long version
 ) {
     public static CustomerDto from(Customer c) {
         return new CustomerDto(
@@ -15,7 +16,8 @@ public record CustomerDto(
             c.getName(),
             c.getPhone(),
             c.getEmail(),
-            c.getAddress()
+            c.getAddress(),
+            c.getChangeVersion()
         );
     }
 }
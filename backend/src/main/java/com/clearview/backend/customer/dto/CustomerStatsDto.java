@@ -0,0 +1,28 @@
+package com.clearview.backend.customer.dto;
+
+public record CustomerStatsDto(
+    CustomerDto customer,
+    long jobCount,
+    String lastVisit,
+    double outstandingBalance
+) {
+    // Constructor used by the grouped JPQL projection in CustomerRepository
+    public CustomerStatsDto(
+        Long id,
+        String name,
+        String phone,
+        String email,
+        String address,
+        Long version,
+        Long jobCount,
+        String lastVisit,
+        Double outstandingBalance
+    ) {
+        this(
+            new CustomerDto(id, name, phone, email, address, version),
+            jobCount != null ? jobCount : 0L,
+            lastVisit == null || lastVisit.isEmpty() ? null : lastVisit,
+            outstandingBalance != null ? outstandingBalance : 0.0
+        );
+    }
+}
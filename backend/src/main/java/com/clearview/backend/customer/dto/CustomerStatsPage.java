@@ -0,0 +1,9 @@
+package com.clearview.backend.customer.dto;
+
+import java.util.List;
+
+public record CustomerStatsPage(
+    List<CustomerStatsDto> customers,
+    String nextCursor
+) {
+}
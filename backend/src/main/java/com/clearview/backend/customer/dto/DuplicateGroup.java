@@ -0,0 +1,7 @@
+package com.clearview.backend.customer.dto;
+
+import java.util.List;
+
+// score is the weakest pair link that put these customers in one group
+public record DuplicateGroup(List<CustomerDto> customers, double score) {
+}
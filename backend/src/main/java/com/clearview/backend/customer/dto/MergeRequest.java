@@ -0,0 +1,6 @@
+package com.clearview.backend.customer.dto;
+
+import java.util.List;
+
+public record MergeRequest(List<Long> duplicateIds) {
+}
@@ -0,0 +1,95 @@
+package com.clearview.backend.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams JFR jdk.VirtualThreadPinned events in-process. A virtual thread
+ * that blocks inside a synchronized block (or a native frame) holds its
+ * carrier, so enough of them stall every request. Each pin is timed under
+ * clearview.vthreads.pinned{site}. The site is the first frame in
+ * Hibernate, the Postgres driver, Hikari or our own code, and the first
+ * stack seen at each site is logged.
+ */
+@Component
+@ConditionalOnProperty(name = "clearview.diagnostics.pinning.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> WATCHED_PACKAGES =
+            List.of("org.hibernate.", "org.postgresql.", "com.zaxxer.hikari.", "com.clearview.");
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private final MeterRegistry registry;
+    private final RecordingStream stream;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    public PinnedThreadMonitor(MeterRegistry registry,
+            @Value("${clearview.diagnostics.pinning.threshold-ms:20}") long thresholdMs) {
+        this.registry = registry;
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stack = event.getStackTrace();
+        String site = site(stack);
+        Timer.builder("clearview.vthreads.pinned")
+                .tag("site", site)
+                .register(registry)
+                .record(event.getDuration());
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread pinned its carrier for {} ms at {}\n{}",
+                    event.getDuration().toMillis(), site, format(stack));
+        }
+    }
+
+    static String site(RecordedStackTrace stack) {
+        if (stack == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stack.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            for (String prefix : WATCHED_PACKAGES) {
+                if (type.startsWith(prefix)) {
+                    return type + "." + frame.getMethod().getName();
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String format(RecordedStackTrace stack) {
+        if (stack == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (RecordedFrame frame : stack.getFrames()) {
+            text.append("\tat ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.clearview.backend.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Times statements for {@link SqlProfiler}. Connections are proxied so
+ * that prepareStatement/createStatement can ask the profiler whether to
+ * sample; unsampled statements are the driver's own objects, untouched.
+ * Sampled statements remember their binds and time each execute call
+ * (not result-set iteration).
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final SqlProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, SqlProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profiled(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profiled(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection profiled(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && profiler.sample()) {
+                        String name = method.getName();
+                        if ("prepareStatement".equals(name)) {
+                            return proxy(PreparedStatement.class, new ProfiledStatement(statement, (String) args[0]));
+                        }
+                        if ("createStatement".equals(name)) {
+                            return proxy(Statement.class, new ProfiledStatement(statement, null));
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ProfiledStatement implements InvocationHandler {
+        private final Statement target;
+        private String sql;
+        private Object[] binds;
+        private int lastIndex;
+
+        ProfiledStatement(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                binds = null;
+                lastIndex = 0;
+            } else if (name.startsWith("execute")) {
+                // Plain statements carry their SQL on the execute call
+                String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+                if (executed != null) {
+                    long start = System.nanoTime();
+                    try {
+                        return ProfilingDataSource.invoke(target, method, args);
+                    } finally {
+                        profiler.record(executed, System.nanoTime() - start,
+                                binds != null ? Arrays.copyOf(binds, lastIndex + 1) : null, getTargetDataSource());
+                    }
+                }
+            } else if ("addBatch".equals(name) && args != null && args.length == 1) {
+                sql = (String) args[0];
+            }
+            return ProfilingDataSource.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (binds == null) {
+                binds = new Object[Math.max(index + 1, 8)];
+            } else if (binds.length <= index) {
+                binds = Arrays.copyOf(binds, Math.max(index + 1, binds.length * 2));
+            }
+            binds[index] = value;
+            lastIndex = Math.max(lastIndex, index);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.clearview.backend.diagnostics;
+
+import com.clearview.backend.diagnostics.dto.SqlProfile;
+import com.clearview.backend.diagnostics.dto.SqlShapeStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-shape statement latency, fed by {@link ProfilingDataSource}. A shape
+ * is the SQL with literals and IN-lists collapsed, so every execution of
+ * the same Hibernate query lands in one histogram. Only a sample-rate
+ * fraction of statements is profiled at all; the rest go to the driver
+ * unwrapped. Sampled statements over the slow threshold are logged (bind
+ * values only with log-binds, otherwise just their types) and, when
+ * enabled, EXPLAINed in the background (at most one
+ * at a time, once per shape per explain-interval).
+ */
+@Component
+public class SqlProfiler {
+
+    static final String OTHER = "(other)";
+    private static final int MAX_BIND_LENGTH = 80;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Logger log = LoggerFactory.getLogger(SqlProfiler.class);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final boolean explainEnabled;
+    private final long explainIntervalMs;
+    private final boolean logBinds;
+
+    private final Map<String, Shape> shapesBySql = new ConcurrentHashMap<>();
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final AtomicBoolean explaining = new AtomicBoolean();
+
+    public SqlProfiler(@Value("${clearview.sql-profiler.enabled:true}") boolean enabled,
+            @Value("${clearview.sql-profiler.sample-rate:0.05}") double sampleRate,
+            @Value("${clearview.sql-profiler.slow-threshold-ms:200}") long slowThresholdMs,
+            @Value("${clearview.sql-profiler.max-shapes:500}") int maxShapes,
+            @Value("${clearview.sql-profiler.explain.enabled:false}") boolean explainEnabled,
+            @Value("${clearview.sql-profiler.explain.interval:PT10M}") Duration explainInterval,
+            @Value("${clearview.sql-profiler.log-binds:false}") boolean logBinds) {
+        this.enabled = enabled && sampleRate > 0;
+        this.sampleRate = Math.min(1.0, sampleRate);
+        this.slowThresholdNanos = Duration.ofMillis(slowThresholdMs).toNanos();
+        this.maxShapes = maxShapes;
+        this.explainEnabled = explainEnabled;
+        this.explainIntervalMs = explainInterval.toMillis();
+        this.logBinds = logBinds;
+    }
+
+    /** Decides, per statement, whether to profile it. */
+    boolean sample() {
+        return enabled && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Records one sampled execution. {@code binds} is indexed by parameter
+     * position (slot 0 unused) and may be null for plain statements.
+     */
+    void record(String sql, long nanos, Object[] binds, DataSource explainSource) {
+        Shape shape = shapeOf(sql);
+        shape.histogram.record(nanos);
+        if (nanos < slowThresholdNanos) {
+            return;
+        }
+        shape.slowCount.increment();
+        log.warn("Slow SQL ({} ms): {} binds={}", nanos / 1_000_000, sql, formatBinds(binds, !logBinds));
+        if (explainEnabled && explainSource != null && shape != shapes.get(OTHER)) {
+            maybeExplain(shape, sql, binds, explainSource);
+        }
+    }
+
+    public SqlProfile profile() {
+        List<SqlShapeStats> stats = shapes.values().stream()
+                .filter(shape -> shape.histogram.count() > 0)
+                .sorted(Comparator.comparingLong((Shape shape) -> shape.histogram.totalNanos()).reversed())
+                .map(Shape::stats)
+                .toList();
+        return new SqlProfile(enabled ? sampleRate : 0, slowThresholdNanos / 1_000_000, stats);
+    }
+
+    public void reset() {
+        shapesBySql.clear();
+        shapes.clear();
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private Shape shapeOf(String sql) {
+        Shape cached = shapesBySql.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = normalize(sql);
+        Shape shape = shapes.size() < maxShapes
+                ? shapes.computeIfAbsent(normalized, Shape::new)
+                : shapes.getOrDefault(normalized, null);
+        if (shape == null) {
+            // Past max-shapes, new shapes share one bucket instead of growing the map
+            return shapes.computeIfAbsent(OTHER, Shape::new);
+        }
+        if (shapesBySql.size() < maxShapes * 4) {
+            shapesBySql.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private void maybeExplain(Shape shape, String sql, Object[] binds, DataSource dataSource) {
+        String head = sql.stripLeading().toLowerCase();
+        if (!(head.startsWith("select") || head.startsWith("with")) || !replayable(binds)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (shape.planCapturedAt != 0 && now - shape.planCapturedAt < explainIntervalMs) {
+            return;
+        }
+        if (!explaining.compareAndSet(false, true)) {
+            return;
+        }
+        shape.planCapturedAt = now;
+        Object[] values = binds != null ? binds.clone() : null;
+        Thread.ofVirtual().name("sql-explain").start(() -> {
+            try {
+                shape.plan = explain(dataSource, sql, values);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("EXPLAIN failed for {}", shape.sql, e);
+            } finally {
+                explaining.set(false);
+            }
+        });
+    }
+
+    private static String explain(DataSource dataSource, String sql, Object[] binds) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            if (binds != null) {
+                for (int i = 1; i < binds.length; i++) {
+                    statement.setObject(i, binds[i]);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    // Streams and LOBs were consumed by the original execution
+    private static boolean replayable(Object[] binds) {
+        return binds == null || Arrays.stream(binds).noneMatch(SqlProfiler::isStream);
+    }
+
+    private static boolean isStream(Object value) {
+        return value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob;
+    }
+
+    // Redacted binds show only their types: enough to spot a wrong parameter without logging customer data
+    static String formatBinds(Object[] binds, boolean redact) {
+        if (binds == null || binds.length <= 1) {
+            return "[]";
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 1; i < binds.length; i++) {
+            if (i > 1) {
+                text.append(", ");
+            }
+            Object value = binds[i];
+            String shown;
+            if (value == null) {
+                shown = "null";
+            } else if (value instanceof byte[] bytes) {
+                shown = "<" + bytes.length + " bytes>";
+            } else if (redact || isStream(value)) {
+                shown = "<" + value.getClass().getSimpleName() + ">";
+            } else {
+                shown = value.toString();
+            }
+            text.append(shown.length() > MAX_BIND_LENGTH ? shown.substring(0, MAX_BIND_LENGTH) + "…" : shown);
+        }
+        return text.append(']').toString();
+    }
+
+    private static final class Shape {
+        private final String sql;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder slowCount = new LongAdder();
+        private volatile String plan;
+        private volatile long planCapturedAt;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        SqlShapeStats stats() {
+            long count = histogram.count();
+            double totalMs = histogram.totalNanos() / 1e6;
+            String capturedPlan = plan;
+            return new SqlShapeStats(sql, count, slowCount.sum(), totalMs,
+                    count > 0 ? totalMs / count : 0,
+                    histogram.percentileNanos(0.50) / 1e6,
+                    histogram.percentileNanos(0.95) / 1e6,
+                    histogram.percentileNanos(0.99) / 1e6,
+                    histogram.maxNanos() / 1e6,
+                    capturedPlan,
+                    capturedPlan != null ? planCapturedAt : null);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.clearview.backend.diagnostics;
+
+import com.clearview.backend.diagnostics.dto.SqlProfile;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/sqlprofile lists shapes by total time; DELETE starts a fresh window
+@Component
+@Endpoint(id = "sqlprofile")
+public class SqlProfilerEndpoint {
+
+    private final SqlProfiler profiler;
+
+    public SqlProfilerEndpoint(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public SqlProfile profile() {
+        return profiler.profile();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
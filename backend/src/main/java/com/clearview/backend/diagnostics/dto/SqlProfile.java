@@ -0,0 +1,7 @@
+package com.clearview.backend.diagnostics.dto;
+
+import java.util.List;
+
+// Counts are of sampled statements; divide by sampleRate to estimate totals
+public record SqlProfile(double sampleRate, long slowThresholdMs, List<SqlShapeStats> shapes) {
+}
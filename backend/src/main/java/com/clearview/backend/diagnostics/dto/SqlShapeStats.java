@@ -0,0 +1,15 @@
+package com.clearview.backend.diagnostics.dto;
+
+public record SqlShapeStats(
+        String sql,
+        long count,
+        long slowCount,
+        double totalMs,
+        double meanMs,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        double maxMs,
+        String plan,
+        Long planCapturedAt) {
+}
@@ -0,0 +1,9 @@
+package com.clearview.backend.events;
+
+// Published by services after a mutation; delivered to the owner's event stream once the transaction commits
+public record ChangeEvent(
+    ChangeType type,
+    Long userId,
+    Long id
+) {
+}
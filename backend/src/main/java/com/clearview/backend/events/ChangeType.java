@@ -0,0 +1,21 @@
+package com.clearview.backend.events;
+
+public enum ChangeType {
+    JOB_CREATED("job.created"),
+    JOB_UPDATED("job.updated"),
+    JOB_PAID("job.paid"),
+    JOB_DELETED("job.deleted"),
+    CUSTOMER_CREATED("customer.created"),
+    CUSTOMER_UPDATED("customer.updated"),
+    CUSTOMER_DELETED("customer.deleted");
+
+    private final String wireName;
+
+    ChangeType(String wireName) {
+        this.wireName = wireName;
+    }
+
+    public String getWireName() {
+        return wireName;
+    }
+}
@@ -0,0 +1,167 @@
+package com.clearview.backend.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-user Server-Sent Events fanout. Connections are held by async
+ * servlet requests (no thread each); every event is serialized once and
+ * queued for each subscriber. Each subscriber's queue is drained by its own
+ * virtual thread, so a slow client only delays itself, and one that falls
+ * max-pending frames behind is dropped (EventSource reconnects and the
+ * client refetches). The request that caused the change never waits.
+ */
+@Component
+public class EventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMs;
+    private final int maxPending;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService delivery = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-delivery-", 0).factory());
+
+    public EventBroadcaster(ObjectMapper objectMapper,
+            @Value("${clearview.events.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${clearview.events.max-pending:64}") int maxPending) {
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxPending = maxPending;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = register(userId, emitter);
+        try {
+            // Flushes headers so proxies and the browser see the stream open right away
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            unregister(subscriber);
+        }
+        return emitter;
+    }
+
+    Subscriber register(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(maxPending));
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        return subscriber;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event()
+                .name(event.type().getWireName())
+                .data(toJson(event), MediaType.APPLICATION_JSON)
+                .build();
+        userSubscribers.forEach(subscriber -> enqueue(subscriber, frame));
+    }
+
+    @Scheduled(fixedRateString = "${clearview.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> enqueue(subscriber, frame)));
+    }
+
+    int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (!subscriber.pending.offer(frame)) {
+            log.debug("Dropping SSE subscriber for user {}: {} frames behind", subscriber.userId, maxPending);
+            unregister(subscriber);
+            subscriber.pending.clear();
+            // complete() waits for the stuck send to let go of the emitter; don't make the publisher wait too
+            delivery.execute(() -> subscriber.emitter.complete());
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            delivery.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while ((frame = subscriber.pending.poll()) != null) {
+                try {
+                    subscriber.emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the container will also complete it, but don't wait for that
+                    unregister(subscriber);
+                    subscriber.pending.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // A frame queued after the last poll but before the flag cleared would otherwise sit there
+            if (subscriber.pending.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (key, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private String toJson(ChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("type", event.type().getWireName(), "id", event.id()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = pending;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.clearview.backend.events;
+
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    private final EventBroadcaster broadcaster;
+    private final UserRepository userRepository;
+
+    public EventController(EventBroadcaster broadcaster, UserRepository userRepository) {
+        this.broadcaster = broadcaster;
+        this.userRepository = userRepository;
+    }
+
+    // === Stream of job/customer changes for the logged-in user ===
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return broadcaster.subscribe(user.getId());
+    }
+}
@@ -0,0 +1,164 @@
+package com.clearview.backend.idempotency;
+
+import com.clearview.backend.storage.ContentStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POSTs that carry an Idempotency-Key safe to retry. The first
+ * request for a key runs and its response is stored; retries with the same
+ * key and body get that response replayed, and concurrent duplicates wait
+ * for the first one instead of inserting again. Keys are scoped to the
+ * user, method and path. The body is read and hashed before the request
+ * runs, so a key is always tied to the whole body; bodies over
+ * MAX_BODY_BYTES are refused with 413. Runs after authorization, so only
+ * authenticated requests are tracked.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+    static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final long WAIT_SECONDS = 30;
+
+    private final IdempotencyStore store;
+
+    public IdempotencyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HEADER);
+            return;
+        }
+        String scopeKey = auth.getName() + " POST " + request.getRequestURI() + " " + key;
+
+        HttpServletRequest bufferedRequest = request;
+        String requestHash;
+        if (isForm(request)) {
+            // The container parses form bodies into parameters; hash those instead of the consumed stream
+            requestHash = ContentStore.sha256(formContent(request).getBytes(StandardCharsets.UTF_8));
+        } else {
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Body too large for " + HEADER);
+                return;
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Body too large for " + HEADER);
+                return;
+            }
+            requestHash = ContentStore.sha256(body);
+            bufferedRequest = new BufferedBodyRequest(request, body);
+        }
+
+        CompletableFuture<StoredResponse> earlier = store.begin(scopeKey, requestHash);
+        if (earlier != null) {
+            replay(earlier, requestHash, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        StoredResponse result = null;
+        try {
+            chain.doFilter(bufferedRequest, cachingResponse);
+
+            // 5xx responses aren't kept; a retry runs the request again
+            if (cachingResponse.getStatus() < 500) {
+                result = new StoredResponse(requestHash, cachingResponse.getStatus(),
+                        cachingResponse.getContentType(), cachingResponse.getContentAsByteArray(),
+                        System.currentTimeMillis());
+            }
+        } finally {
+            store.complete(scopeKey, result);
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(CompletableFuture<StoredResponse> earlier, String requestHash,
+            HttpServletResponse response) throws IOException {
+        StoredResponse stored;
+        try {
+            stored = earlier.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stored = null;
+        } catch (ExecutionException | TimeoutException e) {
+            stored = null;
+        }
+
+        if (stored == null) {
+            // The first request failed or is still running; nothing to replay yet
+            response.sendError(HttpStatus.CONFLICT.value(), "Request with this " + HEADER + " did not complete; retry");
+            return;
+        }
+        if (!stored.requestHash().equals(requestHash)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), HEADER + " was already used with a different body");
+            return;
+        }
+
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    // Parameters in name order, so the hash doesn't depend on how the client ordered them
+    private static String formContent(HttpServletRequest request) {
+        StringBuilder content = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                content.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8)).append('&');
+            }
+        });
+        return content.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.clearview.backend.idempotency;
+
+import jakarta.persistence.*;
+
+// Durable copy of a stored response, so replays survive restarts and cache evictions. A row with status
+// PENDING is the claim of a request still running on some instance.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created", columnList = "created_at")
+})
+public class IdempotencyRecord {
+
+    static final int PENDING = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // user + method + path + Idempotency-Key
+    @Column(name = "scope_key", nullable = false, unique = true, length = 600)
+    private String scopeKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    private int status;
+
+    private String contentType;
+
+    @Column(columnDefinition = "bytea")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getScopeKey() {
+        return scopeKey;
+    }
+
+    public void setScopeKey(String scopeKey) {
+        this.scopeKey = scopeKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+
+    public boolean isPending() {
+        return status == PENDING;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.clearview.backend.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeKey(String scopeKey);
+
+    // Fills in the claim row once the request has its response
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.contentType = :contentType, r.body = :body, " +
+            "r.createdAt = :createdAt WHERE r.scopeKey = :scopeKey")
+    int completeClaim(String scopeKey, int status, String contentType, byte[] body, long createdAt);
+
+    // Drops a claim whose request ended without a storable response, so a retry can run it again
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scopeKey = :scopeKey AND r.status = " + IdempotencyRecord.PENDING)
+    int releaseClaim(String scopeKey);
+
+    // Age-guarded, so a row someone else has just re-claimed survives
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scopeKey = :scopeKey AND r.createdAt < :cutoff")
+    int deleteIfOlder(String scopeKey, long cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteOlderThan(long cutoff);
+}
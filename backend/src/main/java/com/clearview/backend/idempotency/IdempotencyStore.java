@@ -0,0 +1,195 @@
+package com.clearview.backend.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stored responses by idempotency scope key. Lookups hit a byte-bounded,
+ * TTL-checked LRU first and the idempotency_keys table only on a miss.
+ * The first request for a key claims it by inserting a pending row under
+ * the unique scope_key, so only one request runs per key across all
+ * instances. Duplicates on the same instance wait on the first one's
+ * future; duplicates while another instance holds the claim get nothing to
+ * replay yet (409).
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final StoredResponse RUNNING_ELSEWHERE =
+            new StoredResponse("", IdempotencyRecord.PENDING, null, null, 0);
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlMillis;
+    private final long claimTimeoutMillis;
+    private final long maxCachedBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, StoredResponse> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+            @Value("${clearview.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${clearview.idempotency.claim-timeout:PT2M}") Duration claimTimeout,
+            @Value("${clearview.idempotency.cache-bytes:16777216}") long maxCachedBytes) {
+        this.repository = repository;
+        this.ttlMillis = ttl.toMillis();
+        this.claimTimeoutMillis = claimTimeout.toMillis();
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    // null means the caller holds the claim for this key and must run it, then call complete().
+    // Otherwise the future yields the first request's response, or null if it is still running
+    // elsewhere or couldn't be stored.
+    CompletableFuture<StoredResponse> begin(String scopeKey, String requestHash) {
+        StoredResponse cached = cached(scopeKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopeKey, claim);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            // A leader may have finished between the cache miss and the local claim
+            StoredResponse stored = cached(scopeKey);
+            if (stored == null) {
+                stored = claimRow(scopeKey, requestHash);
+                if (stored == null) {
+                    return null;
+                }
+            }
+            if (stored == RUNNING_ELSEWHERE) {
+                stored = null;
+            } else {
+                remember(scopeKey, stored);
+            }
+            inFlight.remove(scopeKey, claim);
+            claim.complete(stored);
+            return claim;
+        } catch (RuntimeException e) {
+            inFlight.remove(scopeKey, claim);
+            claim.complete(null);
+            throw e;
+        }
+    }
+
+    void complete(String scopeKey, StoredResponse response) {
+        try {
+            if (response != null) {
+                remember(scopeKey, response);
+                repository.completeClaim(scopeKey, response.status(), response.contentType(), response.body(),
+                        response.createdAt());
+            } else {
+                repository.releaseClaim(scopeKey);
+            }
+        } finally {
+            CompletableFuture<StoredResponse> claim = inFlight.remove(scopeKey);
+            if (claim != null) {
+                claim.complete(response);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.idempotency.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        synchronized (cache) {
+            Iterator<StoredResponse> it = cache.values().iterator();
+            while (it.hasNext()) {
+                StoredResponse response = it.next();
+                if (response.createdAt() < cutoff) {
+                    cachedBytes -= weight(response);
+                    it.remove();
+                }
+            }
+        }
+        repository.deleteOlderThan(cutoff);
+    }
+
+    // null when this request now holds the claim row. Otherwise the response stored under the key, or
+    // RUNNING_ELSEWHERE while its holder is still running. A claim older than the claim timeout belongs to
+    // a request that died without completing, and an expired response is stale; both are deleted and the
+    // claim retried.
+    private StoredResponse claimRow(String scopeKey, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long now = System.currentTimeMillis();
+            try {
+                repository.saveAndFlush(new StoredResponse(requestHash, IdempotencyRecord.PENDING, null, null, now)
+                        .toRecord(scopeKey));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Claimed or completed already, here or on another instance
+            }
+
+            IdempotencyRecord record = repository.findByScopeKey(scopeKey).orElse(null);
+            if (record == null) {
+                continue;
+            }
+            if (record.isPending()) {
+                if (record.getCreatedAt() + claimTimeoutMillis > now) {
+                    return RUNNING_ELSEWHERE;
+                }
+                repository.deleteIfOlder(scopeKey, now - claimTimeoutMillis);
+            } else if (isFresh(record.getCreatedAt())) {
+                return StoredResponse.from(record);
+            } else {
+                repository.deleteIfOlder(scopeKey, now - ttlMillis);
+            }
+        }
+        return RUNNING_ELSEWHERE;
+    }
+
+    int cachedEntries() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private StoredResponse cached(String scopeKey) {
+        synchronized (cache) {
+            StoredResponse response = cache.get(scopeKey);
+            if (response != null && !isFresh(response.createdAt())) {
+                cache.remove(scopeKey);
+                cachedBytes -= weight(response);
+                return null;
+            }
+            return response;
+        }
+    }
+
+    private void remember(String scopeKey, StoredResponse response) {
+        synchronized (cache) {
+            StoredResponse previous = cache.put(scopeKey, response);
+            cachedBytes += weight(response) - (previous != null ? weight(previous) : 0);
+
+            Iterator<StoredResponse> eldest = cache.values().iterator();
+            while (cachedBytes > maxCachedBytes && eldest.hasNext()) {
+                cachedBytes -= weight(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    private boolean isFresh(long createdAt) {
+        return createdAt + ttlMillis > System.currentTimeMillis();
+    }
+
+    // Body plus a rough allowance for the key, hash and map entry
+    private static long weight(StoredResponse response) {
+        return (response.body() != null ? response.body().length : 0) + 256L;
+    }
+}
@@ -0,0 +1,26 @@
+package com.clearview.backend.idempotency;
+
+// What a retry gets back instead of running the request again
+record StoredResponse(
+    String requestHash,
+    int status,
+    String contentType,
+    byte[] body,
+    long createdAt
+) {
+    static StoredResponse from(IdempotencyRecord record) {
+        return new StoredResponse(record.getRequestHash(), record.getStatus(), record.getContentType(),
+                record.getBody(), record.getCreatedAt());
+    }
+
+    IdempotencyRecord toRecord(String scopeKey) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopeKey(scopeKey);
+        record.setRequestHash(requestHash);
+        record.setStatus(status);
+        record.setContentType(contentType);
+        record.setBody(body);
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+}
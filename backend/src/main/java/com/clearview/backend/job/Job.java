@@ -1,14 +1,24 @@
 package com.clearview.backend.job;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDate;
 
 import com.clearview.backend.customer.Customer;
+import com.clearview.backend.series.RecurringSeries;
 import com.clearview.backend.user.User;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_customer_date", columnList = "customer_id, job_date, id"),
+        @Index(name = "idx_jobs_user_txid", columnList = "user_id, change_txid, change_version"),
+        @Index(name = "idx_jobs_date", columnList = "job_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_jobs_series_occurrence", columnNames = { "series_id", "occurrence_date" }),
+        @UniqueConstraint(name = "uk_jobs_user_invoice", columnNames = { "user_id", "invoice_number" })
+})
 public class Job {
 
     @Id
@@ -28,6 +38,12 @@ public class Job {
     private boolean paid = false;
     private String invoiceNumber;
 
+    // SHA-256 of the rendered invoice document in the content store
+    private String invoiceHash;
+
+    // "jobVersion:customerVersion" the stored invoice was rendered from; a mismatch means it's stale
+    private String invoiceSource;
+
     // Relation: if linked to an existing customer
     @ManyToOne
     @JoinColumn(name = "customer_id")
@@ -37,6 +53,23 @@ public class Job {
     @JoinColumn(name = "user_id")
     private User createdBy;
 
+    // Set when this row materializes one occurrence of a recurring series.
+    // occurrenceDate is the scheduled slot; jobDate may move if rescheduled.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private RecurringSeries series;
+
+    private String occurrenceDate;
+
+    // Drawn from change_version_seq by the database on every insert and update; drives /api/sync
+    @Generated(event = { EventType.INSERT, EventType.UPDATE }, sql = "nextval('change_version_seq')")
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    // Writing transaction, set by the set_change_txid trigger whenever change_version moves (schema.sql)
+    @Column(name = "change_txid", insertable = false, updatable = false)
+    private Long changeTxid;
+
     // Getters & setters
     public Long getId() {
         return id;
@@ -110,6 +143,22 @@ public class Job {
         this.invoiceNumber = invoiceNumber;
     }
 
+    public String getInvoiceHash() {
+        return invoiceHash;
+    }
+
+    public void setInvoiceHash(String invoiceHash) {
+        this.invoiceHash = invoiceHash;
+    }
+
+    public String getInvoiceSource() {
+        return invoiceSource;
+    }
+
+    public void setInvoiceSource(String invoiceSource) {
+        this.invoiceSource = invoiceSource;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
@@ -125,4 +174,36 @@ public class Job {
     public void setCreatedBy(User createdBy) {
         this.createdBy = createdBy;
     }
+
+    public RecurringSeries getSeries() {
+        return series;
+    }
+
+    public void setSeries(RecurringSeries series) {
+        this.series = series;
+    }
+
+    public String getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(String occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public Long getChangeTxid() {
+        return changeTxid;
+    }
+
+    public void setChangeTxid(Long changeTxid) {
+        this.changeTxid = changeTxid;
+    }
 }
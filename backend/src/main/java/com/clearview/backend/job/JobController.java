@@ -3,39 +3,67 @@ package com.clearview.backend.job;
 import com.clearview.backend.customer.Customer;
 import com.clearview.backend.job.dto.JobDto;
 import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.job.dto.MarkPaidRequest;
 import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.invoice.InvoiceRenderer;
+import com.clearview.backend.job.invoice.InvoiceService;
+import com.clearview.backend.storage.FileTransfer;
+import com.clearview.backend.sync.RowPatcher;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.security.core.Authentication;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.Principal;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/jobs")
 public class JobController {
 
+    static final int MAX_BULK_IDS = 500;
+
     private final JobService jobService;
     private final UserRepository userRepository;
+    private final InvoiceService invoiceService;
 
-    public JobController(JobService jobService, UserRepository userRepository) {
+    public JobController(JobService jobService, UserRepository userRepository, InvoiceService invoiceService) {
         this.jobService = jobService;
         this.userRepository = userRepository;
+        this.invoiceService = invoiceService;
     }
 
-    // === Get all jobs for logged-in user ===
+    // === Get all jobs for logged-in user; includeArchived=true appends archived jobs (export) ===
     @GetMapping
-    public ResponseEntity<List<JobDto>> getAllJobs(Principal principal) {
+    public ResponseEntity<List<JobDto>> getAllJobs(@RequestParam(defaultValue = "false") boolean includeArchived,
+            Principal principal) {
         User user = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return ResponseEntity.ok(
-                jobService.getJobsByUser(user.getId())
-                        .stream()
-                        .map(JobDto::from)
-                        .toList());
+        List<JobDto> jobs = jobService.getJobsByUser(user.getId())
+                .stream()
+                .map(JobDto::from)
+                .toList();
+        if (includeArchived) {
+            jobs = Stream.concat(
+                    jobService.getArchivedJobsByUser(user.getId()).stream().map(JobDto::from),
+                    jobs.stream()).toList();
+        }
+        return ResponseEntity.ok(jobs);
     }
 
     // === Create new job ===
@@ -71,13 +99,56 @@ public class JobController {
         User user = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Job job = jobService.getJobByIdAndUser(id, user.getId())
+        Job saved = jobService.markPaid(id, user.getId())
                 .orElseThrow(() -> new RuntimeException("Job not found or unauthorized"));
+        invoiceService.scheduleRender(saved.getId());
+        return ResponseEntity.ok(JobDto.from(saved));
+    }
 
-        job.setPaid(true);
-        job.setInvoiceNumber("INV-" + job.getId());
+    // === Mark many jobs paid at once (already-paid and foreign ids are skipped) ===
+    @PostMapping("/mark-paid")
+    public ResponseEntity<Map<String, Object>> markJobsAsPaid(@RequestBody MarkPaidRequest request, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (request.ids() == null || request.ids().isEmpty() || request.ids().size() > MAX_BULK_IDS) {
+            throw new RuntimeException("Between 1 and " + MAX_BULK_IDS + " job ids are required");
+        }
 
-        return ResponseEntity.ok(JobDto.from(jobService.updateJob(job)));
+        List<Long> marked = jobService.markPaid(request.ids(), user.getId());
+        invoiceService.scheduleRenders(marked);
+        return ResponseEntity.ok(Map.of("marked", marked));
+    }
+
+    // === Download rendered invoice ===
+    @GetMapping("/{id}/invoice")
+    public void getInvoice(@PathVariable Long id, Principal principal,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Path file = invoiceService.getInvoiceFile(id, user.getId());
+        // The file name is the content hash; clients revalidate every time and get 304 while it's unchanged
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + file.getFileName() + "\"")) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"INV-" + id + ".html\"");
+        FileTransfer.send(file, InvoiceRenderer.CONTENT_TYPE, request, response);
+    }
+
+    // === Render all paid invoices for a month in the background ===
+    @PostMapping("/invoices/render")
+    public ResponseEntity<Map<String, Object>> renderInvoicesForMonth(@RequestParam String month, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        OptionalInt queued = invoiceService.renderMonth(user.getId(), YearMonth.parse(month));
+        if (queued.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("month", month, "error", "Invoice rendering is busy, try again later"));
+        }
+        return ResponseEntity.accepted().body(Map.of("month", month, "queued", queued.getAsInt()));
     }
 
     // === Get job by ID ===
@@ -92,6 +163,31 @@ public class JobController {
         return ResponseEntity.ok(jobService.updateJob(id, request));
     }
 
+    // === Partial update (JSON Merge Patch); If-Match: "<version>" makes it conditional ===
+    @PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<JobDto> patchJob(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Optional<Long> version = jobService.patchJob(id, user.getId(), patch, RowPatcher.parseIfMatch(ifMatch));
+        if (version.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (prefer == null || !prefer.contains("return=representation")) {
+            return ResponseEntity.noContent().eTag(version.get().toString()).build();
+        }
+
+        Job job = jobService.getJobByIdAndUser(id, user.getId())
+                .orElseThrow(() -> new RuntimeException("Job not found or unauthorized"));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(job.getChangeVersion()))
+                .header("Preference-Applied", "return=representation")
+                .body(JobDto.from(job));
+    }
+
     // === Delete job ===
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteJob(@PathVariable Long id) {
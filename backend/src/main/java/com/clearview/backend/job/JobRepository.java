@@ -1,19 +1,28 @@
 package com.clearview.backend.job;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.clearview.backend.job.dto.JobFact;
 import com.clearview.backend.job.dto.RevenueDto;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface JobRepository extends JpaRepository<Job, Long> {
 
+    // Customers are fetched in the same query; the eager @ManyToOne would otherwise load each one separately
+    @Query("SELECT j FROM Job j LEFT JOIN FETCH j.customer WHERE j.createdBy.id = :userId")
     List<Job> findByCreatedBy_Id(Long userId);
 
     Optional<Job> findByIdAndCreatedBy_Id(Long id, Long userId);
 
+    boolean existsByIdAndCreatedBy_Id(Long id, Long userId);
+
     @Query("SELECT new com.clearview.backend.job.dto.RevenueDto( " +
             "SUBSTRING(j.jobDate, 1, 7), " +
             "SUM(CASE WHEN j.paid = true THEN j.price ELSE 0 END), " +
@@ -24,4 +33,90 @@ public interface JobRepository extends JpaRepository<Job, Long> {
             "ORDER BY SUBSTRING(j.jobDate, 1, 7)")
     List<RevenueDto> getRevenueByUserId(Long userId);
 
+    @Query("SELECT j.createdBy.id FROM Job j WHERE j.id = :id")
+    Optional<Long> findOwnerIdById(Long id);
+
+    @Query("SELECT new com.clearview.backend.job.dto.JobFact( " +
+            "j.id, j.jobDate, j.price, j.service, c.id, COALESCE(c.name, j.customerName), j.paid) " +
+            "FROM Job j LEFT JOIN j.customer c " +
+            "WHERE j.createdBy.id = :userId")
+    List<JobFact> findRevenueFactsByUserId(Long userId);
+
+    // Keyset page of a customer's dated jobs, newest first; (jobDate, id) strictly before the cursor.
+    // job_date is compared bare so this is a backward range scan of idx_jobs_customer_date
+    @Query("SELECT j FROM Job j JOIN FETCH j.customer c " +
+            "WHERE c.id = :customerId AND c.createdBy.id = :userId " +
+            "AND (j.jobDate < :beforeDate OR (j.jobDate = :beforeDate AND j.id < :beforeId)) " +
+            "ORDER BY j.jobDate DESC NULLS FIRST, j.id DESC")
+    List<Job> findCustomerJobsPage(Long customerId, Long userId, String beforeDate, Long beforeId,
+            Pageable pageable);
+
+    // The undated jobs that lead the same order (NULLS FIRST), id strictly before the cursor
+    @Query("SELECT j FROM Job j JOIN FETCH j.customer c " +
+            "WHERE c.id = :customerId AND c.createdBy.id = :userId AND j.jobDate IS NULL AND j.id < :beforeId " +
+            "ORDER BY j.id DESC")
+    List<Job> findUndatedCustomerJobsPage(Long customerId, Long userId, Long beforeId, Pageable pageable);
+
+    // Run before deleting a job: a deleted series occurrence becomes a series exception, so it isn't offered again
+    @Modifying
+    @Query(value = "INSERT INTO series_exceptions (series_id, occurrence_date) " +
+            "SELECT series_id, occurrence_date FROM jobs WHERE id = :id AND user_id = :userId AND series_id IS NOT NULL " +
+            "ON CONFLICT (series_id, occurrence_date) DO NOTHING", nativeQuery = true)
+    int recordSeriesException(Long id, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Job j WHERE j.customer.id IN " +
+            "(SELECT c.id FROM Customer c WHERE c.id = :customerId AND c.createdBy.id = :userId)")
+    int deleteByCustomer(Long customerId, Long userId);
+
+    // Customer merge: moves the user's jobs to the surviving customer; new change versions so /api/sync sends them
+    @Modifying
+    @Query(value = "UPDATE jobs SET customer_id = :targetId, change_version = nextval('change_version_seq') " +
+            "WHERE customer_id IN (:customerIds) AND user_id = :userId", nativeQuery = true)
+    int reassignCustomer(Collection<Long> customerIds, Long targetId, Long userId);
+
+    @Query("SELECT j FROM Job j LEFT JOIN FETCH j.customer JOIN FETCH j.createdBy WHERE j.id = :id")
+    Optional<Job> findForInvoice(Long id);
+
+    @Query("SELECT j.id FROM Job j " +
+            "WHERE j.createdBy.id = :userId AND j.paid = true AND j.jobDate LIKE :datePattern " +
+            "ORDER BY j.id")
+    List<Long> findPaidJobIdsForMonth(Long userId, String datePattern);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.invoiceHash = :hash, j.invoiceSource = :source WHERE j.id = :id")
+    int updateInvoiceHash(Long id, String hash, String source);
+
+    @Query("SELECT j FROM Job j " +
+            "WHERE j.series.id IN :seriesIds AND j.occurrenceDate BETWEEN :from AND :to")
+    List<Job> findMaterializedOccurrences(Collection<Long> seriesIds, String from, String to);
+
+    Optional<Job> findBySeries_IdAndOccurrenceDate(Long seriesId, String occurrenceDate);
+
+    @Modifying
+    @Query("UPDATE Job j SET j.series = null WHERE j.series.id = :seriesId")
+    int detachFromSeries(Long seriesId);
+
+    // Delta sync: rows committed after the cursor by transactions older than horizon, in cursor order (idx_jobs_user_txid)
+    @Query("SELECT j FROM Job j LEFT JOIN FETCH j.customer " +
+            "WHERE j.createdBy.id = :userId AND j.changeTxid < :horizon " +
+            "AND (j.changeTxid > :afterTxid OR (j.changeTxid = :afterTxid AND j.changeVersion > :afterVersion)) " +
+            "ORDER BY j.changeTxid, j.changeVersion")
+    List<Job> findChangedSince(Long userId, Long afterTxid, Long afterVersion, Long horizon, Pageable pageable);
+
+    // Owned, unpaid jobs among ids, row-locked in id order so concurrent bulk payments can't deadlock
+    @Query(value = "SELECT id FROM jobs WHERE id IN (:ids) AND user_id = :userId AND paid = false " +
+            "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnpaidIds(Collection<Long> ids, Long userId);
+
+    // Marks ids paid and numbers them INV-<firstNumber>, INV-<firstNumber + 1>, ... in id order
+    @Modifying
+    @Query(value = "UPDATE jobs j SET paid = true, " +
+            "invoice_number = 'INV-' || (:firstNumber + n.rn - 1), " +
+            "change_version = nextval('change_version_seq') " +
+            "FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM jobs WHERE id IN (:ids)) n " +
+            "WHERE j.id = n.id", nativeQuery = true)
+    int markPaidNumbered(Collection<Long> ids, long firstNumber);
+
 }
@@ -1,26 +1,63 @@
 package com.clearview.backend.job;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.archive.ArchivedJob;
+import com.clearview.backend.job.archive.JobArchive;
 import com.clearview.backend.job.dto.JobDto;
 import com.clearview.backend.job.dto.JobRequest;
 import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.invoice.InvoiceNumbering;
+import com.clearview.backend.job.photo.JobPhotoRepository;
+import com.clearview.backend.sync.PatchTarget;
+import com.clearview.backend.sync.RowPatcher;
+import com.clearview.backend.sync.Tombstone;
+import com.clearview.backend.sync.TombstoneRepository;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class JobService {
 
+    // Fields the revenue snapshots are built from
+    private static final Set<String> REVENUE_FIELDS = Set.of("service", "jobDate", "price", "customerName");
+
     private final JobRepository jobRepository;
     private final UserRepository userRepository;
-
-    public JobService(JobRepository jobRepository, UserRepository userRepository) {
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TombstoneRepository tombstoneRepository;
+    private final RowPatcher rowPatcher;
+    private final InvoiceNumbering invoiceNumbering;
+    private final JobArchive jobArchive;
+    private final JobPhotoRepository photoRepository;
+
+    public JobService(JobRepository jobRepository, UserRepository userRepository,
+            RevenueAnalyticsService revenueAnalyticsService, ApplicationEventPublisher eventPublisher,
+            TombstoneRepository tombstoneRepository, RowPatcher rowPatcher, InvoiceNumbering invoiceNumbering,
+            JobArchive jobArchive, JobPhotoRepository photoRepository) {
         this.jobRepository = jobRepository;
         this.userRepository = userRepository;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.eventPublisher = eventPublisher;
+        this.tombstoneRepository = tombstoneRepository;
+        this.rowPatcher = rowPatcher;
+        this.invoiceNumbering = invoiceNumbering;
+        this.jobArchive = jobArchive;
+        this.photoRepository = photoRepository;
     }
 
     public Optional<Job> getJobByIdAndUser(Long jobId, Long userId) {
@@ -31,12 +68,51 @@ public class JobService {
         return jobRepository.findByCreatedBy_Id(userId);
     }
 
+    // Read-only; archived jobs can't be edited, paid or deleted through /api/jobs/{id}
+    public List<ArchivedJob> getArchivedJobsByUser(Long userId) {
+        return jobArchive.getJobsByUser(userId);
+    }
+
     public Job createJob(Job job) {
-        return jobRepository.save(job);
+        Job saved = jobRepository.save(job);
+        revenueAnalyticsService.onJobSaved(saved);
+        publish(ChangeType.JOB_CREATED, saved);
+        return saved;
     }
 
     public Job updateJob(Job job) {
-        return jobRepository.save(job); // save also updates if ID exists
+        Job saved = jobRepository.save(job); // save also updates if ID exists
+        revenueAnalyticsService.onJobSaved(saved);
+        publish(ChangeType.JOB_UPDATED, saved);
+        return saved;
+    }
+
+    // Single mark-paid goes through the bulk path, which locks the row before checking it, so concurrent
+    // payments can't both take a number. Paying twice keeps the first number. Empty if not the user's job.
+    @Transactional
+    public Optional<Job> markPaid(Long id, Long userId) {
+        markPaid(List.of(id), userId);
+        return jobRepository.findByIdAndCreatedBy_Id(id, userId);
+    }
+
+    // Bulk mark-paid: one block of invoice numbers and one UPDATE for all of them.
+    // Jobs that are already paid or not the user's are skipped; returns the ids that were marked.
+    @Transactional
+    public List<Long> markPaid(Collection<Long> ids, Long userId) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> unpaid = jobRepository.lockUnpaidIds(ids, userId);
+        if (unpaid.isEmpty()) {
+            return List.of();
+        }
+
+        long first = invoiceNumbering.reserve(userId, unpaid.size());
+        jobRepository.markPaidNumbered(unpaid, first);
+
+        revenueAnalyticsService.invalidate(userId);
+        unpaid.forEach(id -> eventPublisher.publishEvent(new ChangeEvent(ChangeType.JOB_PAID, userId, id)));
+        return unpaid;
     }
 
     public JobDto getJobById(Long id) {
@@ -57,16 +133,80 @@ public class JobService {
         job.setCustomerName(request.customerName());
 
         jobRepository.save(job);
+        revenueAnalyticsService.onJobSaved(job);
+        publish(ChangeType.JOB_UPDATED, job);
         return JobDto.from(job);
     }
 
+    // JSON Merge Patch as one owner-scoped UPDATE of only the given fields (null clears a field).
+    // Empty if the job has moved past expectedVersion; nothing is read before the write.
+    @Transactional
+    public Optional<Long> patchJob(Long id, Long userId, Map<String, Object> patch, Long expectedVersion) {
+        Optional<Long> version = rowPatcher.patch(PatchTarget.JOB, patch, id, userId, expectedVersion);
+        if (version.isEmpty()) {
+            rowPatcher.currentVersion(PatchTarget.JOB, id, userId)
+                    .orElseThrow(() -> new RuntimeException("Job not found or unauthorized"));
+            return Optional.empty();
+        }
+
+        if (patch.keySet().stream().anyMatch(REVENUE_FIELDS::contains)) {
+            revenueAnalyticsService.invalidate(userId);
+        }
+        eventPublisher.publishEvent(new ChangeEvent(ChangeType.JOB_UPDATED, userId, id));
+        return version;
+    }
+
+    @Transactional
     public void deleteJob(Long id) {
+        Long ownerId = jobRepository.findOwnerIdById(id).orElse(null);
+        if (ownerId != null) {
+            jobRepository.recordSeriesException(id, ownerId);
+        }
         jobRepository.deleteById(id);
+        revenueAnalyticsService.onJobDeleted(ownerId, id);
+        if (ownerId != null) {
+            photoRepository.deleteByJob(id, ownerId);
+            tombstoneRepository.save(new Tombstone(ownerId, Tombstone.JOB, id));
+            eventPublisher.publishEvent(new ChangeEvent(ChangeType.JOB_DELETED, ownerId, id));
+        }
+    }
+
+    // For delete paths that remove the row themselves (sync push); call before the DELETE, in its transaction
+    public void recordSeriesException(Long id, Long userId) {
+        jobRepository.recordSeriesException(id, userId);
     }
 
     public List<RevenueDto> getRevenueForUser(Authentication auth) {
         var user = userRepository.findByUsername(auth.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return jobRepository.getRevenueByUserId(user.getId());
+        List<RevenueDto> live = jobRepository.getRevenueByUserId(user.getId());
+        List<RevenueDto> archived = jobArchive.getRevenueByMonth(user.getId());
+        if (archived.isEmpty()) {
+            return live;
+        }
+
+        // Months can straddle the archive horizon, so both sides are summed per month
+        Map<String, double[]> months = new TreeMap<>();
+        for (RevenueDto row : live) {
+            add(months, row);
+        }
+        for (RevenueDto row : archived) {
+            add(months, row);
+        }
+        return months.entrySet().stream()
+                .map(month -> new RevenueDto(month.getKey(), month.getValue()[0], month.getValue()[1]))
+                .toList();
+    }
+
+    private static void add(Map<String, double[]> months, RevenueDto row) {
+        double[] totals = months.computeIfAbsent(row.getMonth(), key -> new double[2]);
+        totals[0] += row.getPaid() != null ? row.getPaid() : 0.0;
+        totals[1] += row.getUnpaid() != null ? row.getUnpaid() : 0.0;
+    }
+
+    private void publish(ChangeType type, Job job) {
+        if (job.getCreatedBy() != null) {
+            eventPublisher.publishEvent(new ChangeEvent(type, job.getCreatedBy().getId(), job.getId()));
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.clearview.backend.job.archive;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// A paid job moved out of the jobs table by JobArchiver; written only through its SQL, never updated.
+// Plain id columns rather than relations, so the archive holds no foreign keys into the hot tables.
+@Entity
+@Table(name = "archived_jobs", indexes = {
+        @Index(name = "idx_archived_jobs_user_date", columnList = "user_id, job_date, id"),
+        @Index(name = "idx_archived_jobs_customer_date", columnList = "customer_id, job_date, id"),
+        @Index(name = "idx_archived_jobs_series", columnList = "series_id, occurrence_date")
+})
+public class ArchivedJob {
+
+    // The job's original id; identity values are never reused, so it stays unique across both tables
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    private String service;
+    private String jobDate;
+    private Double price;
+    private String notes;
+
+    // Linked customers' name and address as they were when the job was archived
+    private String customerName;
+    private String address;
+
+    private String invoiceNumber;
+    private String invoiceHash;
+    private String occurrenceDate;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getJobDate() {
+        return jobDate;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public String getInvoiceHash() {
+        return invoiceHash;
+    }
+
+    public String getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.clearview.backend.job.archive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedJobRepository extends JpaRepository<ArchivedJob, Long> {
+
+    @Query("SELECT a FROM ArchivedJob a WHERE a.userId = :userId ORDER BY a.jobDate, a.id")
+    List<ArchivedJob> findByUserId(Long userId);
+
+    // Same keyset as JobRepository.findCustomerJobsPage, so the two pages can be merged
+    @Query("SELECT a FROM ArchivedJob a " +
+            "WHERE a.customerId = :customerId AND a.userId = :userId " +
+            "AND (a.jobDate < :beforeDate OR (a.jobDate = :beforeDate AND a.id < :beforeId)) " +
+            "ORDER BY a.jobDate DESC NULLS FIRST, a.id DESC")
+    List<ArchivedJob> findCustomerJobsPage(Long customerId, Long userId, String beforeDate, Long beforeId,
+            Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedJob a " +
+            "WHERE a.customerId = :customerId AND a.userId = :userId AND a.jobDate IS NULL AND a.id < :beforeId " +
+            "ORDER BY a.id DESC")
+    List<ArchivedJob> findUndatedCustomerJobsPage(Long customerId, Long userId, Long beforeId, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedJob a " +
+            "WHERE a.seriesId IN :seriesIds AND a.occurrenceDate BETWEEN :from AND :to")
+    List<ArchivedJob> findOccurrences(Collection<Long> seriesIds, String from, String to);
+
+    // Clients may still hold archived jobs locally, so a customer delete tombstones them like live ones
+    @Modifying
+    @Query(value = "INSERT INTO tombstones (user_id, entity_type, entity_id, change_version) " +
+            "SELECT user_id, 'job', id, nextval('change_version_seq') FROM archived_jobs " +
+            "WHERE customer_id = :customerId AND user_id = :userId", nativeQuery = true)
+    int recordCustomerTombstones(Long customerId, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedJob a WHERE a.customerId = :customerId AND a.userId = :userId")
+    int deleteByCustomer(Long customerId, Long userId);
+
+    @Modifying
+    @Query("UPDATE ArchivedJob a SET a.customerId = :targetId " +
+            "WHERE a.customerId IN :customerIds AND a.userId = :userId")
+    int reassignCustomer(Collection<Long> customerIds, Long targetId, Long userId);
+}
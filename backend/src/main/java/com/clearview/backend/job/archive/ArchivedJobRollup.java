@@ -0,0 +1,71 @@
+package com.clearview.backend.job.archive;
+
+import jakarta.persistence.*;
+
+// Archived jobs summed per day, service and customer so revenue reports never read archived_jobs.
+// Each archiving pass appends its own rows; readers sum across them.
+@Entity
+@Table(name = "archived_job_rollups", indexes = {
+        @Index(name = "idx_archived_rollups_user", columnList = "user_id"),
+        @Index(name = "idx_archived_rollups_customer", columnList = "customer_id")
+})
+public class ArchivedJobRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // yyyy-MM-dd
+    @Column(nullable = false)
+    private String jobDate;
+
+    private String service;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // Only set for manual-entry jobs; linked customers are labelled with their current name
+    private String customerName;
+
+    @Column(nullable = false)
+    private long jobs;
+
+    // Sum of each job's price rounded to cents, as RevenueSnapshot rounds them
+    @Column(nullable = false)
+    private long priceCents;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getJobDate() {
+        return jobDate;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public long getJobs() {
+        return jobs;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+}
@@ -0,0 +1,37 @@
+package com.clearview.backend.job.archive;
+
+import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.dto.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedJobRollupRepository extends JpaRepository<ArchivedJobRollup, Long> {
+
+    @Query("SELECT new com.clearview.backend.job.dto.RevenueRollup( " +
+            "r.jobDate, r.service, r.customerId, COALESCE(c.name, r.customerName), SUM(r.jobs), SUM(r.priceCents)) " +
+            "FROM ArchivedJobRollup r LEFT JOIN Customer c ON c.id = r.customerId " +
+            "WHERE r.userId = :userId " +
+            "GROUP BY r.jobDate, r.service, r.customerId, COALESCE(c.name, r.customerName)")
+    List<RevenueRollup> findRevenueRollups(Long userId);
+
+    // Same shape as JobRepository.getRevenueByUserId; archived jobs are all paid
+    @Query("SELECT new com.clearview.backend.job.dto.RevenueDto( " +
+            "SUBSTRING(r.jobDate, 1, 7), SUM(r.priceCents) / 100.0, 0.0) " +
+            "FROM ArchivedJobRollup r " +
+            "WHERE r.userId = :userId " +
+            "GROUP BY SUBSTRING(r.jobDate, 1, 7)")
+    List<RevenueDto> getRevenueByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedJobRollup r WHERE r.customerId = :customerId AND r.userId = :userId")
+    int deleteByCustomer(Long customerId, Long userId);
+
+    @Modifying
+    @Query("UPDATE ArchivedJobRollup r SET r.customerId = :targetId " +
+            "WHERE r.customerId IN :customerIds AND r.userId = :userId")
+    int reassignCustomer(Collection<Long> customerIds, Long targetId, Long userId);
+}
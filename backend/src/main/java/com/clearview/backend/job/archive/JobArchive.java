@@ -0,0 +1,65 @@
+package com.clearview.backend.job.archive;
+
+import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.dto.RevenueRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read and maintenance access to jobs that JobArchiver has moved out of the
+ * jobs table. Revenue reads go to the day-grain rollups; archived_jobs
+ * itself is only read when a caller asks for archived history.
+ */
+@Service
+public class JobArchive {
+
+    private final ArchivedJobRepository archivedJobRepository;
+    private final ArchivedJobRollupRepository rollupRepository;
+
+    public JobArchive(ArchivedJobRepository archivedJobRepository, ArchivedJobRollupRepository rollupRepository) {
+        this.archivedJobRepository = archivedJobRepository;
+        this.rollupRepository = rollupRepository;
+    }
+
+    public List<ArchivedJob> getJobsByUser(Long userId) {
+        return archivedJobRepository.findByUserId(userId);
+    }
+
+    public List<ArchivedJob> getCustomerJobsPage(Long customerId, Long userId, String beforeDate, Long beforeId,
+            int limit) {
+        return archivedJobRepository.findCustomerJobsPage(customerId, userId, beforeDate, beforeId,
+                Pageable.ofSize(limit));
+    }
+
+    public List<ArchivedJob> getUndatedCustomerJobsPage(Long customerId, Long userId, Long beforeId, int limit) {
+        return archivedJobRepository.findUndatedCustomerJobsPage(customerId, userId, beforeId, Pageable.ofSize(limit));
+    }
+
+    public List<ArchivedJob> getOccurrences(Collection<Long> seriesIds, String from, String to) {
+        return archivedJobRepository.findOccurrences(seriesIds, from, to);
+    }
+
+    public List<RevenueRollup> getRevenueRollups(Long userId) {
+        return rollupRepository.findRevenueRollups(userId);
+    }
+
+    public List<RevenueDto> getRevenueByMonth(Long userId) {
+        return rollupRepository.getRevenueByUserId(userId);
+    }
+
+    // === Customer delete and merge; run inside the caller's transaction ===
+
+    public void deleteCustomerJobs(Long customerId, Long userId) {
+        archivedJobRepository.recordCustomerTombstones(customerId, userId);
+        archivedJobRepository.deleteByCustomer(customerId, userId);
+        rollupRepository.deleteByCustomer(customerId, userId);
+    }
+
+    public void reassignCustomer(Collection<Long> customerIds, Long targetId, Long userId) {
+        archivedJobRepository.reassignCustomer(customerIds, targetId, userId);
+        rollupRepository.reassignCustomer(customerIds, targetId, userId);
+    }
+}
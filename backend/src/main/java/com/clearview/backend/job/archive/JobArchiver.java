@@ -0,0 +1,122 @@
+package com.clearview.backend.job.archive;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves paid jobs dated before the horizon from jobs into archived_jobs,
+ * adding their totals to archived_job_rollups. Each batch is one statement
+ * in its own transaction. The statement deletes the rows, then inserts them
+ * into both archive tables from the DELETE's RETURNING rows, so a job is
+ * never in both places. Jobs locked by a concurrent write are skipped
+ * until the next run.
+ *
+ * Archiving writes no tombstones: clients keep the copies they already
+ * hold, and only a full resync stops returning archived jobs.
+ */
+@Component
+public class JobArchiver {
+
+    private static final String ARCHIVE_BATCH = """
+            WITH moved AS (
+                DELETE FROM jobs WHERE id IN (
+                    SELECT id FROM jobs
+                    WHERE paid AND job_date < :cutoff AND job_date ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}'
+                    ORDER BY job_date, id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING *
+            ), archived AS (
+                INSERT INTO archived_jobs (id, user_id, customer_id, series_id, service, job_date, price, notes,
+                        customer_name, address, invoice_number, invoice_hash, occurrence_date, archived_at)
+                SELECT m.id, m.user_id, m.customer_id, m.series_id, m.service, m.job_date, m.price, m.notes,
+                        COALESCE(c.name, m.customer_name), COALESCE(c.address, m.address),
+                        m.invoice_number, m.invoice_hash, m.occurrence_date, now()
+                FROM moved m LEFT JOIN customers c ON c.id = m.customer_id
+            ), rolled_up AS (
+                INSERT INTO archived_job_rollups (user_id, job_date, service, customer_id, customer_name, jobs, price_cents)
+                SELECT user_id, left(job_date, 10), service, customer_id,
+                        CASE WHEN customer_id IS NULL THEN customer_name END,
+                        count(*), CAST(sum(round(COALESCE(price, 0) * 100)) AS bigint)
+                FROM moved
+                GROUP BY user_id, left(job_date, 10), service, customer_id,
+                        CASE WHEN customer_id IS NULL THEN customer_name END
+            )
+            SELECT user_id, count(*) AS jobs FROM moved GROUP BY user_id
+            """;
+
+    private static final Logger log = LoggerFactory.getLogger(JobArchiver.class);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public JobArchiver(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            RevenueAnalyticsService revenueAnalyticsService,
+            @Value("${clearview.archive.enabled:true}") boolean enabled,
+            @Value("${clearview.archive.after-months:24}") int afterMonths,
+            @Value("${clearview.archive.batch-size:1000}") int batchSize,
+            @Value("${clearview.archive.max-batches-per-run:50}") int maxBatches) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.archive.interval-ms:3600000}",
+            initialDelayString = "${clearview.archive.initial-delay-ms:300000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        String cutoff = LocalDate.now().minusMonths(afterMonths).toString();
+        long archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int moved = archiveBatch(cutoff);
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} jobs dated before {}", archived, cutoff);
+        }
+    }
+
+    // Returns how many jobs were moved
+    int archiveBatch(String cutoff) {
+        Map<Long, Long> movedByUser = transactionTemplate.execute(status -> {
+            Map<Long, Long> counts = new HashMap<>();
+            jdbc.query(ARCHIVE_BATCH, new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize),
+                    rs -> {
+                        counts.put(rs.getLong("user_id"), rs.getLong("jobs"));
+                    });
+            return counts;
+        });
+        if (movedByUser == null) {
+            return 0;
+        }
+        // Snapshots hold the moved jobs as single rows; rebuilt ones read them back from the rollups
+        movedByUser.keySet().forEach(revenueAnalyticsService::invalidate);
+        return (int) movedByUser.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
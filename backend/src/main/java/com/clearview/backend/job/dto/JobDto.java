@@ -1,6 +1,7 @@
 package com.clearview.backend.job.dto;
 
 import com.clearview.backend.job.Job;
+import com.clearview.backend.job.archive.ArchivedJob;
 
 public record JobDto(
     Long id,
@@ -11,7 +12,8 @@ public record JobDto(
     Double price,
     String notes,
     boolean paid,
-    String invoiceNumber
+    String invoiceNumber,
+    Long version
 ) {
     public static JobDto from(Job job) {
         return new JobDto(
@@ -23,7 +25,24 @@ public record JobDto(
             job.getPrice(),
             job.getNotes(),
             job.isPaid(),
-            job.getInvoiceNumber()
+            job.getInvoiceNumber(),
+            job.getChangeVersion()
+        );
+    }
+
+    // Archived jobs have no version: they leave the sync stream and can't be patched
+    public static JobDto from(ArchivedJob job) {
+        return new JobDto(
+            job.getId(),
+            job.getService(),
+            job.getCustomerName(),
+            job.getAddress(),
+            job.getJobDate(),
+            job.getPrice(),
+            job.getNotes(),
+            true,
+            job.getInvoiceNumber(),
+            null
         );
     }
 }
@@ -0,0 +1,12 @@
+package com.clearview.backend.job.dto;
+
+public record JobFact(
+    Long id,
+    String jobDate,
+    Double price,
+    String service,
+    Long customerId,
+    String customerName,
+    boolean paid
+) {
+}
@@ -0,0 +1,9 @@
+package com.clearview.backend.job.dto;
+
+import java.util.List;
+
+public record JobPage(
+    List<JobDto> jobs,
+    String nextCursor
+) {
+}
@@ -0,0 +1,8 @@
+package com.clearview.backend.job.dto;
+
+import java.util.List;
+
+public record MarkPaidRequest(
+    List<Long> ids
+) {
+}
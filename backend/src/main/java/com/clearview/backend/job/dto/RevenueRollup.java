@@ -0,0 +1,12 @@
+package com.clearview.backend.job.dto;
+
+// Archived jobs of one day, service and customer, summed; archived jobs are all paid
+public record RevenueRollup(
+    String jobDate,
+    String service,
+    Long customerId,
+    String customerName,
+    Long jobs,
+    Long priceCents
+) {
+}
@@ -0,0 +1,24 @@
+package com.clearview.backend.job.invoice;
+
+import jakarta.persistence.*;
+
+// Last invoice number handed out per user; only touched through InvoiceNumbering's SQL
+@Entity
+@Table(name = "invoice_counters")
+public class InvoiceCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_number", nullable = false)
+    private long lastNumber;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getLastNumber() {
+        return lastNumber;
+    }
+}
@@ -0,0 +1,63 @@
+package com.clearview.backend.job.invoice;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Gapless per-user invoice numbers from a counter row per user. A block
+ * of numbers is one UPDATE ... RETURNING, which locks only that user's
+ * row until the surrounding transaction ends, so users never wait on
+ * each other and a rollback hands the block back. This is safe across
+ * app instances because the row lock lives in the database.
+ */
+@Component
+public class InvoiceNumbering {
+
+    static final String PREFIX = "INV-";
+
+    private static final String INCREMENT =
+            "UPDATE invoice_counters SET last_number = last_number + :count " +
+            "WHERE user_id = :userId RETURNING last_number";
+
+    // First use per user: continue after any INV-<n> the user already has, live or archived, so numbers stay unique
+    private static final String SEED =
+            "INSERT INTO invoice_counters (user_id, last_number) " +
+            "SELECT :userId, COALESCE(MAX(CAST(SUBSTRING(invoice_number FROM 5) AS bigint)), 0) FROM (" +
+            "SELECT invoice_number FROM jobs WHERE user_id = :userId AND invoice_number ~ '^INV-[0-9]+$' " +
+            "UNION ALL " +
+            "SELECT invoice_number FROM archived_jobs WHERE user_id = :userId AND invoice_number ~ '^INV-[0-9]+$'" +
+            ") numbered " +
+            "ON CONFLICT (user_id) DO NOTHING";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public InvoiceNumbering(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // Reserves count consecutive numbers and returns the first. Must run inside the transaction
+    // that assigns them, otherwise a failure after this call would leave a gap.
+    public long reserve(Long userId, int count) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Invoice numbers must be reserved inside a transaction");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("count", count);
+
+        List<Long> last = jdbc.queryForList(INCREMENT, params, Long.class);
+        if (last.isEmpty()) {
+            jdbc.update(SEED, params);
+            last = jdbc.queryForList(INCREMENT, params, Long.class);
+        }
+        return last.get(0) - count + 1;
+    }
+
+    public static String format(long number) {
+        return PREFIX + number;
+    }
+}
@@ -0,0 +1,32 @@
+package com.clearview.backend.job.invoice;
+
+import com.clearview.backend.task.TaskHandler;
+import org.springframework.stereotype.Component;
+
+// Renders one paid job's invoice (payload: job id); rendering is content-addressed, so a repeat is harmless
+@Component
+public class InvoiceRenderTask implements TaskHandler {
+
+    public static final String TYPE = "invoice.render";
+
+    private final InvoiceService invoiceService;
+
+    public InvoiceRenderTask(InvoiceService invoiceService) {
+        this.invoiceService = invoiceService;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(String payload) {
+        invoiceService.render(Long.valueOf(payload));
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return 2;
+    }
+}
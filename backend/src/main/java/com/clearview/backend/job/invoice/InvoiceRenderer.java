@@ -0,0 +1,79 @@
+package com.clearview.backend.job.invoice;
+
+import com.clearview.backend.job.Job;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+@Component
+public class InvoiceRenderer {
+
+    public static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    // Output depends only on the job's fields, so re-rendering an unchanged job yields the same hash
+    public byte[] render(Job job) {
+        String customerName = job.getCustomer() != null ? job.getCustomer().getName() : job.getCustomerName();
+        String address = job.getCustomer() != null ? job.getCustomer().getAddress() : job.getAddress();
+        String invoiceNumber = job.getInvoiceNumber() != null ? job.getInvoiceNumber() : "INV-" + job.getId();
+        String business = job.getCreatedBy() != null ? job.getCreatedBy().getUsername() : "";
+        double price = job.getPrice() != null ? job.getPrice() : 0.0;
+
+        String html = """
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                <meta charset="UTF-8">
+                <title>Invoice %1$s</title>
+                <style>
+                body { font-family: sans-serif; margin: 40px; color: #222; }
+                table { width: 100%%; border-collapse: collapse; margin-top: 24px; }
+                th, td { text-align: left; padding: 8px; border-bottom: 1px solid #ddd; }
+                .total { font-weight: bold; }
+                </style>
+                </head>
+                <body>
+                <h1>Invoice %1$s</h1>
+                <p>%2$s</p>
+                <p><strong>Bill to:</strong><br>%3$s<br>%4$s</p>
+                <p><strong>Service date:</strong> %5$s</p>
+                <table>
+                <tr><th>Service</th><th>Notes</th><th>Amount</th></tr>
+                <tr><td>%6$s</td><td>%7$s</td><td>$%8$s</td></tr>
+                <tr class="total"><td colspan="2">Total</td><td>$%8$s</td></tr>
+                </table>
+                <p>Status: %9$s</p>
+                </body>
+                </html>
+                """.formatted(
+                escape(invoiceNumber),
+                escape(business),
+                escape(customerName),
+                escape(address),
+                escape(job.getJobDate()),
+                escape(job.getService()),
+                escape(job.getNotes()),
+                String.format(Locale.US, "%.2f", price),
+                job.isPaid() ? "Paid" : "Unpaid");
+
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
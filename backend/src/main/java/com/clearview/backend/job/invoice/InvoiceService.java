@@ -0,0 +1,193 @@
+package com.clearview.backend.job.invoice;
+
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.storage.ContentStore;
+import com.clearview.backend.task.TaskQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class InvoiceService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceService.class);
+
+    private final JobRepository jobRepository;
+    private final InvoiceRenderer renderer;
+    private final ContentStore contentStore;
+    private final TaskQueue taskQueue;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor batchCoordinator;
+    private final int batchInFlight;
+    // "userId:month" -> job count of a month run that is queued or running
+    private final Map<String, Integer> pendingMonths = new ConcurrentHashMap<>();
+
+    public InvoiceService(JobRepository jobRepository,
+            InvoiceRenderer renderer,
+            ContentStore contentStore,
+            TaskQueue taskQueue,
+            @Value("${clearview.invoices.threads:2}") int threads,
+            @Value("${clearview.invoices.queue-capacity:100}") int queueCapacity,
+            @Value("${clearview.invoices.batch-in-flight:8}") int batchInFlight,
+            @Value("${clearview.invoices.batch-queue-capacity:20}") int batchQueueCapacity) {
+        this.jobRepository = jobRepository;
+        this.renderer = renderer;
+        this.contentStore = contentStore;
+        this.taskQueue = taskQueue;
+        this.batchInFlight = batchInFlight;
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("invoice-render"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.batchCoordinator = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchQueueCapacity), namedThreads("invoice-batch"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // === Queue a durable render after jobs are marked paid ===
+    public void scheduleRender(Long jobId) {
+        taskQueue.enqueue(InvoiceRenderTask.TYPE, jobId.toString());
+    }
+
+    public void scheduleRenders(List<Long> jobIds) {
+        taskQueue.enqueue(InvoiceRenderTask.TYPE, jobIds.stream().map(String::valueOf).toList());
+    }
+
+    // === Render every paid job in a month, at most batchInFlight at a time ===
+    // A repeat request while the same month is still pending joins that run. Empty when the
+    // coordinator's queue is full.
+    public OptionalInt renderMonth(Long userId, YearMonth month) {
+        String key = userId + ":" + month;
+        Integer pending = pendingMonths.get(key);
+        if (pending != null) {
+            return OptionalInt.of(pending);
+        }
+        List<Long> jobIds = jobRepository.findPaidJobIdsForMonth(userId, month + "%");
+        pending = pendingMonths.putIfAbsent(key, jobIds.size());
+        if (pending != null) {
+            return OptionalInt.of(pending);
+        }
+        try {
+            batchCoordinator.execute(() -> {
+                try {
+                    renderAll(jobIds, userId, month);
+                } finally {
+                    pendingMonths.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingMonths.remove(key);
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(jobIds.size());
+    }
+
+    private void renderAll(List<Long> jobIds, Long userId, YearMonth month) {
+        Semaphore permits = new Semaphore(batchInFlight);
+        AtomicInteger failures = new AtomicInteger();
+        for (Long jobId : jobIds) {
+            permits.acquireUninterruptibly();
+            try {
+                workers.execute(() -> {
+                    try {
+                        if (!renderQuietly(jobId)) {
+                            failures.incrementAndGet();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Single renders filled the queue; do this one on the coordinator thread
+                try {
+                    if (!renderQuietly(jobId)) {
+                        failures.incrementAndGet();
+                    }
+                } finally {
+                    permits.release();
+                }
+            }
+        }
+        permits.acquireUninterruptibly(batchInFlight);
+        log.info("Rendered {} invoices for user {} in {} ({} failed)", jobIds.size(), userId, month, failures.get());
+    }
+
+    // === Path to the rendered invoice, rendering it now if it's missing or stale ===
+    public Path getInvoiceFile(Long jobId, Long userId) {
+        Job job = jobRepository.findForInvoice(jobId)
+                .filter(j -> j.getCreatedBy().getId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Job not found or unauthorized"));
+        if (!job.isPaid()) {
+            throw new RuntimeException("Invoice not available for unpaid job");
+        }
+        String hash = isCurrent(job) ? job.getInvoiceHash() : render(job);
+        return contentStore.resolve(hash);
+    }
+
+    public String render(Long jobId) {
+        Job job = jobRepository.findForInvoice(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        return render(job);
+    }
+
+    private String render(Job job) {
+        String hash = contentStore.put(renderer.render(job));
+        String source = sourceOf(job);
+        if (!hash.equals(job.getInvoiceHash()) || !source.equals(job.getInvoiceSource())) {
+            jobRepository.updateInvoiceHash(job.getId(), hash, source);
+        }
+        return hash;
+    }
+
+    // Edits, renumbering and customer changes all move a change version, so an invoice rendered from
+    // the current versions still matches the job
+    private boolean isCurrent(Job job) {
+        return sourceOf(job).equals(job.getInvoiceSource()) && contentStore.exists(job.getInvoiceHash());
+    }
+
+    static String sourceOf(Job job) {
+        Long customerVersion = job.getCustomer() != null ? job.getCustomer().getChangeVersion() : null;
+        return job.getChangeVersion() + ":" + customerVersion;
+    }
+
+    private boolean renderQuietly(Long jobId) {
+        try {
+            render(jobId);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to render invoice for job {}", jobId, e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchCoordinator.shutdown();
+        workers.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.clearview.backend.job.photo;
+
+import jakarta.persistence.*;
+
+// Metadata for one photo on a job; the bytes live in the ContentStore under contentHash.
+// jobId is a plain column (no foreign key) so photos stay attached when JobArchiver moves the job.
+@Entity
+@Table(name = "job_photos", indexes = {
+        @Index(name = "idx_job_photos_job", columnList = "job_id, id")
+})
+public class JobPhoto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PhotoKind kind;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private String contentHash;
+
+    private long sizeBytes;
+
+    // Set once the background thumbnailer has run
+    private String thumbnailHash;
+
+    @Column(nullable = false)
+    private long createdAt;
+
+    protected JobPhoto() {
+    }
+
+    public JobPhoto(Long jobId, Long userId, PhotoKind kind, String contentType, String contentHash, long sizeBytes) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.kind = kind;
+        this.contentType = contentType;
+        this.contentHash = contentHash;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public PhotoKind getKind() {
+        return kind;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getThumbnailHash() {
+        return thumbnailHash;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
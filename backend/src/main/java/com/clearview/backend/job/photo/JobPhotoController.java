@@ -0,0 +1,107 @@
+package com.clearview.backend.job.photo;
+
+import com.clearview.backend.job.photo.dto.JobPhotoDto;
+import com.clearview.backend.storage.ContentStore;
+import com.clearview.backend.storage.FileTransfer;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs/{jobId}/photos")
+public class JobPhotoController {
+
+    // Photo bytes never change for a given photo id
+    static final String IMMUTABLE = "private, max-age=31536000, immutable";
+
+    private final JobPhotoService photoService;
+    private final ContentStore contentStore;
+    private final UserRepository userRepository;
+
+    public JobPhotoController(JobPhotoService photoService, ContentStore contentStore, UserRepository userRepository) {
+        this.photoService = photoService;
+        this.contentStore = contentStore;
+        this.userRepository = userRepository;
+    }
+
+    // === Upload a photo (multipart "file", optional kind=before|after|other) ===
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobPhotoDto> uploadPhoto(@PathVariable Long jobId, @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String kind, Principal principal) throws IOException {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // The servlet container has already spooled the part to disk; this streams it into the store
+        try (InputStream content = file.getInputStream()) {
+            return ResponseEntity.ok(photoService.upload(jobId, user.getId(), kind, content));
+        }
+    }
+
+    // === Photo metadata for a job; never reads image bytes ===
+    @GetMapping
+    public ResponseEntity<List<JobPhotoDto>> getPhotos(@PathVariable Long jobId, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(photoService.getPhotos(jobId, user.getId()));
+    }
+
+    // === Download the photo (supports Range and If-None-Match) ===
+    @GetMapping("/{photoId}")
+    public void getPhoto(@PathVariable Long jobId, @PathVariable Long photoId, Principal principal,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        JobPhoto photo = photoService.getPhoto(photoId, jobId, user.getId());
+        send(photo.getContentHash(), photo.getContentType(), IMMUTABLE, request, response);
+    }
+
+    // === Download the thumbnail; the full photo (uncached) until the thumbnail is ready ===
+    @GetMapping("/{photoId}/thumbnail")
+    public void getThumbnail(@PathVariable Long jobId, @PathVariable Long photoId, Principal principal,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        JobPhoto photo = photoService.getPhoto(photoId, jobId, user.getId());
+        if (photo.getThumbnailHash() == null) {
+            photoService.scheduleThumbnail(photo.getId(), photo.getContentHash());
+            send(photo.getContentHash(), photo.getContentType(), "private, no-cache", request, response);
+            return;
+        }
+        send(photo.getThumbnailHash(), PhotoThumbnailer.JPEG, IMMUTABLE, request, response);
+    }
+
+    // === Delete a photo ===
+    @DeleteMapping("/{photoId}")
+    public ResponseEntity<Void> deletePhoto(@PathVariable Long jobId, @PathVariable Long photoId, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        photoService.deletePhoto(photoId, jobId, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private void send(String hash, String contentType, String cacheControl,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Sets the ETag, and answers 304 when the client already has these bytes
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "\"")) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        FileTransfer.send(contentStore.resolve(hash), contentType, request, response);
+    }
+}
@@ -0,0 +1,39 @@
+package com.clearview.backend.job.photo;
+
+import com.clearview.backend.job.photo.dto.JobPhotoDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface JobPhotoRepository extends JpaRepository<JobPhoto, Long> {
+
+    @Query("SELECT new com.clearview.backend.job.photo.dto.JobPhotoDto( " +
+            "p.id, p.jobId, p.kind, p.contentType, p.sizeBytes, " +
+            "CASE WHEN p.thumbnailHash IS NOT NULL THEN true ELSE false END, p.createdAt) " +
+            "FROM JobPhoto p WHERE p.jobId = :jobId AND p.userId = :userId ORDER BY p.id")
+    List<JobPhotoDto> findRowsByJob(Long jobId, Long userId);
+
+    Optional<JobPhoto> findByIdAndJobIdAndUserId(Long id, Long jobId, Long userId);
+
+    long countByJobIdAndUserId(Long jobId, Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobPhoto p SET p.thumbnailHash = :hash WHERE p.id = :id")
+    int updateThumbnailHash(Long id, String hash);
+
+    @Modifying
+    @Query("DELETE FROM JobPhoto p WHERE p.jobId = :jobId AND p.userId = :userId")
+    int deleteByJob(Long jobId, Long userId);
+
+    // Customer delete: photos of every live or archived job about to go with the customer
+    @Modifying
+    @Query(value = "DELETE FROM job_photos WHERE user_id = :userId AND job_id IN (" +
+            "SELECT id FROM jobs WHERE customer_id = :customerId " +
+            "UNION ALL SELECT id FROM archived_jobs WHERE customer_id = :customerId)", nativeQuery = true)
+    int deleteByCustomer(Long customerId, Long userId);
+}
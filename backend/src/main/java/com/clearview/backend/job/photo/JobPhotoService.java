@@ -0,0 +1,151 @@
+package com.clearview.backend.job.photo;
+
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.photo.dto.JobPhotoDto;
+import com.clearview.backend.storage.ContentStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Before/after photos on jobs. Uploads stream into the ContentStore, so
+ * identical photos are stored once. Thumbnails are made afterwards on a
+ * small bounded pool. When that pool's queue is full, a thumbnail is
+ * scheduled again on its first download.
+ */
+@Service
+public class JobPhotoService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobPhotoService.class);
+
+    private final JobRepository jobRepository;
+    private final JobPhotoRepository photoRepository;
+    private final ContentStore contentStore;
+    private final ThreadPoolExecutor thumbnailers;
+    private final long maxBytes;
+    private final int maxPerJob;
+    private final int thumbnailSize;
+
+    public JobPhotoService(JobRepository jobRepository,
+            JobPhotoRepository photoRepository,
+            ContentStore contentStore,
+            @Value("${clearview.photos.max-bytes:20971520}") long maxBytes,
+            @Value("${clearview.photos.max-per-job:50}") int maxPerJob,
+            @Value("${clearview.photos.thumbnail-size:320}") int thumbnailSize,
+            @Value("${clearview.photos.thumbnail-threads:2}") int threads,
+            @Value("${clearview.photos.thumbnail-queue-capacity:200}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.photoRepository = photoRepository;
+        this.contentStore = contentStore;
+        this.maxBytes = maxBytes;
+        this.maxPerJob = maxPerJob;
+        this.thumbnailSize = thumbnailSize;
+        this.thumbnailers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("photo-thumbnail"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // === Store an uploaded photo on one of the user's live jobs ===
+    public JobPhotoDto upload(Long jobId, Long userId, String kind, InputStream content) {
+        if (!jobRepository.existsByIdAndCreatedBy_Id(jobId, userId)) {
+            throw new RuntimeException("Job not found or unauthorized");
+        }
+        PhotoKind photoKind = parseKind(kind);
+        if (photoRepository.countByJobIdAndUserId(jobId, userId) >= maxPerJob) {
+            throw new RuntimeException("A job can have at most " + maxPerJob + " photos");
+        }
+
+        try {
+            BufferedInputStream in = new BufferedInputStream(content);
+            byte[] head = new byte[8];
+            in.mark(head.length);
+            String contentType = PhotoThumbnailer.sniff(head, in.readNBytes(head, 0, head.length));
+            in.reset();
+            if (contentType == null) {
+                throw new RuntimeException("Photos must be JPEG or PNG");
+            }
+
+            String hash = contentStore.put(in, maxBytes);
+            long size = Files.size(contentStore.resolve(hash));
+            JobPhoto photo = photoRepository.save(new JobPhoto(jobId, userId, photoKind, contentType, hash, size));
+            scheduleThumbnail(photo.getId(), hash);
+            return JobPhotoDto.from(photo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read upload", e);
+        }
+    }
+
+    // Works for archived jobs too; photos keep their job id
+    public List<JobPhotoDto> getPhotos(Long jobId, Long userId) {
+        return photoRepository.findRowsByJob(jobId, userId);
+    }
+
+    public JobPhoto getPhoto(Long photoId, Long jobId, Long userId) {
+        return photoRepository.findByIdAndJobIdAndUserId(photoId, jobId, userId)
+                .orElseThrow(() -> new RuntimeException("Photo not found or unauthorized"));
+    }
+
+    // Content files are left in place: another photo may have the same bytes. ContentSweeper removes
+    // them once nothing references them.
+    public void deletePhoto(Long photoId, Long jobId, Long userId) {
+        photoRepository.delete(getPhoto(photoId, jobId, userId));
+    }
+
+    public void scheduleThumbnail(Long photoId, String contentHash) {
+        try {
+            thumbnailers.execute(() -> makeThumbnail(photoId, contentHash));
+        } catch (RejectedExecutionException e) {
+            log.warn("Thumbnail queue full, deferring photo {}", photoId);
+        }
+    }
+
+    void makeThumbnail(Long photoId, String contentHash) {
+        try {
+            byte[] thumbnail = PhotoThumbnailer.thumbnail(contentStore.resolve(contentHash), thumbnailSize);
+            photoRepository.updateThumbnailHash(photoId, contentStore.put(thumbnail));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to make thumbnail for photo {}", photoId, e);
+        }
+    }
+
+    private static PhotoKind parseKind(String kind) {
+        if (kind == null || kind.isBlank()) {
+            return PhotoKind.OTHER;
+        }
+        try {
+            return PhotoKind.valueOf(kind.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown photo kind: " + kind);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        thumbnailers.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
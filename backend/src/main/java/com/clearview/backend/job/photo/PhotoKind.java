@@ -0,0 +1,7 @@
+package com.clearview.backend.job.photo;
+
+public enum PhotoKind {
+    BEFORE,
+    AFTER,
+    OTHER
+}
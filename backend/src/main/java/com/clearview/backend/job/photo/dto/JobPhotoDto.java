@@ -0,0 +1,27 @@
+package com.clearview.backend.job.photo.dto;
+
+import com.clearview.backend.job.photo.JobPhoto;
+import com.clearview.backend.job.photo.PhotoKind;
+
+// Photo metadata only; bytes come from GET /api/jobs/{jobId}/photos/{id} (and /thumbnail)
+public record JobPhotoDto(
+    Long id,
+    Long jobId,
+    PhotoKind kind,
+    String contentType,
+    long sizeBytes,
+    boolean hasThumbnail,
+    long createdAt
+) {
+    public static JobPhotoDto from(JobPhoto photo) {
+        return new JobPhotoDto(
+            photo.getId(),
+            photo.getJobId(),
+            photo.getKind(),
+            photo.getContentType(),
+            photo.getSizeBytes(),
+            photo.getThumbnailHash() != null,
+            photo.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package com.clearview.backend.ratelimit;
+
+import com.clearview.backend.user.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Runs right after JwtAuthenticationFilter: signed-in calls are limited per user, login/register per IP
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String PRIVATE_NETWORKS = "10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,127.0.0.0/8,::1/128";
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+            @Value("${clearview.ratelimit.enabled:true}") boolean enabled,
+            @Value("${clearview.ratelimit.trusted-proxies:" + PRIVATE_NETWORKS + "}") String trustedProxies) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.trustedProxies = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(cidr -> !cidr.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = acquire(request);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(waitNanos)));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // 0 if the request may proceed, otherwise nanoseconds until it would. BatchExecutor calls this for
+    // each sub-request, since those don't pass through the filter chain.
+    public long acquire(HttpServletRequest request) {
+        if (!enabled) {
+            return 0;
+        }
+        RouteGroup group = RouteGroup.of(request);
+        return rateLimiter.acquire(group, clientKey(group, request));
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private String clientKey(RouteGroup group, HttpServletRequest request) {
+        if (group != RouteGroup.AUTH) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof User user) {
+                return "u" + user.getId();
+            }
+        }
+        return clientIp(request);
+    }
+
+    // Behind the hosting proxy the peer address is the proxy's. The client is the right-most
+    // X-Forwarded-For hop not added by a trusted proxy; anything left of that is client-supplied.
+    String clientIp(HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || !isTrustedProxy(ip)) {
+            return ip;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!isIpLiteral(hop)) {
+                break;
+            }
+            ip = hop;
+            if (!isTrustedProxy(hop)) {
+                break;
+            }
+        }
+        return ip;
+    }
+
+    private boolean isTrustedProxy(String ip) {
+        if (!isIpLiteral(ip)) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(ip)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keeps IpAddressMatcher from resolving header values as host names
+    private static boolean isIpLiteral(String value) {
+        return value != null && !value.isEmpty() && value.chars()
+                .allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':');
+    }
+}
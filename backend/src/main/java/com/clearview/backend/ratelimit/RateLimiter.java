@@ -0,0 +1,97 @@
+package com.clearview.backend.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One token bucket per (route group, client key). The hot path is a map
+ * lookup plus a CAS and takes no locks. Memory is bounded: buckets that
+ * have fully refilled are swept out on a schedule, and past max-keys new
+ * clients are turned away until the next sweep instead of growing the map.
+ */
+@Component
+public class RateLimiter {
+
+    record Limit(long intervalNanos, int burst) {
+        static Limit perMinute(int requests, int burst) {
+            return new Limit(TimeUnit.MINUTES.toNanos(1) / Math.max(1, requests), Math.max(1, burst));
+        }
+    }
+
+    private final Map<RouteGroup, Limit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Map<String, TokenBucket>> buckets = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> allowed = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> limited = new EnumMap<>(RouteGroup.class);
+    private final Counter shed;
+    private final int maxKeys;
+
+    public RateLimiter(MeterRegistry registry,
+            @Value("${clearview.ratelimit.auth.per-minute:20}") int authPerMinute,
+            @Value("${clearview.ratelimit.auth.burst:10}") int authBurst,
+            @Value("${clearview.ratelimit.read.per-minute:600}") int readPerMinute,
+            @Value("${clearview.ratelimit.read.burst:100}") int readBurst,
+            @Value("${clearview.ratelimit.write.per-minute:120}") int writePerMinute,
+            @Value("${clearview.ratelimit.write.burst:40}") int writeBurst,
+            @Value("${clearview.ratelimit.max-keys:100000}") int maxKeys) {
+        limits.put(RouteGroup.AUTH, Limit.perMinute(authPerMinute, authBurst));
+        limits.put(RouteGroup.READ, Limit.perMinute(readPerMinute, readBurst));
+        limits.put(RouteGroup.WRITE, Limit.perMinute(writePerMinute, writeBurst));
+        this.maxKeys = maxKeys;
+
+        for (RouteGroup group : RouteGroup.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+            String tag = group.name().toLowerCase();
+            allowed.put(group, Counter.builder("clearview.ratelimit.requests")
+                    .tag("group", tag).tag("outcome", "allowed").register(registry));
+            limited.put(group, Counter.builder("clearview.ratelimit.requests")
+                    .tag("group", tag).tag("outcome", "limited").register(registry));
+        }
+        this.shed = Counter.builder("clearview.ratelimit.shed")
+                .description("Requests from new clients rejected because max-keys was reached")
+                .register(registry);
+        Gauge.builder("clearview.ratelimit.keys", this, RateLimiter::trackedKeys).register(registry);
+    }
+
+    // 0 if the request may proceed, otherwise nanoseconds until it would
+    public long acquire(RouteGroup group, String key) {
+        long now = System.nanoTime();
+        Map<String, TokenBucket> groupBuckets = buckets.get(group);
+        Limit limit = limits.get(group);
+        TokenBucket bucket = groupBuckets.get(key);
+        if (bucket == null) {
+            // Never sweep here: that is O(keys) on the request thread. The scheduled evictIdle frees room
+            if (trackedKeys() >= maxKeys) {
+                shed.increment();
+                return limit.intervalNanos();
+            }
+            bucket = groupBuckets.computeIfAbsent(key, k -> new TokenBucket(now));
+        }
+
+        long wait = bucket.tryAcquire(now, limit.intervalNanos(), limit.burst());
+        (wait == 0 ? allowed : limited).get(group).increment();
+        return wait;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.ratelimit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().forEach(groupBuckets -> groupBuckets.values().removeIf(bucket -> bucket.isIdle(now)));
+    }
+
+    int trackedKeys() {
+        int total = 0;
+        for (Map<String, TokenBucket> groupBuckets : buckets.values()) {
+            total += groupBuckets.size();
+        }
+        return total;
+    }
+}
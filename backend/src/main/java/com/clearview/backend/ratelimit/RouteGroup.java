@@ -0,0 +1,18 @@
+package com.clearview.backend.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Requests that share a limit; auth is keyed by client IP, the rest by user
+public enum RouteGroup {
+    AUTH,
+    READ,
+    WRITE;
+
+    static RouteGroup of(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ? READ : WRITE;
+    }
+}
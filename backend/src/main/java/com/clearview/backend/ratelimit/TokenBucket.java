@@ -0,0 +1,37 @@
+package com.clearview.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one
+ * "theoretical arrival time" updated by compare-and-set, so a check is a
+ * read, some arithmetic and usually one CAS.
+ */
+final class TokenBucket {
+
+    private final AtomicLong tat;
+
+    TokenBucket(long nowNanos) {
+        this.tat = new AtomicLong(nowNanos);
+    }
+
+    // 0 if the request may proceed, otherwise nanoseconds until it would
+    long tryAcquire(long nowNanos, long intervalNanos, int burst) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burst * intervalNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A bucket that has refilled completely behaves exactly like a new one, so it can be dropped
+    boolean isIdle(long nowNanos) {
+        return tat.get() <= nowNanos;
+    }
+}
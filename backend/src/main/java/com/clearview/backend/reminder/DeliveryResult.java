@@ -0,0 +1,12 @@
+package com.clearview.backend.reminder;
+
+public record DeliveryResult(long reminderId, boolean delivered, boolean retryable, String providerId, String error) {
+
+    public static DeliveryResult sent(long reminderId, String providerId) {
+        return new DeliveryResult(reminderId, true, false, providerId, null);
+    }
+
+    public static DeliveryResult failed(long reminderId, String error, boolean retryable) {
+        return new DeliveryResult(reminderId, false, retryable, null, error);
+    }
+}
@@ -0,0 +1,56 @@
+package com.clearview.backend.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Local stand-in for a provider: logs each message and, when a file is set, appends it there one line per message
+public class LoggingReminderSender implements ReminderSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderSender.class);
+
+    private final ReminderChannel channel;
+    private final Path file;
+
+    public LoggingReminderSender(ReminderChannel channel, Path file) {
+        this.channel = channel;
+        this.file = file;
+    }
+
+    @Override
+    public ReminderChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public List<DeliveryResult> send(List<ReminderMessage> batch) {
+        StringBuilder lines = new StringBuilder();
+        List<DeliveryResult> results = new ArrayList<>(batch.size());
+        for (ReminderMessage message : batch) {
+            log.debug("Reminder {} via {} logged", message.id(), channel);
+            lines.append(message.id()).append('\t').append(channel).append('\t')
+                    .append(message.recipient()).append('\t').append(message.body().replace('\n', ' ')).append('\n');
+            results.add(DeliveryResult.sent(message.id(), "log-" + message.id()));
+        }
+        if (file != null) {
+            try {
+                append(lines.toString());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not write reminder log " + file, e);
+            }
+        }
+        return results;
+    }
+
+    private synchronized void append(String lines) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,111 @@
+package com.clearview.backend.reminder;
+
+import jakarta.persistence.*;
+
+// One reminder per job and visit date, written and updated only through ReminderDispatcher's SQL.
+// jobId is a plain column: rows for deleted or rescheduled jobs are cancelled by the dispatcher's sweep.
+@Entity
+@Table(name = "reminders", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reminders_job_visit", columnNames = { "job_id", "visit_date" })
+})
+public class Reminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReminderChannel channel;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(name = "visit_date", nullable = false)
+    private String visitDate;
+
+    @Column(nullable = false, length = 1000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReminderStatus status;
+
+    private int attempts;
+
+    // Epoch millis: when a PENDING row is due, or when a SENDING claim lapses
+    @Column(name = "next_attempt_at", nullable = false)
+    private long nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private String providerId;
+
+    private Long sentAt;
+
+    @Column(nullable = false)
+    private long createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public ReminderChannel getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getVisitDate() {
+        return visitDate;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public ReminderStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public Long getSentAt() {
+        return sentAt;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.clearview.backend.reminder;
+
+public enum ReminderChannel {
+    SMS,
+    EMAIL
+}
@@ -0,0 +1,316 @@
+package com.clearview.backend.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Reminds customers the day before a visit. Planning is one INSERT ...
+ * SELECT over tomorrow's jobs (idx_jobs_date) that adds a PENDING row per
+ * job; the unique (job_id, visit_date) key makes re-running it harmless,
+ * so jobs booked later in the day are picked up by the next run.
+ *
+ * Dispatch claims due rows per channel with FOR UPDATE SKIP LOCKED, marking
+ * them SENDING until a lease runs out, and hands each batch to that
+ * channel's ReminderSender outside any transaction. Every statement commits
+ * on its own. Results are written back in one UPDATE per batch, which only
+ * applies to rows still holding the same claim. A row whose claim lapsed
+ * (the instance died mid-send) is claimed again and resent under the same
+ * id, which the sender passes to the provider as its idempotency key.
+ *
+ * Each channel has a token-bucket throttle holding up to a minute of its
+ * rate and refilled from the clock before every batch, so a run may send
+ * several batches (at most max-batches-per-run) but never more than the
+ * channel's rate allows. The throttle is per instance.
+ */
+@Component
+public class ReminderDispatcher {
+
+    private static final String PLAN = """
+            INSERT INTO reminders (job_id, user_id, channel, recipient, visit_date, body, status, attempts,
+                    next_attempt_at, created_at)
+            SELECT j.id, j.user_id,
+                    CASE WHEN nullif(btrim(c.phone), '') IS NOT NULL THEN 'SMS' ELSE 'EMAIL' END,
+                    COALESCE(nullif(btrim(c.phone), ''), btrim(c.email)),
+                    :visitDate,
+                    left(format('Reminder: your %s visit%s is booked for tomorrow, %s.',
+                            COALESCE(j.service, 'Window Cleaning'),
+                            COALESCE(' at ' || nullif(btrim(c.address), ''), ''), :visitDate), 1000),
+                    'PENDING', 0, :now, :now
+            FROM jobs j JOIN customers c ON c.id = j.customer_id
+            WHERE j.job_date >= :visitDate AND j.job_date < :dayAfter
+                AND (nullif(btrim(c.phone), '') IS NOT NULL OR nullif(btrim(c.email), '') IS NOT NULL)
+            ON CONFLICT (job_id, visit_date) DO NOTHING
+            """;
+
+    private static final String CANCEL_STALE = """
+            UPDATE reminders r SET status = 'CANCELLED', last_error = 'Visit passed, or job deleted or rescheduled'
+            WHERE r.status IN ('PENDING', 'SENDING') AND r.next_attempt_at <= :now
+                AND (r.visit_date < :today OR NOT EXISTS (
+                    SELECT 1 FROM jobs j WHERE j.id = r.job_id AND left(j.job_date, 10) = r.visit_date))
+            """;
+
+    private static final String FAIL_ABANDONED = """
+            UPDATE reminders SET status = 'FAILED', last_error = 'No result recorded after the last attempt'
+            WHERE status = 'SENDING' AND next_attempt_at <= :now AND attempts >= :maxAttempts
+            """;
+
+    private static final String CLAIM = """
+            UPDATE reminders SET status = 'SENDING', attempts = attempts + 1, next_attempt_at = :leaseUntil
+            WHERE id IN (
+                SELECT id FROM reminders
+                WHERE channel = :channel AND status IN ('PENDING', 'SENDING')
+                    AND next_attempt_at <= :now AND attempts < :maxAttempts
+                ORDER BY next_attempt_at, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, recipient, body, attempts
+            """;
+
+    // Retry backoff doubles per attempt up to this
+    private static final long MAX_BACKOFF_MS = 3_600_000L;
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Map<ReminderChannel, ReminderSender> senders = new EnumMap<>(ReminderChannel.class);
+    private final Map<ReminderChannel, Throttle> throttles = new EnumMap<>(ReminderChannel.class);
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long leaseMs;
+    private final int sendFromHour;
+    private final int sendUntilHour;
+
+    public ReminderDispatcher(NamedParameterJdbcTemplate jdbc, List<ReminderSender> senders,
+            @Value("${clearview.reminders.enabled:false}") boolean enabled,
+            @Value("${clearview.reminders.batch-size:100}") int batchSize,
+            @Value("${clearview.reminders.max-batches-per-run:50}") int maxBatches,
+            @Value("${clearview.reminders.max-attempts:5}") int maxAttempts,
+            @Value("${clearview.reminders.retry-backoff-ms:60000}") long retryBackoffMs,
+            @Value("${clearview.reminders.lease-ms:300000}") long leaseMs,
+            @Value("${clearview.reminders.send-from-hour:9}") int sendFromHour,
+            @Value("${clearview.reminders.send-until-hour:20}") int sendUntilHour,
+            @Value("${clearview.reminders.sms.per-minute:600}") int smsPerMinute,
+            @Value("${clearview.reminders.email.per-minute:1200}") int emailPerMinute) {
+        this.jdbc = jdbc;
+        for (ReminderSender sender : senders) {
+            if (this.senders.put(sender.channel(), sender) != null) {
+                throw new IllegalStateException("More than one reminder sender for " + sender.channel());
+            }
+        }
+        long now = System.nanoTime();
+        throttles.put(ReminderChannel.SMS, new Throttle(smsPerMinute, Math.max(batchSize, smsPerMinute), now));
+        throttles.put(ReminderChannel.EMAIL, new Throttle(emailPerMinute, Math.max(batchSize, emailPerMinute), now));
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.leaseMs = leaseMs;
+        this.sendFromHour = sendFromHour;
+        this.sendUntilHour = sendUntilHour;
+    }
+
+    record Claimed(long id, String recipient, String body, int attempts) {
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.reminders.plan-interval-ms:900000}",
+            initialDelayString = "${clearview.reminders.plan-initial-delay-ms:60000}")
+    public void planReminders() {
+        if (enabled) {
+            plan(LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.reminders.dispatch-interval-ms:10000}",
+            initialDelayString = "${clearview.reminders.dispatch-initial-delay-ms:90000}")
+    public void dispatchReminders() {
+        if (enabled) {
+            dispatch(LocalDateTime.now(), System::nanoTime);
+        }
+    }
+
+    // Returns how many reminders were added; nothing is planned outside the send window
+    int plan(LocalDateTime now) {
+        if (!inSendWindow(now)) {
+            return 0;
+        }
+        LocalDate visit = now.toLocalDate().plusDays(1);
+        int planned = jdbc.update(PLAN, new MapSqlParameterSource("visitDate", visit.toString())
+                .addValue("dayAfter", visit.plusDays(1).toString())
+                .addValue("now", epochMillis(now)));
+        if (planned > 0) {
+            log.info("Planned {} reminders for visits on {}", planned, visit);
+        }
+        return planned;
+    }
+
+    // nanoClock refills the throttles as batches go out; tests pass a fake one
+    void dispatch(LocalDateTime now, LongSupplier nanoClock) {
+        if (!inSendWindow(now)) {
+            return;
+        }
+        long nowMillis = epochMillis(now);
+        MapSqlParameterSource sweep = new MapSqlParameterSource("now", nowMillis)
+                .addValue("today", now.toLocalDate().toString())
+                .addValue("maxAttempts", maxAttempts);
+        jdbc.update(CANCEL_STALE, sweep);
+        jdbc.update(FAIL_ABANDONED, sweep);
+
+        for (Map.Entry<ReminderChannel, ReminderSender> entry : senders.entrySet()) {
+            int sent = dispatchChannel(entry.getKey(), entry.getValue(), nowMillis, nanoClock);
+            if (sent > 0) {
+                log.info("Sent {} {} reminders", sent, entry.getKey());
+            }
+        }
+    }
+
+    private int dispatchChannel(ReminderChannel channel, ReminderSender sender, long nowMillis, LongSupplier nanoClock) {
+        Throttle throttle = throttles.get(channel);
+        int sent = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int allowed = throttle.take(batchSize, nanoClock.getAsLong());
+            if (allowed == 0) {
+                break;
+            }
+            List<Claimed> claimed = claim(channel, allowed, nowMillis);
+            throttle.giveBack(allowed - claimed.size());
+            if (claimed.isEmpty()) {
+                break;
+            }
+            sent += deliver(channel, sender, claimed);
+            if (claimed.size() < allowed) {
+                break;
+            }
+        }
+        return sent;
+    }
+
+    private List<Claimed> claim(ReminderChannel channel, int limit, long nowMillis) {
+        return jdbc.query(CLAIM, new MapSqlParameterSource("channel", channel.name())
+                        .addValue("now", nowMillis)
+                        .addValue("leaseUntil", nowMillis + leaseMs)
+                        .addValue("maxAttempts", maxAttempts)
+                        .addValue("limit", limit),
+                (rs, i) -> new Claimed(rs.getLong("id"), rs.getString("recipient"), rs.getString("body"),
+                        rs.getInt("attempts")));
+    }
+
+    // Sends one claimed batch and records every row's outcome; returns how many were delivered
+    private int deliver(ReminderChannel channel, ReminderSender sender, List<Claimed> claimed) {
+        List<ReminderMessage> messages = claimed.stream()
+                .map(c -> new ReminderMessage(c.id(), channel, c.recipient(), c.body()))
+                .toList();
+        Map<Long, DeliveryResult> results = new HashMap<>();
+        try {
+            for (DeliveryResult result : sender.send(messages)) {
+                results.put(result.reminderId(), result);
+            }
+        } catch (RuntimeException e) {
+            log.warn("{} reminder batch of {} failed, will retry", channel, messages.size(), e);
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            claimed.forEach(c -> results.put(c.id(), DeliveryResult.failed(c.id(), error, true)));
+        }
+        return record(claimed, results);
+    }
+
+    // One UPDATE ... FROM (VALUES ...) per batch; rows claimed again meanwhile (attempts moved on) are left alone
+    private int record(List<Claimed> claimed, Map<Long, DeliveryResult> results) {
+        long now = System.currentTimeMillis();
+        StringBuilder sql = new StringBuilder("UPDATE reminders r SET status = v.status, next_attempt_at = v.next_attempt_at, "
+                + "last_error = v.error, provider_id = v.provider_id, sent_at = v.sent_at FROM (VALUES ");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int delivered = 0;
+        int i = 0;
+        for (Claimed row : claimed) {
+            DeliveryResult result = results.getOrDefault(row.id(),
+                    DeliveryResult.failed(row.id(), "No result from sender", true));
+            ReminderStatus status;
+            long nextAttemptAt = now;
+            if (result.delivered()) {
+                status = ReminderStatus.SENT;
+                delivered++;
+            } else if (result.retryable() && row.attempts() < maxAttempts) {
+                status = ReminderStatus.PENDING;
+                nextAttemptAt = now + backoffMs(row.attempts());
+            } else {
+                status = ReminderStatus.FAILED;
+            }
+            sql.append(i > 0 ? ", " : "")
+                    .append("(:i").append(i).append(", :s").append(i).append(", :n").append(i)
+                    .append(", :e").append(i).append(", :p").append(i)
+                    .append(", CAST(:t").append(i).append(" AS bigint), :a").append(i).append(')');
+            params.addValue("i" + i, row.id())
+                    .addValue("s" + i, status.name())
+                    .addValue("n" + i, nextAttemptAt)
+                    .addValue("e" + i, truncate(result.error()))
+                    .addValue("p" + i, result.providerId())
+                    .addValue("t" + i, result.delivered() ? now : null)
+                    .addValue("a" + i, row.attempts());
+            i++;
+        }
+        sql.append(") AS v(id, status, next_attempt_at, error, provider_id, sent_at, attempts) "
+                + "WHERE r.id = v.id AND r.status = 'SENDING' AND r.attempts = v.attempts");
+        jdbc.update(sql.toString(), params);
+        return delivered;
+    }
+
+    long backoffMs(int attempts) {
+        return Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(20, Math.max(0, attempts - 1)));
+    }
+
+    private boolean inSendWindow(LocalDateTime now) {
+        return now.getHour() >= sendFromHour && now.getHour() < sendUntilHour;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    // Token bucket; only used from the scheduler thread
+    static final class Throttle {
+        private final double perNano;
+        private final int capacity;
+        private double tokens;
+        private long refilledAt;
+
+        Throttle(int perMinute, int capacity, long nowNanos) {
+            this.perNano = Math.max(1, perMinute) / 60e9;
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.refilledAt = nowNanos;
+        }
+
+        int take(int wanted, long nowNanos) {
+            tokens = Math.min(capacity, tokens + Math.max(0, nowNanos - refilledAt) * perNano);
+            refilledAt = nowNanos;
+            int granted = (int) Math.min(wanted, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+
+        void giveBack(int unused) {
+            tokens = Math.min(capacity, tokens + unused);
+        }
+    }
+}
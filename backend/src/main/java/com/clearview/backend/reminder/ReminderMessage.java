@@ -0,0 +1,5 @@
+package com.clearview.backend.reminder;
+
+// id is the reminder row id; senders pass it to the provider as the idempotency key
+public record ReminderMessage(long id, ReminderChannel channel, String recipient, String body) {
+}
@@ -0,0 +1,16 @@
+package com.clearview.backend.reminder;
+
+import java.util.List;
+
+/**
+ * Sends reminders over one channel. A message can be handed over more than
+ * once (a retry, or a dispatcher that stopped before recording the result),
+ * so implementations pass {@link ReminderMessage#id()} to the provider as
+ * an idempotency key. Messages missing from the returned list are retried.
+ */
+public interface ReminderSender {
+
+    ReminderChannel channel();
+
+    List<DeliveryResult> send(List<ReminderMessage> batch);
+}
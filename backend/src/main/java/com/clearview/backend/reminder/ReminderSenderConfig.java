@@ -0,0 +1,24 @@
+package com.clearview.backend.reminder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+// A provider integration registers its own ReminderSender beans under another clearview.reminders.sender value
+@Configuration
+@ConditionalOnProperty(name = "clearview.reminders.sender", havingValue = "log", matchIfMissing = true)
+public class ReminderSenderConfig {
+
+    @Bean
+    ReminderSender smsLogSender(@Value("${clearview.reminders.log-file:}") String file) {
+        return new LoggingReminderSender(ReminderChannel.SMS, file.isBlank() ? null : Path.of(file));
+    }
+
+    @Bean
+    ReminderSender emailLogSender(@Value("${clearview.reminders.log-file:}") String file) {
+        return new LoggingReminderSender(ReminderChannel.EMAIL, file.isBlank() ? null : Path.of(file));
+    }
+}
@@ -0,0 +1,10 @@
+package com.clearview.backend.reminder;
+
+// SENDING rows are claimed by a dispatcher until next_attempt_at; past that they may be claimed again
+public enum ReminderStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED,
+    CANCELLED
+}
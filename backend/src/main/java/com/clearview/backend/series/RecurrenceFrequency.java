@@ -0,0 +1,7 @@
+package com.clearview.backend.series;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,64 @@
+package com.clearview.backend.series;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands a recurrence into concrete dates on demand. The first occurrence
+ * inside a range is found arithmetically, so the cost depends on the size of
+ * the requested range rather than on how long the series has been running.
+ */
+public record RecurrenceRule(
+    RecurrenceFrequency frequency,
+    int interval,
+    LocalDate start,
+    LocalDate end
+) {
+    public RecurrenceRule {
+        if (frequency == null || start == null) {
+            throw new IllegalArgumentException("Recurrence needs a frequency and a start date");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be at least 1");
+        }
+    }
+
+    public List<LocalDate> occurrencesBetween(LocalDate from, LocalDate to) {
+        LocalDate first = from.isAfter(start) ? from : start;
+        LocalDate last = end != null && end.isBefore(to) ? end : to;
+        List<LocalDate> dates = new ArrayList<>();
+        if (first.isAfter(last)) {
+            return dates;
+        }
+
+        long step = firstStepOnOrAfter(first);
+        for (LocalDate date = nth(step); !date.isAfter(last); date = nth(++step)) {
+            if (!date.isBefore(first)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    private long firstStepOnOrAfter(LocalDate date) {
+        long elapsed = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(start, date);
+            case WEEKLY -> ChronoUnit.WEEKS.between(start, date);
+            case MONTHLY -> ChronoUnit.MONTHS.between(start, date);
+        };
+        // Rounded down; the caller skips at most one early step
+        return Math.max(0, elapsed / interval);
+    }
+
+    // Always computed from the start date so month-end days clamp without drifting
+    private LocalDate nth(long step) {
+        long units = step * interval;
+        return switch (frequency) {
+            case DAILY -> start.plusDays(units);
+            case WEEKLY -> start.plusWeeks(units);
+            case MONTHLY -> start.plusMonths(units);
+        };
+    }
+}
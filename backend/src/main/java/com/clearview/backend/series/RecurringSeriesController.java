@@ -0,0 +1,82 @@
+package com.clearview.backend.series;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.job.dto.JobDto;
+import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.series.dto.OccurrenceDto;
+import com.clearview.backend.series.dto.SeriesDto;
+import com.clearview.backend.series.dto.SeriesRequest;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/series")
+public class RecurringSeriesController {
+
+    private final RecurringSeriesService seriesService;
+    private final UserRepository userRepository;
+
+    public RecurringSeriesController(RecurringSeriesService seriesService, UserRepository userRepository) {
+        this.seriesService = seriesService;
+        this.userRepository = userRepository;
+    }
+
+    // === Get all recurring series for logged-in user ===
+    @GetMapping
+    public ResponseEntity<List<SeriesDto>> getSeries(Principal principal) {
+        return ResponseEntity.ok(seriesService.getSeries(currentUser(principal).getId()));
+    }
+
+    // === Create a recurring series for a customer ===
+    @PostMapping
+    public ResponseEntity<SeriesDto> createSeries(@RequestBody SeriesRequest request, Principal principal) {
+        return ResponseEntity.ok(seriesService.createSeries(request, currentUser(principal)));
+    }
+
+    // === Delete a series (already materialized jobs are kept) ===
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSeries(@PathVariable Long id, Principal principal) {
+        seriesService.deleteSeries(id, currentUser(principal).getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // === Occurrences of all series in a date range (list and calendar views) ===
+    @GetMapping("/occurrences")
+    public ResponseEntity<List<OccurrenceDto>> getOccurrences(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Principal principal) {
+        return ResponseEntity.ok(seriesService.getOccurrences(currentUser(principal).getId(), from, to));
+    }
+
+    // === Expected revenue per month from scheduled occurrences ===
+    @GetMapping("/forecast")
+    public ResponseEntity<List<RevenueBucketDto>> getForecast(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Principal principal) {
+        return ResponseEntity.ok(seriesService.getForecast(currentUser(principal).getId(), from, to));
+    }
+
+    // === Materialize an occurrence into a job, optionally with edits ===
+    @PostMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<JobDto> materializeOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody(required = false) JobRequest edits,
+            Principal principal) {
+        return ResponseEntity.ok(JobDto.from(seriesService.materialize(id, date, edits, currentUser(principal))));
+    }
+
+    private User currentUser(Principal principal) {
+        return userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.clearview.backend.series;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecurringSeriesRepository extends JpaRepository<RecurringSeries, Long> {
+
+    @Query("SELECT s FROM RecurringSeries s JOIN FETCH s.customer " +
+            "WHERE s.createdBy.id = :userId ORDER BY s.startDate, s.id")
+    List<RecurringSeries> findByUser(Long userId);
+
+    // Series that can have an occurrence between the two yyyy-MM-dd dates
+    @Query("SELECT s FROM RecurringSeries s JOIN FETCH s.customer " +
+            "WHERE s.createdBy.id = :userId AND s.startDate <= :to " +
+            "AND (s.endDate IS NULL OR s.endDate >= :from)")
+    List<RecurringSeries> findActiveBetween(Long userId, String from, String to);
+
+    @Query("SELECT s FROM RecurringSeries s JOIN FETCH s.customer " +
+            "WHERE s.id = :id AND s.createdBy.id = :userId")
+    Optional<RecurringSeries> findByIdAndUser(Long id, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RecurringSeries s WHERE s.customer.id IN " +
+            "(SELECT c.id FROM Customer c WHERE c.id = :customerId AND c.createdBy.id = :userId)")
+    int deleteByCustomer(Long customerId, Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE recurring_series SET customer_id = :targetId " +
+            "WHERE customer_id IN (:customerIds) AND user_id = :userId", nativeQuery = true)
+    int reassignCustomer(Collection<Long> customerIds, Long targetId, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RecurringSeries s WHERE s.id = :id AND s.createdBy.id = :userId")
+    int deleteByIdAndUser(Long id, Long userId);
+}
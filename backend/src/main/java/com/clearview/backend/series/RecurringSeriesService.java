@@ -0,0 +1,221 @@
+package com.clearview.backend.series;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.JobService;
+import com.clearview.backend.job.archive.ArchivedJob;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.series.dto.OccurrenceDto;
+import com.clearview.backend.series.dto.SeriesDto;
+import com.clearview.backend.series.dto.SeriesRequest;
+import com.clearview.backend.user.User;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+public class RecurringSeriesService {
+
+    static final int MAX_RANGE_DAYS = 366;
+
+    private final RecurringSeriesRepository seriesRepository;
+    private final CustomerRepository customerRepository;
+    private final JobRepository jobRepository;
+    private final JobService jobService;
+    private final JobArchive jobArchive;
+    private final SeriesExceptionRepository exceptionRepository;
+
+    public RecurringSeriesService(RecurringSeriesRepository seriesRepository,
+            CustomerRepository customerRepository,
+            JobRepository jobRepository,
+            JobService jobService,
+            JobArchive jobArchive,
+            SeriesExceptionRepository exceptionRepository) {
+        this.seriesRepository = seriesRepository;
+        this.customerRepository = customerRepository;
+        this.jobRepository = jobRepository;
+        this.jobService = jobService;
+        this.jobArchive = jobArchive;
+        this.exceptionRepository = exceptionRepository;
+    }
+
+    public List<SeriesDto> getSeries(Long userId) {
+        return seriesRepository.findByUser(userId).stream().map(SeriesDto::from).toList();
+    }
+
+    public SeriesDto createSeries(SeriesRequest request, User user) {
+        Customer customer = customerRepository.findById(request.customerId())
+                .filter(c -> c.getCreatedBy() != null && user.getId().equals(c.getCreatedBy().getId()))
+                .orElseThrow(() -> new RuntimeException("Customer not found or unauthorized"));
+
+        RecurringSeries series = new RecurringSeries();
+        series.setCustomer(customer);
+        series.setCreatedBy(user);
+        series.setService(request.service() != null ? request.service() : "Window Cleaning");
+        series.setPrice(request.price());
+        series.setNotes(request.notes());
+        series.setFrequency(RecurrenceFrequency.valueOf(request.frequency().toUpperCase()));
+        series.setInterval(request.interval() != null ? request.interval() : 1);
+        series.setStartDate(request.startDate());
+        series.setEndDate(request.endDate());
+        series.toRule(); // validates dates and interval before saving
+
+        return SeriesDto.from(seriesRepository.save(series));
+    }
+
+    // Materialized jobs are kept as ordinary jobs; only the series link is dropped. Exceptions go with the series
+    @Transactional
+    public void deleteSeries(Long seriesId, Long userId) {
+        seriesRepository.findByIdAndUser(seriesId, userId)
+                .orElseThrow(() -> new RuntimeException("Series not found or unauthorized"));
+        jobRepository.detachFromSeries(seriesId);
+        seriesRepository.deleteByIdAndUser(seriesId, userId);
+    }
+
+    // === Expand every series over [from, to], overlaying occurrences that already have a job
+    // and leaving out those whose job was deleted ===
+    public List<OccurrenceDto> getOccurrences(Long userId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        List<RecurringSeries> active = seriesRepository.findActiveBetween(userId, from.toString(), to.toString());
+        if (active.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> seriesIds = active.stream().map(RecurringSeries::getId).toList();
+        Map<String, Job> materialized = new HashMap<>();
+        for (Job job : jobRepository.findMaterializedOccurrences(seriesIds, from.toString(), to.toString())) {
+            materialized.put(occurrenceKey(job.getSeries().getId(), job.getOccurrenceDate()), job);
+        }
+        // Old occurrences may have been archived; without this they would show as virtual again
+        Map<String, ArchivedJob> archived = new HashMap<>();
+        for (ArchivedJob job : jobArchive.getOccurrences(seriesIds, from.toString(), to.toString())) {
+            archived.put(occurrenceKey(job.getSeriesId(), job.getOccurrenceDate()), job);
+        }
+        Set<String> deleted = new HashSet<>(exceptionRepository.findKeysBetween(seriesIds, from.toString(), to.toString()));
+
+        List<OccurrenceDto> occurrences = new ArrayList<>();
+        for (RecurringSeries series : active) {
+            for (LocalDate date : series.toRule().occurrencesBetween(from, to)) {
+                String key = occurrenceKey(series.getId(), date.toString());
+                Job job = materialized.get(key);
+                ArchivedJob archivedJob = archived.get(key);
+                if (job == null && archivedJob == null && deleted.contains(key)) {
+                    continue;
+                }
+                occurrences.add(job != null ? OccurrenceDto.materialized(series, job)
+                        : archivedJob != null ? OccurrenceDto.archived(series, archivedJob)
+                        : OccurrenceDto.virtual(series, date.toString()));
+            }
+        }
+        occurrences.sort(Comparator.comparing(OccurrenceDto::occurrenceDate)
+                .thenComparing(OccurrenceDto::seriesId));
+        return occurrences;
+    }
+
+    // === Expected revenue per month from series occurrences (paid/unpaid for materialized ones) ===
+    public List<RevenueBucketDto> getForecast(Long userId, LocalDate from, LocalDate to) {
+        Map<String, double[]> months = new TreeMap<>();
+        for (OccurrenceDto occurrence : getOccurrences(userId, from, to)) {
+            double[] totals = months.computeIfAbsent(occurrence.occurrenceDate().substring(0, 7), k -> new double[3]);
+            double price = occurrence.price() != null ? occurrence.price() : 0.0;
+            totals[occurrence.paid() ? 0 : 1] += price;
+            totals[2]++;
+        }
+
+        List<RevenueBucketDto> forecast = new ArrayList<>(months.size());
+        months.forEach((month, totals) ->
+                forecast.add(new RevenueBucketDto(month, totals[0], totals[1], totals[0] + totals[1], (long) totals[2])));
+        return forecast;
+    }
+
+    // === Turn one occurrence into a real job row, applying any edits (also to an already-materialized one).
+    // Paying goes through /api/jobs/{id}/mark-paid on the returned job. ===
+    public Job materialize(Long seriesId, LocalDate date, JobRequest edits, User user) {
+        RecurringSeries series = seriesRepository.findByIdAndUser(seriesId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Series not found or unauthorized"));
+        if (!series.toRule().occurrencesBetween(date, date).contains(date)) {
+            throw new RuntimeException("No occurrence of series " + seriesId + " on " + date);
+        }
+
+        Job existing = jobRepository.findBySeries_IdAndOccurrenceDate(seriesId, date.toString()).orElse(null);
+        if (existing != null) {
+            return applyEdits(existing, edits) ? jobService.updateJob(existing) : existing;
+        }
+        if (!jobArchive.getOccurrences(List.of(seriesId), date.toString(), date.toString()).isEmpty()) {
+            throw new RuntimeException("Occurrence of series " + seriesId + " on " + date + " is archived");
+        }
+        if (exceptionRepository.existsBySeries_IdAndOccurrenceDate(seriesId, date.toString())) {
+            throw new RuntimeException("Occurrence of series " + seriesId + " on " + date + " was deleted");
+        }
+
+        Job job = new Job();
+        job.setSeries(series);
+        job.setOccurrenceDate(date.toString());
+        job.setCustomer(series.getCustomer());
+        job.setCreatedBy(user);
+        job.setService(series.getService());
+        job.setPrice(series.getPrice());
+        job.setNotes(series.getNotes());
+        job.setJobDate(date.toString());
+        applyEdits(job, edits);
+
+        try {
+            return jobService.createJob(job);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request materialized the same occurrence first; this request's edits still apply
+            Job winner = jobRepository.findBySeries_IdAndOccurrenceDate(seriesId, date.toString())
+                    .orElseThrow(() -> e);
+            return applyEdits(winner, edits) ? jobService.updateJob(winner) : winner;
+        }
+    }
+
+    // Copies the non-null fields of edits; true if anything was given
+    private static boolean applyEdits(Job job, JobRequest edits) {
+        if (edits == null) {
+            return false;
+        }
+        boolean changed = false;
+        if (edits.service() != null) {
+            job.setService(edits.service());
+            changed = true;
+        }
+        if (edits.jobDate() != null) {
+            job.setJobDate(edits.jobDate());
+            changed = true;
+        }
+        if (edits.price() != null) {
+            job.setPrice(edits.price());
+            changed = true;
+        }
+        if (edits.notes() != null) {
+            job.setNotes(edits.notes());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new RuntimeException("Date range must be between 0 and " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static String occurrenceKey(Long seriesId, String date) {
+        return seriesId + "@" + date;
+    }
+}
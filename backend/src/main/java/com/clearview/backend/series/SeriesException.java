@@ -0,0 +1,38 @@
+package com.clearview.backend.series;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// An occurrence whose materialized job was deleted; it is no longer offered as a virtual occurrence.
+// Written only through JobRepository.recordSeriesException; the database drops it with its series.
+@Entity
+@Table(name = "series_exceptions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_series_exceptions_occurrence", columnNames = { "series_id", "occurrence_date" })
+})
+public class SeriesException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "series_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private RecurringSeries series;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private String occurrenceDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public RecurringSeries getSeries() {
+        return series;
+    }
+
+    public String getOccurrenceDate() {
+        return occurrenceDate;
+    }
+}
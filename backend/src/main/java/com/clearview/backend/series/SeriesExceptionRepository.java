@@ -0,0 +1,17 @@
+package com.clearview.backend.series;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SeriesExceptionRepository extends JpaRepository<SeriesException, Long> {
+
+    // "seriesId@yyyy-MM-dd" keys, matching RecurringSeriesService's occurrence keys
+    @Query("SELECT CONCAT(CAST(e.series.id AS string), '@', e.occurrenceDate) FROM SeriesException e " +
+            "WHERE e.series.id IN :seriesIds AND e.occurrenceDate BETWEEN :from AND :to")
+    List<String> findKeysBetween(Collection<Long> seriesIds, String from, String to);
+
+    boolean existsBySeries_IdAndOccurrenceDate(Long seriesId, String occurrenceDate);
+}
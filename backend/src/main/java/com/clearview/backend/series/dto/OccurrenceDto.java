@@ -0,0 +1,68 @@
+package com.clearview.backend.series.dto;
+
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.archive.ArchivedJob;
+import com.clearview.backend.series.RecurringSeries;
+
+// One visit of a series: either still virtual (jobId null) or materialized as a Job row
+public record OccurrenceDto(
+    Long seriesId,
+    Long jobId,
+    String occurrenceDate,
+    String jobDate,
+    String service,
+    String customerName,
+    String address,
+    Double price,
+    String notes,
+    boolean paid,
+    boolean materialized
+) {
+    public static OccurrenceDto virtual(RecurringSeries series, String date) {
+        return new OccurrenceDto(
+            series.getId(),
+            null,
+            date,
+            date,
+            series.getService(),
+            series.getCustomer().getName(),
+            series.getCustomer().getAddress(),
+            series.getPrice(),
+            series.getNotes(),
+            false,
+            false
+        );
+    }
+
+    public static OccurrenceDto materialized(RecurringSeries series, Job job) {
+        return new OccurrenceDto(
+            series.getId(),
+            job.getId(),
+            job.getOccurrenceDate(),
+            job.getJobDate(),
+            job.getService(),
+            series.getCustomer().getName(),
+            series.getCustomer().getAddress(),
+            job.getPrice(),
+            job.getNotes(),
+            job.isPaid(),
+            true
+        );
+    }
+
+    public static OccurrenceDto archived(RecurringSeries series, ArchivedJob job) {
+        return new OccurrenceDto(
+            series.getId(),
+            job.getId(),
+            job.getOccurrenceDate(),
+            job.getJobDate(),
+            job.getService(),
+            series.getCustomer().getName(),
+            series.getCustomer().getAddress(),
+            job.getPrice(),
+            job.getNotes(),
+            true,
+            true
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package com.clearview.backend.series.dto;
+
+import com.clearview.backend.series.RecurringSeries;
+
+public record SeriesDto(
+    Long id,
+    Long customerId,
+    String customerName,
+    String service,
+    Double price,
+    String notes,
+    String frequency,
+    int interval,
+    String startDate,
+    String endDate
+) {
+    public static SeriesDto from(RecurringSeries series) {
+        return new SeriesDto(
+            series.getId(),
+            series.getCustomer().getId(),
+            series.getCustomer().getName(),
+            series.getService(),
+            series.getPrice(),
+            series.getNotes(),
+            series.getFrequency().name(),
+            series.getInterval(),
+            series.getStartDate(),
+            series.getEndDate()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.clearview.backend.series.dto;
+
+public record SeriesRequest(
+    Long customerId,
+    String service,
+    Double price,
+    String notes,
+    String frequency,
+    Integer interval,
+    String startDate,
+    String endDate
+) {
+}
@@ -0,0 +1,139 @@
+package com.clearview.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed file store on local disk. Files are named by the SHA-256
+ * of their bytes and never change once written, so they can be cached and
+ * served forever under that name. ContentSweeper deletes the ones no row
+ * references any more.
+ */
+@Component
+public class ContentStore {
+
+    private final Path root;
+
+    public ContentStore(@Value("${clearview.storage.dir:./data}") String root) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+    }
+
+    public String put(byte[] content) {
+        String hash = sha256(content);
+        Path target = resolve(hash);
+        try {
+            if (Files.exists(target)) {
+                touch(target);
+                return hash;
+            }
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            Files.write(temp, content);
+            moveIntoPlace(temp, target);
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store content " + hash, e);
+        }
+    }
+
+    // Streams into a temp file while hashing, so large uploads never sit in memory.
+    // Fails, leaving nothing behind, once the stream passes maxBytes.
+    public String put(InputStream content, long maxBytes) {
+        Path temp = null;
+        try {
+            Files.createDirectories(root);
+            temp = Files.createTempFile(root, "upload", ".tmp");
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (int read; (read = content.read(buffer)) > 0; ) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new RuntimeException("Upload exceeds " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(hash);
+            if (Files.exists(target)) {
+                touch(target);
+                return hash;
+            }
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(temp, target);
+            temp = null;
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store upload", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Stray temp files are harmless; they never match a content hash
+                }
+            }
+        }
+    }
+
+    public boolean exists(String hash) {
+        return hash != null && Files.isRegularFile(resolve(hash));
+    }
+
+    public Path resolve(String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash");
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    // A reused blob starts ContentSweeper's grace period over, like a new one
+    private static void touch(Path target) throws IOException {
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+    }
+
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Lost a race with an identical write: same hash means same bytes
+            Files.deleteIfExists(temp);
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    public static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
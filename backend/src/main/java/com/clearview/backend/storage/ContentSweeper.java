@@ -0,0 +1,120 @@
+package com.clearview.backend.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Mark-and-sweep for the ContentStore. Blobs are shared by hash and never
+ * deleted when the rows pointing at them go, so this lists the blobs
+ * older than the grace period, marks every hash still referenced by a
+ * photo, thumbnail or live or archived invoice, and deletes the rest.
+ *
+ * A blob is written before the row that references it commits, and
+ * ContentStore.put touches a blob it reuses. The grace period covers that
+ * gap; each candidate's age is checked again just before it is deleted.
+ */
+@Component
+public class ContentSweeper {
+
+    private static final String REFERENCED = """
+            SELECT content_hash FROM job_photos
+            UNION SELECT thumbnail_hash FROM job_photos WHERE thumbnail_hash IS NOT NULL
+            UNION SELECT invoice_hash FROM jobs WHERE invoice_hash IS NOT NULL
+            UNION SELECT invoice_hash FROM archived_jobs WHERE invoice_hash IS NOT NULL
+            """;
+
+    private static final Logger log = LoggerFactory.getLogger(ContentSweeper.class);
+
+    private final ContentStore contentStore;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final boolean enabled;
+    private final Duration grace;
+
+    public ContentSweeper(ContentStore contentStore, NamedParameterJdbcTemplate jdbc,
+            @Value("${clearview.storage.sweep.enabled:true}") boolean enabled,
+            @Value("${clearview.storage.sweep.grace:PT24H}") Duration grace) {
+        this.contentStore = contentStore;
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.storage.sweep.interval-ms:86400000}",
+            initialDelayString = "${clearview.storage.sweep.initial-delay-ms:600000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(grace));
+        // Listed before marking, so a row committed meanwhile is seen by the mark
+        List<Path> candidates = listBlobsOlderThan(cutoff);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        jdbc.query(REFERENCED, Map.of(), rs -> {
+            referenced.add(rs.getString(1));
+        });
+
+        int deleted = 0;
+        for (Path blob : candidates) {
+            if (referenced.contains(blob.getFileName().toString())) {
+                continue;
+            }
+            try {
+                if (Files.getLastModifiedTime(blob).compareTo(cutoff) < 0 && Files.deleteIfExists(blob)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete unreferenced content {}", blob, e);
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced content files", deleted);
+        }
+    }
+
+    // Only files laid out as ContentStore.resolve names them; anything else under the root is left alone
+    private List<Path> listBlobsOlderThan(FileTime cutoff) {
+        Path root = contentStore.getRoot();
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            return files.filter(path -> isBlob(root, path))
+                    .filter(path -> {
+                        try {
+                            return Files.getLastModifiedTime(path).compareTo(cutoff) < 0;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list content in " + root, e);
+        }
+    }
+
+    private boolean isBlob(Path root, Path path) {
+        String name = path.getFileName().toString();
+        return root.relativize(path).getNameCount() == 3 && name.matches("[0-9a-f]{64}")
+                && Files.isRegularFile(path) && contentStore.resolve(name).equals(path);
+    }
+}
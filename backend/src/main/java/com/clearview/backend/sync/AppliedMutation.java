@@ -0,0 +1,66 @@
+package com.clearview.backend.sync;
+
+import jakarta.persistence.*;
+
+// Result of a pushed mutation that was applied, so a client resending the same clientId gets it back
+@Entity
+@Table(name = "applied_mutations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_applied_mutations_user_client", columnNames = {"user_id", "client_id"})
+}, indexes = {
+        @Index(name = "idx_applied_mutations_created", columnList = "created_at")
+})
+public class AppliedMutation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "client_id", nullable = false)
+    private String clientId;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+    public AppliedMutation() {
+    }
+
+    public AppliedMutation(Long userId, String clientId, Long entityId, Long version, long createdAt) {
+        this.userId = userId;
+        this.clientId = clientId;
+        this.entityId = entityId;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
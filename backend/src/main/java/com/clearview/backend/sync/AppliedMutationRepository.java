@@ -0,0 +1,22 @@
+package com.clearview.backend.sync;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AppliedMutationRepository extends JpaRepository<AppliedMutation, Long> {
+
+    List<AppliedMutation> findByUserIdAndClientIdIn(Long userId, Collection<String> clientIds);
+
+    Optional<AppliedMutation> findByUserIdAndClientId(Long userId, String clientId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AppliedMutation m WHERE m.createdAt < :cutoff")
+    int deleteOlderThan(long cutoff);
+}
@@ -0,0 +1,61 @@
+package com.clearview.backend.sync;
+
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * Tables that accept field-level writes, with the JSON field to column
+ * whitelist for each. Only these column names are ever put into SQL.
+ */
+public enum PatchTarget {
+    JOB("jobs", Map.of(
+            "service", new Column("service", Types.VARCHAR),
+            "jobDate", new Column("job_date", Types.VARCHAR),
+            "price", new Column("price", Types.DOUBLE),
+            "notes", new Column("notes", Types.VARCHAR),
+            "customerName", new Column("customer_name", Types.VARCHAR),
+            "address", new Column("address", Types.VARCHAR))),
+    CUSTOMER("customers", Map.of(
+            "name", new Column("name", Types.VARCHAR),
+            "phone", new Column("phone", Types.VARCHAR),
+            "email", new Column("email", Types.VARCHAR),
+            "address", new Column("address", Types.VARCHAR)));
+
+    private final String table;
+    private final Map<String, Column> columns;
+
+    PatchTarget(String table, Map<String, Column> columns) {
+        this.table = table;
+        this.columns = columns;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    Column column(String field) {
+        Column column = columns.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("Field '" + field + "' can't be updated");
+        }
+        return column;
+    }
+
+    record Column(String name, int sqlType) {
+
+        // JSON numbers arrive as Integer, Long or Double depending on how they were written
+        Object coerce(String field, Object value) {
+            if (value == null) {
+                return null;
+            }
+            boolean ok = switch (sqlType) {
+                case Types.DOUBLE -> value instanceof Number;
+                default -> value instanceof String;
+            };
+            if (!ok) {
+                throw new IllegalArgumentException("Invalid value for '" + field + "'");
+            }
+            return sqlType == Types.DOUBLE ? ((Number) value).doubleValue() : value;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.clearview.backend.sync;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-statement, owner-scoped writes with an optional optimistic
+ * version check: {@code UPDATE ... SET <given columns>, change_version =
+ * nextval(...) WHERE id AND user_id [AND change_version] RETURNING
+ * change_version}. Nothing is loaded or dirty-checked. Runs on the
+ * surrounding JPA transaction's connection.
+ */
+@Component
+public class RowPatcher {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public RowPatcher(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // Client-supplied fields (merge-patch: a null value clears the column); empty if the row is
+    // missing, not the user's, or no longer at baseVersion
+    public Optional<Long> patch(PatchTarget target, Map<String, Object> fields, Long id, Long userId,
+            Long baseVersion) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("userId", userId);
+        StringBuilder sql = new StringBuilder("UPDATE ").append(target.getTable()).append(" SET ");
+        int i = 0;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            PatchTarget.Column column = target.column(field.getKey());
+            String param = "v" + i++;
+            sql.append(column.name()).append(" = :").append(param).append(", ");
+            params.addValue(param, column.coerce(field.getKey(), field.getValue()), column.sqlType());
+        }
+        sql.append("change_version = nextval('change_version_seq') WHERE ")
+                .append(ownedRow(params, baseVersion))
+                .append(" RETURNING change_version");
+
+        return jdbc.queryForList(sql.toString(), params, Long.class).stream().findFirst();
+    }
+
+    public boolean delete(PatchTarget target, Long id, Long userId, Long baseVersion) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("userId", userId);
+        String sql = "DELETE FROM " + target.getTable() + " WHERE " + ownedRow(params, baseVersion);
+        return jdbc.update(sql, params) > 0;
+    }
+
+    public Optional<Long> currentVersion(PatchTarget target, Long id, Long userId) {
+        List<Long> versions = jdbc.queryForList(
+                "SELECT change_version FROM " + target.getTable() + " WHERE id = :id AND user_id = :userId",
+                Map.of("id", id, "userId", userId),
+                Long.class);
+        return versions.stream().findFirst();
+    }
+
+    // If-Match: "12", W/"12" or 12; absent or * means unconditional
+    public static Long parseIfMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String value = header.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header");
+        }
+    }
+
+    private static String ownedRow(MapSqlParameterSource params, Long baseVersion) {
+        if (baseVersion == null) {
+            return "id = :id AND user_id = :userId";
+        }
+        params.addValue("baseVersion", baseVersion);
+        return "id = :id AND user_id = :userId AND change_version = :baseVersion";
+    }
+}
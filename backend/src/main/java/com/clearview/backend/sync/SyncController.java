@@ -0,0 +1,66 @@
+package com.clearview.backend.sync;
+
+import com.clearview.backend.job.invoice.InvoiceService;
+import com.clearview.backend.sync.dto.Mutation;
+import com.clearview.backend.sync.dto.MutationResult;
+import com.clearview.backend.sync.dto.PushRequest;
+import com.clearview.backend.sync.dto.PushResponse;
+import com.clearview.backend.sync.dto.SyncResponse;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+    private final SyncPushService syncPushService;
+    private final UserRepository userRepository;
+    private final InvoiceService invoiceService;
+
+    public SyncController(SyncService syncService, SyncPushService syncPushService, UserRepository userRepository,
+            InvoiceService invoiceService) {
+        this.syncService = syncService;
+        this.syncPushService = syncPushService;
+        this.userRepository = userRepository;
+        this.invoiceService = invoiceService;
+    }
+
+    // === Jobs, customers and deletions changed since the cursor (omit it for a full sync) ===
+    @GetMapping
+    public ResponseEntity<SyncResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(syncService.getChanges(user.getId(), since, limit));
+    }
+
+    // === Apply a batch of queued offline mutations ===
+    @PostMapping("/push")
+    public ResponseEntity<PushResponse> push(@RequestBody PushRequest request, Principal principal) {
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        List<Mutation> mutations = request.mutations() != null ? request.mutations() : List.of();
+        List<MutationResult> results = syncPushService.push(mutations, user);
+
+        // Committed by now (replays included); render invoices for jobs this push marked paid
+        List<Long> paid = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if ("job.paid".equals(mutations.get(i).op()) && MutationResult.APPLIED.equals(results.get(i).status())) {
+                paid.add(results.get(i).id());
+            }
+        }
+        invoiceService.scheduleRenders(paid);
+        return ResponseEntity.ok(new PushResponse(results));
+    }
+}
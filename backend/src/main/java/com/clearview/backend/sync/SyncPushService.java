@@ -0,0 +1,296 @@
+package com.clearview.backend.sync;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.customer.CustomerService;
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobService;
+import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.sync.dto.Mutation;
+import com.clearview.backend.sync.dto.MutationResult;
+import com.clearview.backend.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of queued offline mutations, each in its own transaction.
+ * Updates and deletes are single version-checked statements (RowPatcher); a
+ * mutation that loses its version check is reported as a conflict, one that
+ * fails in the database as an error, and the rest of the batch still
+ * applies. Applied results are kept by (user, clientId), so a client that
+ * resends a push after a lost response gets them back instead of creating
+ * or paying twice.
+ */
+@Service
+public class SyncPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncPushService.class);
+
+    static final int MAX_MUTATIONS = 200;
+
+    private final JobService jobService;
+    private final CustomerService customerService;
+    private final CustomerRepository customerRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final RowPatcher rowPatcher;
+    private final RevenueAnalyticsService revenueAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final AppliedMutationRepository appliedMutations;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionMillis;
+
+    public SyncPushService(JobService jobService, CustomerService customerService,
+            CustomerRepository customerRepository, TombstoneRepository tombstoneRepository,
+            RowPatcher rowPatcher, RevenueAnalyticsService revenueAnalyticsService,
+            ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            AppliedMutationRepository appliedMutations, PlatformTransactionManager transactionManager,
+            @Value("${clearview.sync.applied-retention:P30D}") Duration retention) {
+        this.jobService = jobService;
+        this.customerService = customerService;
+        this.customerRepository = customerRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.rowPatcher = rowPatcher;
+        this.revenueAnalyticsService = revenueAnalyticsService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.appliedMutations = appliedMutations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionMillis = retention.toMillis();
+    }
+
+    public List<MutationResult> push(List<Mutation> mutations, User user) {
+        if (mutations == null || mutations.isEmpty()) {
+            return List.of();
+        }
+        if (mutations.size() > MAX_MUTATIONS) {
+            throw new RuntimeException("At most " + MAX_MUTATIONS + " mutations per push");
+        }
+
+        Batch batch = new Batch(user);
+        List<String> clientIds = mutations.stream().map(Mutation::clientId).filter(Objects::nonNull).toList();
+        Map<String, AppliedMutation> earlier = clientIds.isEmpty() ? Map.of()
+                : appliedMutations.findByUserIdAndClientIdIn(user.getId(), clientIds).stream()
+                        .collect(Collectors.toMap(AppliedMutation::getClientId, Function.identity()));
+
+        List<MutationResult> results = new ArrayList<>(mutations.size());
+        for (Mutation mutation : mutations) {
+            AppliedMutation previous = mutation.clientId() != null ? earlier.get(mutation.clientId()) : null;
+            MutationResult result = previous != null ? replayed(mutation, previous) : applyOne(mutation, batch);
+            if (MutationResult.APPLIED.equals(result.status())) {
+                remember(mutation, result, batch);
+            }
+            results.add(result);
+        }
+
+        // One rebuild for the whole batch instead of one per edited job
+        if (batch.revenueChanged) {
+            revenueAnalyticsService.invalidate(user.getId());
+        }
+        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.sync.applied-cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        appliedMutations.deleteOlderThan(System.currentTimeMillis() - retentionMillis);
+    }
+
+    // Commits the mutation together with its applied record; the unique (user_id, client_id) key makes a
+    // concurrent resend of the same clientId lose and replay the winner's result
+    private MutationResult applyOne(Mutation m, Batch batch) {
+        try {
+            return transactionTemplate.execute(status -> {
+                MutationResult result = apply(m, batch);
+                if (!MutationResult.APPLIED.equals(result.status())) {
+                    // A conflict or not-found leaves nothing behind, including side writes made before the check
+                    status.setRollbackOnly();
+                } else if (m.clientId() != null) {
+                    appliedMutations.saveAndFlush(new AppliedMutation(batch.user.getId(), m.clientId(),
+                            result.id(), result.version(), System.currentTimeMillis()));
+                }
+                return result;
+            });
+        } catch (IllegalArgumentException e) {
+            // Only raised by input validation
+            return MutationResult.invalid(m.clientId(), e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            Optional<AppliedMutation> winner = m.clientId() != null
+                    ? appliedMutations.findByUserIdAndClientId(batch.user.getId(), m.clientId())
+                    : Optional.empty();
+            if (winner.isPresent()) {
+                return replayed(m, winner.get());
+            }
+            log.warn("Push mutation {} ({}) rejected by the database", m.clientId(), m.op(), e);
+            return MutationResult.failed(m.clientId(), "Rejected by the database");
+        } catch (DataAccessException e) {
+            log.warn("Push mutation {} ({}) failed", m.clientId(), m.op(), e);
+            return MutationResult.failed(m.clientId(), "Could not be saved; retry");
+        }
+    }
+
+    private static MutationResult replayed(Mutation m, AppliedMutation previous) {
+        return MutationResult.applied(m.clientId(), previous.getEntityId(), previous.getVersion());
+    }
+
+    // Only after commit, so a rolled-back create can't be referenced and a failed edit doesn't rebuild revenue
+    private static void remember(Mutation m, MutationResult result, Batch batch) {
+        switch (m.op()) {
+            case "job.create" -> batch.jobs.put(m.clientId(), result.id());
+            case "customer.create" -> batch.customers.put(m.clientId(), result.id());
+            case "job.update", "customer.update" -> batch.revenueChanged = true;
+            default -> {
+            }
+        }
+    }
+
+    private MutationResult apply(Mutation m, Batch batch) {
+        if (m.op() == null) {
+            throw new IllegalArgumentException("Missing op");
+        }
+        Long userId = batch.user.getId();
+        Map<String, Object> data = m.data() != null ? m.data() : Map.of();
+
+        switch (m.op()) {
+            case "job.create" -> {
+                Job saved = jobService.createJob(newJob(data, batch));
+                return MutationResult.applied(m.clientId(), saved.getId(), saved.getChangeVersion());
+            }
+            case "customer.create" -> {
+                CustomerDto fields = objectMapper.convertValue(data, CustomerDto.class);
+                Customer customer = new Customer();
+                customer.setName(fields.name());
+                customer.setPhone(fields.phone());
+                customer.setEmail(fields.email());
+                customer.setAddress(fields.address());
+                customer.setCreatedBy(batch.user);
+                Customer saved = customerService.createCustomer(customer);
+                return MutationResult.applied(m.clientId(), saved.getId(), saved.getChangeVersion());
+            }
+            case "job.update" -> {
+                Long id = target(m, batch.jobs);
+                Optional<Long> version = rowPatcher.patch(PatchTarget.JOB, data, id, userId, m.baseVersion());
+                return written(m, PatchTarget.JOB, id, userId, version, ChangeType.JOB_UPDATED);
+            }
+            case "job.paid" -> {
+                Long id = target(m, batch.jobs);
+                Optional<Long> current = rowPatcher.currentVersion(PatchTarget.JOB, id, userId);
+                if (current.isEmpty()) {
+                    return MutationResult.notFound(m.clientId(), id);
+                }
+                if (m.baseVersion() != null && !m.baseVersion().equals(current.get())) {
+                    return MutationResult.conflict(m.clientId(), id, current.get());
+                }
+                // Numbers the job from the user's invoice counter; an already-paid job keeps its number
+                jobService.markPaid(List.of(id), userId);
+                return MutationResult.applied(m.clientId(), id,
+                        rowPatcher.currentVersion(PatchTarget.JOB, id, userId).orElse(null));
+            }
+            case "customer.update" -> {
+                Long id = target(m, batch.customers);
+                Optional<Long> version = rowPatcher.patch(PatchTarget.CUSTOMER, data, id, userId, m.baseVersion());
+                return written(m, PatchTarget.CUSTOMER, id, userId, version, ChangeType.CUSTOMER_UPDATED);
+            }
+            case "job.delete" -> {
+                Long id = target(m, batch.jobs);
+                jobService.recordSeriesException(id, userId);
+                if (!rowPatcher.delete(PatchTarget.JOB, id, userId, m.baseVersion())) {
+                    return rejected(m, PatchTarget.JOB, id, userId);
+                }
+                Tombstone tombstone = tombstoneRepository.save(new Tombstone(userId, Tombstone.JOB, id));
+                revenueAnalyticsService.onJobDeleted(userId, id);
+                eventPublisher.publishEvent(new ChangeEvent(ChangeType.JOB_DELETED, userId, id));
+                return MutationResult.applied(m.clientId(), id, tombstone.getChangeVersion());
+            }
+            default -> throw new IllegalArgumentException("Unknown op '" + m.op() + "'");
+        }
+    }
+
+    private Job newJob(Map<String, Object> data, Batch batch) {
+        Map<String, Object> fields = new HashMap<>(data);
+        Object customerRef = fields.remove("customerRef");
+        JobRequest request = objectMapper.convertValue(fields, JobRequest.class);
+
+        Job job = new Job();
+        job.setService(request.service() != null ? request.service() : "Window Cleaning");
+        job.setJobDate(request.jobDate());
+        job.setPrice(request.price());
+        job.setNotes(request.notes());
+        job.setCreatedBy(batch.user);
+
+        Long customerId = customerRef != null ? batch.customers.get(customerRef.toString()) : request.customerId();
+        if (customerRef != null && customerId == null) {
+            throw new IllegalArgumentException("Unknown customerRef '" + customerRef + "'");
+        }
+        if (customerId != null) {
+            if (customerRef == null && !customerRepository.existsByIdAndCreatedById(customerId, batch.user.getId())) {
+                throw new IllegalArgumentException("Customer not found or unauthorized");
+            }
+            job.setCustomer(customerRepository.getReferenceById(customerId));
+        } else {
+            job.setCustomerName(request.customerName());
+            job.setAddress(request.address());
+        }
+        return job;
+    }
+
+    private MutationResult written(Mutation m, PatchTarget target, Long id, Long userId, Optional<Long> version,
+            ChangeType type) {
+        if (version.isEmpty()) {
+            return rejected(m, target, id, userId);
+        }
+        eventPublisher.publishEvent(new ChangeEvent(type, userId, id));
+        return MutationResult.applied(m.clientId(), id, version.get());
+    }
+
+    // The version check or the owner check failed; tell the client which
+    private MutationResult rejected(Mutation m, PatchTarget target, Long id, Long userId) {
+        return rowPatcher.currentVersion(target, id, userId)
+                .map(current -> MutationResult.conflict(m.clientId(), id, current))
+                .orElseGet(() -> MutationResult.notFound(m.clientId(), id));
+    }
+
+    private static Long target(Mutation m, Map<String, Long> createdInBatch) {
+        if (m.id() != null) {
+            return m.id();
+        }
+        Long id = m.ref() != null ? createdInBatch.get(m.ref()) : null;
+        if (id == null) {
+            throw new IllegalArgumentException("Mutation needs an id or the clientId of an earlier create");
+        }
+        return id;
+    }
+
+    private static final class Batch {
+        private final User user;
+        private final Map<String, Long> jobs = new HashMap<>();
+        private final Map<String, Long> customers = new HashMap<>();
+        private boolean revenueChanged;
+
+        Batch(User user) {
+            this.user = user;
+        }
+    }
+}
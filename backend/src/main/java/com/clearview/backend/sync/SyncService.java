@@ -0,0 +1,105 @@
+package com.clearview.backend.sync;
+
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.dto.JobDto;
+import com.clearview.backend.sync.dto.SyncResponse;
+import com.clearview.backend.sync.dto.TombstoneDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class SyncService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final JobRepository jobRepository;
+    private final CustomerRepository customerRepository;
+    private final TombstoneRepository tombstoneRepository;
+
+    public SyncService(JobRepository jobRepository, CustomerRepository customerRepository,
+            TombstoneRepository tombstoneRepository) {
+        this.jobRepository = jobRepository;
+        this.customerRepository = customerRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    // Everything the user wrote or deleted after the cursor, at most limit rows across all three tables.
+    // Rows are ordered by (writing transaction, change_version) and only rows from transactions older than
+    // the oldest one still in flight are returned. Those rows are final: nothing can later commit in front
+    // of them, so a client never steps past a row that was written earlier but committed later. Rows from
+    // newer transactions are held back until the next call.
+    public SyncResponse getChanges(Long userId, String since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Position after = Position.parse(since);
+        long horizon = tombstoneRepository.visibleTxidHorizon();
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<Job> jobs = jobRepository.findChangedSince(userId, after.txid(), after.version(), horizon, page);
+        List<Customer> customers = customerRepository.findChangedSince(userId, after.txid(), after.version(), horizon, page);
+        List<Tombstone> tombstones = tombstoneRepository.findChangedSince(userId, after.txid(), after.version(), horizon, page);
+
+        List<Position> positions = new ArrayList<>(jobs.size() + customers.size() + tombstones.size());
+        jobs.forEach(j -> positions.add(new Position(j.getChangeTxid(), j.getChangeVersion())));
+        customers.forEach(c -> positions.add(new Position(c.getChangeTxid(), c.getChangeVersion())));
+        tombstones.forEach(t -> positions.add(new Position(t.getChangeTxid(), t.getChangeVersion())));
+        Collections.sort(positions);
+
+        boolean hasMore = positions.size() > size;
+        Position last = positions.isEmpty() ? after : positions.get(Math.min(size, positions.size()) - 1);
+
+        return new SyncResponse(
+                jobs.stream().filter(j -> !last.isBefore(j.getChangeTxid(), j.getChangeVersion()))
+                        .map(JobDto::from).toList(),
+                customers.stream().filter(c -> !last.isBefore(c.getChangeTxid(), c.getChangeVersion()))
+                        .map(CustomerDto::from).toList(),
+                tombstones.stream().filter(t -> !last.isBefore(t.getChangeTxid(), t.getChangeVersion()))
+                        .map(TombstoneDto::from).toList(),
+                last.toString(),
+                hasMore);
+    }
+
+    // Cursor "<txid>-<version>". A bare number is a cursor from before transaction ordering and restarts the sync.
+    record Position(long txid, long version) implements Comparable<Position> {
+
+        static final Position START = new Position(0L, 0L);
+
+        static Position parse(String since) {
+            if (since == null || since.isBlank()) {
+                return START;
+            }
+            try {
+                int dash = since.indexOf('-');
+                if (dash < 0) {
+                    Long.parseLong(since);
+                    return START;
+                }
+                return new Position(Long.parseLong(since.substring(0, dash)), Long.parseLong(since.substring(dash + 1)));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid sync cursor");
+            }
+        }
+
+        boolean isBefore(long otherTxid, long otherVersion) {
+            return compareTo(new Position(otherTxid, otherVersion)) < 0;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            int byTxid = Long.compare(txid, other.txid);
+            return byTxid != 0 ? byTxid : Long.compare(version, other.version);
+        }
+
+        @Override
+        public String toString() {
+            return txid + "-" + version;
+        }
+    }
+}
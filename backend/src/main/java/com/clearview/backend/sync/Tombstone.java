@@ -0,0 +1,78 @@
+package com.clearview.backend.sync;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+// One row per deleted job or customer, so delta syncs can tell clients what to drop
+@Entity
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_user_txid", columnList = "user_id, change_txid, change_version")
+})
+public class Tombstone {
+
+    public static final String JOB = "job";
+    public static final String CUSTOMER = "customer";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Generated(event = EventType.INSERT, sql = "nextval('change_version_seq')")
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    // Writing transaction, set by the set_change_txid trigger whenever change_version moves (schema.sql)
+    @Column(name = "change_txid", insertable = false, updatable = false)
+    private Long changeTxid;
+
+    public Tombstone() {
+    }
+
+    public Tombstone(Long userId, String entityType, Long entityId) {
+        this.userId = userId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public Long getChangeTxid() {
+        return changeTxid;
+    }
+
+    public void setChangeTxid(Long changeTxid) {
+        this.changeTxid = changeTxid;
+    }
+}
@@ -0,0 +1,29 @@
+package com.clearview.backend.sync;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    @Query("SELECT t FROM Tombstone t " +
+            "WHERE t.userId = :userId AND t.changeTxid < :horizon " +
+            "AND (t.changeTxid > :afterTxid OR (t.changeTxid = :afterTxid AND t.changeVersion > :afterVersion)) " +
+            "ORDER BY t.changeTxid, t.changeVersion")
+    List<Tombstone> findChangedSince(Long userId, Long afterTxid, Long afterVersion, Long horizon, Pageable pageable);
+
+    // Oldest transaction still in flight: every row with a lower change_txid has committed or rolled back
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long visibleTxidHorizon();
+
+    // Tombstones for every job a customer delete is about to remove, written in one statement
+    @Modifying
+    @Query(value = "INSERT INTO tombstones (user_id, entity_type, entity_id, change_version) " +
+            "SELECT c.user_id, 'job', j.id, nextval('change_version_seq') " +
+            "FROM jobs j JOIN customers c ON c.id = j.customer_id " +
+            "WHERE c.id = :customerId AND c.user_id = :userId", nativeQuery = true)
+    int recordCustomerJobs(Long customerId, Long userId);
+}
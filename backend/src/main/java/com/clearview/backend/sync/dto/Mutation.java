@@ -0,0 +1,19 @@
+package com.clearview.backend.sync.dto;
+
+import java.util.Map;
+
+/**
+ * One queued offline action. op is job.create, job.update, job.paid,
+ * job.delete, customer.create or customer.update. The target is either a
+ * server id or ref, the clientId of a create earlier in the same push.
+ * baseVersion is the row version the client edited; null skips the check.
+ */
+public record Mutation(
+    String clientId,
+    String op,
+    Long id,
+    String ref,
+    Long baseVersion,
+    Map<String, Object> data
+) {
+}
@@ -0,0 +1,32 @@
+package com.clearview.backend.sync.dto;
+
+// status is applied, conflict (version is the server's current one), not_found, invalid or error (retryable)
+public record MutationResult(
+    String clientId,
+    String status,
+    Long id,
+    Long version,
+    String error
+) {
+    public static final String APPLIED = "applied";
+
+    public static MutationResult applied(String clientId, Long id, Long version) {
+        return new MutationResult(clientId, APPLIED, id, version, null);
+    }
+
+    public static MutationResult conflict(String clientId, Long id, Long currentVersion) {
+        return new MutationResult(clientId, "conflict", id, currentVersion, "Changed on the server since baseVersion");
+    }
+
+    public static MutationResult notFound(String clientId, Long id) {
+        return new MutationResult(clientId, "not_found", id, null, "Not found or unauthorized");
+    }
+
+    public static MutationResult invalid(String clientId, String error) {
+        return new MutationResult(clientId, "invalid", null, null, error);
+    }
+
+    public static MutationResult failed(String clientId, String error) {
+        return new MutationResult(clientId, "error", null, null, error);
+    }
+}
@@ -0,0 +1,8 @@
+package com.clearview.backend.sync.dto;
+
+import java.util.List;
+
+public record PushRequest(
+    List<Mutation> mutations
+) {
+}
@@ -0,0 +1,9 @@
+package com.clearview.backend.sync.dto;
+
+import java.util.List;
+
+// One result per mutation, in request order
+public record PushResponse(
+    List<MutationResult> results
+) {
+}
@@ -0,0 +1,16 @@
+package com.clearview.backend.sync.dto;
+
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.job.dto.JobDto;
+
+import java.util.List;
+
+// cursor is passed back as ?since= on the next call; hasMore means call again right away
+public record SyncResponse(
+    List<JobDto> jobs,
+    List<CustomerDto> customers,
+    List<TombstoneDto> deleted,
+    String cursor,
+    boolean hasMore
+) {
+}
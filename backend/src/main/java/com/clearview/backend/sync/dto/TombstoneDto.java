@@ -0,0 +1,13 @@
+package com.clearview.backend.sync.dto;
+
+import com.clearview.backend.sync.Tombstone;
+
+public record TombstoneDto(
+    String type,
+    Long id,
+    Long version
+) {
+    public static TombstoneDto from(Tombstone t) {
+        return new TombstoneDto(t.getEntityType(), t.getEntityId(), t.getChangeVersion());
+    }
+}
@@ -0,0 +1,74 @@
+package com.clearview.backend.task;
+
+import jakarta.persistence.*;
+
+// One queued unit of background work; only touched through the TaskStore's SQL
+@Entity
+@Table(name = "background_tasks")
+public class BackgroundTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskState state;
+
+    private int attempts;
+
+    // Epoch millis: when a PENDING task is due, or when a RUNNING task's visibility timeout ends
+    @Column(name = "run_after", nullable = false)
+    private long runAfter;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private long createdAt;
+
+    @Column(nullable = false)
+    private long updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public TaskState getState() {
+        return state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getRunAfter() {
+        return runAfter;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,5 @@
+package com.clearview.backend.task;
+
+// attempts counts this run; dueAt is when the task became runnable, for the wait-time metric
+public record ClaimedTask(long id, String type, String payload, int attempts, long dueAt) {
+}
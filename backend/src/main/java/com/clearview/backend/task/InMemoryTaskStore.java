@@ -0,0 +1,122 @@
+package com.clearview.backend.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fallback for databases without SKIP LOCKED, such as embedded test
+ * databases. Same claim and fencing rules as JdbcTaskStore, but tasks live
+ * in this instance's memory: they are lost on restart and not shared.
+ */
+public class InMemoryTaskStore implements TaskStore {
+
+    private static final class Entry {
+        final long id;
+        final String type;
+        final String payload;
+        TaskState state = TaskState.PENDING;
+        int attempts;
+        long runAfter;
+        String lastError;
+
+        Entry(long id, String type, String payload, long runAfter) {
+            this.id = id;
+            this.type = type;
+            this.payload = payload;
+            this.runAfter = runAfter;
+        }
+    }
+
+    private final Map<Long, Entry> tasks = new TreeMap<>();
+    private long nextId = 1;
+
+    @Override
+    public synchronized void enqueue(String type, List<String> payloads, long runAfter) {
+        for (String payload : payloads) {
+            long id = nextId++;
+            tasks.put(id, new Entry(id, type, payload, runAfter));
+        }
+    }
+
+    @Override
+    public synchronized List<ClaimedTask> claim(String type, int limit, int maxAttempts, long now, long lockedUntil) {
+        List<Entry> due = tasks.values().stream()
+                .filter(e -> e.type.equals(type) && e.state != TaskState.FAILED
+                        && e.runAfter <= now && e.attempts < maxAttempts)
+                .sorted(Comparator.comparingLong((Entry e) -> e.runAfter).thenComparingLong(e -> e.id))
+                .limit(limit)
+                .toList();
+        List<ClaimedTask> claimed = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            long dueAt = entry.runAfter;
+            entry.state = TaskState.RUNNING;
+            entry.attempts++;
+            entry.runAfter = lockedUntil;
+            claimed.add(new ClaimedTask(entry.id, type, entry.payload, entry.attempts, dueAt));
+        }
+        return claimed;
+    }
+
+    @Override
+    public synchronized void complete(ClaimedTask task) {
+        if (holds(task) != null) {
+            tasks.remove(task.id());
+        }
+    }
+
+    @Override
+    public synchronized void retry(ClaimedTask task, String error, long runAfter) {
+        Entry entry = holds(task);
+        if (entry != null) {
+            entry.state = TaskState.PENDING;
+            entry.runAfter = runAfter;
+            entry.lastError = error;
+        }
+    }
+
+    @Override
+    public synchronized void fail(ClaimedTask task, String error) {
+        Entry entry = holds(task);
+        if (entry != null) {
+            entry.state = TaskState.FAILED;
+            entry.lastError = error;
+        }
+    }
+
+    @Override
+    public synchronized int failAbandoned(String type, int maxAttempts, long now) {
+        int failed = 0;
+        for (Entry entry : tasks.values()) {
+            if (entry.type.equals(type) && entry.state == TaskState.RUNNING
+                    && entry.runAfter <= now && entry.attempts >= maxAttempts) {
+                entry.state = TaskState.FAILED;
+                entry.lastError = "Visibility timeout passed on the last attempt";
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public synchronized List<TaskDepth> depth() {
+        Map<String, Map<TaskState, Long>> counts = new LinkedHashMap<>();
+        for (Entry entry : tasks.values()) {
+            if (entry.state != TaskState.FAILED) {
+                counts.computeIfAbsent(entry.type, t -> new EnumMap<>(TaskState.class)).merge(entry.state, 1L, Long::sum);
+            }
+        }
+        List<TaskDepth> depth = new ArrayList<>();
+        counts.forEach((type, byState) -> byState.forEach((state, n) -> depth.add(new TaskDepth(type, state, n))));
+        return depth;
+    }
+
+    private Entry holds(ClaimedTask task) {
+        Entry entry = tasks.get(task.id());
+        return entry != null && entry.state == TaskState.RUNNING && entry.attempts == task.attempts() ? entry : null;
+    }
+}
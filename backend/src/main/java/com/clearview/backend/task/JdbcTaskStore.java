@@ -0,0 +1,115 @@
+package com.clearview.backend.task;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+/**
+ * PostgreSQL store. Workers claim with FOR UPDATE SKIP LOCKED, so any
+ * number of instances can poll the same table without blocking each other
+ * or taking the same task. Each call is one statement; called inside a
+ * transaction, enqueue commits or rolls back with it.
+ */
+public class JdbcTaskStore implements TaskStore {
+
+    // Rows per INSERT when enqueueing many payloads
+    private static final int ENQUEUE_CHUNK = 500;
+
+    private static final String CLAIM = """
+            WITH due AS (
+                SELECT id, run_after FROM background_tasks
+                WHERE type = :type AND state IN ('PENDING', 'RUNNING')
+                    AND run_after <= :now AND attempts < :maxAttempts
+                ORDER BY run_after, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            UPDATE background_tasks t
+            SET state = 'RUNNING', attempts = t.attempts + 1, run_after = :lockedUntil, updated_at = :now
+            FROM due WHERE t.id = due.id
+            RETURNING t.id, t.payload, t.attempts, due.run_after AS due_at
+            """;
+    private static final String COMPLETE =
+            "DELETE FROM background_tasks WHERE id = :id AND state = 'RUNNING' AND attempts = :attempts";
+    private static final String RETRY =
+            "UPDATE background_tasks SET state = 'PENDING', run_after = :runAfter, last_error = :error, updated_at = :now " +
+            "WHERE id = :id AND state = 'RUNNING' AND attempts = :attempts";
+    private static final String FAIL =
+            "UPDATE background_tasks SET state = 'FAILED', last_error = :error, updated_at = :now " +
+            "WHERE id = :id AND state = 'RUNNING' AND attempts = :attempts";
+    private static final String FAIL_ABANDONED =
+            "UPDATE background_tasks SET state = 'FAILED', last_error = 'Visibility timeout passed on the last attempt', " +
+            "updated_at = :now WHERE type = :type AND state = 'RUNNING' AND run_after <= :now AND attempts >= :maxAttempts";
+    private static final String DEPTH =
+            "SELECT type, state, count(*) AS tasks FROM background_tasks " +
+            "WHERE state IN ('PENDING', 'RUNNING') GROUP BY type, state";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public JdbcTaskStore(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void enqueue(String type, List<String> payloads, long runAfter) {
+        long now = System.currentTimeMillis();
+        for (int from = 0; from < payloads.size(); from += ENQUEUE_CHUNK) {
+            List<String> chunk = payloads.subList(from, Math.min(payloads.size(), from + ENQUEUE_CHUNK));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO background_tasks (type, payload, state, attempts, run_after, created_at, updated_at) VALUES ");
+            MapSqlParameterSource params = new MapSqlParameterSource("type", type)
+                    .addValue("runAfter", runAfter)
+                    .addValue("now", now);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i > 0 ? ", " : "").append("(:type, :p").append(i).append(", 'PENDING', 0, :runAfter, :now, :now)");
+                params.addValue("p" + i, chunk.get(i));
+            }
+            jdbc.update(sql.toString(), params);
+        }
+    }
+
+    @Override
+    public List<ClaimedTask> claim(String type, int limit, int maxAttempts, long now, long lockedUntil) {
+        return jdbc.query(CLAIM, new MapSqlParameterSource("type", type)
+                        .addValue("limit", limit)
+                        .addValue("maxAttempts", maxAttempts)
+                        .addValue("now", now)
+                        .addValue("lockedUntil", lockedUntil),
+                (rs, i) -> new ClaimedTask(rs.getLong("id"), type, rs.getString("payload"), rs.getInt("attempts"),
+                        rs.getLong("due_at")));
+    }
+
+    @Override
+    public void complete(ClaimedTask task) {
+        jdbc.update(COMPLETE, fenced(task));
+    }
+
+    @Override
+    public void retry(ClaimedTask task, String error, long runAfter) {
+        jdbc.update(RETRY, fenced(task).addValue("error", error).addValue("runAfter", runAfter));
+    }
+
+    @Override
+    public void fail(ClaimedTask task, String error) {
+        jdbc.update(FAIL, fenced(task).addValue("error", error));
+    }
+
+    @Override
+    public int failAbandoned(String type, int maxAttempts, long now) {
+        return jdbc.update(FAIL_ABANDONED, new MapSqlParameterSource("type", type)
+                .addValue("maxAttempts", maxAttempts)
+                .addValue("now", now));
+    }
+
+    @Override
+    public List<TaskDepth> depth() {
+        return jdbc.query(DEPTH, (rs, i) ->
+                new TaskDepth(rs.getString("type"), TaskState.valueOf(rs.getString("state")), rs.getLong("tasks")));
+    }
+
+    private static MapSqlParameterSource fenced(ClaimedTask task) {
+        return new MapSqlParameterSource("id", task.id())
+                .addValue("attempts", task.attempts())
+                .addValue("now", System.currentTimeMillis());
+    }
+}
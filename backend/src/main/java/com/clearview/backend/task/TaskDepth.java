@@ -0,0 +1,4 @@
+package com.clearview.backend.task;
+
+public record TaskDepth(String type, TaskState state, long tasks) {
+}
@@ -0,0 +1,28 @@
+package com.clearview.backend.task;
+
+import java.time.Duration;
+
+/**
+ * Runs tasks of one type. A task that outlives its visibility timeout can
+ * be claimed again by another worker, and one whose result was never
+ * recorded is retried, so handle() must be safe to repeat.
+ */
+public interface TaskHandler {
+
+    String type();
+
+    void handle(String payload) throws Exception;
+
+    // Per worker instance; clearview.tasks.concurrency.<type> overrides it
+    default int maxConcurrency() {
+        return 1;
+    }
+
+    default int maxAttempts() {
+        return 5;
+    }
+
+    default Duration visibilityTimeout() {
+        return Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,32 @@
+package com.clearview.backend.task;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+// Entry point for queueing background work; TaskWorker runs it with the TaskHandler registered for the type
+@Service
+public class TaskQueue {
+
+    private final TaskStore store;
+
+    public TaskQueue(TaskStore store) {
+        this.store = store;
+    }
+
+    public void enqueue(String type, String payload) {
+        enqueue(type, List.of(payload), Duration.ZERO);
+    }
+
+    public void enqueue(String type, List<String> payloads) {
+        enqueue(type, payloads, Duration.ZERO);
+    }
+
+    public void enqueue(String type, List<String> payloads, Duration delay) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        store.enqueue(type, payloads, System.currentTimeMillis() + delay.toMillis());
+    }
+}
@@ -0,0 +1,8 @@
+package com.clearview.backend.task;
+
+// Finished tasks are deleted; FAILED rows stay for inspection
+public enum TaskState {
+    PENDING,
+    RUNNING,
+    FAILED
+}
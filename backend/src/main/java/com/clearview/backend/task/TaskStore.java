@@ -0,0 +1,27 @@
+package com.clearview.backend.task;
+
+import java.util.List;
+
+/**
+ * Where queued tasks live. Completing, retrying and failing a task only
+ * apply while it is still RUNNING with the same attempt count, so a worker
+ * whose claim lapsed cannot overwrite the outcome of the one that took over.
+ */
+public interface TaskStore {
+
+    void enqueue(String type, List<String> payloads, long runAfter);
+
+    // Marks up to limit due tasks RUNNING until lockedUntil, skipping tasks other workers hold
+    List<ClaimedTask> claim(String type, int limit, int maxAttempts, long now, long lockedUntil);
+
+    void complete(ClaimedTask task);
+
+    void retry(ClaimedTask task, String error, long runAfter);
+
+    void fail(ClaimedTask task, String error);
+
+    // RUNNING tasks whose timeout passed with no attempts left become FAILED; returns how many
+    int failAbandoned(String type, int maxAttempts, long now);
+
+    List<TaskDepth> depth();
+}
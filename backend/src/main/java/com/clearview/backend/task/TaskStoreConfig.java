@@ -0,0 +1,44 @@
+package com.clearview.backend.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class TaskStoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStoreConfig.class);
+
+    // clearview.tasks.store=auto uses the table on PostgreSQL and memory on anything else (embedded test databases)
+    @Bean
+    TaskStore taskStore(NamedParameterJdbcTemplate jdbc, DataSource dataSource,
+            @Value("${clearview.tasks.store:auto}") String store) {
+        boolean table = switch (store) {
+            case "jdbc" -> true;
+            case "memory" -> false;
+            default -> isPostgres(dataSource);
+        };
+        if (!table) {
+            log.warn("Background tasks are kept in memory: they are lost on restart and not shared between instances");
+            return new InMemoryTaskStore();
+        }
+        return new JdbcTaskStore(jdbc);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            return "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            throw new RuntimeException("Could not detect the database for the task queue", e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.clearview.backend.task;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the TaskStore and runs claimed tasks on a bounded pool. Each poll
+ * claims per type only as many tasks as that type has free slots
+ * (maxConcurrency, per instance) and the pool has free threads, so a claimed
+ * task never waits in a queue while its visibility timeout runs down.
+ *
+ * A failed task is retried with doubling backoff until the handler's
+ * maxAttempts, then kept as FAILED. Metrics: clearview.tasks.depth (gauge
+ * per type and state, refreshed with the abandoned-task sweep),
+ * clearview.tasks.wait (due to claimed) and clearview.tasks.run (by outcome).
+ */
+@Component
+public class TaskWorker {
+
+    // Retry backoff doubles per attempt up to this
+    private static final long MAX_BACKOFF_MS = 3_600_000L;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWorker.class);
+
+    private final TaskStore store;
+    private final MeterRegistry registry;
+    private final Map<String, TaskHandler> handlers = new LinkedHashMap<>();
+    private final Map<String, Integer> limits = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> running = new LinkedHashMap<>();
+    private final Map<String, Map<TaskState, AtomicLong>> depth = new LinkedHashMap<>();
+    private final Map<String, Timer> waitTimers = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ThreadPoolExecutor workers;
+    private final boolean enabled;
+    private final int threads;
+    private final int batchSize;
+    private final long retryBackoffMs;
+
+    public TaskWorker(TaskStore store, List<TaskHandler> handlers, MeterRegistry registry, Environment environment,
+            @Value("${clearview.tasks.enabled:true}") boolean enabled,
+            @Value("${clearview.tasks.threads:4}") int threads,
+            @Value("${clearview.tasks.batch-size:10}") int batchSize,
+            @Value("${clearview.tasks.retry-backoff-ms:10000}") long retryBackoffMs) {
+        this.store = store;
+        this.registry = registry;
+        for (TaskHandler handler : handlers) {
+            String type = handler.type();
+            if (this.handlers.put(type, handler) != null) {
+                throw new IllegalStateException("More than one task handler for " + type);
+            }
+            limits.put(type, environment.getProperty("clearview.tasks.concurrency." + type, Integer.class,
+                    handler.maxConcurrency()));
+            running.put(type, new AtomicInteger());
+            Map<TaskState, AtomicLong> byState = new EnumMap<>(TaskState.class);
+            for (TaskState state : List.of(TaskState.PENDING, TaskState.RUNNING)) {
+                AtomicLong tasks = new AtomicLong();
+                byState.put(state, tasks);
+                Gauge.builder("clearview.tasks.depth", tasks, AtomicLong::get)
+                        .tag("type", type).tag("state", state.name().toLowerCase()).register(registry);
+            }
+            depth.put(type, byState);
+            waitTimers.put(type, Timer.builder("clearview.tasks.wait")
+                    .description("Time from a task becoming due to a worker claiming it")
+                    .tag("type", type).register(registry));
+        }
+        this.enabled = enabled;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads), namedThreads("task-worker"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.tasks.poll-interval-ms:1000}",
+            initialDelayString = "${clearview.tasks.initial-delay-ms:30000}")
+    public void poll() {
+        if (enabled) {
+            pollOnce(System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clearview.tasks.metrics-interval-ms:30000}",
+            initialDelayString = "${clearview.tasks.initial-delay-ms:30000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        handlers.forEach((type, handler) -> {
+            int failed = store.failAbandoned(type, handler.maxAttempts(), now);
+            if (failed > 0) {
+                log.warn("{} {} tasks timed out on their last attempt", failed, type);
+            }
+        });
+        depth.values().forEach(byState -> byState.values().forEach(tasks -> tasks.set(0)));
+        for (TaskDepth row : store.depth()) {
+            Map<TaskState, AtomicLong> byState = depth.get(row.type());
+            if (byState != null && byState.containsKey(row.state())) {
+                byState.get(row.state()).set(row.tasks());
+            }
+        }
+    }
+
+    // Returns how many tasks were handed to the pool
+    int pollOnce(long now) {
+        int started = 0;
+        for (TaskHandler handler : handlers.values()) {
+            String type = handler.type();
+            int free = Math.min(limits.get(type) - running.get(type).get(), threads - inFlight.get());
+            if (free <= 0) {
+                continue;
+            }
+            List<ClaimedTask> claimed = store.claim(type, Math.min(free, batchSize), handler.maxAttempts(), now,
+                    now + handler.visibilityTimeout().toMillis());
+            for (ClaimedTask task : claimed) {
+                waitTimers.get(type).record(Math.max(0, now - task.dueAt()), TimeUnit.MILLISECONDS);
+                running.get(type).incrementAndGet();
+                inFlight.incrementAndGet();
+                try {
+                    workers.execute(() -> run(handler, task));
+                    started++;
+                } catch (RejectedExecutionException e) {
+                    // Only possible while shutting down; the task is claimed again once its timeout passes
+                    running.get(type).decrementAndGet();
+                    inFlight.decrementAndGet();
+                    log.warn("Task pool rejected {} task {}", type, task.id());
+                }
+            }
+        }
+        return started;
+    }
+
+    void run(TaskHandler handler, ClaimedTask task) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            outcome = execute(handler, task);
+        } catch (RuntimeException e) {
+            // Store unreachable: the task is claimed again once its visibility timeout passes
+            log.error("Could not record the result of {} task {}", task.type(), task.id(), e);
+            outcome = "unrecorded";
+        } finally {
+            running.get(task.type()).decrementAndGet();
+            inFlight.decrementAndGet();
+        }
+        Timer.builder("clearview.tasks.run").tag("type", task.type()).tag("outcome", outcome)
+                .register(registry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String execute(TaskHandler handler, ClaimedTask task) {
+        try {
+            handler.handle(task.payload());
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            error = error.length() > 1000 ? error.substring(0, 1000) : error;
+            if (task.attempts() < handler.maxAttempts()) {
+                log.warn("{} task {} failed on attempt {}, retrying", task.type(), task.id(), task.attempts(), e);
+                store.retry(task, error, System.currentTimeMillis() + backoffMs(task.attempts()));
+                return "retry";
+            }
+            log.error("{} task {} failed on its last attempt", task.type(), task.id(), e);
+            store.fail(task, error);
+            return "failed";
+        }
+        store.complete(task);
+        return "ok";
+    }
+
+    long backoffMs(int attempts) {
+        return Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(20, Math.max(0, attempts - 1)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
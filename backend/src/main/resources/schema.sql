@@ -0,0 +1,40 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization=true).
+-- change_version_seq feeds the change_version columns read by /api/sync.
+CREATE SEQUENCE IF NOT EXISTS change_version_seq;
+
+-- Rows written before change versions existed get one, so a full sync still returns them
+UPDATE jobs SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+UPDATE customers SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+
+-- change_txid records the transaction that last moved a row's change_version. /api/sync orders by
+-- (change_txid, change_version) and only serves rows below the oldest in-flight transaction, so a row
+-- that took its version early but committed late is never stepped over.
+-- The function body is single-quoted because the script runner splits statements on semicolons.
+CREATE OR REPLACE FUNCTION set_change_txid() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF TG_OP = ''INSERT'' OR NEW.change_version IS DISTINCT FROM OLD.change_version THEN
+        NEW.change_txid := CAST(CAST(pg_current_xact_id() AS text) AS bigint);
+    END IF;
+    RETURN NEW;
+END';
+DROP TRIGGER IF EXISTS jobs_change_txid ON jobs;
+CREATE TRIGGER jobs_change_txid BEFORE INSERT OR UPDATE ON jobs FOR EACH ROW EXECUTE FUNCTION set_change_txid();
+DROP TRIGGER IF EXISTS customers_change_txid ON customers;
+CREATE TRIGGER customers_change_txid BEFORE INSERT OR UPDATE ON customers FOR EACH ROW EXECUTE FUNCTION set_change_txid();
+DROP TRIGGER IF EXISTS tombstones_change_txid ON tombstones;
+CREATE TRIGGER tombstones_change_txid BEFORE INSERT OR UPDATE ON tombstones FOR EACH ROW EXECUTE FUNCTION set_change_txid();
+UPDATE jobs SET change_txid = 0 WHERE change_txid IS NULL;
+UPDATE customers SET change_txid = 0 WHERE change_txid IS NULL;
+UPDATE tombstones SET change_txid = 0 WHERE change_txid IS NULL;
+
+-- Keeps JobCustomerReconciler's scan for unlinked jobs off the linked majority, in its (txid, version) cursor order
+CREATE INDEX IF NOT EXISTS idx_jobs_unlinked_txid ON jobs (change_txid, change_version) WHERE customer_id IS NULL;
+
+-- JobArchiver picks its candidates (paid, oldest job_date first) from this index
+CREATE INDEX IF NOT EXISTS idx_jobs_paid_date ON jobs (job_date, id) WHERE paid;
+
+-- ReminderDispatcher claims and sweeps only rows still waiting to go out
+CREATE INDEX IF NOT EXISTS idx_reminders_due ON reminders (channel, next_attempt_at, id) WHERE status IN ('PENDING', 'SENDING');
+
+-- TaskWorker claims each type's due tasks (and lapsed RUNNING ones) from this index
+CREATE INDEX IF NOT EXISTS idx_background_tasks_due ON background_tasks (type, run_after, id) WHERE state IN ('PENDING', 'RUNNING');
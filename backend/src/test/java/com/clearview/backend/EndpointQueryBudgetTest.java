@@ -0,0 +1,210 @@
+package com.clearview.backend;
+
+import com.clearview.backend.auth.JwtUtil;
+import com.clearview.backend.auth.RefreshTokenService;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the job, customer and auth endpoints. Each endpoint
+ * runs once against a user with 10 rows and once against a user with 1000;
+ * it must stay within its budget and run the same number of statements
+ * both times, which is what catches N+1 loads. The count includes the
+ * JWT filter's user lookup. Raise a budget only with a reason.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCounter.Config.class)
+@Testcontainers(disabledWithoutDocker = true)
+class EndpointQueryBudgetTest {
+
+    private static final String PASSWORD = "secret-password";
+    private static final String JOB_DATE = YearMonth.now() + "-01";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // Ids and credentials of one seeded user
+    record Fixture(String username, String token, String refreshToken, long customerId, long otherCustomerId,
+            long jobId, long paidJobId, List<Long> unpaidJobIds) {
+    }
+
+    record Endpoint(String name, int budget, Function<Fixture, MockHttpServletRequestBuilder> request) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static Stream<Endpoint> endpoints() {
+        return Stream.of(
+                // JobController
+                new Endpoint("GET /api/jobs", 4, f -> authed(get("/api/jobs"), f)),
+                new Endpoint("GET /api/jobs?includeArchived=true", 5,
+                        f -> authed(get("/api/jobs").param("includeArchived", "true"), f)),
+                new Endpoint("POST /api/jobs", 5, f -> authed(post("/api/jobs"), f)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Walk-in\",\"jobDate\":\"" + JOB_DATE + "\",\"price\":40}")),
+                new Endpoint("GET /api/jobs/{id}", 3, f -> authed(get("/api/jobs/" + f.jobId()), f)),
+                new Endpoint("PUT /api/jobs/{id}", 6, f -> authed(put("/api/jobs/" + f.jobId()), f)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"service\":\"Gutters\",\"jobDate\":\"" + JOB_DATE + "\",\"price\":55}")),
+                new Endpoint("PATCH /api/jobs/{id}", 3, f -> authed(patch("/api/jobs/" + f.jobId()), f)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"notes\":\"Side gate code 1234\"}")),
+                new Endpoint("PATCH /api/jobs/{id}/mark-paid", 11,
+                        f -> authed(patch("/api/jobs/" + f.jobId() + "/mark-paid"), f)),
+                new Endpoint("POST /api/jobs/mark-paid", 9, f -> authed(post("/api/jobs/mark-paid"), f)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":" + f.unpaidJobIds() + "}")),
+                new Endpoint("GET /api/jobs/{id}/invoice", 7,
+                        f -> authed(get("/api/jobs/" + f.paidJobId() + "/invoice"), f)),
+                new Endpoint("POST /api/jobs/invoices/render", 3,
+                        f -> authed(post("/api/jobs/invoices/render").param("month", YearMonth.now().toString()), f)),
+                new Endpoint("DELETE /api/jobs/{id}", 7, f -> authed(delete("/api/jobs/" + f.jobId()), f)),
+                new Endpoint("GET /api/jobs/{id}/photos", 2,
+                        f -> authed(get("/api/jobs/" + f.jobId() + "/photos"), f)),
+                new Endpoint("GET /api/jobs/revenue", 4, f -> authed(get("/api/jobs/revenue"), f)),
+
+                // CustomerController
+                new Endpoint("POST /api/customers", 5, f -> authed(post("/api/customers"), f)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New Customer\",\"address\":\"1 High St\"}")),
+                new Endpoint("GET /api/customers", 4, f -> authed(get("/api/customers"), f)),
+                new Endpoint("GET /api/customers?stats=true", 3,
+                        f -> authed(get("/api/customers").param("stats", "true"), f)),
+                new Endpoint("GET /api/customers/{id}/jobs", 4,
+                        f -> authed(get("/api/customers/" + f.customerId() + "/jobs"), f)),
+                new Endpoint("GET /api/customers/{id}/jobs?includeArchived=true", 5,
+                        f -> authed(get("/api/customers/" + f.customerId() + "/jobs").param("includeArchived", "true"), f)),
+                new Endpoint("PATCH /api/customers/{id}", 3, f -> authed(patch("/api/customers/" + f.customerId()), f)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"phone\":\"07700 900123\"}")),
+                new Endpoint("GET /api/customers/duplicates", 3, f -> authed(get("/api/customers/duplicates"), f)),
+                new Endpoint("POST /api/customers/{id}/merge", 11,
+                        f -> authed(post("/api/customers/" + f.customerId() + "/merge"), f)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"duplicateIds\":[" + f.otherCustomerId() + "]}")),
+                new Endpoint("DELETE /api/customers/{id}", 11,
+                        f -> authed(delete("/api/customers/" + f.customerId()), f)),
+
+                // AuthController
+                new Endpoint("POST /api/auth/register", 2, f -> post("/api/auth/register")
+                        .param("username", f.username() + "-2")
+                        .param("password", PASSWORD)),
+                new Endpoint("POST /api/auth/login", 4, f -> post("/api/auth/login")
+                        .param("username", f.username())
+                        .param("password", PASSWORD)),
+                new Endpoint("POST /api/auth/refresh", 6, f -> post("/api/auth/refresh")
+                        .cookie(new Cookie(RefreshTokenService.COOKIE, f.refreshToken()))),
+                new Endpoint("POST /api/auth/logout", 3, f -> authed(post("/api/auth/logout"), f)
+                        .cookie(new Cookie(RefreshTokenService.COOKIE, f.refreshToken()))),
+                new Endpoint("GET /api/auth/me", 2, f -> authed(get("/api/auth/me"), f)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void testStatementsStayWithinBudgetAndDoNotGrowWithData(Endpoint endpoint) throws Exception {
+        long small = measure(endpoint, seed(10));
+        long large = measure(endpoint, seed(1000));
+
+        assertTrue(small <= endpoint.budget(),
+                endpoint.name() + " ran " + small + " statements, budget is " + endpoint.budget());
+        assertEquals(small, large, endpoint.name() + " ran more statements with 1000 rows than with 10");
+    }
+
+    private long measure(Endpoint endpoint, Fixture fixture) throws Exception {
+        MockHttpServletRequestBuilder request = endpoint.request().apply(fixture);
+        return QueryCounter.count(() -> mockMvc.perform(request).andExpect(status().is2xxSuccessful()));
+    }
+
+    private static MockHttpServletRequestBuilder authed(MockHttpServletRequestBuilder request, Fixture fixture) {
+        return request.header("Authorization", "Bearer " + fixture.token());
+    }
+
+    // A new user with n customers and n jobs. The first customer owns half the jobs; the rest have one each,
+    // so both per-customer and per-job fan-out grow with n.
+    private Fixture seed(int n) {
+        User user = new User();
+        user.setUsername("budget-" + UUID.randomUUID());
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user = userRepository.save(user);
+        long userId = user.getId();
+
+        List<Object[]> customers = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            customers.add(new Object[] { "Customer " + i, (i + 1) + " Main Road", userId });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (name, address, user_id, change_version) "
+                + "VALUES (?, ?, ?, nextval('change_version_seq'))", customers);
+        List<Long> customerIds = jdbcTemplate.queryForList(
+                "SELECT id FROM customers WHERE user_id = ? ORDER BY id", Long.class, userId);
+
+        List<Object[]> jobs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long customerId = i < n / 2 ? customerIds.get(0) : customerIds.get(i);
+            boolean paid = i % 3 == 0;
+            jobs.add(new Object[] { "Window Cleaning", JOB_DATE, 20.0 + i, customerId, userId, paid,
+                    paid ? "INV-" + (i + 1) : null });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO jobs (service, job_date, price, customer_id, user_id, paid, invoice_number, "
+                + "change_version) VALUES (?, ?, ?, ?, ?, ?, ?, nextval('change_version_seq'))", jobs);
+
+        List<Long> unpaid = jdbcTemplate.queryForList(
+                "SELECT id FROM jobs WHERE user_id = ? AND paid = false ORDER BY id LIMIT 5", Long.class, userId);
+        Long paidJobId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM jobs WHERE user_id = ? AND paid = true", Long.class, userId);
+        return new Fixture(
+                user.getUsername(),
+                jwtUtil.generateToken(user.getUsername()),
+                refreshTokenService.issue(user.getUsername()),
+                customerIds.get(0),
+                customerIds.get(customerIds.size() - 1),
+                unpaid.get(0),
+                paidJobId,
+                unpaid.subList(1, unpaid.size()));
+    }
+}
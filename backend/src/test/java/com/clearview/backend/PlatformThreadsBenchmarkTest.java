@@ -0,0 +1,15 @@
+package com.clearview.backend;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+// Tomcat's default pool of 200 platform request threads
+@EnabledIfSystemProperty(named = "clearview.benchmark", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsBenchmarkTest extends ThreadModelBenchmark {
+
+    @Override
+    String threadModel() {
+        return "platform";
+    }
+}
@@ -0,0 +1,109 @@
+package com.clearview.backend;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts JDBC statement executions on the calling thread while a block
+ * runs. Import {@link Config} into a Spring test to wrap the DataSource.
+ * Work on other threads (schedulers, async renders, the audit writer) is
+ * not counted, so a MockMvc call measures exactly its own request.
+ * A JDBC batch counts once, as it is one round trip.
+ */
+final class QueryCounter {
+
+    private static final ThreadLocal<long[]> counting = new ThreadLocal<>();
+
+    interface Block {
+        void run() throws Exception;
+    }
+
+    private QueryCounter() {
+    }
+
+    static long count(Block block) throws Exception {
+        long[] previous = counting.get();
+        long[] count = new long[1];
+        counting.set(count);
+        try {
+            block.run();
+        } finally {
+            counting.set(previous);
+        }
+        return count[0];
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Config {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                        return new CountingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return proxy(Connection.class, obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && Statement.class.isAssignableFrom(type)) {
+                            long[] count = counting.get();
+                            if (count != null) {
+                                count[0]++;
+                            }
+                        }
+                        Object result = invoke(target, method, args);
+                        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                            return wrap(method.getReturnType(), statement);
+                        }
+                        return result;
+                    }));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object wrap(Class<?> type, Statement statement) {
+            return proxy((Class<Statement>) type, statement);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.clearview.backend;
+
+import com.clearview.backend.auth.JwtUtil;
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and latency of real read endpoints over HTTP at 1,000 and
+ * 5,000 concurrent clients, against a Testcontainers PostgreSQL.
+ * PlatformThreadsBenchmarkTest and VirtualThreadsBenchmarkTest run it with
+ * spring.threads.virtual.enabled off and on; compare their output lines.
+ * JDBC stays capped by hikari.maximum-pool-size and clearview.jdbc.max-concurrency
+ * in both. 5,000 clients need an open-file limit above 10,000.
+ *
+ * mvn test -Dtest='*ThreadsBenchmarkTest' -Dclearview.benchmark=true
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+abstract class ThreadModelBenchmark {
+
+    private static final int USERS = 100;
+    private static final int ROWS_PER_USER = 200;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final String[] PATHS = {
+            "/api/jobs", "/api/customers", "/api/customers?stats=true", "/api/jobs/revenue" };
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    record Result(int requests, int failed, double seconds, long p50Millis, long p99Millis) {
+    }
+
+    abstract String threadModel();
+
+    @Test
+    void benchmarkReadEndpoints() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(seed());
+        }
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(clientThreads)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            run(http, clientThreads, tokens, 200);
+
+            for (int clients : new int[] { 1_000, 5_000 }) {
+                Result result = run(http, clientThreads, tokens, clients);
+                System.out.printf("%-8s %5d clients: %,8.0f requests/s, p50 %4d ms, p99 %5d ms, %d failed%n",
+                        threadModel(), clients, result.requests() / result.seconds(), result.p50Millis(),
+                        result.p99Millis(), result.failed());
+                assertTrue(result.failed() < result.requests(), "every request failed");
+            }
+        }
+    }
+
+    // Each client sends its requests back to back, cycling through PATHS; all clients start together
+    private Result run(HttpClient http, ExecutorService clientThreads, List<String> tokens, int clients)
+            throws Exception {
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            futures.add(clientThreads.submit(() -> {
+                start.await();
+                String token = tokens.get(client % tokens.size());
+                for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                    HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + PATHS[(client + r) % PATHS.length]))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(60))
+                            .build();
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[client * REQUESTS_PER_CLIENT + r] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        Arrays.sort(latencies);
+        return new Result(latencies.length, failed.get(), seconds,
+                latencies[latencies.length / 2] / 1_000_000,
+                latencies[(int) (latencies.length * 0.99)] / 1_000_000);
+    }
+
+    // A user with ROWS_PER_USER customers and as many jobs, one per customer; returns an access token
+    private String seed() {
+        User user = new User();
+        user.setUsername("bench-" + UUID.randomUUID());
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        long userId = user.getId();
+
+        List<Object[]> customers = new ArrayList<>();
+        for (int i = 0; i < ROWS_PER_USER; i++) {
+            customers.add(new Object[] { "Customer " + i, (i + 1) + " Main Road", userId });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (name, address, user_id, change_version) "
+                + "VALUES (?, ?, ?, nextval('change_version_seq'))", customers);
+        jdbcTemplate.update("INSERT INTO jobs (service, job_date, price, customer_id, user_id, paid, change_version) "
+                + "SELECT 'Window Cleaning', ?, 25.0, id, user_id, id % 2 = 0, nextval('change_version_seq') "
+                + "FROM customers WHERE user_id = ?", YearMonth.now() + "-01", userId);
+        return jwtUtil.generateToken(user.getUsername());
+    }
+}
@@ -0,0 +1,15 @@
+package com.clearview.backend;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+// One virtual thread per request
+@EnabledIfSystemProperty(named = "clearview.benchmark", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsBenchmarkTest extends ThreadModelBenchmark {
+
+    @Override
+    String threadModel() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,217 @@
+package com.clearview.backend.analytics;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.analytics.dto.YearOverYearDto;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.dto.JobFact;
+import com.clearview.backend.job.dto.RevenueRollup;
+import com.clearview.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RevenueAnalyticsServiceTest {
+
+    private JobRepository jobRepository;
+    private JobArchive jobArchive;
+    private RevenueAnalyticsService service;
+
+    @BeforeEach
+    void setup() {
+        jobRepository = mock(JobRepository.class);
+        jobArchive = mock(JobArchive.class);
+        service = new RevenueAnalyticsService(jobRepository, jobArchive, Duration.ofMinutes(30));
+
+        when(jobRepository.findRevenueFactsByUserId(1L)).thenReturn(List.of(
+                new JobFact(1L, "2024-09-02", 100.0, "Window Cleaning", 10L, "Alice", true),
+                new JobFact(2L, "2025-09-03", 50.0, "Window Cleaning", 10L, "Alice", false),
+                new JobFact(3L, "2025-09-20", 80.0, "Gutter Cleaning", null, "Bob", true),
+                new JobFact(4L, "2025-10-01", 20.5, "Window Cleaning", null, "bob ", false),
+                new JobFact(5L, null, 999.0, "Window Cleaning", null, "No Date", true)));
+    }
+
+    @Test
+    void testBreakdownByMonth() {
+        List<RevenueBucketDto> result = service.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+
+        assertEquals(List.of("2024-09", "2025-09", "2025-10"), result.stream().map(RevenueBucketDto::key).toList());
+        assertEquals(80.0, result.get(1).paid());
+        assertEquals(50.0, result.get(1).unpaid());
+        assertEquals(2, result.get(1).jobs());
+        verify(jobRepository, times(1)).findRevenueFactsByUserId(1L);
+    }
+
+    @Test
+    void testArchivedRollupsCountAsPaidJobs() {
+        when(jobArchive.getRevenueRollups(1L)).thenReturn(List.of(
+                new RevenueRollup("2022-03-14", "Window Cleaning", 10L, "Alice", 3L, 30000L),
+                new RevenueRollup("2022-03-14", "Window Cleaning", null, "Bob", 1L, 4550L)));
+
+        List<RevenueBucketDto> months = service.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+        assertEquals("2022-03", months.get(0).key());
+        assertEquals(345.5, months.get(0).paid(), 0.001);
+        assertEquals(4, months.get(0).jobs());
+
+        List<RevenueBucketDto> customers = service.getBreakdown(1L, RevenueGroupBy.CUSTOMER, RevenueFilter.none());
+        RevenueBucketDto alice = customers.stream().filter(b -> b.key().equals("Alice")).findFirst().orElseThrow();
+        assertEquals(400.0, alice.paid(), 0.001);
+        assertEquals(5, alice.jobs());
+        RevenueBucketDto bob = customers.stream().filter(b -> b.key().equals("Bob")).findFirst().orElseThrow();
+        assertEquals(3, bob.jobs());
+    }
+
+    @Test
+    void testBreakdownWithFilters() {
+        RevenueFilter filter = new RevenueFilter(LocalDate.of(2025, 1, 1), null, false, "Window Cleaning");
+
+        List<RevenueBucketDto> result = service.getBreakdown(1L, RevenueGroupBy.YEAR, filter);
+
+        assertEquals(1, result.size());
+        assertEquals("2025", result.get(0).key());
+        assertEquals(70.5, result.get(0).unpaid(), 0.001);
+        assertEquals(0.0, result.get(0).paid());
+    }
+
+    @Test
+    void testBreakdownByWeekStartsOnMonday() {
+        List<RevenueBucketDto> result = service.getBreakdown(1L, RevenueGroupBy.WEEK,
+                new RevenueFilter(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 7), null, null));
+
+        assertEquals(1, result.size());
+        assertEquals("2025-09-01", result.get(0).key());
+    }
+
+    @Test
+    void testStrayDatesDoNotWidenTheWeeklyBuckets() {
+        when(jobRepository.findRevenueFactsByUserId(3L)).thenReturn(List.of(
+                new JobFact(1L, "0001-01-01", 10.0, "Window Cleaning", null, "Typo", false),
+                new JobFact(2L, "2025-09-03", 50.0, "Window Cleaning", null, "Alice", true),
+                new JobFact(3L, "9999-12-31", 20.0, "Window Cleaning", null, "Typo", false)));
+
+        List<RevenueBucketDto> all = service.getBreakdown(3L, RevenueGroupBy.WEEK, RevenueFilter.none());
+        assertEquals(List.of("0001-01-01", "2025-09-01", "9999-12-27"), all.stream().map(RevenueBucketDto::key).toList());
+        assertEquals(50.0, all.get(1).paid());
+
+        List<RevenueBucketDto> september = service.getBreakdown(3L, RevenueGroupBy.WEEK,
+                new RevenueFilter(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30), null, null));
+        assertEquals(List.of("2025-09-01"), september.stream().map(RevenueBucketDto::key).toList());
+    }
+
+    @Test
+    void testTopCustomersMergesManualNames() {
+        List<RevenueBucketDto> result = service.getTopCustomers(1L, RevenueFilter.none(), 1);
+
+        assertEquals(1, result.size());
+        assertEquals("Alice", result.get(0).key());
+        assertEquals(150.0, result.get(0).total());
+
+        List<RevenueBucketDto> all = service.getTopCustomers(1L, RevenueFilter.none(), 10);
+        assertEquals(2, all.size());
+        assertEquals(100.5, all.get(1).total(), 0.001);
+    }
+
+    @Test
+    void testYearOverYear() {
+        List<YearOverYearDto> result = service.getYearOverYear(1L, 2025);
+
+        assertEquals(12, result.size());
+        YearOverYearDto september = result.get(8);
+        assertEquals("2025-09", september.month());
+        assertEquals(130.0, september.current());
+        assertEquals(100.0, september.previous());
+        assertEquals(30.0, september.changePercent(), 0.001);
+        assertNull(result.get(0).changePercent());
+    }
+
+    @Test
+    void testWritesUpdateExistingSnapshotIncrementally() {
+        service.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+
+        User user = new User();
+        user.setId(1L);
+        Job job = new Job();
+        job.setId(2L);
+        job.setJobDate("2025-09-03");
+        job.setPrice(50.0);
+        job.setCustomerName("Alice");
+        job.setPaid(true);
+        job.setCreatedBy(user);
+
+        service.onJobSaved(job);
+        service.onJobDeleted(1L, 3L);
+
+        List<RevenueBucketDto> result = service.getBreakdown(1L, RevenueGroupBy.MONTH,
+                new RevenueFilter(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30), null, null));
+
+        assertEquals(1, result.size());
+        assertEquals(50.0, result.get(0).paid());
+        assertEquals(0.0, result.get(0).unpaid());
+        assertEquals(1, result.get(0).jobs());
+        verify(jobRepository, times(1)).findRevenueFactsByUserId(1L);
+    }
+
+    @Test
+    void testWritesIgnoredWhenNoSnapshotCached() {
+        service.onJobDeleted(1L, 3L);
+
+        assertEquals(0, service.cachedSnapshotCount());
+        verifyNoInteractions(jobRepository);
+    }
+
+    @Test
+    void testParallelScanMatchesSequentialTotals() {
+        List<JobFact> facts = new ArrayList<>();
+        for (long i = 0; i < RevenueSnapshot.PARALLEL_THRESHOLD + 1_000; i++) {
+            facts.add(new JobFact(i, LocalDate.of(2025, 1, 1).plusDays(i % 365).toString(), 1.25,
+                    "Window Cleaning", i % 50, "Customer " + (i % 50), i % 2 == 0));
+        }
+        when(jobRepository.findRevenueFactsByUserId(2L)).thenReturn(facts);
+
+        List<RevenueBucketDto> result = service.getBreakdown(2L, RevenueGroupBy.YEAR, RevenueFilter.none());
+
+        assertEquals(1, result.size());
+        assertEquals(facts.size(), result.get(0).jobs());
+        assertEquals(facts.size() * 1.25, result.get(0).total(), 0.001);
+    }
+
+    @Test
+    void testEvictIdleSnapshots() {
+        RevenueAnalyticsService shortLived = new RevenueAnalyticsService(jobRepository, jobArchive, Duration.ZERO);
+        shortLived.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+        assertEquals(1, shortLived.cachedSnapshotCount());
+
+        shortLived.evictIdleSnapshots();
+
+        assertEquals(0, shortLived.cachedSnapshotCount());
+    }
+
+    @Test
+    void testInvalidateInsideTransactionDropsSnapshotAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+            service.invalidate(1L);
+            assertEquals(0, service.cachedSnapshotCount());
+
+            // a concurrent read before commit rebuilds from the old rows
+            service.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+            assertEquals(1, service.cachedSnapshotCount());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(0, service.cachedSnapshotCount());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogTest {
+
+    @TempDir
+    Path walDir;
+
+    private AuditWriter writer;
+    private final List<AuditRecord> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        writer = mock(AuditWriter.class);
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0))).when(writer).insert(anyList());
+    }
+
+    @AfterEach
+    void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAsyncEntriesAreWrittenInBatchesOnFlush() throws IOException {
+        AuditLog auditLog = auditLog("async", 100, 2);
+        for (long id = 1; id <= 5; id++) {
+            auditLog.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, id));
+        }
+
+        assertEquals(5, auditLog.queuedEntries());
+        verifyNoInteractions(writer);
+
+        auditLog.flush();
+
+        assertEquals(0, auditLog.queuedEntries());
+        verify(writer, times(3)).insert(anyList());
+        assertEquals(5, inserted.size());
+        assertEquals("job.updated", inserted.get(0).action());
+        assertEquals("job", inserted.get(0).entityType());
+        assertEquals(1L, inserted.get(0).entityId());
+    }
+
+    @Test
+    void testEntriesAreQueuedOnlyAfterCommit() throws IOException {
+        AuditLog auditLog = auditLog("async", 100, 500);
+        TransactionSynchronizationManager.initSynchronization();
+        auditLog.onChange(new ChangeEvent(ChangeType.CUSTOMER_CREATED, 1L, 7L));
+        auditLog.onChange(new ChangeEvent(ChangeType.JOB_CREATED, 1L, 8L));
+
+        assertEquals(0, auditLog.queuedEntries());
+        complete(true);
+
+        assertEquals(2, auditLog.queuedEntries());
+    }
+
+    @Test
+    void testRolledBackChangesAreNotAudited() throws IOException {
+        AuditLog auditLog = auditLog("async", 100, 500);
+        TransactionSynchronizationManager.initSynchronization();
+        auditLog.onChange(new ChangeEvent(ChangeType.JOB_DELETED, 1L, 3L));
+
+        complete(false);
+        auditLog.flush();
+
+        assertEquals(0, auditLog.queuedEntries());
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void testOutboxInsertsOneBatchBeforeCommit() throws IOException {
+        AuditLog auditLog = auditLog("outbox", 100, 500);
+        TransactionSynchronizationManager.initSynchronization();
+        auditLog.onChange(new ChangeEvent(ChangeType.JOB_PAID, 1L, 1L));
+        auditLog.onChange(new ChangeEvent(ChangeType.JOB_PAID, 1L, 2L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(writer, times(1)).insert(anyList());
+        assertEquals(2, inserted.size());
+        complete(true);
+        assertEquals(0, auditLog.queuedEntries());
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws IOException {
+        AuditLog auditLog = auditLog("async", 2, 500);
+        for (long id = 1; id <= 5; id++) {
+            auditLog.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, id));
+        }
+
+        assertEquals(2, auditLog.queuedEntries());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOnNextFlush() throws IOException {
+        AuditLog auditLog = auditLog("async", 100, 500);
+        auditLog.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, 1L));
+        doThrow(new RuntimeException("database down")).when(writer).insert(anyList());
+
+        auditLog.flush();
+        assertEquals(1, auditLog.queuedEntries());
+
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0))).when(writer).insert(anyList());
+        auditLog.flush();
+        assertEquals(1, inserted.size());
+    }
+
+    @Test
+    void testWalSegmentsAreReplayedAfterRestart() throws IOException {
+        AuditLog crashed = auditLog("wal", 100, 500);
+        crashed.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, 1L));
+        crashed.onChange(new ChangeEvent(ChangeType.CUSTOMER_DELETED, 1L, 2L));
+
+        AuditLog restarted = auditLog("wal", 100, 500);
+        restarted.flush();
+
+        assertEquals(List.of(1L, 2L), inserted.stream().map(AuditRecord::entityId).toList());
+        inserted.clear();
+        restarted.flush();
+        assertTrue(inserted.isEmpty());
+        // Only the restarted log's open segment is left
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    void testWalReplaysEntriesThatOverflowedTheQueue() throws IOException {
+        AuditLog auditLog = auditLog("wal", 1, 500);
+        auditLog.flush();
+        for (long id = 1; id <= 3; id++) {
+            auditLog.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, id));
+        }
+        assertEquals(1, auditLog.queuedEntries());
+
+        auditLog.flush();
+
+        // The queued entry is inserted twice; ON CONFLICT (entry_id) keeps one row
+        assertEquals(3, inserted.stream().map(AuditRecord::entryId).distinct().count());
+        assertEquals(0, auditLog.queuedEntries());
+    }
+
+    private AuditLog auditLog(String durability, int capacity, int batchSize) throws IOException {
+        return new AuditLog(writer, durability, capacity, batchSize, walDir.toString(), false);
+    }
+
+    private static void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(sync -> sync.afterCompletion(committed
+                ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(walDir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.clearview.backend.audit;
+
+import com.clearview.backend.audit.dto.AuditPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuditServiceTest {
+
+    private AuditEntryRepository repository;
+    private AuditService service;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(AuditEntryRepository.class);
+        service = new AuditService(repository);
+    }
+
+    @Test
+    void testEntityHistoryPagesWithCursor() {
+        when(repository.findEntityPage(eq(1L), eq("job"), eq(5L), eq(0L), eq(Long.MAX_VALUE),
+                eq(Long.MAX_VALUE), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(entry(12L, 3000L), entry(11L, 2000L), entry(10L, 1000L)));
+
+        AuditPage first = service.getEntries(1L, "job", 5L, null, null, null, 2);
+
+        assertEquals(List.of(12L, 11L), first.entries().stream().map(e -> e.id()).toList());
+        assertEquals(Instant.ofEpochMilli(3000L), first.entries().get(0).occurredAt());
+        assertEquals(AuditService.encodeCursor(2000L, 11L), first.nextCursor());
+
+        when(repository.findEntityPage(eq(1L), eq("job"), eq(5L), eq(0L), eq(Long.MAX_VALUE),
+                eq(2000L), eq(11L), any(Pageable.class)))
+                .thenReturn(List.of(entry(10L, 1000L)));
+
+        AuditPage second = service.getEntries(1L, "job", 5L, null, null, first.nextCursor(), 2);
+
+        assertEquals(1, second.entries().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void testTimeWindowIsPassedAsEpochMillis() {
+        Instant from = Instant.parse("2025-09-01T00:00:00Z");
+        Instant to = Instant.parse("2025-10-01T00:00:00Z");
+        when(repository.findPage(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        AuditPage page = service.getEntries(1L, null, null, from, to, null, 50);
+
+        assertTrue(page.entries().isEmpty());
+        verify(repository).findPage(eq(1L), eq(from.toEpochMilli()), eq(to.toEpochMilli()),
+                eq(Long.MAX_VALUE), eq(Long.MAX_VALUE), any(Pageable.class));
+    }
+
+    @Test
+    void testEntityIdWithoutTypeIsRejected() {
+        assertThrows(RuntimeException.class, () -> service.getEntries(1L, null, 5L, null, null, null, 50));
+        assertThrows(RuntimeException.class, () -> service.getEntries(1L, null, null, null, null, "%%%", 50));
+        verifyNoInteractions(repository);
+    }
+
+    private static AuditEntry entry(Long id, long occurredAt) {
+        AuditEntry entry = new AuditEntry(UUID.randomUUID(), 1L, "job.updated", "job", 5L, occurredAt);
+        entry.setId(id);
+        return entry;
+    }
+}
@@ -7,7 +7,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -33,6 +36,12 @@ class AuthControllerTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
     @InjectMocks
     private AuthController authController;
 
@@ -79,10 +88,15 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(mockAuth);
         when(jwtUtil.generateToken("alice")).thenReturn("jwt-token");
+        when(refreshTokenService.issue("alice")).thenReturn("refresh-token");
+        when(refreshTokenService.cookie("refresh-token"))
+                .thenReturn(ResponseCookie.from(RefreshTokenService.COOKIE, "refresh-token").httpOnly(true).build());
+        MockHttpServletResponse response = new MockHttpServletResponse();
 
-        String token = authController.login("alice", "password");
+        String token = authController.login("alice", "password", response);
 
         assertEquals("jwt-token", token);
+        assertTrue(response.getHeader(HttpHeaders.SET_COOKIE).startsWith("refresh_token=refresh-token"));
     }
 
     @Test
@@ -92,9 +106,46 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(mockAuth);
 
-        String result = authController.login("alice", "wrong");
+        String result = authController.login("alice", "wrong", new MockHttpServletResponse());
 
         assertEquals("Invalid credentials", result);
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void testRefresh_RotatesToken() {
+        when(refreshTokenService.rotate("old"))
+                .thenReturn(Optional.of(new RefreshTokenService.Rotation("alice", "new")));
+        when(refreshTokenService.cookie("new")).thenReturn(ResponseCookie.from(RefreshTokenService.COOKIE, "new").build());
+        when(jwtUtil.generateToken("alice")).thenReturn("jwt-token");
+
+        ResponseEntity<String> response = authController.refresh("old");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("jwt-token", response.getBody());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.SET_COOKIE).startsWith("refresh_token=new"));
+    }
+
+    @Test
+    void testRefresh_UnknownTokenIsRejected() {
+        when(refreshTokenService.rotate("stolen")).thenReturn(Optional.empty());
+        when(refreshTokenService.clearedCookie()).thenReturn(ResponseCookie.from(RefreshTokenService.COOKIE, "").build());
+
+        assertEquals(401, authController.refresh("stolen").getStatusCode().value());
+        assertEquals(401, authController.refresh(null).getStatusCode().value());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshTokens() {
+        when(jwtUtil.parse("jwt-token")).thenReturn(new AccessToken("alice", "jti-1", 123L));
+        when(refreshTokenService.clearedCookie()).thenReturn(ResponseCookie.from(RefreshTokenService.COOKIE, "").build());
+
+        ResponseEntity<Void> response = authController.logout("Bearer jwt-token", "refresh-token");
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(tokenDenylist).revoke("jti-1", 123L);
+        verify(refreshTokenService).revoke("refresh-token");
     }
 
     @Test
@@ -2,11 +2,14 @@ package com.clearview.backend.auth;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtUtilTest {
 
-    private final JwtUtil jwtUtil = new JwtUtil();
+    private final SigningKeyRing keyRing = new SigningKeyRing("", "", "", "");
+    private final JwtUtil jwtUtil = new JwtUtil(keyRing, Duration.ofMinutes(15));
 
     @Test
     void testGenerateAndValidateToken() {
@@ -17,6 +20,22 @@ class JwtUtilTest {
         assertEquals("alice", username);
     }
 
+    @Test
+    void testTokensCarryUniqueIdAndShortExpiry() {
+        AccessToken first = jwtUtil.parse(jwtUtil.generateToken("alice"));
+        AccessToken second = jwtUtil.parse(jwtUtil.generateToken("alice"));
+
+        assertNotNull(first.jti());
+        assertNotEquals(first.jti(), second.jti());
+        assertTrue(first.expiresAt() <= System.currentTimeMillis() + Duration.ofMinutes(15).toMillis());
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        JwtUtil expired = new JwtUtil(keyRing, Duration.ofMinutes(-1));
+        assertNull(expired.parse(expired.generateToken("alice")));
+    }
+
     @Test
     void testValidate_InvalidToken() {
         String invalid = "not-a-token";
@@ -1,18 +1,21 @@
 package com.clearview.backend.auth;
 
 import com.clearview.backend.user.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
 
 import jakarta.servlet.FilterChain;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class JwtAuthenticationFilterTest {
@@ -23,6 +26,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private CustomUserDetailsService userDetailsService;
 
+    @Mock
+    private TokenDenylist tokenDenylist;
+
     @Mock
     private FilterChain filterChain;
 
@@ -31,7 +37,13 @@ class JwtAuthenticationFilterTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenDenylist);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void teardown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -40,17 +52,34 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer valid-token");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtUtil.validateAndExtractUsername("valid-token")).thenReturn("alice");
+        when(jwtUtil.parse("valid-token")).thenReturn(new AccessToken("alice", "jti-1", Long.MAX_VALUE));
         UserDetails userDetails = User.withUsername("alice").password("pass").authorities("ROLE_USER").build();
         when(userDetailsService.loadUserByUsername("alice")).thenReturn(userDetails);
 
         filter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtUtil).validateAndExtractUsername("valid-token");
+        verify(jwtUtil).parse("valid-token");
+        verify(tokenDenylist).isRevoked("jti-1");
         verify(userDetailsService).loadUserByUsername("alice");
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    void testDoFilter_RevokedToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(jwtUtil.parse("revoked-token")).thenReturn(new AccessToken("alice", "jti-2", Long.MAX_VALUE));
+        when(tokenDenylist.isRevoked("jti-2")).thenReturn(true);
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verifyNoInteractions(userDetailsService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     void testDoFilter_NoAuthHeader() throws Exception {
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -68,11 +97,12 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer invalid-token");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtUtil.validateAndExtractUsername("invalid-token")).thenReturn(null);
+        when(jwtUtil.parse("invalid-token")).thenReturn(null);
 
         filter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtUtil).validateAndExtractUsername("invalid-token");
+        verify(jwtUtil).parse("invalid-token");
+        verifyNoInteractions(tokenDenylist);
         verify(filterChain).doFilter(request, response);
     }
 }
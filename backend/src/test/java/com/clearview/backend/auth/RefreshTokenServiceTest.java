@@ -0,0 +1,85 @@
+package com.clearview.backend.auth;
+
+import com.clearview.backend.user.User;
+import com.clearview.backend.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository repository;
+    private RefreshTokenService service;
+    private final List<RefreshToken> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        repository = mock(RefreshTokenRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        User alice = new User();
+        alice.setId(1L);
+        alice.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(alice));
+        when(repository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            saved.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(repository.markUsed(anyString(), anyLong())).thenReturn(1);
+        service = new RefreshTokenService(repository, userRepository, Duration.ofDays(30), true, "Strict");
+    }
+
+    @Test
+    void testRotationStaysInTheLoginsFamily() {
+        String first = service.issue("alice");
+        RefreshToken issued = saved.get(0);
+        when(repository.findByTokenHash(issued.getTokenHash())).thenReturn(Optional.of(issued));
+
+        RefreshTokenService.Rotation rotation = service.rotate(first).orElseThrow();
+
+        assertEquals("alice", rotation.username());
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(issued.getFamilyId(), saved.get(1).getFamilyId());
+        verify(repository).markUsed(eq(issued.getTokenHash()), anyLong());
+        verify(repository, never()).deleteFamily(any());
+    }
+
+    @Test
+    void testReusedTokenRevokesTheWholeFamily() {
+        service.issue("alice");
+        RefreshToken spent = spy(saved.get(0));
+        when(spent.getUsedAt()).thenReturn(System.currentTimeMillis());
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(spent));
+
+        assertTrue(service.rotate("copied-token").isEmpty());
+        verify(repository).deleteFamily(spent.getFamilyId());
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void testLosingAConcurrentRotationRevokesTheFamily() {
+        service.issue("alice");
+        RefreshToken issued = saved.get(0);
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(issued));
+        when(repository.markUsed(eq(issued.getTokenHash()), anyLong())).thenReturn(0);
+
+        assertTrue(service.rotate("token").isEmpty());
+        verify(repository).deleteFamily(issued.getFamilyId());
+    }
+
+    @Test
+    void testSeparateLoginsGetSeparateFamilies() {
+        service.issue("alice");
+        service.issue("alice");
+
+        assertNotEquals(saved.get(0).getFamilyId(), saved.get(1).getFamilyId());
+    }
+}
@@ -0,0 +1,159 @@
+package com.clearview.backend.auth;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyRingTest {
+
+    private static final String KEY_1 = secret(1);
+    private static final String KEY_2 = secret(2);
+
+    @TempDir
+    Path tempDir;
+
+    // Two independent application contexts stand in for two instances behind a load balancer
+    private ApplicationContextRunner instance(String... properties) {
+        return new ApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(SigningKeyRing.class, JwtUtil.class)
+                .withPropertyValues(properties);
+    }
+
+    @Test
+    void testTokensValidateAcrossInstancesSharingTheRing() {
+        String[] shared = { "clearview.auth.signing-keys=k1:" + KEY_1 };
+        AtomicReference<String> fromA = new AtomicReference<>();
+        AtomicReference<String> fromB = new AtomicReference<>();
+
+        instance(shared).run(a -> fromA.set(a.getBean(JwtUtil.class).generateToken("alice")));
+        instance(shared).run(b -> {
+            JwtUtil jwtUtil = b.getBean(JwtUtil.class);
+            assertEquals("alice", jwtUtil.validateAndExtractUsername(fromA.get()));
+            fromB.set(jwtUtil.generateToken("bob"));
+        });
+        instance(shared).run(a -> assertEquals("bob", a.getBean(JwtUtil.class).validateAndExtractUsername(fromB.get())));
+    }
+
+    @Test
+    void testRotationOverlapKeepsBothGenerationsValid() {
+        AtomicReference<String> oldToken = new AtomicReference<>();
+        AtomicReference<String> newToken = new AtomicReference<>();
+
+        // Mid-rollout: one instance already signs with k2, the other still signs with k1 but knows k2
+        instance("clearview.auth.signing-keys=k1:" + KEY_1 + ",k2:" + KEY_2, "clearview.auth.signing-kid=k1")
+                .run(old -> oldToken.set(old.getBean(JwtUtil.class).generateToken("alice")));
+        instance("clearview.auth.signing-keys=k1:" + KEY_1 + ",k2:" + KEY_2, "clearview.auth.signing-kid=k2")
+                .run(updated -> {
+                    JwtUtil jwtUtil = updated.getBean(JwtUtil.class);
+                    assertEquals("k2", updated.getBean(SigningKeyRing.class).signingKey().kid());
+                    assertEquals("alice", jwtUtil.validateAndExtractUsername(oldToken.get()));
+                    newToken.set(jwtUtil.generateToken("alice"));
+                });
+
+        // After k1 is retired, its tokens stop validating and k2 tokens keep working
+        instance("clearview.auth.signing-keys=k2:" + KEY_2).run(retired -> {
+            JwtUtil jwtUtil = retired.getBean(JwtUtil.class);
+            assertNull(jwtUtil.validateAndExtractUsername(oldToken.get()));
+            assertEquals("alice", jwtUtil.validateAndExtractUsername(newToken.get()));
+        });
+    }
+
+    @Test
+    void testUnknownOrMissingKidIsRejected() {
+        instance("clearview.auth.signing-keys=k1:" + KEY_1).run(context -> {
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            String noKid = Jwts.builder().setSubject("mallory")
+                    .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(KEY_1)))
+                    .compact();
+            String unknownKid = Jwts.builder().setHeaderParam(JwsHeader.KEY_ID, "k9").setSubject("mallory")
+                    .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(KEY_2)))
+                    .compact();
+            assertNull(jwtUtil.validateAndExtractUsername(noKid));
+            assertNull(jwtUtil.validateAndExtractUsername(unknownKid));
+        });
+    }
+
+    @Test
+    void testUnknownSigningKidFailsStartup() {
+        instance("clearview.auth.signing-keys=k1:" + KEY_1, "clearview.auth.signing-kid=k9")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void testSeveralKeysWithoutSigningKidFailStartup() {
+        // "k10" sorts before "k9", so no ordering of kids can be trusted to pick the newest
+        instance("clearview.auth.signing-keys=k9:" + KEY_1 + ",k10:" + KEY_2)
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void testKeystoreIsReloadedWhenItChanges() throws Exception {
+        Path keystore = tempDir.resolve("jwt.p12");
+        writeKeystore(keystore, "k1");
+        SigningKeyRing ring = new SigningKeyRing("", "k1", keystore.toString(), "changeit");
+        JwtUtil jwtUtil = new JwtUtil(ring, Duration.ofMinutes(15));
+        String oldToken = jwtUtil.generateToken("alice");
+
+        writeKeystore(keystore, "k1", "k2");
+        Files.setLastModifiedTime(keystore, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        ring.reloadIfChanged();
+        // Another instance that has already switched to k2
+        String newKeyToken = new JwtUtil(new SigningKeyRing("", "k2", keystore.toString(), "changeit"),
+                Duration.ofMinutes(15)).generateToken("bob");
+
+        assertEquals("k1", ring.signingKey().kid());
+        assertEquals("alice", jwtUtil.validateAndExtractUsername(oldToken));
+        assertEquals("bob", jwtUtil.validateAndExtractUsername(newKeyToken));
+    }
+
+    @Test
+    void testReloadWithoutSigningKidKeepsTheLoadedKeys() throws Exception {
+        Path keystore = tempDir.resolve("jwt.p12");
+        writeKeystore(keystore, "k1");
+        SigningKeyRing ring = new SigningKeyRing("", "", keystore.toString(), "changeit");
+
+        writeKeystore(keystore, "k1", "k2");
+        Files.setLastModifiedTime(keystore, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        ring.reloadIfChanged();
+
+        assertEquals("k1", ring.signingKey().kid());
+    }
+
+    private static void writeKeystore(Path path, String... kids) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        store.load(null, null);
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection("changeit".toCharArray());
+        for (String kid : kids) {
+            byte[] secret = Base64.getDecoder().decode(kid.equals("k1") ? KEY_1 : KEY_2);
+            store.setEntry(kid, new KeyStore.SecretKeyEntry(new SecretKeySpec(secret, "HmacSHA256")), protection);
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            store.store(out, "changeit".toCharArray());
+        }
+    }
+
+    private static String secret(int seed) {
+        byte[] bytes = new byte[32];
+        Arrays.fill(bytes, (byte) seed);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,94 @@
+package com.clearview.backend.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenDenylistTest {
+
+    private RevokedTokenRepository repository;
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(RevokedTokenRepository.class);
+        when(repository.findRevokedSince(anyLong(), anyLong())).thenReturn(List.of());
+        denylist = new TokenDenylist(repository, 1_000);
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedWithoutDatabaseLookup() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        denylist.revoke("jti-1", expiresAt);
+        clearInvocations(repository);
+
+        assertTrue(denylist.isRevoked("jti-1"));
+        assertFalse(denylist.isRevoked("jti-2"));
+        assertFalse(denylist.isRevoked(null));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testRevocationIsStoredForOtherInstances() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        denylist.revoke("jti-1", expiresAt);
+
+        verify(repository).save(argThat(token -> token.getJti().equals("jti-1") && token.getExpiresAt() == expiresAt));
+    }
+
+    @Test
+    void testPollPicksUpRevocationsFromOtherInstances() {
+        long now = System.currentTimeMillis();
+        when(repository.findRevokedSince(anyLong(), anyLong()))
+                .thenReturn(List.of(new RevokedToken("remote-jti", now + 60_000, now)));
+
+        denylist.poll();
+
+        assertTrue(denylist.isRevoked("remote-jti"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testPruneDropsExpiredEntries() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        denylist.revoke("short", now + 20);
+        denylist.revoke("long", now + 60_000);
+        Thread.sleep(30);
+
+        denylist.prune();
+
+        assertEquals(1, denylist.size());
+        assertFalse(denylist.isRevoked("short"));
+        assertTrue(denylist.isRevoked("long"));
+        verify(repository).deleteExpired(anyLong());
+    }
+
+    @Test
+    void testAlreadyExpiredTokenIsNotStored() {
+        denylist.revoke("old", System.currentTimeMillis() - 1);
+
+        assertEquals(0, denylist.size());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,261 @@
+package com.clearview.backend.batch;
+
+import com.clearview.backend.batch.dto.SubRequest;
+import com.clearview.backend.batch.dto.SubResponse;
+import com.clearview.backend.ratelimit.RateLimitFilter;
+import com.clearview.backend.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchExecutorTest {
+
+    private static final List<String> log = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch readers;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RecordingTransactionManager transactionManager;
+    private BatchExecutor executor;
+    private MockHttpServletRequest batch;
+
+    @BeforeEach
+    void setup() throws Exception {
+        log.clear();
+        readers = null;
+
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.register(WebConfig.class);
+        context.setServletContext(new MockServletContext());
+        DispatcherServlet dispatcherServlet = new DispatcherServlet(context);
+        dispatcherServlet.init(new MockServletConfig());
+
+        transactionManager = new RecordingTransactionManager();
+        // Two reads, then the read bucket refills at one a minute; writes have room to spare
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), 20, 10, 1, 2, 600, 100, 1000);
+        executor = new BatchExecutor(dispatcherServlet, new RateLimitFilter(rateLimiter, true, ""), transactionManager,
+                objectMapper);
+
+        batch = new MockHttpServletRequest("POST", "/api/batch");
+        batch.addHeader("Authorization", "Bearer token");
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testLeadingReadsRunInParallelAndKeepOrder() {
+        readers = new CountDownLatch(2);
+
+        List<SubResponse> responses = run(
+                get("a", "/api/things/1"),
+                get("b", "/api/things/2"));
+
+        assertEquals(List.of("a", "b"), responses.stream().map(SubResponse::id).toList());
+        assertEquals(200, responses.get(0).status());
+        assertEquals(1, responses.get(0).body().get("id").asInt());
+        assertEquals(2, responses.get(1).body().get("id").asInt());
+        // Each read waited for the other, so they can't have run one after the other
+        assertEquals(0, readers.getCount());
+        assertEquals(0, transactionManager.commits + transactionManager.rollbacks);
+    }
+
+    @Test
+    void testWritesShareOneCommittedTransaction() {
+        List<SubResponse> responses = run(
+                new SubRequest("create", "POST", "/api/things", null, objectMapper.valueToTree(Map.of("name", "x"))),
+                new SubRequest("rename", "PATCH", "/api/things/7?name=y", null, null),
+                get("read", "/api/things/7"));
+
+        assertEquals(List.of(200, 200, 200), responses.stream().map(SubResponse::status).toList());
+        assertEquals("x", responses.get(0).body().get("name").asText());
+        assertEquals("y", responses.get(1).body().get("name").asText());
+        assertEquals(List.of("create x", "rename 7 y", "get 7"), log);
+        assertEquals(1, transactionManager.commits);
+        assertEquals(0, transactionManager.rollbacks);
+    }
+
+    @Test
+    void testFailedWriteRollsBackTheGroup() {
+        List<SubResponse> responses = run(
+                new SubRequest("create", "POST", "/api/things", null, objectMapper.valueToTree(Map.of("name", "x"))),
+                new SubRequest("bad", "PATCH", "/api/things/404", null, null),
+                get("after", "/api/things/1"));
+
+        assertEquals(424, responses.get(0).status());
+        assertEquals(404, responses.get(1).status());
+        assertEquals(424, responses.get(2).status());
+        assertTrue(responses.get(2).body().get("error").asText().contains("'bad'"));
+        assertEquals(List.of("create x", "rename 404 null"), log);
+        assertEquals(0, transactionManager.commits);
+        assertEquals(1, transactionManager.rollbacks);
+    }
+
+    @Test
+    void testControllerExceptionBecomesServerError() {
+        List<SubResponse> responses = run(
+                new SubRequest("boom", "DELETE", "/api/things/1", null, null));
+
+        assertEquals(500, responses.get(0).status());
+        assertEquals("Thing is locked", responses.get(0).body().get("error").asText());
+        assertEquals(1, transactionManager.rollbacks);
+    }
+
+    @Test
+    void testEachSubRequestIsChargedInItsOwnGroup() {
+        List<SubResponse> responses = run(
+                get("a", "/api/things/1"),
+                get("b", "/api/things/2"),
+                get("c", "/api/things/3"),
+                new SubRequest("rename", "PATCH", "/api/things/7?name=y", null, null));
+
+        assertEquals(List.of(200, 200, 429, 200), responses.stream().map(SubResponse::status).toList());
+        assertNotNull(responses.get(2).headers().get("Retry-After"));
+        assertEquals(List.of("rename 7 y"), log.stream().filter(entry -> entry.startsWith("rename")).toList());
+        assertFalse(log.contains("get 3"));
+    }
+
+    @Test
+    void testParallelReadsNeverTouchTheBatchRequest() {
+        Thread caller = Thread.currentThread();
+        List<String> offThread = new CopyOnWriteArrayList<>();
+        MockHttpServletRequest real = batch;
+        HttpServletRequest guarded = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+                    if (Thread.currentThread() != caller) {
+                        offThread.add(method.getName());
+                    }
+                    try {
+                        return method.invoke(real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        readers = new CountDownLatch(2);
+
+        List<SubResponse> responses = executor.execute(
+                List.of(get("a", "/api/things/1"), get("b", "/api/things/2")), guarded, new MockHttpServletResponse());
+
+        assertEquals(List.of(200, 200), responses.stream().map(SubResponse::status).toList());
+        assertEquals("Bearer token", responses.get(0).body().get("auth").asText());
+        assertEquals(List.of(), offThread);
+    }
+
+    @Test
+    void testDisallowedRequestsAreRejected() {
+        assertThrows(RuntimeException.class, () -> run(get("nested", "/api/batch")));
+        assertThrows(RuntimeException.class, () -> run(get("stream", "/api/events")));
+        assertThrows(RuntimeException.class, () -> run(get("escape", "/api/../actuator/env")));
+        assertThrows(RuntimeException.class, () -> run(new SubRequest("login", "POST", "/api/auth/login", null, null)));
+        assertThrows(RuntimeException.class, () -> run(new SubRequest("head", "HEAD", "/api/things/1", null, null)));
+        SubRequest[] tooMany = new SubRequest[BatchExecutor.MAX_SUB_REQUESTS + 1];
+        Arrays.fill(tooMany, get("read", "/api/things/1"));
+        assertThrows(RuntimeException.class, () -> run(tooMany));
+        assertTrue(log.isEmpty());
+    }
+
+    private List<SubResponse> run(SubRequest... requests) {
+        return executor.execute(List.of(requests), batch, new MockHttpServletResponse());
+    }
+
+    private static SubRequest get(String id, String path) {
+        return new SubRequest(id, "GET", path, null, null);
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(ThingController.class)
+    static class WebConfig {
+    }
+
+    @RestController
+    @RequestMapping("/api/things")
+    static class ThingController {
+
+        @GetMapping("/{id}")
+        Map<String, Object> get(@PathVariable long id, @RequestHeader("Authorization") String authorization)
+                throws InterruptedException {
+            CountDownLatch latch = readers;
+            if (latch != null) {
+                latch.countDown();
+                latch.await(5, TimeUnit.SECONDS);
+            }
+            log.add("get " + id);
+            return Map.of("id", id, "auth", authorization);
+        }
+
+        @PostMapping
+        Map<String, Object> create(@RequestBody Map<String, String> body) {
+            log.add("create " + body.get("name"));
+            return Map.of("id", 7, "name", body.get("name"));
+        }
+
+        @PatchMapping("/{id}")
+        ResponseEntity<Map<String, Object>> rename(@PathVariable long id,
+                @RequestParam(required = false) String name) {
+            log.add("rename " + id + " " + name);
+            if (id == 404) {
+                return ResponseEntity.status(404).build();
+            }
+            return ResponseEntity.ok(Map.of("id", id, "name", name));
+        }
+
+        @DeleteMapping("/{id}")
+        void delete(@PathVariable long id) {
+            throw new RuntimeException("Thing is locked");
+        }
+    }
+
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        int commits;
+        int rollbacks;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks++;
+        }
+    }
+}
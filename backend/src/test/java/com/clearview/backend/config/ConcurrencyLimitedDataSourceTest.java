@@ -0,0 +1,82 @@
+package com.clearview.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private final StubDataSource stub = new StubDataSource();
+
+    @Test
+    void testThousandsOfVirtualThreadsNeverExceedTheLimit() throws Exception {
+        ConcurrencyLimitedDataSource dataSource =
+                new ConcurrencyLimitedDataSource(stub.dataSource(), 8, Duration.ofSeconds(30));
+
+        runClients(dataSource, Executors.newVirtualThreadPerTaskExecutor(), 2_000, 1, Duration.ofMillis(1));
+
+        assertTrue(stub.maxOpen.get() <= 8);
+        assertEquals(0, stub.open.get());
+        assertEquals(8, dataSource.availablePermits());
+    }
+
+    @Test
+    void testTimesOutWhenNoPermitFreesUp() throws SQLException {
+        ConcurrencyLimitedDataSource dataSource =
+                new ConcurrencyLimitedDataSource(stub.dataSource(), 1, Duration.ofMillis(20));
+        Connection held = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        held.close();
+        dataSource.getConnection().close();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void testPermitReleasedOnceAndOnFailure() throws SQLException {
+        ConcurrencyLimitedDataSource dataSource =
+                new ConcurrencyLimitedDataSource(stub.dataSource(), 2, Duration.ofMillis(20));
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(2, dataSource.availablePermits());
+
+        stub.failNext = true;
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    private static void runClients(ConcurrencyLimitedDataSource dataSource, ExecutorService executor, int clients,
+            int requestsPerClient, Duration ioWait) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (executor) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        Thread.sleep(ioWait);
+                        try (Connection connection = dataSource.getConnection()) {
+                            Thread.sleep(1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }
+    }
+}
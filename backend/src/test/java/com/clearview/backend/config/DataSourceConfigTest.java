@@ -0,0 +1,48 @@
+package com.clearview.backend.config;
+
+import com.clearview.backend.diagnostics.ProfilingDataSource;
+import com.clearview.backend.diagnostics.SqlProfiler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataSourceConfigTest {
+
+    private final DataSource pool = mock(DataSource.class);
+
+    @Test
+    void testProfilerWrapsTheLimitSoExplainsQueueForAPermit() {
+        Object wrapped = postProcess(new MockEnvironment().withProperty("clearview.jdbc.max-concurrency", "4"));
+
+        ProfilingDataSource profiled = assertInstanceOf(ProfilingDataSource.class, wrapped);
+        ConcurrencyLimitedDataSource limited =
+                assertInstanceOf(ConcurrencyLimitedDataSource.class, profiled.getTargetDataSource());
+        assertSame(pool, limited.getTargetDataSource());
+    }
+
+    @Test
+    void testDisabledProfilerLeavesTheDataSourceUnwrapped() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("clearview.jdbc.max-concurrency", "4")
+                .withProperty("clearview.sql-profiler.enabled", "false");
+        ConcurrencyLimitedDataSource limited = assertInstanceOf(ConcurrencyLimitedDataSource.class, postProcess(environment));
+        assertSame(pool, limited.getTargetDataSource());
+
+        MockEnvironment unsampled = new MockEnvironment().withProperty("clearview.sql-profiler.sample-rate", "0");
+        assertSame(pool, postProcess(unsampled));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object postProcess(MockEnvironment environment) {
+        ObjectProvider<SqlProfiler> profiler = mock(ObjectProvider.class);
+        when(profiler.getObject()).thenReturn(mock(SqlProfiler.class));
+        BeanPostProcessor processor = DataSourceConfig.dataSourcePostProcessor(environment, profiler);
+        return processor.postProcessAfterInitialization(pool, "dataSource");
+    }
+}
@@ -0,0 +1,40 @@
+package com.clearview.backend.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands out dummy connections and tracks how many are open at once
+final class StubDataSource {
+
+    final AtomicInteger open = new AtomicInteger();
+    final AtomicInteger maxOpen = new AtomicInteger();
+    volatile boolean failNext;
+
+    DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (failNext) {
+                        failNext = false;
+                        throw new SQLException("connection refused");
+                    }
+                    maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                    return connection();
+                });
+    }
+
+    private Connection connection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        open.decrementAndGet();
+                    }
+                    return null;
+                });
+    }
+}
@@ -1,6 +1,9 @@
 package com.clearview.backend.customer;
 
 import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.CustomerStatsDto;
+import com.clearview.backend.customer.dto.CustomerStatsPage;
+import com.clearview.backend.job.dto.JobPage;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -96,4 +99,41 @@ class CustomerControllerTest {
 
         verify(userRepository).findByUsername("testuser");
     }
+
+    @Test
+    void testGetCustomersWithStats_Success() {
+        CustomerStatsPage page = new CustomerStatsPage(
+                List.of(new CustomerStatsDto(1L, "Alice", null, null, null, null, 2L, "2025-09-01", 50.0)), null);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(customerService.getCustomerStats(1L, "balance", null, 50)).thenReturn(page);
+
+        ResponseEntity<CustomerStatsPage> response =
+                customerController.getCustomersWithStats("balance", null, 50, testPrincipal);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(50.0, response.getBody().customers().get(0).outstandingBalance());
+        verify(customerService).getCustomerStats(1L, "balance", null, 50);
+    }
+
+    @Test
+    void testGetCustomerJobs_Success() {
+        JobPage page = new JobPage(List.of(), null);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(customerService.getCustomerJobs(1L, 1L, null, 50, false)).thenReturn(page);
+
+        ResponseEntity<JobPage> response = customerController.getCustomerJobs(1L, null, 50, false, testPrincipal);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void testDeleteCustomer_Success() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        ResponseEntity<Void> response = customerController.deleteCustomer(1L, testPrincipal);
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(customerService).deleteCustomer(1L, 1L);
+    }
 }
@@ -0,0 +1,129 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.customer.dto.DuplicateGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerMatcherTest {
+
+    @Test
+    void testNormalization() {
+        assertEquals("700900123", CustomerMatcher.normalizePhone("+44 (0)7700 900-123"));
+        assertEquals("700900123", CustomerMatcher.normalizePhone("07700900123"));
+        assertNull(CustomerMatcher.normalizePhone("n/a"));
+        assertEquals("alice@example.com", CustomerMatcher.normalizeEmail(" Alice+Windows@Example.COM "));
+        assertNull(CustomerMatcher.normalizeEmail("alice"));
+        assertEquals("12 high street", CustomerMatcher.normalizeAddress("12, High St."));
+        assertEquals("anne smith", CustomerMatcher.normalizeName("Mrs. Anne  Smith"));
+        assertEquals("jose nunez", CustomerMatcher.normalizeName("José Núñez"));
+        assertEquals("王 伟", CustomerMatcher.normalizeName("王 伟"));
+    }
+
+    @Test
+    void testSoundexAndJaroWinkler() {
+        assertEquals("R163", CustomerMatcher.soundex("robert"));
+        assertEquals("R163", CustomerMatcher.soundex("rupert"));
+        assertEquals("A261", CustomerMatcher.soundex("ashcraft"));
+        assertEquals(0.961, CustomerMatcher.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(0.0, CustomerMatcher.jaroWinkler("abc", "xyz"));
+    }
+
+    @Test
+    void testGroupsSpellingAndFormatVariants() {
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(List.of(
+                customer(1, "Jon Smith", "07700 900123", null, "12 High St"),
+                customer(2, "John Smith", "+44 7700 900123", "john@example.com", "12 High Street"),
+                customer(3, "John Smyth", null, "JOHN+bins@example.com", "12 high st"),
+                customer(4, "Jane Smith", "07700 900999", null, "40 Mill Lane"),
+                customer(5, "Bob Jones", null, null, "12 High Street")), 0.85);
+
+        assertEquals(1, groups.size());
+        assertEquals(List.of(1L, 2L, 3L), groups.get(0).customers().stream().map(CustomerDto::id).toList());
+        assertTrue(groups.get(0).score() >= 0.85);
+    }
+
+    @Test
+    void testSameNameAloneIsNotADuplicate() {
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(List.of(
+                customer(1, "John Smith", null, null, null),
+                customer(2, "John Smith", null, null, null),
+                customer(3, "John Smith", "07700 900123", null, null),
+                customer(4, "John Smith", "07700 900456", null, null)), 0.85);
+
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    void testSameNameAtDifferentHouseIsNotADuplicate() {
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(List.of(
+                customer(1, "John Smith", null, null, "12 High Street"),
+                customer(2, "John Smith", null, null, "40 Mill Lane"),
+                customer(3, "John Smith", null, null, "14 High Street"),
+                customer(4, "John Smith", null, null, "12 Mill Lane")), 0.85);
+
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    void testConflictingPhoneOutweighsSameAddress() {
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(List.of(
+                customer(1, "John Smith", "07700 900123", null, "12 High Street"),
+                customer(2, "John Smith", "07700 900456", null, "12 High Street")), 0.85);
+
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    void testNonLatinNamesAreCompared() {
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(List.of(
+                customer(1, "王伟", "07700 900123", null, null),
+                customer(2, "李娜", "07700 900123", null, null),
+                customer(3, "Иван Петров", null, "ivan@example.com", null),
+                customer(4, "Иван Петров", null, "IVAN@example.com", null)), 0.85);
+
+        assertEquals(1, groups.size());
+        assertEquals(List.of(3L, 4L), groups.get(0).customers().stream().map(CustomerDto::id).toList());
+    }
+
+    @Test
+    void testOversizedBlocksAreSkipped() {
+        List<CustomerDto> customers = new ArrayList<>();
+        for (int i = 0; i <= CustomerMatcher.MAX_BLOCK_SIZE; i++) {
+            customers.add(customer(i, "Pat Taylor", null, null, "1 Station Road"));
+        }
+
+        assertTrue(CustomerMatcher.findDuplicates(customers, 0.85).isEmpty());
+    }
+
+    // mvn test -Dclearview.benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "clearview.benchmark", matches = "true")
+    void benchmarkHundredThousandCustomers() {
+        Random random = new Random(7);
+        String[] first = { "John", "Jane", "Anne", "Peter", "Mary", "David", "Sarah", "Tom", "Emma", "James" };
+        List<CustomerDto> customers = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String surname = "Surname" + Integer.toString(i / 3, 36);
+            customers.add(customer(i, first[random.nextInt(first.length)] + " " + surname,
+                    "07" + (100_000_000 + random.nextInt(900_000_000)), null,
+                    (1 + random.nextInt(200)) + " Street" + Integer.toString(random.nextInt(20_000), 36) + " Road"));
+        }
+
+        long start = System.nanoTime();
+        List<DuplicateGroup> groups = CustomerMatcher.findDuplicates(customers, 0.85);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis < 5_000, groups.size() + " groups took " + millis + " ms");
+    }
+
+    private static CustomerDto customer(long id, String name, String phone, String email, String address) {
+        return new CustomerDto(id, name, phone, email, address, 1L);
+    }
+}
@@ -1,14 +1,39 @@
 package com.clearview.backend.customer;
 
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.analytics.RevenueFilter;
+import com.clearview.backend.analytics.RevenueGroupBy;
+import com.clearview.backend.customer.dto.CustomerStatsDto;
+import com.clearview.backend.customer.dto.CustomerStatsPage;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.ArchivedJob;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.dto.JobDto;
+import com.clearview.backend.job.photo.JobPhotoRepository;
+import com.clearview.backend.job.dto.JobPage;
+import com.clearview.backend.series.RecurringSeriesRepository;
+import com.clearview.backend.sync.PatchTarget;
+import com.clearview.backend.sync.RowPatcher;
+import com.clearview.backend.sync.Tombstone;
+import com.clearview.backend.sync.TombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class CustomerServiceTest {
@@ -16,6 +41,30 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private RecurringSeriesRepository seriesRepository;
+
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Mock
+    private RowPatcher rowPatcher;
+
+    @Mock
+    private JobArchive jobArchive;
+
+    @Mock
+    private JobPhotoRepository photoRepository;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -53,4 +102,212 @@ class CustomerServiceTest {
         assertEquals("Alice", result.get(0).getName());
         verify(customerRepository).findByCreatedById(1L);
     }
+
+    @Test
+    void testGetCustomerStats_FirstPageByBalance() {
+        CustomerStatsDto alice = new CustomerStatsDto(1L, "Alice", null, null, null, null, 3L, "2025-09-01", 120.0);
+        CustomerStatsDto bob = new CustomerStatsDto(2L, "Bob", null, null, null, null, 1L, "2025-08-01", 40.0);
+        CustomerStatsDto carol = new CustomerStatsDto(3L, "Carol", null, null, null, null, 0L, "", 0.0);
+        when(customerRepository.findStatsByBalance(eq(1L), anyString(), eq(Double.MAX_VALUE), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(alice, bob, carol));
+
+        CustomerStatsPage page = customerService.getCustomerStats(1L, "balance", null, 2);
+
+        assertEquals(2, page.customers().size());
+        assertEquals("Alice", page.customers().get(0).customer().name());
+        assertNotNull(page.nextCursor());
+        assertNull(carol.lastVisit());
+
+        when(customerRepository.findStatsByBalance(eq(1L), anyString(), eq(40.0), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(carol));
+
+        CustomerStatsPage next = customerService.getCustomerStats(1L, "balance", page.nextCursor(), 2);
+
+        assertEquals(1, next.customers().size());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void testGetCustomerStats_ByLastVisitCursor() {
+        CustomerStatsDto alice = new CustomerStatsDto(1L, "Alice", null, null, null, null, 3L, "2025-09-01", 120.0);
+        CustomerStatsDto bob = new CustomerStatsDto(2L, "Bob", null, null, null, null, 1L, "2025-08-01", 40.0);
+        when(customerRepository.findStatsByLastVisit(eq(1L), anyString(), anyString(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(alice, bob));
+
+        CustomerStatsPage page = customerService.getCustomerStats(1L, "lastVisit", null, 1);
+
+        assertEquals(1, page.customers().size());
+
+        customerService.getCustomerStats(1L, "lastVisit", page.nextCursor(), 1);
+
+        verify(customerRepository).findStatsByLastVisit(eq(1L), anyString(), eq("2025-09-01"), eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void testGetCustomerJobs_PagesWithCursor() {
+        Job newer = new Job();
+        newer.setId(7L);
+        newer.setJobDate("2025-09-10");
+        newer.setCustomer(testCustomer);
+        Job older = new Job();
+        older.setId(3L);
+        older.setJobDate("2025-08-01");
+        older.setCustomer(testCustomer);
+        when(jobRepository.findCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(newer, older));
+
+        JobPage page = customerService.getCustomerJobs(1L, 1L, null, 1, false);
+
+        assertEquals(1, page.jobs().size());
+        assertEquals("Alice", page.jobs().get(0).customerName());
+        assertNotNull(page.nextCursor());
+
+        customerService.getCustomerJobs(1L, 1L, page.nextCursor(), 1, false);
+
+        verify(jobRepository).findCustomerJobsPage(eq(1L), eq(1L), eq("2025-09-10"), eq(7L), any(Pageable.class));
+        verifyNoInteractions(jobArchive);
+    }
+
+    @Test
+    void testGetCustomerJobs_UndatedJobsComeFirstThenDatedOnes() {
+        Job undated = new Job();
+        undated.setId(12L);
+        undated.setCustomer(testCustomer);
+        Job dated = new Job();
+        dated.setId(30L);
+        dated.setJobDate("2025-09-10");
+        dated.setCustomer(testCustomer);
+        when(jobRepository.findUndatedCustomerJobsPage(eq(1L), eq(1L), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(undated));
+        when(jobRepository.findCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(dated));
+
+        JobPage page = customerService.getCustomerJobs(1L, 1L, null, 1, false);
+
+        assertEquals(List.of(12L), page.jobs().stream().map(JobDto::id).toList());
+        verify(jobRepository).findCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE),
+                argThat((Pageable pageable) -> pageable.getPageSize() == 1));
+
+        // The cursor stays in the undated block, then falls through to the dated jobs
+        customerService.getCustomerJobs(1L, 1L, page.nextCursor(), 1, false);
+
+        verify(jobRepository).findUndatedCustomerJobsPage(eq(1L), eq(1L), eq(12L), any(Pageable.class));
+        verify(jobRepository, times(2)).findCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE),
+                any(Pageable.class));
+    }
+
+    @Test
+    void testGetCustomerJobs_MergesArchivedJobsIntoThePage() {
+        Job recent = new Job();
+        recent.setId(90L);
+        recent.setJobDate("2025-09-10");
+        recent.setCustomer(testCustomer);
+        Job oldUnpaid = new Job();
+        oldUnpaid.setId(5L);
+        oldUnpaid.setJobDate("2021-02-01");
+        oldUnpaid.setCustomer(testCustomer);
+        when(jobRepository.findCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(recent, oldUnpaid));
+        ArchivedJob archived = mock(ArchivedJob.class);
+        when(archived.getId()).thenReturn(40L);
+        when(archived.getJobDate()).thenReturn("2022-06-15");
+        when(jobArchive.getCustomerJobsPage(eq(1L), eq(1L), anyString(), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(List.of(archived));
+
+        JobPage page = customerService.getCustomerJobs(1L, 1L, null, 2, true);
+
+        assertEquals(List.of(90L, 40L), page.jobs().stream().map(JobDto::id).toList());
+        assertNull(page.jobs().get(1).version());
+        assertTrue(page.jobs().get(1).paid());
+
+        customerService.getCustomerJobs(1L, 1L, page.nextCursor(), 2, true);
+
+        verify(jobRepository).findCustomerJobsPage(eq(1L), eq(1L), eq("2022-06-15"), eq(40L), any(Pageable.class));
+        verify(jobArchive).getCustomerJobsPage(1L, 1L, "2022-06-15", 40L, 3);
+    }
+
+    @Test
+    void testDeleteCustomer_SetBased() {
+        when(jobRepository.deleteByCustomer(1L, 1L)).thenReturn(5000);
+        when(customerRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(1);
+
+        customerService.deleteCustomer(1L, 1L);
+
+        var order = inOrder(tombstoneRepository, jobRepository, seriesRepository, customerRepository);
+        order.verify(tombstoneRepository).recordCustomerJobs(1L, 1L);
+        verify(photoRepository).deleteByCustomer(1L, 1L);
+        order.verify(jobRepository).deleteByCustomer(1L, 1L);
+        verify(jobArchive).deleteCustomerJobs(1L, 1L);
+        order.verify(seriesRepository).deleteByCustomer(1L, 1L);
+        order.verify(customerRepository).deleteByIdAndUserId(1L, 1L);
+        order.verify(tombstoneRepository).save(argThat((Tombstone t) ->
+                Tombstone.CUSTOMER.equals(t.getEntityType()) && t.getEntityId().equals(1L)));
+        verify(customerRepository, never()).findById(any());
+        verify(revenueAnalyticsService).invalidate(1L);
+    }
+
+    @Test
+    void testDeleteCustomer_SnapshotReadBeforeCommitIsDropped() {
+        when(customerRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(1);
+
+        assertRevenueReloadedAfterCommit(1L, service -> service.deleteCustomer(1L, 1L));
+    }
+
+    @Test
+    void testDeleteCustomer_NotFound() {
+        when(customerRepository.deleteByIdAndUserId(1L, 2L)).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> customerService.deleteCustomer(1L, 2L));
+        verify(revenueAnalyticsService, never()).invalidate(any());
+        verify(tombstoneRepository, never()).save(any());
+    }
+
+    @Test
+    void testGetCustomerJobs_InvalidCursor() {
+        assertThrows(RuntimeException.class, () -> customerService.getCustomerJobs(1L, 1L, "%%%", 10, false));
+    }
+
+    @Test
+    void testPatchCustomer_RenameInvalidatesRevenueLabels() {
+        when(rowPatcher.patch(PatchTarget.CUSTOMER, Map.of("name", "Alicia"), 1L, 1L, 2L)).thenReturn(Optional.of(3L));
+
+        assertEquals(Optional.of(3L), customerService.patchCustomer(1L, 1L, Map.of("name", "Alicia"), 2L));
+        verify(customerRepository, never()).findById(any());
+        verify(revenueAnalyticsService).invalidate(1L);
+    }
+
+    @Test
+    void testPatchCustomer_SnapshotReadBeforeCommitIsDropped() {
+        when(rowPatcher.patch(PatchTarget.CUSTOMER, Map.of("name", "Alicia"), 1L, 1L, null)).thenReturn(Optional.of(3L));
+
+        assertRevenueReloadedAfterCommit(1L, service -> service.patchCustomer(1L, 1L, Map.of("name", "Alicia"), null));
+    }
+
+    @Test
+    void testPatchCustomer_NotFound() {
+        when(rowPatcher.patch(PatchTarget.CUSTOMER, Map.of("phone", "1"), 1L, 2L, null)).thenReturn(Optional.empty());
+        when(rowPatcher.currentVersion(PatchTarget.CUSTOMER, 1L, 2L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> customerService.patchCustomer(1L, 2L, Map.of("phone", "1"), null));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // Runs the write against a real snapshot cache, lets a read rebuild it before commit, then commits
+    private void assertRevenueReloadedAfterCommit(Long userId, Consumer<CustomerService> write) {
+        RevenueAnalyticsService revenue = new RevenueAnalyticsService(jobRepository, jobArchive, Duration.ofMinutes(30));
+        CustomerService service = new CustomerService(customerRepository, jobRepository, seriesRepository, revenue,
+                eventPublisher, tombstoneRepository, rowPatcher, jobArchive, photoRepository);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            write.accept(service);
+            revenue.getBreakdown(userId, RevenueGroupBy.MONTH, RevenueFilter.none());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        revenue.getBreakdown(userId, RevenueGroupBy.MONTH, RevenueFilter.none());
+
+        verify(jobRepository, times(2)).findRevenueFactsByUserId(userId);
+    }
 }
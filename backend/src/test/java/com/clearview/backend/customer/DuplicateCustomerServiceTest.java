@@ -0,0 +1,133 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.analytics.RevenueFilter;
+import com.clearview.backend.analytics.RevenueGroupBy;
+import com.clearview.backend.customer.dto.CustomerDto;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.series.RecurringSeriesRepository;
+import com.clearview.backend.sync.TombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DuplicateCustomerServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private JobRepository jobRepository;
+    @Mock
+    private RecurringSeriesRepository seriesRepository;
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JobArchive jobArchive;
+
+    @InjectMocks
+    private DuplicateCustomerService service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testMergeMovesJobsAndSeriesThenDeletes() {
+        Customer target = customer(1L, "John Smith", null, "12 High St");
+        Customer duplicate = customer(2L, "Jon Smith", "07700 900123", null);
+        when(customerRepository.findAllOwned(List.of(2L, 1L), 9L)).thenReturn(List.of(target, duplicate));
+
+        CustomerDto merged = service.merge(1L, List.of(2L), 9L);
+
+        assertEquals(1L, merged.id());
+        assertEquals("07700 900123", merged.phone());
+        assertEquals("12 High St", merged.address());
+        var order = inOrder(jobRepository, seriesRepository, customerRepository);
+        order.verify(jobRepository).reassignCustomer(Set.of(2L), 1L, 9L);
+        order.verify(seriesRepository).reassignCustomer(Set.of(2L), 1L, 9L);
+        verify(jobArchive).reassignCustomer(Set.of(2L), 1L, 9L);
+        order.verify(customerRepository).deleteAllOwned(Set.of(2L), 9L);
+        verify(tombstoneRepository).saveAll(anyList());
+        verify(revenueAnalyticsService).invalidate(9L);
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.CUSTOMER_DELETED, 9L, 2L));
+    }
+
+    @Test
+    void testMergeDropsSnapshotReadBeforeCommit() {
+        RevenueAnalyticsService revenue = new RevenueAnalyticsService(jobRepository, jobArchive, Duration.ofMinutes(30));
+        DuplicateCustomerService merging = new DuplicateCustomerService(customerRepository, jobRepository,
+                seriesRepository, tombstoneRepository, revenue, eventPublisher, jobArchive);
+        when(customerRepository.findAllOwned(List.of(2L, 1L), 9L)).thenReturn(List.of(
+                customer(1L, "John Smith", null, null), customer(2L, "Jon Smith", null, null)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            merging.merge(1L, List.of(2L), 9L);
+            revenue.getBreakdown(9L, RevenueGroupBy.CUSTOMER, RevenueFilter.none());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        revenue.getBreakdown(9L, RevenueGroupBy.CUSTOMER, RevenueFilter.none());
+
+        verify(jobRepository, times(2)).findRevenueFactsByUserId(9L);
+    }
+
+    @Test
+    void testMergeRejectsForeignCustomers() {
+        when(customerRepository.findAllOwned(anyCollection(), eq(9L)))
+                .thenReturn(List.of(customer(1L, "John Smith", null, null)));
+
+        assertThrows(RuntimeException.class, () -> service.merge(1L, List.of(2L), 9L));
+        verifyNoInteractions(jobRepository, seriesRepository, tombstoneRepository);
+        verify(customerRepository, never()).deleteAllOwned(anyCollection(), anyLong());
+    }
+
+    @Test
+    void testMergeRejectsSelfAndEmptyRequests() {
+        assertThrows(RuntimeException.class, () -> service.merge(1L, List.of(1L), 9L));
+        assertThrows(RuntimeException.class, () -> service.merge(1L, List.of(), 9L));
+        verifyNoInteractions(jobRepository);
+    }
+
+    @Test
+    void testFindDuplicatesUsesProjectedRows() {
+        when(customerRepository.findRowsByUserId(9L)).thenReturn(List.of(
+                new CustomerDto(1L, "Ann Lee", "07700 900123", null, null, 1L),
+                new CustomerDto(2L, "Anne Lee", "07700900123", null, null, 2L)));
+
+        assertEquals(1, service.findDuplicates(9L, 0.85).size());
+        verify(customerRepository, never()).findByCreatedById(any());
+    }
+
+    private static Customer customer(Long id, String name, String phone, String address) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setPhone(phone);
+        customer.setAddress(address);
+        return customer;
+    }
+}
@@ -0,0 +1,99 @@
+package com.clearview.backend.customer;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobCustomerReconcilerTest {
+
+    @Test
+    void testMatchesOnNormalizedNameAndAddress() {
+        JobCustomerReconciler.CustomerIndex index = new JobCustomerReconciler.CustomerIndex();
+        index.add(7L, "Mary  O'Brien", "12 High Street");
+
+        assertEquals(7L, match(index, "mary o'brien", "12 High St."));
+        assertNull(match(index, "Mary O'Brien", "14 High Street"));
+    }
+
+    @Test
+    void testAddresslessJobMatchesOnlyAUniqueName() {
+        JobCustomerReconciler.CustomerIndex index = new JobCustomerReconciler.CustomerIndex();
+        index.add(1L, "John Smith", "1 Oak Road");
+        index.add(2L, "Jane Doe", "5 Elm Avenue");
+        index.add(3L, "Jane Doe", "9 Pine Lane");
+
+        assertEquals(1L, match(index, "John Smith", null));
+        assertNull(match(index, "Jane Doe", null));
+        assertNull(match(index, "Nobody", null));
+    }
+
+    @Test
+    void testChunkStopsWhenAnotherInstanceHoldsTheLock() {
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), anyMap(), eq(Boolean.class))).thenReturn(false);
+        RevenueAnalyticsService revenue = mock(RevenueAnalyticsService.class);
+        JobCustomerReconciler reconciler = new JobCustomerReconciler(jdbc, mock(PlatformTransactionManager.class),
+                revenue, mock(ApplicationEventPublisher.class), true, 500, 20);
+
+        Map<Long, JobCustomerReconciler.CustomerIndex> indexes = new HashMap<>();
+        assertNull(reconciler.reconcileChunk(null, indexes));
+        verify(jdbc, times(1)).queryForObject(anyString(), anyMap(), eq(Boolean.class));
+        verifyNoMoreInteractions(jdbc);
+        verifyNoInteractions(revenue);
+    }
+
+    @Test
+    void testScanResumesFromTheWatermarkBelowTheHorizon() {
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), anyMap(), eq(Boolean.class))).thenReturn(true);
+        when(jdbc.queryForObject(contains("pg_snapshot_xmin"), anyMap(), eq(Long.class))).thenReturn(900L);
+        when(jdbc.query(contains("reconcile_watermarks"), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(new JobCustomerReconciler.Position(850L, 42L)));
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbc.query(contains("FROM jobs"), params.capture(), any(RowMapper.class))).thenReturn(List.of());
+        JobCustomerReconciler reconciler = new JobCustomerReconciler(jdbc, mock(PlatformTransactionManager.class),
+                mock(RevenueAnalyticsService.class), mock(ApplicationEventPublisher.class), true, 500, 20);
+
+        JobCustomerReconciler.Chunk chunk = reconciler.reconcileChunk(null, new HashMap<>());
+
+        assertEquals(new JobCustomerReconciler.Position(850L, 42L), chunk.cursor());
+        assertEquals(900L, params.getValue().getValue("horizon"));
+        assertEquals(850L, params.getValue().getValue("afterTxid"));
+        assertEquals(42L, params.getValue().getValue("afterVersion"));
+        verify(jdbc, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    void testRevenueInvalidatedAfterTheChunkCommits() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        RevenueAnalyticsService revenue = mock(RevenueAnalyticsService.class);
+        JobCustomerReconciler reconciler = spy(new JobCustomerReconciler(mock(NamedParameterJdbcTemplate.class),
+                transactionManager, revenue, mock(ApplicationEventPublisher.class), true, 500, 20));
+        doReturn(new JobCustomerReconciler.Chunk(1, 1, new JobCustomerReconciler.Position(9L, 3L), Set.of(7L)))
+                .when(reconciler).reconcileChunk(any(), anyMap());
+
+        reconciler.reconcile();
+
+        var order = inOrder(transactionManager, revenue);
+        order.verify(transactionManager).commit(any());
+        order.verify(revenue).invalidate(7L);
+    }
+
+    private static Long match(JobCustomerReconciler.CustomerIndex index, String name, String address) {
+        return index.match(CustomerMatcher.normalizeName(name), CustomerMatcher.normalizeAddress(address));
+    }
+}
@@ -0,0 +1,48 @@
+package com.clearview.backend.diagnostics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinnedThreadMonitorTest {
+
+    private final Object lock = new Object();
+
+    // Java 24+ no longer pins on synchronized, so the reproduction only works on 21
+    @Test
+    @EnabledOnJre(JRE.JAVA_21)
+    void testPinnedVirtualThreadIsAttributedToItsSite() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PinnedThreadMonitor monitor = new PinnedThreadMonitor(registry, 10);
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+            Timer pinned = null;
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (pinned == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                pinned = registry.find("clearview.vthreads.pinned").timer();
+            }
+
+            assertNotNull(pinned, "no pinning event recorded");
+            assertEquals(PinnedThreadMonitorTest.class.getName() + ".sleepWhileHoldingMonitor",
+                    pinned.getId().getTag("site"));
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.clearview.backend.diagnostics;
+
+import com.clearview.backend.diagnostics.dto.SqlProfile;
+import com.clearview.backend.diagnostics.dto.SqlShapeStats;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlProfilerTest {
+
+    // SQL the stub driver has been asked to prepare, and the binds it saw for EXPLAINs
+    private final List<String> prepared = new CopyOnWriteArrayList<>();
+    private final List<Object> explainBinds = new CopyOnWriteArrayList<>();
+    private PreparedStatement lastRaw;
+
+    @Test
+    void testNormalizeCollapsesLiteralsAndInLists() {
+        assertEquals("select c1_0.id from customers c1_0 where c1_0.name=? and c1_0.id in (?...) limit ?",
+                SqlProfiler.normalize("select c1_0.id from customers c1_0\n  where c1_0.name='O''Brien' "
+                        + "and c1_0.id IN (?, ?,?) limit 20"));
+    }
+
+    @Test
+    void testStatementsAreGroupedByShape() throws Exception {
+        SqlProfiler profiler = profiler(1.0, 10_000, false);
+        DataSource dataSource = new ProfilingDataSource(stub(0), profiler);
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (long id = 1; id <= 3; id++) {
+                try (PreparedStatement statement = connection.prepareStatement("select * from jobs where id=?")) {
+                    statement.setLong(1, id);
+                    statement.executeQuery();
+                }
+            }
+            connection.createStatement().execute("delete from jobs where id=42");
+        }
+
+        SqlProfile profile = profiler.profile();
+        assertEquals(2, profile.shapes().size());
+        SqlShapeStats select = shape(profile, "select * from jobs where id=?");
+        assertEquals(3, select.count());
+        assertEquals(0, select.slowCount());
+        assertEquals(1, shape(profile, "delete from jobs where id=?").count());
+    }
+
+    @Test
+    void testUnsampledStatementsAreNotWrapped() throws Exception {
+        SqlProfiler profiler = profiler(0, 10_000, false);
+        DataSource dataSource = new ProfilingDataSource(stub(0), profiler);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("select 1");
+            assertSame(lastRaw, statement);
+            statement.executeQuery();
+        }
+
+        assertTrue(profiler.profile().shapes().isEmpty());
+    }
+
+    @Test
+    void testSlowQueryIsExplainedWithItsBinds() throws Exception {
+        SqlProfiler profiler = profiler(1.0, 5, true);
+        DataSource dataSource = new ProfilingDataSource(stub(20), profiler);
+
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("select * from jobs where customer_id=?")) {
+            statement.setLong(1, 7L);
+            statement.executeQuery();
+        }
+
+        SqlShapeStats stats = awaitPlan(profiler);
+        assertEquals(1, stats.slowCount());
+        assertTrue(stats.maxMs() >= 20);
+        assertEquals("Seq Scan on jobs\n", stats.plan());
+        assertTrue(prepared.contains("EXPLAIN select * from jobs where customer_id=?"));
+        assertEquals(List.of(7L), explainBinds);
+    }
+
+    @Test
+    void testShapesPastTheLimitShareOneBucket() {
+        SqlProfiler profiler = new SqlProfiler(true, 1.0, 10_000, 2, false, Duration.ofMinutes(10), false);
+
+        profiler.record("select a from t", 1_000, null, null);
+        profiler.record("select b from t", 1_000, null, null);
+        profiler.record("select c from t", 1_000, null, null);
+        profiler.record("select d from t", 1_000, null, null);
+
+        assertEquals(2, shape(profiler.profile(), SqlProfiler.OTHER).count());
+    }
+
+    @Test
+    void testFormatBinds() {
+        assertEquals("[7, null, <3 bytes>, " + "x".repeat(80) + "…]",
+                SqlProfiler.formatBinds(new Object[] { null, 7, null, new byte[3], "x".repeat(100) }, false));
+        assertEquals("[<Integer>, null, <3 bytes>, <String>]",
+                SqlProfiler.formatBinds(new Object[] { null, 7, null, new byte[3], "alice@example.com" }, true));
+    }
+
+    private static SqlProfiler profiler(double sampleRate, long slowMs, boolean explain) {
+        return new SqlProfiler(true, sampleRate, slowMs, 500, explain, Duration.ofMinutes(10), false);
+    }
+
+    private static SqlShapeStats shape(SqlProfile profile, String sql) {
+        return profile.shapes().stream().filter(shape -> shape.sql().equals(sql)).findFirst().orElseThrow();
+    }
+
+    private static SqlShapeStats awaitPlan(SqlProfiler profiler) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            SqlShapeStats stats = profiler.profile().shapes().get(0);
+            if (stats.plan() != null) {
+                return stats;
+            }
+            Thread.sleep(50);
+        }
+        fail("No plan captured");
+        return null;
+    }
+
+    // Statements take executeMillis to run; EXPLAINs return a one-line plan
+    private DataSource stub(long executeMillis) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return proxy(Connection.class, (connection, connectionMethod, connectionArgs) -> {
+                String name = connectionMethod.getName();
+                if (name.equals("prepareStatement") || name.equals("createStatement")) {
+                    String sql = connectionArgs != null ? (String) connectionArgs[0] : null;
+                    if (sql != null) {
+                        prepared.add(sql);
+                    }
+                    lastRaw = statement(sql, executeMillis);
+                    return lastRaw;
+                }
+                return null;
+            });
+        });
+    }
+
+    private PreparedStatement statement(String sql, long executeMillis) {
+        boolean explain = sql != null && sql.startsWith("EXPLAIN ");
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (explain && name.equals("setObject")) {
+                explainBinds.add(args[1]);
+            }
+            if (name.startsWith("execute")) {
+                if (explain) {
+                    return planRows(List.of("Seq Scan on jobs").iterator());
+                }
+                Thread.sleep(executeMillis);
+                return name.equals("execute") ? Boolean.TRUE : null;
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet planRows(Iterator<String> rows) {
+        String[] current = new String[1];
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> {
+                current[0] = rows.hasNext() ? rows.next() : null;
+                yield current[0] != null;
+            }
+            case "getString" -> current[0];
+            default -> null;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
@@ -0,0 +1,157 @@
+package com.clearview.backend.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBroadcasterTest {
+
+    private EventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setup() {
+        broadcaster = new EventBroadcaster(new ObjectMapper(), 60_000, 16);
+    }
+
+    @AfterEach
+    void teardown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testEventReachesOnlyOwner() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        RecordingEmitter owner = new RecordingEmitter(delivered);
+        RecordingEmitter other = new RecordingEmitter(new CountDownLatch(1));
+        broadcaster.register(1L, owner);
+        broadcaster.register(2L, other);
+
+        broadcaster.onChange(new ChangeEvent(ChangeType.JOB_PAID, 1L, 42L));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        String frame = owner.lastFrame.get();
+        assertTrue(frame.contains("event:job.paid"));
+        assertTrue(frame.contains("\"id\":42"));
+        assertEquals(0, other.sends.get());
+    }
+
+    @Test
+    void testBrokenEmitterIsDropped() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        SseEmitter broken = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                delivered.countDown();
+                throw new IOException("client went away");
+            }
+        };
+        broadcaster.register(1L, broken);
+
+        broadcaster.onChange(new ChangeEvent(ChangeType.JOB_CREATED, 1L, 1L));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        long start = System.currentTimeMillis();
+        while (broadcaster.subscriberCount() > 0 && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void testSlowClientIsDroppedWithoutDelayingOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        SseEmitter slow = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                stuck.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.register(1L, slow);
+        broadcaster.register(1L, fast);
+
+        broadcaster.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, 0L));
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+        // One frame is stuck in send; 16 more fill the slow queue and the next overflows it
+        for (int id = 1; id < 20; id++) {
+            broadcaster.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, (long) id));
+            long waitStart = System.currentTimeMillis();
+            while (fast.sends.get() < id + 1 && System.currentTimeMillis() - waitStart < 5000) {
+                Thread.sleep(1);
+            }
+        }
+
+        assertEquals(20, fast.sends.get());
+        assertEquals(1, broadcaster.subscriberCount());
+        release.countDown();
+    }
+
+    // Fanout: 10k idle subscribers, one heartbeat plus one event for a hot user
+    @Test
+    void testFanoutTo10kSubscribers() throws Exception {
+        int clients = 10_000;
+        CountDownLatch heartbeats = new CountDownLatch(clients);
+        List<RecordingEmitter> emitters = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(heartbeats);
+            emitters.add(emitter);
+            // 100 users with 100 open tabs each
+            broadcaster.register((long) (i % 100), emitter);
+        }
+        assertEquals(clients, broadcaster.subscriberCount());
+
+        broadcaster.heartbeat();
+        assertTrue(heartbeats.await(30, TimeUnit.SECONDS));
+
+        broadcaster.onChange(new ChangeEvent(ChangeType.JOB_UPDATED, 7L, 1L));
+
+        long waitStart = System.currentTimeMillis();
+        while (emitters.get(7).sends.get() < 2 && System.currentTimeMillis() - waitStart < 5000) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, emitters.get(7).sends.get());
+        assertEquals(1, emitters.get(8).sends.get());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch latch;
+        private final AtomicInteger sends = new AtomicInteger();
+        private final AtomicReference<String> lastFrame = new AtomicReference<>();
+
+        RecordingEmitter(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            StringBuilder frame = new StringBuilder();
+            for (DataWithMediaType item : items) {
+                Object data = item.getData();
+                frame.append(data instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : data);
+            }
+            lastFrame.set(frame.toString());
+            sends.incrementAndGet();
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.clearview.backend.idempotency;
+
+import com.clearview.backend.storage.ContentStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    private final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+    private IdempotencyRecordRepository repository;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        repository = IdempotencyStoreTest.tableBackedRepository(rows);
+        filter = new IdempotencyFilter(new IdempotencyStore(repository, Duration.ofHours(1), Duration.ofMinutes(2), 1 << 20));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRetryReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = run(post("key-1", "{\"price\":80}"), createJob(null));
+        MockHttpServletResponse retry = run(post("key-1", "{\"price\":80}"), createJob(null));
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        verify(repository, times(1)).completeClaim(any(), anyInt(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testSameKeyDifferentBodyIsRejected() throws Exception {
+        run(post("key-1", "{\"price\":80}"), createJob(null));
+        MockHttpServletResponse retry = run(post("key-1", "{\"price\":90}"), createJob(null));
+
+        assertEquals(422, retry.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testKeysAreScopedPerUser() throws Exception {
+        run(post("key-1", "{}"), createJob(null));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob", null, List.of()));
+        run(post("key-1", "{}"), createJob(null));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testServerErrorsAreNotStored() throws Exception {
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(503);
+        };
+        run(post("key-1", "{}"), failing);
+        run(post("key-1", "{}"), createJob(null));
+
+        assertEquals(2, executions.get());
+        verify(repository, times(1)).completeClaim(any(), anyInt(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch leaderInside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SecurityContext context = SecurityContextHolder.getContext();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> leader = pool.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                return run(post("key-1", "{}"), createJob(() -> {
+                    leaderInside.countDown();
+                    await(release);
+                }));
+            });
+            assertTrue(leaderInside.await(5, TimeUnit.SECONDS));
+
+            List<Future<MockHttpServletResponse>> duplicates = List.of(
+                    pool.submit(() -> {
+                        SecurityContextHolder.setContext(context);
+                        return run(post("key-1", "{}"), createJob(null));
+                    }),
+                    pool.submit(() -> {
+                        SecurityContextHolder.setContext(context);
+                        return run(post("key-1", "{}"), createJob(null));
+                    }));
+            Thread.sleep(100);
+            release.countDown();
+
+            String body = leader.get(5, TimeUnit.SECONDS).getContentAsString();
+            for (Future<MockHttpServletResponse> duplicate : duplicates) {
+                assertEquals(body, duplicate.get(5, TimeUnit.SECONDS).getContentAsString());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDuplicateWhileAnotherInstanceRunsIsConflict() throws Exception {
+        IdempotencyStore otherInstance = new IdempotencyStore(repository, Duration.ofHours(1), Duration.ofMinutes(2), 1 << 20);
+        assertNull(otherInstance.begin("alice POST /api/jobs key-1", ContentStore.sha256("{}".getBytes(StandardCharsets.UTF_8))));
+
+        MockHttpServletResponse duplicate = run(post("key-1", "{}"), createJob(null));
+
+        assertEquals(409, duplicate.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testOversizedBodyIsRefused() throws Exception {
+        String body = "{\"notes\":\"" + "x".repeat(IdempotencyFilter.MAX_BODY_BYTES) + "\"}";
+
+        MockHttpServletResponse response = run(post("key-1", body), createJob(null));
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testHandlerSeesTheWholeBody() throws Exception {
+        String body = "{\"notes\":\"" + "x".repeat(64 * 1024) + "\"}";
+        FilterChain echo = (req, res) -> {
+            executions.incrementAndGet();
+            res.getOutputStream().write(req.getInputStream().readAllBytes());
+        };
+
+        MockHttpServletResponse first = run(post("key-1", body), echo);
+        MockHttpServletResponse retry = run(post("key-1", body), echo);
+
+        assertEquals(body, first.getContentAsString());
+        assertEquals(body, retry.getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testRequestsWithoutKeyPassThrough() throws Exception {
+        MockHttpServletRequest request = post(null, "{}");
+
+        run(request, createJob(null));
+        run(request, createJob(null));
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(repository);
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    // Stands in for JobController.createJob: reads the body, "inserts" and writes the new row
+    private FilterChain createJob(Runnable duringInsert) {
+        return (req, res) -> {
+            req.getInputStream().readAllBytes();
+            int id = executions.incrementAndGet();
+            if (duringInsert != null) {
+                duringInsert.run();
+            }
+            res.setContentType("application/json");
+            res.getOutputStream().write(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/jobs");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
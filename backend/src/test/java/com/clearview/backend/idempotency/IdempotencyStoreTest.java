@@ -0,0 +1,131 @@
+package com.clearview.backend.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+    private IdempotencyRecordRepository repository;
+
+    @BeforeEach
+    void setup() {
+        repository = tableBackedRepository(rows);
+    }
+
+    @Test
+    void testCacheIsBoundedByBytes() {
+        IdempotencyStore store = store(Duration.ofHours(1), 3 * (1024 + 256));
+        for (int i = 0; i < 5; i++) {
+            assertNull(store.begin("k" + i, "hash"));
+            store.complete("k" + i, response(new byte[1024], System.currentTimeMillis()));
+        }
+
+        assertEquals(3, store.cachedEntries());
+        verify(repository, times(5)).completeClaim(any(), anyInt(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testMissFallsBackToTable() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1), 1 << 20);
+        rows.put("k", response(new byte[] { 1 }, System.currentTimeMillis()).toRecord("k"));
+
+        StoredResponse replay = store.begin("k", "hash").get();
+
+        assertEquals(201, replay.status());
+        assertEquals(1, store.cachedEntries());
+        store.begin("k", "hash");
+        verify(repository, times(1)).findByScopeKey("k");
+    }
+
+    @Test
+    void testExpiredRowsAreDroppedAndRerun() {
+        IdempotencyStore store = store(Duration.ofMinutes(5), 1 << 20);
+        rows.put("k", response(new byte[0], System.currentTimeMillis() - Duration.ofMinutes(10).toMillis())
+                .toRecord("k"));
+
+        assertNull(store.begin("k", "hash"));
+        assertTrue(rows.get("k").isPending());
+    }
+
+    @Test
+    void testClaimHeldByAnotherInstanceIsNotRun() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1), 1 << 20);
+        IdempotencyStore otherInstance = store(Duration.ofHours(1), 1 << 20);
+
+        assertNull(otherInstance.begin("k", "hash"));
+        assertNull(store.begin("k", "hash").get());
+
+        otherInstance.complete("k", response(new byte[] { 1 }, System.currentTimeMillis()));
+        assertEquals(201, store.begin("k", "hash").get().status());
+    }
+
+    @Test
+    void testAbandonedClaimIsTakenOver() {
+        IdempotencyStore store = store(Duration.ofHours(1), 1 << 20);
+        rows.put("k", new StoredResponse("hash", IdempotencyRecord.PENDING, null, null,
+                System.currentTimeMillis() - Duration.ofMinutes(5).toMillis()).toRecord("k"));
+
+        assertNull(store.begin("k", "hash"));
+    }
+
+    @Test
+    void testUnstoredResponseReleasesClaim() {
+        IdempotencyStore store = store(Duration.ofHours(1), 1 << 20);
+
+        assertNull(store.begin("k", "hash"));
+        store.complete("k", null);
+
+        assertFalse(rows.containsKey("k"));
+        assertNull(store.begin("k", "hash"));
+    }
+
+    private IdempotencyStore store(Duration ttl, long cacheBytes) {
+        return new IdempotencyStore(repository, ttl, Duration.ofMinutes(2), cacheBytes);
+    }
+
+    private static StoredResponse response(byte[] body, long createdAt) {
+        return new StoredResponse("hash", 201, "application/json", body, createdAt);
+    }
+
+    // idempotency_keys with its unique scope_key, shared by every store built on it like a real table
+    static IdempotencyRecordRepository tableBackedRepository(Map<String, IdempotencyRecord> rows) {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            if (rows.putIfAbsent(record.getScopeKey(), record) != null) {
+                throw new DataIntegrityViolationException("idempotency_keys_scope_key_key");
+            }
+            return record;
+        });
+        when(repository.findByScopeKey(any())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+        when(repository.completeClaim(any(), anyInt(), any(), any(), anyLong())).thenAnswer(inv -> {
+            IdempotencyRecord record = rows.get(inv.<String>getArgument(0));
+            if (record == null) {
+                return 0;
+            }
+            record.setStatus(inv.getArgument(1));
+            record.setContentType(inv.getArgument(2));
+            record.setBody(inv.getArgument(3));
+            record.setCreatedAt(inv.getArgument(4));
+            return 1;
+        });
+        when(repository.releaseClaim(any())).thenAnswer(inv ->
+                rows.computeIfPresent(inv.getArgument(0), (key, record) -> record.isPending() ? null : record) == null ? 1 : 0);
+        when(repository.deleteIfOlder(any(), anyLong())).thenAnswer(inv -> {
+            long cutoff = inv.getArgument(1);
+            return rows.computeIfPresent(inv.getArgument(0), (key, record) -> record.getCreatedAt() < cutoff ? null : record)
+                    == null ? 1 : 0;
+        });
+        return repository;
+    }
+}
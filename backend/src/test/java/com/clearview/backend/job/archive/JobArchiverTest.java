@@ -0,0 +1,82 @@
+package com.clearview.backend.job.archive;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobArchiverTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private RevenueAnalyticsService revenueAnalyticsService;
+    // Each query answers with the next batch of (userId, jobs moved) rows
+    private final Deque<List<long[]>> batches = new ArrayDeque<>();
+
+    @BeforeEach
+    void setup() throws Exception {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        revenueAnalyticsService = mock(RevenueAnalyticsService.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (long[] row : batches.isEmpty() ? List.<long[]>of() : batches.poll()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("user_id")).thenReturn(row[0]);
+                when(rs.getLong("jobs")).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void testMovesJobsOlderThanHorizonAndInvalidatesOwners() {
+        batches.add(List.of(new long[] { 1L, 3L }, new long[] { 2L, 2L }));
+
+        archiver(true, 10).archive();
+
+        verify(jdbc, times(1)).query(startsWith("WITH moved AS ("),
+                argThat((SqlParameterSource params) ->
+                        LocalDate.now().minusMonths(24).toString().equals(params.getValue("cutoff"))
+                                && Integer.valueOf(10).equals(params.getValue("limit"))),
+                any(RowCallbackHandler.class));
+        verify(revenueAnalyticsService).invalidate(1L);
+        verify(revenueAnalyticsService).invalidate(2L);
+    }
+
+    @Test
+    void testRunsFullBatchesUntilOneComesBackShort() {
+        batches.add(List.<long[]>of(new long[] { 1L, 5L }));
+        batches.add(List.<long[]>of(new long[] { 1L, 5L }));
+        batches.add(List.<long[]>of(new long[] { 1L, 1L }));
+
+        archiver(true, 5).archive();
+
+        verify(jdbc, times(3)).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testDisabledDoesNothing() {
+        archiver(false, 10).archive();
+
+        verifyNoInteractions(jdbc, revenueAnalyticsService);
+    }
+
+    private JobArchiver archiver(boolean enabled, int batchSize) {
+        return new JobArchiver(jdbc, mock(PlatformTransactionManager.class), revenueAnalyticsService,
+                enabled, 24, batchSize, 50);
+    }
+}
@@ -0,0 +1,63 @@
+package com.clearview.backend.job.invoice;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InvoiceNumberingTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private InvoiceNumbering numbering;
+
+    @BeforeEach
+    void setup() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        numbering = new InvoiceNumbering(jdbc);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void teardown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testReservesBlockFromCounterRow() {
+        when(jdbc.queryForList(startsWith("UPDATE invoice_counters"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(15L));
+
+        assertEquals(11L, numbering.reserve(1L, 5));
+        verify(jdbc, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void testSeedsCounterOnFirstUse() {
+        when(jdbc.queryForList(startsWith("UPDATE invoice_counters"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(43L));
+
+        assertEquals(43L, numbering.reserve(1L, 1));
+        verify(jdbc).update(startsWith("INSERT INTO invoice_counters"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void testRefusesOutsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertThrows(IllegalStateException.class, () -> numbering.reserve(1L, 1));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("INV-12", InvoiceNumbering.format(12));
+    }
+}
@@ -0,0 +1,172 @@
+package com.clearview.backend.job.invoice;
+
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.storage.ContentStore;
+import com.clearview.backend.task.TaskQueue;
+import com.clearview.backend.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvoiceServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private JobRepository jobRepository;
+    private ContentStore contentStore;
+    private InvoiceService invoiceService;
+    private Job paidJob;
+
+    @BeforeEach
+    void setup() {
+        jobRepository = mock(JobRepository.class);
+        contentStore = new ContentStore(storageDir.toString());
+        invoiceService = new InvoiceService(jobRepository, new InvoiceRenderer(), contentStore, mock(TaskQueue.class), 2, 4, 2, 1);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("sparkle");
+
+        paidJob = new Job();
+        paidJob.setId(5L);
+        paidJob.setJobDate("2025-09-01");
+        paidJob.setPrice(120.0);
+        paidJob.setCustomerName("Alice <script>");
+        paidJob.setPaid(true);
+        paidJob.setInvoiceNumber("INV-5");
+        paidJob.setCreatedBy(user);
+        paidJob.setChangeVersion(40L);
+    }
+
+    @AfterEach
+    void teardown() {
+        invoiceService.shutdown();
+    }
+
+    @Test
+    void testRenderStoresContentAddressedFile() throws Exception {
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+
+        String hash = invoiceService.render(5L);
+
+        Path file = contentStore.resolve(hash);
+        String html = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(html.contains("INV-5"));
+        assertTrue(html.contains("Alice &lt;script&gt;"));
+        assertTrue(html.contains("$120.00"));
+        verify(jobRepository).updateInvoiceHash(5L, hash, "40:null");
+
+        // Same content renders to the same file and skips the update
+        paidJob.setInvoiceHash(hash);
+        paidJob.setInvoiceSource("40:null");
+        assertEquals(hash, invoiceService.render(5L));
+        verify(jobRepository, times(1)).updateInvoiceHash(eq(5L), anyString(), anyString());
+    }
+
+    @Test
+    void testGetInvoiceFileRendersOnCacheMiss() {
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+
+        Path file = invoiceService.getInvoiceFile(5L, 1L);
+
+        assertTrue(Files.isRegularFile(file));
+        verify(jobRepository).updateInvoiceHash(5L, file.getFileName().toString(), "40:null");
+    }
+
+    @Test
+    void testGetInvoiceFileServesCurrentRenderWithoutRendering() {
+        String hash = contentStore.put("<html>stored</html>".getBytes(StandardCharsets.UTF_8));
+        paidJob.setInvoiceHash(hash);
+        paidJob.setInvoiceSource("40:null");
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+
+        assertEquals(contentStore.resolve(hash), invoiceService.getInvoiceFile(5L, 1L));
+        verify(jobRepository, never()).updateInvoiceHash(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void testGetInvoiceFileRerendersAfterEdit() throws Exception {
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+        Path before = invoiceService.getInvoiceFile(5L, 1L);
+        paidJob.setInvoiceHash(before.getFileName().toString());
+        paidJob.setInvoiceSource("40:null");
+
+        // An edit (or renumbering) bumps the change version
+        paidJob.setPrice(150.0);
+        paidJob.setChangeVersion(41L);
+        Path after = invoiceService.getInvoiceFile(5L, 1L);
+
+        assertNotEquals(before, after);
+        assertTrue(Files.readString(after, StandardCharsets.UTF_8).contains("$150.00"));
+        verify(jobRepository).updateInvoiceHash(5L, after.getFileName().toString(), "41:null");
+    }
+
+    @Test
+    void testGetInvoiceFileRejectsOtherUsersJob() {
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+
+        assertThrows(RuntimeException.class, () -> invoiceService.getInvoiceFile(5L, 2L));
+    }
+
+    @Test
+    void testGetInvoiceFileRejectsUnpaidJob() {
+        paidJob.setPaid(false);
+        when(jobRepository.findForInvoice(5L)).thenReturn(Optional.of(paidJob));
+
+        assertThrows(RuntimeException.class, () -> invoiceService.getInvoiceFile(5L, 1L));
+    }
+
+    @Test
+    void testRenderMonthRendersEveryPaidJob() {
+        when(jobRepository.findPaidJobIdsForMonth(1L, "2025-09%")).thenReturn(List.of(5L, 6L, 7L));
+        when(jobRepository.findForInvoice(anyLong())).thenAnswer(invocation -> {
+            Job job = new Job();
+            job.setId(invocation.getArgument(0));
+            job.setPaid(true);
+            job.setPrice(10.0);
+            return Optional.of(job);
+        });
+
+        OptionalInt queued = invoiceService.renderMonth(1L, YearMonth.of(2025, 9));
+
+        assertEquals(OptionalInt.of(3), queued);
+        verify(jobRepository, timeout(5000).times(3)).updateInvoiceHash(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void testRenderMonthJoinsPendingRunsAndRejectsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(jobRepository.findPaidJobIdsForMonth(eq(1L), anyString())).thenReturn(List.of(5L));
+        when(jobRepository.findForInvoice(5L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(paidJob);
+        });
+
+        // September's run holds the coordinator, October waits in its one queue slot
+        assertEquals(OptionalInt.of(1), invoiceService.renderMonth(1L, YearMonth.of(2025, 9)));
+        assertEquals(OptionalInt.of(1), invoiceService.renderMonth(1L, YearMonth.of(2025, 10)));
+        assertEquals(OptionalInt.of(1), invoiceService.renderMonth(1L, YearMonth.of(2025, 10)));
+        assertEquals(OptionalInt.empty(), invoiceService.renderMonth(1L, YearMonth.of(2025, 11)));
+        verify(jobRepository, times(1)).findPaidJobIdsForMonth(1L, "2025-10%");
+
+        release.countDown();
+        verify(jobRepository, timeout(5000).times(2)).updateInvoiceHash(eq(5L), anyString(), anyString());
+    }
+}
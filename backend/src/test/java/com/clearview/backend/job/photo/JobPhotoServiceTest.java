@@ -0,0 +1,108 @@
+package com.clearview.backend.job.photo;
+
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.photo.dto.JobPhotoDto;
+import com.clearview.backend.storage.ContentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobPhotoServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private JobRepository jobRepository;
+    private JobPhotoRepository photoRepository;
+    private ContentStore contentStore;
+    private JobPhotoService service;
+
+    @BeforeEach
+    void setup() {
+        jobRepository = mock(JobRepository.class);
+        photoRepository = mock(JobPhotoRepository.class);
+        contentStore = new ContentStore(dir.toString());
+        service = new JobPhotoService(jobRepository, photoRepository, contentStore, 1 << 20, 2, 64, 1, 1);
+        when(jobRepository.existsByIdAndCreatedBy_Id(5L, 1L)).thenReturn(true);
+        when(photoRepository.save(any(JobPhoto.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void teardown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testUploadStreamsIntoContentStore() throws Exception {
+        byte[] png = png(800, 600);
+
+        JobPhotoDto photo = service.upload(5L, 1L, "before", new ByteArrayInputStream(png));
+
+        assertEquals(PhotoKind.BEFORE, photo.kind());
+        assertEquals(PhotoThumbnailer.PNG, photo.contentType());
+        assertEquals(png.length, photo.sizeBytes());
+        assertArrayEquals(png, Files.readAllBytes(contentStore.resolve(ContentStore.sha256(png))));
+    }
+
+    @Test
+    void testRejectsNonImagesAndOversizedUploads() throws Exception {
+        assertThrows(RuntimeException.class,
+                () -> service.upload(5L, 1L, null, new ByteArrayInputStream("<html>".getBytes())));
+
+        byte[] huge = new byte[(1 << 20) + 1];
+        huge[0] = (byte) 0xFF;
+        huge[1] = (byte) 0xD8;
+        huge[2] = (byte) 0xFF;
+        assertThrows(RuntimeException.class, () -> service.upload(5L, 1L, null, new ByteArrayInputStream(huge)));
+
+        verify(photoRepository, never()).save(any());
+        try (var files = Files.walk(dir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testRejectsForeignJobsAndTooManyPhotos() throws Exception {
+        byte[] png = png(10, 10);
+        assertThrows(RuntimeException.class, () -> service.upload(6L, 1L, null, new ByteArrayInputStream(png)));
+
+        when(photoRepository.countByJobIdAndUserId(5L, 1L)).thenReturn(2L);
+        assertThrows(RuntimeException.class, () -> service.upload(5L, 1L, null, new ByteArrayInputStream(png)));
+    }
+
+    @Test
+    void testThumbnailIsSmallJpeg() throws Exception {
+        byte[] png = png(1200, 300);
+        String hash = contentStore.put(png);
+
+        service.makeThumbnail(9L, hash);
+
+        verify(photoRepository).updateThumbnailHash(eq(9L), argThat(thumbnail -> {
+            try {
+                BufferedImage image = ImageIO.read(contentStore.resolve(thumbnail).toFile());
+                return image.getWidth() == 64 && image.getHeight() == 16;
+            } catch (Exception e) {
+                return false;
+            }
+        }));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,208 @@
+package com.clearview.backend.ratelimit;
+
+import com.clearview.backend.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        // auth 6/min burst 2, read 60/min burst 3, write 60/min burst 1
+        rateLimiter = new RateLimiter(registry, 6, 2, 60, 3, 60, 1, 100);
+        filter = new RateLimitFilter(rateLimiter, true, RateLimitFilter.PRIVATE_NETWORKS);
+    }
+
+    @AfterEach
+    void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBurstThenTooManyRequestsWithRetryAfter() throws Exception {
+        signIn(1L);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, run(request("GET", "/api/jobs", "10.0.0.1")).getStatus());
+        }
+        MockHttpServletResponse limited = run(request("GET", "/api/jobs", "10.0.0.1"));
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertEquals(3.0, registry.get("clearview.ratelimit.requests")
+                .tags("group", "read", "outcome", "allowed").counter().count());
+        assertEquals(1.0, registry.get("clearview.ratelimit.requests")
+                .tags("group", "read", "outcome", "limited").counter().count());
+    }
+
+    @Test
+    void testUsersAndGroupsHaveSeparateBuckets() throws Exception {
+        signIn(1L);
+        assertEquals(200, run(request("POST", "/api/jobs", "10.0.0.1")).getStatus());
+        assertEquals(429, run(request("POST", "/api/jobs", "10.0.0.1")).getStatus());
+        assertEquals(200, run(request("GET", "/api/jobs", "10.0.0.1")).getStatus());
+
+        signIn(2L);
+        assertEquals(200, run(request("POST", "/api/jobs", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void testAuthRoutesAreKeyedByIp() throws Exception {
+        assertEquals(200, run(request("POST", "/api/auth/login", "10.0.0.1")).getStatus());
+        assertEquals(200, run(request("POST", "/api/auth/login", "10.0.0.1")).getStatus());
+
+        MockHttpServletResponse limited = run(request("POST", "/api/auth/login", "10.0.0.1"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+
+        assertEquals(200, run(request("POST", "/api/auth/login", "10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void testClientIpComesFromTrustedProxyForwardedFor() throws Exception {
+        MockHttpServletRequest viaProxy = request("POST", "/api/auth/login", "10.1.2.3");
+        viaProxy.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7, 10.9.9.9");
+        assertEquals("203.0.113.7", filter.clientIp(viaProxy));
+
+        // Only the proxy's peer is trusted to set the header
+        MockHttpServletRequest direct = request("POST", "/api/auth/login", "198.51.100.5");
+        direct.addHeader("X-Forwarded-For", "203.0.113.7");
+        assertEquals("198.51.100.5", filter.clientIp(direct));
+
+        MockHttpServletRequest garbled = request("POST", "/api/auth/login", "10.1.2.3");
+        garbled.addHeader("X-Forwarded-For", "203.0.113.7, example.com");
+        assertEquals("10.1.2.3", filter.clientIp(garbled));
+
+        // Two clients behind the same proxy get their own auth buckets
+        for (int i = 0; i < 2; i++) {
+            assertEquals(200, run(forwarded("203.0.113.7")).getStatus());
+        }
+        assertEquals(429, run(forwarded("203.0.113.7")).getStatus());
+        assertEquals(200, run(forwarded("203.0.113.8")).getStatus());
+    }
+
+    @Test
+    void testEvictIdleDropsRefilledBuckets() throws Exception {
+        run(request("GET", "/api/auth/me", "10.0.0.1"));
+        assertEquals(1, rateLimiter.trackedKeys());
+
+        // A single request on a burst of 2 refills after one interval (10s); nothing is idle yet
+        rateLimiter.evictIdle();
+        assertEquals(1, rateLimiter.trackedKeys());
+
+        RateLimiter instant = new RateLimiter(new SimpleMeterRegistry(), Integer.MAX_VALUE, 1,
+                Integer.MAX_VALUE, 1, Integer.MAX_VALUE, 1, 100);
+        instant.acquire(RouteGroup.READ, "u1");
+        Thread.sleep(1);
+        instant.evictIdle();
+        assertEquals(0, instant.trackedKeys());
+    }
+
+    @Test
+    void testNewKeysAreShedPastMaxKeys() {
+        RateLimiter small = new RateLimiter(registry, 60, 1, 60, 1, 60, 1, 2);
+        small.acquire(RouteGroup.WRITE, "u1");
+        small.acquire(RouteGroup.WRITE, "u2");
+
+        assertTrue(small.acquire(RouteGroup.WRITE, "u3") > 0);
+        assertTrue(small.acquire(RouteGroup.WRITE, "u3") > 0);
+        assertEquals(2, small.trackedKeys());
+        assertEquals(2.0, registry.get("clearview.ratelimit.shed").counter().count());
+        assertTrue(small.acquire(RouteGroup.WRITE, "u1") > 0);
+    }
+
+    @Test
+    void testFullMapWaitsForTheScheduledSweep() throws Exception {
+        RateLimiter instant = new RateLimiter(registry, Integer.MAX_VALUE, 1,
+                Integer.MAX_VALUE, 1, Integer.MAX_VALUE, 1, 1);
+        instant.acquire(RouteGroup.READ, "u1");
+        Thread.sleep(1);
+
+        // u1 is idle, but acquire doesn't sweep; u2 is turned away
+        assertTrue(instant.acquire(RouteGroup.READ, "u2") > 0);
+        assertEquals(1, instant.trackedKeys());
+        assertEquals(1.0, registry.get("clearview.ratelimit.shed").counter().count());
+
+        instant.evictIdle();
+        assertEquals(0, instant.acquire(RouteGroup.READ, "u2"));
+        assertEquals(1, instant.trackedKeys());
+        assertEquals(1.0, registry.get("clearview.ratelimit.shed").counter().count());
+    }
+
+    @Test
+    void testDisabledFilterPassesEverythingThrough() throws Exception {
+        RateLimitFilter disabled = new RateLimitFilter(rateLimiter, false, RateLimitFilter.PRIVATE_NETWORKS);
+        FilterChain chain = mock(FilterChain.class);
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            disabled.doFilter(request("POST", "/api/auth/login", "10.0.0.1"), response, chain);
+            assertEquals(200, response.getStatus());
+        }
+        verify(chain, times(10)).doFilter(any(), any());
+    }
+
+    @Test
+    void testAcquireCostStaysWellUnderAMicrosecond() {
+        RateLimiter generous = new RateLimiter(new SimpleMeterRegistry(), Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 100_000);
+        String[] keys = new String[1_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "u" + i;
+        }
+        for (int i = 0; i < 200_000; i++) {
+            generous.acquire(RouteGroup.READ, keys[i % keys.length]);
+        }
+
+        int iterations = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            generous.acquire(RouteGroup.READ, keys[i % keys.length]);
+        }
+        long nanosPerCall = (System.nanoTime() - start) / iterations;
+
+        // Loose bound so shared CI runners don't flake; typical cost is tens of nanoseconds
+        assertTrue(nanosPerCall < 2_000, "acquire took " + nanosPerCall + "ns");
+    }
+
+    private void signIn(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletRequest forwarded(String clientIp) {
+        MockHttpServletRequest request = request("POST", "/api/auth/login", "10.1.2.3");
+        request.addHeader("X-Forwarded-For", clientIp);
+        return request;
+    }
+}
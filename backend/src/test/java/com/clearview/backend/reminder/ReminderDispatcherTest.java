@@ -0,0 +1,188 @@
+package com.clearview.backend.reminder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReminderDispatcherTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 10, 19, 10, 0);
+
+    private NamedParameterJdbcTemplate jdbc;
+    // Each claim answers with the next batch of claimed rows
+    private final Deque<List<ReminderDispatcher.Claimed>> claims = new ArrayDeque<>();
+    private final List<List<ReminderMessage>> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        doAnswer(invocation -> claims.isEmpty() ? List.of() : claims.poll())
+                .when(jdbc).query(startsWith("UPDATE reminders SET status = 'SENDING'"), any(SqlParameterSource.class),
+                        ArgumentMatchers.<RowMapper<ReminderDispatcher.Claimed>>any());
+    }
+
+    @Test
+    void testPlansTomorrowsVisits() {
+        dispatcher(List.of(sms(false)), 5).plan(MORNING);
+
+        verify(jdbc).update(startsWith("INSERT INTO reminders"), argThat((SqlParameterSource params) ->
+                "2026-10-20".equals(params.getValue("visitDate")) && "2026-10-21".equals(params.getValue("dayAfter"))));
+    }
+
+    @Test
+    void testNothingRunsOutsideSendWindow() {
+        ReminderDispatcher dispatcher = dispatcher(List.of(sms(false)), 5);
+
+        dispatcher.plan(MORNING.withHour(7));
+        dispatcher.dispatch(MORNING.withHour(21), System::nanoTime);
+
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void testSendsClaimedBatchAndRecordsDelivery() {
+        claims.add(List.of(new ReminderDispatcher.Claimed(11, "+441", "Reminder: a", 1),
+                new ReminderDispatcher.Claimed(12, "+442", "Reminder: b", 1)));
+
+        dispatcher(List.of(sms(false)), 5).dispatch(MORNING, System::nanoTime);
+
+        assertEquals(1, sent.size());
+        assertEquals(List.of(11L, 12L), sent.get(0).stream().map(ReminderMessage::id).toList());
+        SqlParameterSource recorded = recorded();
+        assertEquals("SENT", recorded.getValue("s0"));
+        assertEquals("SENT", recorded.getValue("s1"));
+        assertNotNull(recorded.getValue("t0"));
+        assertEquals("log-11", recorded.getValue("p0"));
+    }
+
+    @Test
+    void testFailedBatchRetriesUntilMaxAttempts() {
+        claims.add(List.of(new ReminderDispatcher.Claimed(21, "+441", "Reminder: a", 1),
+                new ReminderDispatcher.Claimed(22, "+442", "Reminder: b", 3)));
+
+        dispatcher(List.of(sms(true)), 3).dispatch(MORNING, System::nanoTime);
+
+        SqlParameterSource recorded = recorded();
+        assertEquals("PENDING", recorded.getValue("s0"));
+        assertEquals("FAILED", recorded.getValue("s1"));
+        assertEquals("provider down", recorded.getValue("e1"));
+        assertNull(recorded.getValue("t0"));
+    }
+
+    @Test
+    void testBackoffDoublesUpToCap() {
+        ReminderDispatcher dispatcher = dispatcher(List.of(), 5);
+
+        assertEquals(60_000L, dispatcher.backoffMs(1));
+        assertEquals(240_000L, dispatcher.backoffMs(3));
+        assertEquals(3_600_000L, dispatcher.backoffMs(12));
+    }
+
+    @Test
+    void testThrottleLimitsClaimsToChannelRate() {
+        ReminderDispatcher.Throttle throttle = new ReminderDispatcher.Throttle(60, 10, 0);
+
+        assertEquals(10, throttle.take(100, 0));
+        assertEquals(0, throttle.take(100, 0));
+        assertEquals(2, throttle.take(100, TimeUnit.SECONDS.toNanos(2)));
+        throttle.giveBack(2);
+        assertEquals(2, throttle.take(100, TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    @Test
+    void testRunSendsSeveralBatchesUpToMaxBatches() {
+        for (int batch = 0; batch < 3; batch++) {
+            claims.add(batch(batch * 100, 100));
+        }
+
+        dispatcher(List.of(sms(false)), 5, 2, 600).dispatch(MORNING, System::nanoTime);
+
+        assertEquals(2, sent.size());
+        assertEquals(1, claims.size());
+    }
+
+    @Test
+    void testThrottleRefillsFromTheClockBetweenBatches() {
+        claims.add(batch(0, 100));
+        claims.add(batch(100, 5));
+        long start = System.nanoTime();
+        long[] clock = { start };
+        ReminderDispatcher dispatcher = dispatcher(List.of(sms(false)), 5, 50, 60);
+
+        // Sending the first batch takes five seconds, which earns five tokens at 60 a minute
+        dispatcher.dispatch(MORNING, () -> {
+            long now = clock[0];
+            clock[0] = start + TimeUnit.SECONDS.toNanos(5);
+            return now;
+        });
+
+        ArgumentCaptor<SqlParameterSource> captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc, times(2)).query(startsWith("UPDATE reminders SET status = 'SENDING'"), captor.capture(),
+                ArgumentMatchers.<RowMapper<ReminderDispatcher.Claimed>>any());
+        assertEquals(100, captor.getAllValues().get(0).getValue("limit"));
+        assertEquals(5, captor.getAllValues().get(1).getValue("limit"));
+    }
+
+    @Test
+    void testTwoSendersForOneChannelAreRejected() {
+        assertThrows(IllegalStateException.class, () -> dispatcher(List.of(sms(false), sms(false)), 5));
+    }
+
+    private static List<ReminderDispatcher.Claimed> batch(int firstId, int size) {
+        List<ReminderDispatcher.Claimed> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(new ReminderDispatcher.Claimed(firstId + i, "+44" + (firstId + i), "Reminder", 1));
+        }
+        return batch;
+    }
+
+    private SqlParameterSource recorded() {
+        ArgumentCaptor<SqlParameterSource> captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).update(startsWith("UPDATE reminders r SET status = v.status"), captor.capture());
+        return captor.getValue();
+    }
+
+    // Records each batch; a failing one throws after recording, like a provider timing out
+    private ReminderSender sms(boolean failing) {
+        LoggingReminderSender delegate = new LoggingReminderSender(ReminderChannel.SMS, null);
+        return new ReminderSender() {
+            @Override
+            public ReminderChannel channel() {
+                return ReminderChannel.SMS;
+            }
+
+            @Override
+            public List<DeliveryResult> send(List<ReminderMessage> batch) {
+                sent.add(batch);
+                if (failing) {
+                    throw new RuntimeException("provider down");
+                }
+                return delegate.send(batch);
+            }
+        };
+    }
+
+    private ReminderDispatcher dispatcher(List<ReminderSender> senders, int maxAttempts) {
+        return dispatcher(senders, maxAttempts, 50, 600);
+    }
+
+    private ReminderDispatcher dispatcher(List<ReminderSender> senders, int maxAttempts, int maxBatches, int smsPerMinute) {
+        return new ReminderDispatcher(jdbc, senders, true, 100, maxBatches, maxAttempts, 60_000L, 300_000L, 9, 20,
+                smsPerMinute, 1200);
+    }
+}
@@ -0,0 +1,55 @@
+package com.clearview.backend.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void testWeeklyExpandsOnlyRequestedRange() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.WEEKLY, 2, LocalDate.of(2020, 1, 6), null);
+
+        List<LocalDate> dates = rule.occurrencesBetween(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+
+        assertFalse(dates.isEmpty());
+        for (LocalDate date : dates) {
+            assertEquals(0, ChronoUnit.DAYS.between(LocalDate.of(2020, 1, 6), date) % 14);
+            assertFalse(date.isBefore(LocalDate.of(2025, 9, 1)));
+            assertFalse(date.isAfter(LocalDate.of(2025, 9, 30)));
+        }
+        assertEquals(2, dates.size());
+    }
+
+    @Test
+    void testMonthlyClampsMonthEndWithoutDrifting() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.MONTHLY, 1, LocalDate.of(2025, 1, 31), null);
+
+        List<LocalDate> dates = rule.occurrencesBetween(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 30));
+
+        assertEquals(List.of(
+                LocalDate.of(2025, 1, 31),
+                LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 4, 30)), dates);
+    }
+
+    @Test
+    void testRespectsStartAndEnd() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.DAILY, 1,
+                LocalDate.of(2025, 9, 10), LocalDate.of(2025, 9, 12));
+
+        assertEquals(3, rule.occurrencesBetween(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30)).size());
+        assertTrue(rule.occurrencesBetween(LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 31)).isEmpty());
+    }
+
+    @Test
+    void testRejectsInvalidInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecurrenceRule(RecurrenceFrequency.WEEKLY, 0, LocalDate.of(2025, 1, 1), null));
+    }
+}
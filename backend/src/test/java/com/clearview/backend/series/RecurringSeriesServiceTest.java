@@ -0,0 +1,212 @@
+package com.clearview.backend.series;
+
+import com.clearview.backend.analytics.dto.RevenueBucketDto;
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.job.JobService;
+import com.clearview.backend.job.archive.ArchivedJob;
+import com.clearview.backend.job.archive.JobArchive;
+import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.series.dto.OccurrenceDto;
+import com.clearview.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RecurringSeriesServiceTest {
+
+    @Mock
+    private RecurringSeriesRepository seriesRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobArchive jobArchive;
+
+    @Mock
+    private SeriesExceptionRepository exceptionRepository;
+
+    @InjectMocks
+    private RecurringSeriesService seriesService;
+
+    private User testUser;
+    private RecurringSeries weekly;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        Customer customer = new Customer();
+        customer.setId(3L);
+        customer.setName("Alice");
+        customer.setAddress("123 Street");
+        customer.setCreatedBy(testUser);
+
+        weekly = new RecurringSeries();
+        weekly.setId(10L);
+        weekly.setCustomer(customer);
+        weekly.setCreatedBy(testUser);
+        weekly.setPrice(40.0);
+        weekly.setFrequency(RecurrenceFrequency.WEEKLY);
+        weekly.setInterval(1);
+        weekly.setStartDate("2025-09-01");
+    }
+
+    @Test
+    void testGetOccurrencesOverlaysMaterializedJobs() {
+        Job paid = new Job();
+        paid.setId(99L);
+        paid.setSeries(weekly);
+        paid.setOccurrenceDate("2025-09-08");
+        paid.setJobDate("2025-09-09");
+        paid.setPrice(45.0);
+        paid.setPaid(true);
+
+        when(seriesRepository.findActiveBetween(1L, "2025-09-01", "2025-09-30")).thenReturn(List.of(weekly));
+        when(jobRepository.findMaterializedOccurrences(List.of(10L), "2025-09-01", "2025-09-30"))
+                .thenReturn(List.of(paid));
+
+        List<OccurrenceDto> occurrences = seriesService.getOccurrences(1L,
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+
+        assertEquals(5, occurrences.size());
+        assertFalse(occurrences.get(0).materialized());
+        assertEquals("2025-09-08", occurrences.get(1).occurrenceDate());
+        assertEquals(99L, occurrences.get(1).jobId());
+        assertEquals("2025-09-09", occurrences.get(1).jobDate());
+        assertTrue(occurrences.get(1).paid());
+    }
+
+    @Test
+    void testGetOccurrencesOverlaysArchivedJobs() {
+        ArchivedJob archived = mock(ArchivedJob.class);
+        when(archived.getId()).thenReturn(77L);
+        when(archived.getSeriesId()).thenReturn(10L);
+        when(archived.getOccurrenceDate()).thenReturn("2025-09-15");
+        when(archived.getJobDate()).thenReturn("2025-09-15");
+        when(seriesRepository.findActiveBetween(1L, "2025-09-01", "2025-09-30")).thenReturn(List.of(weekly));
+        when(jobArchive.getOccurrences(List.of(10L), "2025-09-01", "2025-09-30")).thenReturn(List.of(archived));
+
+        List<OccurrenceDto> occurrences = seriesService.getOccurrences(1L,
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+
+        assertEquals(77L, occurrences.get(2).jobId());
+        assertTrue(occurrences.get(2).materialized());
+        assertTrue(occurrences.get(2).paid());
+        assertFalse(occurrences.get(3).materialized());
+    }
+
+    @Test
+    void testGetOccurrencesLeavesOutDeletedOccurrences() {
+        when(seriesRepository.findActiveBetween(1L, "2025-09-01", "2025-09-30")).thenReturn(List.of(weekly));
+        when(exceptionRepository.findKeysBetween(List.of(10L), "2025-09-01", "2025-09-30"))
+                .thenReturn(List.of("10@2025-09-15"));
+
+        List<OccurrenceDto> occurrences = seriesService.getOccurrences(1L,
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+
+        assertEquals(List.of("2025-09-01", "2025-09-08", "2025-09-22", "2025-09-29"),
+                occurrences.stream().map(OccurrenceDto::occurrenceDate).toList());
+    }
+
+    @Test
+    void testGetOccurrencesRejectsHugeRange() {
+        assertThrows(RuntimeException.class, () -> seriesService.getOccurrences(1L,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2025, 1, 1)));
+        verifyNoInteractions(seriesRepository);
+    }
+
+    @Test
+    void testForecastGroupsByMonth() {
+        when(seriesRepository.findActiveBetween(1L, "2025-09-01", "2025-10-31")).thenReturn(List.of(weekly));
+
+        List<RevenueBucketDto> forecast = seriesService.getForecast(1L,
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 10, 31));
+
+        assertEquals(2, forecast.size());
+        assertEquals("2025-09", forecast.get(0).key());
+        assertEquals(5, forecast.get(0).jobs());
+        assertEquals(200.0, forecast.get(0).unpaid());
+    }
+
+    @Test
+    void testMaterializeCreatesJobOnce() {
+        when(seriesRepository.findByIdAndUser(10L, 1L)).thenReturn(Optional.of(weekly));
+        when(jobRepository.findBySeries_IdAndOccurrenceDate(10L, "2025-09-15")).thenReturn(Optional.empty());
+        when(jobService.createJob(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Job job = seriesService.materialize(10L, LocalDate.of(2025, 9, 15), null, testUser);
+
+        assertEquals("2025-09-15", job.getJobDate());
+        assertEquals("2025-09-15", job.getOccurrenceDate());
+        assertEquals(40.0, job.getPrice());
+        assertSame(weekly, job.getSeries());
+        verify(jobService).createJob(job);
+    }
+
+    @Test
+    void testMaterializeAppliesEditsToExistingJob() {
+        Job existing = new Job();
+        existing.setId(99L);
+        existing.setSeries(weekly);
+        existing.setOccurrenceDate("2025-09-15");
+        existing.setJobDate("2025-09-15");
+        existing.setPrice(40.0);
+        when(seriesRepository.findByIdAndUser(10L, 1L)).thenReturn(Optional.of(weekly));
+        when(jobRepository.findBySeries_IdAndOccurrenceDate(10L, "2025-09-15")).thenReturn(Optional.of(existing));
+        when(jobService.updateJob(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Job job = seriesService.materialize(10L, LocalDate.of(2025, 9, 15),
+                new JobRequest(null, "2025-09-16", 55.0, "Side gate", null, null, null), testUser);
+
+        assertSame(existing, job);
+        assertEquals("2025-09-16", job.getJobDate());
+        assertEquals(55.0, job.getPrice());
+        assertEquals("Side gate", job.getNotes());
+        verify(jobService).updateJob(existing);
+        verify(jobService, never()).createJob(any());
+    }
+
+    @Test
+    void testMaterializeRejectsDeletedOccurrence() {
+        when(seriesRepository.findByIdAndUser(10L, 1L)).thenReturn(Optional.of(weekly));
+        when(jobRepository.findBySeries_IdAndOccurrenceDate(10L, "2025-09-15")).thenReturn(Optional.empty());
+        when(exceptionRepository.existsBySeries_IdAndOccurrenceDate(10L, "2025-09-15")).thenReturn(true);
+
+        assertThrows(RuntimeException.class,
+                () -> seriesService.materialize(10L, LocalDate.of(2025, 9, 15), null, testUser));
+        verify(jobService, never()).createJob(any());
+    }
+
+    @Test
+    void testMaterializeRejectsDateOutsideSeries() {
+        when(seriesRepository.findByIdAndUser(10L, 1L)).thenReturn(Optional.of(weekly));
+
+        assertThrows(RuntimeException.class,
+                () -> seriesService.materialize(10L, LocalDate.of(2025, 9, 16), null, testUser));
+        verify(jobService, never()).createJob(any());
+    }
+}
@@ -5,19 +5,27 @@ import com.clearview.backend.job.JobController;
 import com.clearview.backend.job.JobService;
 import com.clearview.backend.job.dto.JobDto;
 import com.clearview.backend.job.dto.JobRequest;
+import com.clearview.backend.job.dto.MarkPaidRequest;
 import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.invoice.InvoiceService;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +40,9 @@ class JobControllerTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private InvoiceService invoiceService;
+
     @InjectMocks
     private JobController jobController;
 
@@ -79,7 +90,7 @@ class JobControllerTest {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(jobService.getJobsByUser(1L)).thenReturn(List.of(testJob));
 
-        ResponseEntity<List<JobDto>> response = jobController.getAllJobs(testPrincipal);
+        ResponseEntity<List<JobDto>> response = jobController.getAllJobs(false, testPrincipal);
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals(1, response.getBody().size());
@@ -92,7 +103,7 @@ class JobControllerTest {
     void testGetAllJobs_UserNotFound() {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> jobController.getAllJobs(testPrincipal));
+        assertThrows(RuntimeException.class, () -> jobController.getAllJobs(false, testPrincipal));
         verify(userRepository).findByUsername("testuser");
     }
 
@@ -120,8 +131,7 @@ class JobControllerTest {
     @Test
     void testMarkJobAsPaid_Success() {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(jobService.getJobByIdAndUser(1L, 1L)).thenReturn(Optional.of(testJob));
-        when(jobService.updateJob(any(Job.class))).thenReturn(testJob);
+        when(jobService.markPaid(1L, 1L)).thenReturn(Optional.of(testJob));
 
         ResponseEntity<JobDto> response = jobController.markJobAsPaid(1L, testPrincipal);
 
@@ -129,18 +139,94 @@ class JobControllerTest {
         assertTrue(response.getBody().paid());
         assertEquals("INV-1", response.getBody().invoiceNumber());
         verify(userRepository).findByUsername("testuser");
-        verify(jobService).getJobByIdAndUser(1L, 1L);
-        verify(jobService).updateJob(any(Job.class));
+        verify(jobService).markPaid(1L, 1L);
+        verify(invoiceService).scheduleRender(1L);
+    }
+
+    @Test
+    void testPatchJob_NoContentWithETag() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jobService.patchJob(1L, 1L, Map.of("notes", "n"), 3L)).thenReturn(Optional.of(4L));
+
+        ResponseEntity<JobDto> response = jobController.patchJob(1L, Map.of("notes", "n"), "\"3\"", null, testPrincipal);
+
+        assertEquals(204, response.getStatusCode().value());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(jobService, never()).getJobByIdAndUser(any(), any());
+    }
+
+    @Test
+    void testPatchJob_ReturnRepresentation() {
+        testJob.setChangeVersion(4L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jobService.patchJob(1L, 1L, Map.of("notes", "n"), null)).thenReturn(Optional.of(4L));
+        when(jobService.getJobByIdAndUser(1L, 1L)).thenReturn(Optional.of(testJob));
+
+        ResponseEntity<JobDto> response = jobController.patchJob(1L, Map.of("notes", "n"), null,
+                "return=representation", testPrincipal);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(4L, response.getBody().version());
+    }
+
+    @Test
+    void testPatchJob_PreconditionFailed() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jobService.patchJob(1L, 1L, Map.of("notes", "n"), 3L)).thenReturn(Optional.empty());
+
+        ResponseEntity<JobDto> response = jobController.patchJob(1L, Map.of("notes", "n"), "W/\"3\"", null, testPrincipal);
+
+        assertEquals(412, response.getStatusCode().value());
+    }
+
+    @Test
+    void testMarkJobsAsPaid_SchedulesMarkedOnly() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jobService.markPaid(List.of(1L, 2L), 1L)).thenReturn(List.of(2L));
+
+        ResponseEntity<Map<String, Object>> response =
+                jobController.markJobsAsPaid(new MarkPaidRequest(List.of(1L, 2L)), testPrincipal);
+
+        assertEquals(List.of(2L), response.getBody().get("marked"));
+        verify(invoiceService).scheduleRenders(List.of(2L));
+    }
+
+    @Test
+    void testGetInvoice_IfNoneMatchIsNotModified(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("abc123"), "<html></html>");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(invoiceService.getInvoiceFile(1L, 1L)).thenReturn(file);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/jobs/1/invoice");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jobController.getInvoice(1L, testPrincipal, request, response);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"abc123\"", response.getHeader("ETag"));
+
+        request.addHeader("If-None-Match", "\"abc123\"");
+        MockHttpServletResponse revalidated = new MockHttpServletResponse();
+        jobController.getInvoice(1L, testPrincipal, request, revalidated);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
     }
 
     @Test
     void testMarkJobAsPaid_JobNotFound() {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(jobService.getJobByIdAndUser(1L, 1L)).thenReturn(Optional.empty());
+        when(jobService.markPaid(1L, 1L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> jobController.markJobAsPaid(1L, testPrincipal));
         verify(userRepository).findByUsername("testuser");
-        verify(jobService).getJobByIdAndUser(1L, 1L);
+        verifyNoInteractions(invoiceService);
+    }
+
+    @Test
+    void testMarkJobsAsPaid_RejectsEmptyIds() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        assertThrows(RuntimeException.class,
+                () -> jobController.markJobsAsPaid(new MarkPaidRequest(List.of()), testPrincipal));
+        verify(jobService, never()).markPaid(anyList(), any());
     }
 
     @Test
@@ -178,7 +264,7 @@ class JobControllerTest {
       @Test
     void testGetRevenue_Success() {
         JobService jobService = mock(JobService.class);
-        JobController jobController = new JobController(jobService, null);
+        JobController jobController = new JobController(jobService, null, null);
 
         Authentication auth = mock(Authentication.class);
         RevenueDto dto = new RevenueDto("2025-09", 120.0, 80.0);
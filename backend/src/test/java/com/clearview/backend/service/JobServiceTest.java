@@ -1,30 +1,49 @@
 package com.clearview.backend.service;
 
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.analytics.RevenueFilter;
+import com.clearview.backend.analytics.RevenueGroupBy;
 import com.clearview.backend.customer.Customer;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
 import com.clearview.backend.job.Job;
 import com.clearview.backend.job.JobController;
 import com.clearview.backend.job.JobRepository;
 import com.clearview.backend.job.JobService;
+import com.clearview.backend.job.archive.JobArchive;
 import com.clearview.backend.job.dto.JobDto;
 import com.clearview.backend.job.dto.JobRequest;
 import com.clearview.backend.job.dto.RevenueDto;
+import com.clearview.backend.job.invoice.InvoiceNumbering;
+import com.clearview.backend.job.photo.JobPhotoRepository;
+import com.clearview.backend.sync.PatchTarget;
+import com.clearview.backend.sync.RowPatcher;
+import com.clearview.backend.sync.Tombstone;
+import com.clearview.backend.sync.TombstoneRepository;
 import com.clearview.backend.user.User;
 import com.clearview.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +55,27 @@ class JobControllerServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Mock
+    private RowPatcher rowPatcher;
+
+    @Mock
+    private InvoiceNumbering invoiceNumbering;
+
+    @Mock
+    private JobArchive jobArchive;
+
+    @Mock
+    private JobPhotoRepository photoRepository;
+
     @InjectMocks
     private JobService jobService;
 
@@ -117,6 +157,115 @@ class JobControllerServiceTest {
 
         assertEquals(testJob, result);
         verify(jobRepository).save(testJob);
+        verify(revenueAnalyticsService).onJobSaved(testJob);
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_CREATED, 1L, 1L));
+    }
+
+    @Test
+    void testMarkPaid_LocksRowThenNumbersAndPublishes() {
+        when(jobRepository.lockUnpaidIds(List.of(1L), 1L)).thenReturn(List.of(1L));
+        when(invoiceNumbering.reserve(1L, 1)).thenReturn(7L);
+        when(jobRepository.findByIdAndCreatedBy_Id(1L, 1L)).thenReturn(Optional.of(testJob));
+
+        Optional<Job> result = jobService.markPaid(1L, 1L);
+
+        assertEquals(Optional.of(testJob), result);
+        verify(jobRepository).markPaidNumbered(List.of(1L), 7L);
+        verify(jobRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_PAID, 1L, 1L));
+    }
+
+    @Test
+    void testPatchJob_UpdatesOnlyGivenFields() {
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("notes", "Back gate"), 1L, 1L, 4L)).thenReturn(Optional.of(5L));
+
+        Optional<Long> version = jobService.patchJob(1L, 1L, Map.of("notes", "Back gate"), 4L);
+
+        assertEquals(Optional.of(5L), version);
+        verify(jobRepository, never()).findById(any());
+        verify(revenueAnalyticsService, never()).invalidate(any());
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, 1L));
+    }
+
+    @Test
+    void testPatchJob_PriceChangeInvalidatesRevenue() {
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("price", 120.0), 1L, 1L, null)).thenReturn(Optional.of(5L));
+
+        jobService.patchJob(1L, 1L, Map.of("price", 120.0), null);
+
+        verify(revenueAnalyticsService).invalidate(1L);
+    }
+
+    @Test
+    void testPatchJob_SnapshotReadBeforeCommitIsDropped() {
+        RevenueAnalyticsService revenue = new RevenueAnalyticsService(jobRepository, jobArchive, Duration.ofMinutes(30));
+        JobService service = new JobService(jobRepository, userRepository, revenue, eventPublisher,
+                tombstoneRepository, rowPatcher, invoiceNumbering, jobArchive, photoRepository);
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("price", 120.0), 1L, 1L, null)).thenReturn(Optional.of(5L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.patchJob(1L, 1L, Map.of("price", 120.0), null);
+            revenue.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        revenue.getBreakdown(1L, RevenueGroupBy.MONTH, RevenueFilter.none());
+
+        verify(jobRepository, times(2)).findRevenueFactsByUserId(1L);
+    }
+
+    @Test
+    void testPatchJob_StaleVersion() {
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("notes", "x"), 1L, 1L, 4L)).thenReturn(Optional.empty());
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 1L, 1L)).thenReturn(Optional.of(6L));
+
+        assertTrue(jobService.patchJob(1L, 1L, Map.of("notes", "x"), 4L).isEmpty());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testPatchJob_NotFound() {
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("notes", "x"), 1L, 2L, null)).thenReturn(Optional.empty());
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 1L, 2L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> jobService.patchJob(1L, 2L, Map.of("notes", "x"), null));
+    }
+
+    @Test
+    void testMarkPaid_AlreadyPaidKeepsNumber() {
+        testJob.setPaid(true);
+        testJob.setInvoiceNumber("INV-3");
+        when(jobRepository.lockUnpaidIds(List.of(1L), 1L)).thenReturn(List.of());
+        when(jobRepository.findByIdAndCreatedBy_Id(1L, 1L)).thenReturn(Optional.of(testJob));
+
+        Job result = jobService.markPaid(1L, 1L).orElseThrow();
+
+        assertEquals("INV-3", result.getInvoiceNumber());
+        verifyNoInteractions(invoiceNumbering, eventPublisher);
+    }
+
+    @Test
+    void testBulkMarkPaid_OneBlockOneUpdate() {
+        when(jobRepository.lockUnpaidIds(List.of(4L, 2L, 9L), 1L)).thenReturn(List.of(2L, 4L));
+        when(invoiceNumbering.reserve(1L, 2)).thenReturn(11L);
+
+        List<Long> marked = jobService.markPaid(List.of(4L, 2L, 9L), 1L);
+
+        assertEquals(List.of(2L, 4L), marked);
+        verify(jobRepository).markPaidNumbered(List.of(2L, 4L), 11L);
+        verify(revenueAnalyticsService).invalidate(1L);
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_PAID, 1L, 2L));
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_PAID, 1L, 4L));
+    }
+
+    @Test
+    void testBulkMarkPaid_NothingUnpaid() {
+        when(jobRepository.lockUnpaidIds(List.of(4L), 1L)).thenReturn(List.of());
+
+        assertTrue(jobService.markPaid(List.of(4L), 1L).isEmpty());
+        verifyNoInteractions(invoiceNumbering);
     }
 
     @Test
@@ -171,11 +320,19 @@ class JobControllerServiceTest {
 
     @Test
     void testDeleteJob_Success() {
+        when(jobRepository.findOwnerIdById(1L)).thenReturn(Optional.of(1L));
         doNothing().when(jobRepository).deleteById(1L);
 
         jobService.deleteJob(1L);
 
-        verify(jobRepository).deleteById(1L);
+        InOrder inOrder = inOrder(jobRepository);
+        inOrder.verify(jobRepository).recordSeriesException(1L, 1L);
+        inOrder.verify(jobRepository).deleteById(1L);
+        verify(revenueAnalyticsService).onJobDeleted(1L, 1L);
+        verify(photoRepository).deleteByJob(1L, 1L);
+        verify(tombstoneRepository).save(argThat((Tombstone t) ->
+                t.getUserId().equals(1L) && Tombstone.JOB.equals(t.getEntityType()) && t.getEntityId().equals(1L)));
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_DELETED, 1L, 1L));
     }
 
     @Test
@@ -183,7 +340,11 @@ class JobControllerServiceTest {
         // Arrange
         JobRepository jobRepository = mock(JobRepository.class);
         UserRepository userRepository = mock(UserRepository.class);
-        JobService jobService = new JobService(jobRepository, userRepository);
+        JobService jobService = new JobService(jobRepository, userRepository,
+                mock(RevenueAnalyticsService.class), mock(ApplicationEventPublisher.class),
+                mock(TombstoneRepository.class), mock(RowPatcher.class),
+                mock(InvoiceNumbering.class), mock(JobArchive.class),
+                mock(JobPhotoRepository.class));
 
         Authentication auth = mock(Authentication.class);
         when(auth.getName()).thenReturn("hayden");
@@ -209,4 +370,21 @@ class JobControllerServiceTest {
         verify(jobRepository).getRevenueByUserId(1L);
     }
 
+    @Test
+    void testGetRevenueForUser_AddsArchivedMonths() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jobRepository.getRevenueByUserId(1L)).thenReturn(List.of(
+                new RevenueDto("2023-10", 40.0, 10.0), new RevenueDto("2025-09", 100.0, 50.0)));
+        when(jobArchive.getRevenueByMonth(1L)).thenReturn(List.of(
+                new RevenueDto("2023-09", 300.0, 0.0), new RevenueDto("2023-10", 60.0, 0.0)));
+
+        List<RevenueDto> result = jobService.getRevenueForUser(auth);
+
+        assertEquals(List.of("2023-09", "2023-10", "2025-09"), result.stream().map(RevenueDto::getMonth).toList());
+        assertEquals(100.0, result.get(1).getPaid());
+        assertEquals(10.0, result.get(1).getUnpaid());
+    }
+
 }
\ No newline at end of file
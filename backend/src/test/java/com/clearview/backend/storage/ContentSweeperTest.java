@@ -0,0 +1,91 @@
+package com.clearview.backend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentSweeperTest {
+
+    private static final FileTime TWO_DAYS_AGO = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testDeletesOnlyOldUnreferencedBlobs() throws Exception {
+        ContentStore store = new ContentStore(dir.toString());
+        String kept = store.put(bytes("photo"));
+        String orphan = store.put(bytes("old invoice"));
+        String fresh = store.put(bytes("uploading"));
+        Files.setLastModifiedTime(store.resolve(kept), TWO_DAYS_AGO);
+        Files.setLastModifiedTime(store.resolve(orphan), TWO_DAYS_AGO);
+        Path other = Files.createDirectories(dir.resolve("audit-wal")).resolve("segment-1");
+        Files.writeString(other, "wal");
+        Files.setLastModifiedTime(other, TWO_DAYS_AGO);
+
+        new ContentSweeper(store, referencing(kept), true, Duration.ofDays(1)).sweep();
+
+        assertTrue(store.exists(kept));
+        assertFalse(store.exists(orphan));
+        assertTrue(store.exists(fresh));
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void testReusedBlobStartsItsGracePeriodOver() throws Exception {
+        ContentStore store = new ContentStore(dir.toString());
+        String hash = store.put(bytes("same bytes"));
+        Files.setLastModifiedTime(store.resolve(hash), TWO_DAYS_AGO);
+
+        // A new row is about to reference the existing blob
+        assertEquals(hash, store.put(bytes("same bytes")));
+        new ContentSweeper(store, referencing(), true, Duration.ofDays(1)).sweep();
+
+        assertTrue(store.exists(hash));
+    }
+
+    @Test
+    void testDisabledSweeperTouchesNothing() throws Exception {
+        ContentStore store = new ContentStore(dir.toString());
+        String hash = store.put(bytes("orphan"));
+        Files.setLastModifiedTime(store.resolve(hash), TWO_DAYS_AGO);
+        NamedParameterJdbcTemplate jdbc = referencing();
+
+        new ContentSweeper(store, jdbc, false, Duration.ofDays(1)).sweep();
+
+        assertTrue(store.exists(hash));
+        verifyNoInteractions(jdbc);
+    }
+
+    private static NamedParameterJdbcTemplate referencing(String... hashes) {
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (String hash : List.of(hashes)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(hash);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+        return jdbc;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
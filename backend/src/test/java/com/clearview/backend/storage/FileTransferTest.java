@@ -0,0 +1,93 @@
+package com.clearview.backend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTransferTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSendsWholeFileWithoutRange() throws Exception {
+        MockHttpServletResponse response = send(null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void testServesSingleRanges() throws Exception {
+        MockHttpServletResponse middle = send("bytes=2-5", null);
+        assertEquals(206, middle.getStatus());
+        assertEquals("bytes 2-5/10", middle.getHeader("Content-Range"));
+        assertEquals("2345", middle.getContentAsString());
+        assertEquals(4, middle.getContentLength());
+
+        assertEquals("789", send("bytes=7-", null).getContentAsString());
+        assertEquals("89", send("bytes=-2", null).getContentAsString());
+        assertEquals("89", send("bytes=8-100", null).getContentAsString());
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = send("bytes=10-", null);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testMultipleRangesOrStaleIfRangeGetWholeFile() throws Exception {
+        assertEquals(200, send("bytes=0-1,4-5", null).getStatus());
+        assertEquals(200, send("bytes=0-1", "\"other\"").getStatus());
+        assertEquals(206, send("bytes=0-1", "\"v1\"").getStatus());
+    }
+
+    @Test
+    void testHandsRangeToSendfile() throws Exception {
+        Path file = file();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.setAttribute(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=3-4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FileTransfer.send(file, "text/plain", request, response);
+
+        assertEquals(3L, request.getAttribute(FileTransfer.SENDFILE_START));
+        assertEquals(5L, request.getAttribute(FileTransfer.SENDFILE_END));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse send(String range, String ifRange) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        if (ifRange != null) {
+            request.addHeader("If-Range", ifRange);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setHeader("ETag", "\"v1\"");
+        FileTransfer.send(file(), "text/plain", request, response);
+        return response;
+    }
+
+    private Path file() throws Exception {
+        Path file = dir.resolve("digits.txt");
+        if (!Files.exists(file)) {
+            Files.writeString(file, "0123456789", StandardCharsets.US_ASCII);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,80 @@
+package com.clearview.backend.sync;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RowPatcherTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private RowPatcher rowPatcher;
+
+    @BeforeEach
+    void setup() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        rowPatcher = new RowPatcher(jdbc);
+    }
+
+    @Test
+    void testPatchIsOneVersionCheckedUpdate() {
+        when(jdbc.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class))).thenReturn(List.of(8L));
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("price", 120);
+        patch.put("notes", null);
+
+        Optional<Long> version = rowPatcher.patch(PatchTarget.JOB, patch, 3L, 1L, 7L);
+
+        assertEquals(Optional.of(8L), version);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).queryForList(sql.capture(), params.capture(), eq(Long.class));
+
+        assertTrue(sql.getValue().startsWith("UPDATE jobs SET "));
+        assertTrue(sql.getValue().contains("price = :"));
+        assertTrue(sql.getValue().contains("notes = :"));
+        assertTrue(sql.getValue().endsWith(
+                "WHERE id = :id AND user_id = :userId AND change_version = :baseVersion RETURNING change_version"));
+        MapSqlParameterSource bound = (MapSqlParameterSource) params.getValue();
+        assertTrue(bound.getValues().containsValue(120.0));
+        assertTrue(bound.getValues().containsValue(null));
+        assertEquals(7L, bound.getValue("baseVersion"));
+    }
+
+    @Test
+    void testRejectsUnknownInternalAndMistypedFields() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rowPatcher.patch(PatchTarget.JOB, Map.of("createdBy", 2), 1L, 1L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> rowPatcher.patch(PatchTarget.JOB, Map.of("paid", true), 1L, 1L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> rowPatcher.patch(PatchTarget.JOB, Map.of("price", "lots"), 1L, 1L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> rowPatcher.patch(PatchTarget.CUSTOMER, Map.of(), 1L, 1L, null));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void testPatchWithoutBaseVersionIsUnconditional() {
+        when(jdbc.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class))).thenReturn(List.of());
+
+        Optional<Long> version = rowPatcher.patch(PatchTarget.CUSTOMER, Map.of("phone", "555"), 3L, 1L, null);
+
+        assertTrue(version.isEmpty());
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).queryForList(contains("phone = :v0"), params.capture(), eq(Long.class));
+        assertEquals(Types.VARCHAR, params.getValue().getSqlType("v0"));
+        assertFalse(params.getValue().hasValue("baseVersion"));
+    }
+}
@@ -0,0 +1,237 @@
+package com.clearview.backend.sync;
+
+import com.clearview.backend.analytics.RevenueAnalyticsService;
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.customer.CustomerService;
+import com.clearview.backend.events.ChangeEvent;
+import com.clearview.backend.events.ChangeType;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobService;
+import com.clearview.backend.sync.dto.Mutation;
+import com.clearview.backend.sync.dto.MutationResult;
+import com.clearview.backend.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncPushServiceTest {
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Mock
+    private RowPatcher rowPatcher;
+
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AppliedMutationRepository appliedMutations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+    private SyncPushService pushService;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        pushService = new SyncPushService(jobService, customerService, customerRepository, tombstoneRepository,
+                rowPatcher, revenueAnalyticsService, eventPublisher, new ObjectMapper(), appliedMutations,
+                transactionManager, Duration.ofDays(30));
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void testCreatesResolveClientIdsWithinBatch() {
+        when(customerService.createCustomer(any(Customer.class))).thenAnswer(inv -> {
+            Customer c = inv.getArgument(0);
+            c.setId(50L);
+            c.setChangeVersion(100L);
+            return c;
+        });
+        Customer reference = new Customer();
+        reference.setId(50L);
+        when(customerRepository.getReferenceById(50L)).thenReturn(reference);
+        when(jobService.createJob(any(Job.class))).thenAnswer(inv -> {
+            Job j = inv.getArgument(0);
+            j.setId(70L);
+            j.setChangeVersion(101L);
+            return j;
+        });
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("notes", "side gate"), 70L, 1L, 101L))
+                .thenReturn(Optional.of(102L));
+
+        List<MutationResult> results = pushService.push(List.of(
+                new Mutation("c1", "customer.create", null, null, null, Map.of("name", "Alice")),
+                new Mutation("j1", "job.create", null, null, null,
+                        Map.of("customerRef", "c1", "price", 80, "jobDate", "2025-10-01")),
+                new Mutation("j1-edit", "job.update", null, "j1", 101L, Map.of("notes", "side gate"))), user);
+
+        assertEquals(List.of("applied", "applied", "applied"), results.stream().map(MutationResult::status).toList());
+        assertEquals(50L, results.get(0).id());
+        assertEquals(70L, results.get(1).id());
+        assertEquals(102L, results.get(2).version());
+        verify(jobService).createJob(argThat(j -> j.getCustomer() == reference && j.getPrice() == 80.0));
+        verify(customerRepository, never()).existsByIdAndCreatedById(any(), any());
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_UPDATED, 1L, 70L));
+        verify(revenueAnalyticsService, times(1)).invalidate(1L);
+    }
+
+    @Test
+    void testVersionMismatchIsConflictAndBatchContinues() {
+        when(rowPatcher.patch(eq(PatchTarget.JOB), any(), eq(5L), eq(1L), eq(3L))).thenReturn(Optional.empty());
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 5L, 1L)).thenReturn(Optional.of(9L));
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 6L, 1L)).thenReturn(Optional.of(8L), Optional.of(10L));
+        when(rowPatcher.delete(PatchTarget.JOB, 7L, 1L, null)).thenReturn(false);
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 7L, 1L)).thenReturn(Optional.empty());
+
+        List<MutationResult> results = pushService.push(List.of(
+                new Mutation("a", "job.update", 5L, null, 3L, Map.of("price", 90.0)),
+                new Mutation("b", "job.paid", 6L, null, 8L, null),
+                new Mutation("c", "job.delete", 7L, null, null, null)), user);
+
+        assertEquals("conflict", results.get(0).status());
+        assertEquals(9L, results.get(0).version());
+        assertEquals("applied", results.get(1).status());
+        assertEquals(10L, results.get(1).version());
+        assertEquals("not_found", results.get(2).status());
+        verify(jobService).markPaid(List.of(6L), 1L);
+        verify(tombstoneRepository, never()).save(any());
+        // The conflict and the failed delete (with its series exception) are rolled back; the payment commits
+        verify(transactionStatus, times(2)).setRollbackOnly();
+    }
+
+    @Test
+    void testPayingStaleJobIsConflict() {
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 6L, 1L)).thenReturn(Optional.of(9L));
+
+        List<MutationResult> results = pushService.push(
+                List.of(new Mutation("p", "job.paid", 6L, null, 8L, null)), user);
+
+        assertEquals(MutationResult.conflict("p", 6L, 9L), results.get(0));
+        verify(jobService, never()).markPaid(anyList(), any());
+    }
+
+    @Test
+    void testDeleteWritesTombstone() {
+        when(rowPatcher.delete(PatchTarget.JOB, 7L, 1L, 4L)).thenReturn(true);
+        when(tombstoneRepository.save(any(Tombstone.class))).thenAnswer(inv -> {
+            Tombstone t = inv.getArgument(0);
+            t.setChangeVersion(11L);
+            return t;
+        });
+
+        List<MutationResult> results = pushService.push(
+                List.of(new Mutation("d", "job.delete", 7L, null, 4L, null)), user);
+
+        assertEquals(MutationResult.applied("d", 7L, 11L), results.get(0));
+        verify(jobService).recordSeriesException(7L, 1L);
+        verify(transactionStatus, never()).setRollbackOnly();
+        verify(revenueAnalyticsService).onJobDeleted(1L, 7L);
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.JOB_DELETED, 1L, 7L));
+    }
+
+    @Test
+    void testInvalidMutationsAreReportedNotThrown() {
+        when(customerRepository.existsByIdAndCreatedById(99L, 1L)).thenReturn(false);
+
+        List<MutationResult> results = pushService.push(List.of(
+                new Mutation("x", "job.teleport", 1L, null, null, null),
+                new Mutation("y", "job.update", null, "never-created", null, Map.of("notes", "n")),
+                new Mutation("z", "job.create", null, null, null, Map.of("customerId", 99))), user);
+
+        assertEquals(List.of("invalid", "invalid", "invalid"), results.stream().map(MutationResult::status).toList());
+        verifyNoInteractions(jobService, rowPatcher);
+        verify(revenueAnalyticsService, never()).invalidate(any());
+    }
+
+    @Test
+    void testResentMutationReplaysEarlierResult() {
+        when(appliedMutations.findByUserIdAndClientIdIn(1L, List.of("j1", "j1-edit")))
+                .thenReturn(List.of(new AppliedMutation(1L, "j1", 70L, 101L, 0L)));
+        when(rowPatcher.patch(PatchTarget.JOB, Map.of("notes", "n"), 70L, 1L, 101L)).thenReturn(Optional.of(102L));
+
+        List<MutationResult> results = pushService.push(List.of(
+                new Mutation("j1", "job.create", null, null, null, Map.of("price", 80)),
+                new Mutation("j1-edit", "job.update", null, "j1", 101L, Map.of("notes", "n"))), user);
+
+        assertEquals(MutationResult.applied("j1", 70L, 101L), results.get(0));
+        assertEquals(MutationResult.applied("j1-edit", 70L, 102L), results.get(1));
+        verify(jobService, never()).createJob(any());
+        verify(appliedMutations).saveAndFlush(argThat(m -> m.getClientId().equals("j1-edit") && m.getVersion() == 102L));
+    }
+
+    @Test
+    void testConcurrentResendReplaysTheWinner() {
+        when(rowPatcher.currentVersion(PatchTarget.JOB, 6L, 1L)).thenReturn(Optional.of(8L));
+        when(appliedMutations.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_applied_mutations_user_client"));
+        when(appliedMutations.findByUserIdAndClientId(1L, "p"))
+                .thenReturn(Optional.of(new AppliedMutation(1L, "p", 6L, 9L, 0L)));
+
+        List<MutationResult> results = pushService.push(
+                List.of(new Mutation("p", "job.paid", 6L, null, null, null)), user);
+
+        assertEquals(MutationResult.applied("p", 6L, 9L), results.get(0));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testDatabaseFailureIsReportedPerMutation() {
+        when(rowPatcher.patch(eq(PatchTarget.JOB), any(), eq(5L), eq(1L), any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+        when(rowPatcher.patch(eq(PatchTarget.JOB), any(), eq(6L), eq(1L), any())).thenReturn(Optional.of(12L));
+
+        List<MutationResult> results = pushService.push(List.of(
+                new Mutation("a", "job.update", 5L, null, null, Map.of("notes", "n")),
+                new Mutation("b", "job.update", 6L, null, null, Map.of("notes", "n"))), user);
+
+        assertEquals("error", results.get(0).status());
+        assertEquals(MutationResult.applied("b", 6L, 12L), results.get(1));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testRejectsOversizedBatch() {
+        List<Mutation> mutations = new ArrayList<>(Collections.nCopies(SyncPushService.MAX_MUTATIONS + 1,
+                new Mutation("n", "job.paid", 1L, null, null, null)));
+
+        assertThrows(RuntimeException.class, () -> pushService.push(mutations, user));
+        verifyNoInteractions(rowPatcher, jobService);
+    }
+}
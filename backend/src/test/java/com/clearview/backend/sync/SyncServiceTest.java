@@ -0,0 +1,165 @@
+package com.clearview.backend.sync;
+
+import com.clearview.backend.customer.Customer;
+import com.clearview.backend.customer.CustomerRepository;
+import com.clearview.backend.job.Job;
+import com.clearview.backend.job.JobRepository;
+import com.clearview.backend.sync.dto.SyncResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceTest {
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testPageTakesLowestPositionsAcrossTables() {
+        when(tombstoneRepository.visibleTxidHorizon()).thenReturn(500L);
+        when(jobRepository.findChangedSince(eq(1L), eq(100L), eq(10L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(job(1L, 100L, 11L), job(2L, 101L, 14L), job(3L, 102L, 15L)));
+        when(customerRepository.findChangedSince(eq(1L), eq(100L), eq(10L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(customer(7L, 100L, 12L)));
+        when(tombstoneRepository.findChangedSince(eq(1L), eq(100L), eq(10L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(tombstone(9L, 101L, 13L), tombstone(8L, 103L, 16L)));
+
+        SyncResponse page = syncService.getChanges(1L, "100-10", 2);
+
+        assertEquals(List.of(1L), page.jobs().stream().map(j -> j.id()).toList());
+        assertEquals(List.of(7L), page.customers().stream().map(c -> c.id()).toList());
+        assertTrue(page.deleted().isEmpty());
+        assertEquals("100-12", page.cursor());
+        assertTrue(page.hasMore());
+        verify(jobRepository).findChangedSince(1L, 100L, 10L, 500L, Pageable.ofSize(3));
+    }
+
+    @Test
+    void testLastPageReturnsEverythingAndNoMore() {
+        when(tombstoneRepository.visibleTxidHorizon()).thenReturn(500L);
+        when(jobRepository.findChangedSince(eq(1L), eq(0L), eq(0L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(job(1L, 90L, 3L)));
+        when(customerRepository.findChangedSince(eq(1L), eq(0L), eq(0L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(tombstoneRepository.findChangedSince(eq(1L), eq(0L), eq(0L), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(tombstone(4L, 91L, 5L)));
+
+        SyncResponse page = syncService.getChanges(1L, null, 500);
+
+        assertEquals(1, page.jobs().size());
+        assertEquals(Tombstone.JOB, page.deleted().get(0).type());
+        assertEquals("91-5", page.cursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void testNoChangesKeepsCursor() {
+        when(jobRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(customerRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        SyncResponse page = syncService.getChanges(1L, "42-7", 100);
+
+        assertEquals("42-7", page.cursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void testWriteCommittedAfterAHigherVersionIsNotSkipped() {
+        // Transaction 100 takes version 11 and is still open when transaction 101 takes 12 and commits
+        List<Job> committed = new ArrayList<>();
+        AtomicLong horizon = new AtomicLong(100L);
+        when(tombstoneRepository.visibleTxidHorizon()).thenAnswer(invocation -> horizon.get());
+        when(jobRepository.findChangedSince(eq(1L), any(), any(), any(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterTxid = invocation.getArgument(1);
+            long afterVersion = invocation.getArgument(2);
+            long below = invocation.getArgument(3);
+            return committed.stream()
+                    .filter(j -> j.getChangeTxid() < below)
+                    .filter(j -> j.getChangeTxid() > afterTxid
+                            || (j.getChangeTxid() == afterTxid && j.getChangeVersion() > afterVersion))
+                    .sorted(Comparator.comparing(Job::getChangeTxid).thenComparing(Job::getChangeVersion))
+                    .toList();
+        });
+        when(customerRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        committed.add(job(2L, 101L, 12L));
+        SyncResponse first = syncService.getChanges(1L, null, 100);
+        assertTrue(first.jobs().isEmpty());
+
+        committed.add(job(1L, 100L, 11L));
+        horizon.set(102L);
+        SyncResponse second = syncService.getChanges(1L, first.cursor(), 100);
+
+        assertEquals(List.of(1L, 2L), second.jobs().stream().map(j -> j.id()).toList());
+        assertEquals("101-12", second.cursor());
+    }
+
+    @Test
+    void testLegacyNumericCursorRestartsSync() {
+        when(jobRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(customerRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedSince(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        SyncResponse page = syncService.getChanges(1L, "42", 100);
+
+        assertEquals("0-0", page.cursor());
+        verify(jobRepository).findChangedSince(eq(1L), eq(0L), eq(0L), any(), any());
+    }
+
+    @Test
+    void testInvalidCursor() {
+        assertThrows(RuntimeException.class, () -> syncService.getChanges(1L, "abc", 100));
+        assertThrows(RuntimeException.class, () -> syncService.getChanges(1L, "1-x", 100));
+        verifyNoInteractions(jobRepository);
+    }
+
+    private static Job job(Long id, Long txid, Long version) {
+        Job job = new Job();
+        job.setId(id);
+        job.setChangeTxid(txid);
+        job.setChangeVersion(version);
+        return job;
+    }
+
+    private static Customer customer(Long id, Long txid, Long version) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setChangeTxid(txid);
+        customer.setChangeVersion(version);
+        return customer;
+    }
+
+    private static Tombstone tombstone(Long jobId, Long txid, Long version) {
+        Tombstone tombstone = new Tombstone(1L, Tombstone.JOB, jobId);
+        tombstone.setChangeTxid(txid);
+        tombstone.setChangeVersion(version);
+        return tombstone;
+    }
+}
@@ -0,0 +1,170 @@
+package com.clearview.backend.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWorkerTest {
+
+    private final InMemoryTaskStore store = new InMemoryTaskStore();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TaskWorker worker;
+
+    @AfterEach
+    void teardown() {
+        if (worker != null) {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    void testCompletedTaskIsRemoved() {
+        AtomicInteger handled = new AtomicInteger();
+        TaskHandler handler = handler("render", payload -> handled.addAndGet(Integer.parseInt(payload)), 2);
+        worker = worker(handler, new MockEnvironment());
+        store.enqueue("render", List.of("5"), 0);
+
+        List<ClaimedTask> claimed = store.claim("render", 10, 2, 0, 1000);
+        worker.run(handler, claimed.get(0));
+
+        assertEquals(5, handled.get());
+        assertTrue(store.depth().isEmpty());
+        assertEquals(1, registry.get("clearview.tasks.run").tag("outcome", "ok").timer().count());
+    }
+
+    @Test
+    void testFailedTaskRetriesWithBackoffThenFails() {
+        TaskHandler handler = handler("render", payload -> {
+            throw new IllegalStateException("renderer down");
+        }, 2);
+        worker = worker(handler, new MockEnvironment());
+        store.enqueue("render", List.of("1"), 0);
+
+        long before = System.currentTimeMillis();
+        worker.run(handler, store.claim("render", 10, 2, 0, 1000).get(0));
+        assertEquals(List.of(new TaskDepth("render", TaskState.PENDING, 1)), store.depth());
+        assertTrue(store.claim("render", 10, 2, before, before + 1000).isEmpty());
+
+        long later = before + worker.backoffMs(1) + 60_000;
+        ClaimedTask second = store.claim("render", 10, 2, later, later + 1000).get(0);
+        assertEquals(2, second.attempts());
+        worker.run(handler, second);
+
+        assertTrue(store.depth().isEmpty());
+        assertTrue(store.claim("render", 10, 2, Long.MAX_VALUE - 1, Long.MAX_VALUE).isEmpty());
+        assertEquals(1, registry.get("clearview.tasks.run").tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void testLapsedClaimIsTakenOverAndItsStaleResultIgnored() {
+        store.enqueue("render", List.of("1"), 0);
+        ClaimedTask first = store.claim("render", 10, 5, 0, 100).get(0);
+
+        assertTrue(store.claim("render", 10, 5, 50, 150).isEmpty());
+        ClaimedTask second = store.claim("render", 10, 5, 100, 200).get(0);
+        assertEquals(first.id(), second.id());
+
+        store.complete(first);
+        assertEquals(List.of(new TaskDepth("render", TaskState.RUNNING, 1)), store.depth());
+        store.complete(second);
+        assertTrue(store.depth().isEmpty());
+    }
+
+    @Test
+    void testAbandonedLastAttemptIsFailed() {
+        store.enqueue("render", List.of("1"), 0);
+        store.claim("render", 10, 1, 0, 100);
+
+        assertEquals(0, store.failAbandoned("render", 1, 99));
+        assertEquals(1, store.failAbandoned("render", 1, 100));
+        assertTrue(store.depth().isEmpty());
+    }
+
+    @Test
+    void testPollHonoursPerTypeConcurrency() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        TaskHandler handler = handler("import", payload -> {
+            release.await(5, TimeUnit.SECONDS);
+            done.countDown();
+        }, 5);
+        MockEnvironment environment = new MockEnvironment().withProperty("clearview.tasks.concurrency.import", "2");
+        worker = worker(handler, environment);
+        store.enqueue("import", List.of("a", "b", "c"), 0);
+
+        long now = System.currentTimeMillis();
+        assertEquals(2, worker.pollOnce(now));
+        assertEquals(0, worker.pollOnce(now));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        int started = 0;
+        while (started < 1 && System.currentTimeMillis() < deadline) {
+            started += worker.pollOnce(System.currentTimeMillis());
+            Thread.sleep(10);
+        }
+        assertEquals(1, started);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSweepRefreshesDepthGauges() {
+        worker = worker(handler("render", payload -> { }, 5), new MockEnvironment());
+        store.enqueue("render", List.of("1", "2", "3"), 0);
+        store.claim("render", 1, 5, System.currentTimeMillis(), System.currentTimeMillis() + 60_000);
+
+        worker.sweep();
+
+        assertEquals(2.0, registry.get("clearview.tasks.depth").tag("type", "render").tag("state", "pending").gauge().value());
+        assertEquals(1.0, registry.get("clearview.tasks.depth").tag("type", "render").tag("state", "running").gauge().value());
+    }
+
+    @Test
+    void testTwoHandlersForOneTypeAreRejected() {
+        TaskHandler handler = handler("render", payload -> { }, 5);
+
+        assertThrows(IllegalStateException.class, () -> new TaskWorker(store, List.of(handler, handler), registry,
+                new MockEnvironment(), true, 4, 10, 1000));
+    }
+
+    interface Body {
+        void run(String payload) throws Exception;
+    }
+
+    private static TaskHandler handler(String type, Body body, int maxAttempts) {
+        return new TaskHandler() {
+            @Override
+            public String type() {
+                return type;
+            }
+
+            @Override
+            public void handle(String payload) throws Exception {
+                body.run(payload);
+            }
+
+            @Override
+            public int maxAttempts() {
+                return maxAttempts;
+            }
+
+            @Override
+            public Duration visibilityTimeout() {
+                return Duration.ofMinutes(1);
+            }
+        };
+    }
+
+    private TaskWorker worker(TaskHandler handler, MockEnvironment environment) {
+        return new TaskWorker(store, List.of(handler), registry, environment, true, 4, 10, 1000);
+    }
+}